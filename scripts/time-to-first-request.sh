@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+#
+# Measures the time from process start to the first successful GET /api/device/{id}.
+#
+# Usage: scripts/time-to-first-request.sh <device id> <command starting the application...>
+# Example:
+#   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/devices \
+#   scripts/time-to-first-request.sh 1 java -jar target/devicesAPI-0.0.1-SNAPSHOT.jar
+#
+set -euo pipefail
+
+DEVICE_ID=$1
+shift
+URL="${BASE_URL:-http://localhost:8080}/api/device/${DEVICE_ID}"
+
+start=$(date +%s%N)
+"$@" > "${LOG_FILE:-/dev/null}" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true' EXIT
+
+until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" = "200" ]; do
+  if ! kill -0 $pid 2>/dev/null; then
+    echo "Application exited before serving ${URL}" >&2
+    exit 1
+  fi
+  sleep 0.01
+done
+end=$(date +%s%N)
+
+echo "Time to first successful GET ${URL}: $(( (end - start) / 1000000 )) ms"
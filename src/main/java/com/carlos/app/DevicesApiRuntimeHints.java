@@ -0,0 +1,45 @@
+package com.carlos.app;
+
+import com.carlos.devices.DeviceCsvController;
+import com.carlos.devices.DeviceRestController;
+import com.carlos.devices.DeviceSyncController;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChange;
+import com.carlos.devices.domain.model.DeviceChanges;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ErrorDTO;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reachability metadata for the native image that Spring AOT cannot infer on its own.
+ * <p>
+ * - The API records are registered for Jackson binding, including their record accessors and the
+ *   {@code @JsonFormat} / {@code @JsonIgnore} annotations, since some of them only appear as generic
+ *   collection elements or inside a {@code ResponseEntity}.
+ * - The Liquibase changelog and its changesets are resources loaded by path at runtime.
+ * - The OpenAPI annotations on the controller methods are read reflectively by springdoc.
+ * <p>
+ * Liquibase itself and the PostgreSQL driver are covered by the GraalVM reachability metadata repository.
+ */
+public class DevicesApiRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Device.class, CreateUpdateDevice.class, ErrorDTO.class, DeviceState.class,
+                DeviceChanges.class, DeviceChange.class);
+
+        hints.resources()
+                .registerPattern("db/changelog/*.xml")
+                .registerPattern("db/changelog/changesets/*.sql");
+
+        hints.reflection()
+                .registerType(DeviceRestController.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(DeviceCsvController.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(DeviceSyncController.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
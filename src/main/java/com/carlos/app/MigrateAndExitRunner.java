@@ -0,0 +1,35 @@
+package com.carlos.app;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application once the context started when {@code devices.migrate-and-exit=true}.
+ * <p>
+ * Liquibase runs while the context starts, so by the time this runner is called the migrations were
+ * applied. Used through the {@code migrate} profile as a one-off job before rolling out serving pods,
+ * which then start with {@code spring.liquibase.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "devices.migrate-and-exit", havingValue = "true")
+public class MigrateAndExitRunner implements ApplicationRunner {
+
+    private final Logger logger = LoggerFactory.getLogger(MigrateAndExitRunner.class);
+    private final ConfigurableApplicationContext context;
+
+    public MigrateAndExitRunner(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        logger.info("Database migrations applied, exiting");
+        System.exit(SpringApplication.exit(context));
+    }
+}
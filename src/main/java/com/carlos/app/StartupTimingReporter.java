@@ -0,0 +1,59 @@
+package com.carlos.app;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Logs where the startup time went once the application is ready.
+ * <p>
+ * Reports the time spent in the JVM before Spring started, the total time to ready, and the slowest
+ * steps recorded by the {@link BufferingApplicationStartup} (bean instantiations, configuration class
+ * processing, Liquibase, web server start...). The full timeline is available at {@code /actuator/startup}.
+ */
+@Component
+public class StartupTimingReporter {
+
+    private static final int SLOWEST_STEPS = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(StartupTimingReporter.class);
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!logger.isInfoEnabled()
+                || !(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        Duration beforeSpring = Duration.ofMillis(timeline.getStartTime().toEpochMilli() - jvmStart);
+
+        String slowestSteps = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_STEPS)
+                .map(step -> String.format("  %6d ms %s%s", step.getDuration().toMillis(), step.getStartupStep().getName(), tags(step.getStartupStep())))
+                .collect(Collectors.joining(System.lineSeparator()));
+
+        logger.info("Startup took {} ms to ready ({} ms in the JVM before Spring started, {} ms in Spring), slowest steps:{}{}",
+                System.currentTimeMillis() - jvmStart, beforeSpring.toMillis(), event.getTimeTaken().toMillis(),
+                System.lineSeparator(), slowestSteps);
+    }
+
+    private static String tags(StartupStep step) {
+        String tags = StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", "));
+        return tags.isEmpty() ? "" : " [" + tags + "]";
+    }
+}
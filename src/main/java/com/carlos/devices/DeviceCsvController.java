@@ -0,0 +1,138 @@
+package com.carlos.devices;
+
+import com.carlos.devices.domain.DeviceExporter;
+import com.carlos.devices.domain.DeviceImporter;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ImportResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller for bulk transfers of devices as CSV files.
+ * <p>
+ * Both directions use the PostgreSQL {@code COPY} protocol and stream the rows, so the memory use
+ * does not depend on the number of devices. The endpoints are not registered with sharded storage.
+ */
+@ConditionalOnExpression("!${devices.sharding.enabled:false}")
+@Tag(name = "Devices API", description = "Device related resources")
+@RestController
+@RequestMapping("/api/device")
+public class DeviceCsvController {
+
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    static final String IMPORTED_ROWS_HEADER = "X-Imported-Rows";
+    static final String REJECTED_ROWS_HEADER = "X-Rejected-Rows";
+
+    private final DeviceExporter deviceExporter;
+    private final DeviceImporter deviceImporter;
+
+    public DeviceCsvController(DeviceExporter deviceExporter, DeviceImporter deviceImporter) {
+        this.deviceExporter = deviceExporter;
+        this.deviceImporter = deviceImporter;
+    }
+
+    /**
+     * Streams the devices as a CSV file, optionally filtered by brand and state.
+     * The rows are copied from the database to the response without being loaded in memory.
+     *
+     * @param format the export format, only {@code csv} is supported
+     * @param gzip   whether the file is gzip compressed
+     * @param brand  only export the devices of this brand
+     * @param state  only export the devices in this state
+     * @return the CSV file, with the columns id, name, brand, state and creation_time
+     */
+    @Operation(summary = "Export devices as a CSV file")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/gzip")}),
+            @ApiResponse(responseCode = "400", description = "Invalid request",
+                    content = @Content)})
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip,
+                                                        @RequestParam(required = false) String brand,
+                                                        @RequestParam(required = false) DeviceState state) {
+        if (!"csv".equalsIgnoreCase(format)) {
+            throw new BusinessRulesException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 64 * 1024);
+                deviceExporter.exportCsv(brand, state, compressed);
+                compressed.finish();
+            } else {
+                deviceExporter.exportCsv(brand, state, output);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(gzip ? "devices.csv.gz" : "devices.csv").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Creates devices from a CSV file sent as the request body, with a {@code name,brand} header line.
+     * The file is streamed to the database, and the rejected rows report is spooled to a temporary file
+     * until the import transaction commits, so neither is held in memory.
+     *
+     * @param csv the CSV file
+     * @return the rejected rows report, with the columns record, name, brand and reason, and the number of
+     * imported and rejected rows in the {@code X-Imported-Rows} and {@code X-Rejected-Rows} headers
+     */
+    @Operation(summary = "Import devices from a CSV file")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK, the body is the rejected rows report",
+                    content = @Content(mediaType = "text/csv")),
+            @ApiResponse(responseCode = "400", description = "Malformed CSV file",
+                    content = @Content)})
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<StreamingResponseBody> importCsv(InputStream csv) throws IOException {
+        Path report = Files.createTempFile("rejected-devices", ".csv");
+        ImportResult result;
+        try (OutputStream output = Files.newOutputStream(report)) {
+            result = deviceImporter.importCsv(csv, output);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(report);
+            throw e;
+        }
+        StreamingResponseBody body = output -> {
+            try {
+                Files.copy(report, output);
+            } finally {
+                Files.deleteIfExists(report);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("rejected-devices.csv").build().toString())
+                .header(IMPORTED_ROWS_HEADER, String.valueOf(result.imported()))
+                .header(REJECTED_ROWS_HEADER, String.valueOf(result.rejected()))
+                .body(body);
+    }
+}
@@ -0,0 +1,69 @@
+package com.carlos.devices;
+
+import com.carlos.devices.domain.DevicePager;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for reading the devices page by page.
+ * With sharded storage the list endpoints merge every device of every shard into one response; a page
+ * only reads as many devices from each shard as it returns. The endpoint is only registered with sharded
+ * storage.
+ */
+@ConditionalOnProperty(name = "devices.sharding.enabled", havingValue = "true")
+@Tag(name = "Devices API", description = "Device related resources")
+@RestController
+@RequestMapping("/api/device")
+public class DevicePageController {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final DevicePager devicePager;
+
+    public DevicePageController(DevicePager devicePager) {
+        this.devicePager = devicePager;
+    }
+
+    /**
+     * Retrieves a page of devices ordered by id, optionally filtered by brand or state.
+     *
+     * @param after the id of the last device of the previous page, {@code 0} returns the first page
+     * @param limit the maximum number of devices returned, at most 1000
+     * @param brand only return the devices of this brand
+     * @param state only return the devices in this state, ignored with a brand
+     * @return the devices; a page with fewer devices than the limit is the last one
+     */
+    @Operation(summary = "Get a page of devices ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = {@Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = Device.class)))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request",
+                    content = @Content)})
+    @GetMapping("/page")
+    public List<Device> page(@Parameter(description = "Id of the last device of the previous page") @RequestParam(defaultValue = "0") int after,
+                             @RequestParam(defaultValue = "100") int limit,
+                             @RequestParam(required = false) String brand,
+                             @RequestParam(required = false) DeviceState state) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessRulesException("Limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        return devicePager.findPage(brand, state, after, limit);
+    }
+}
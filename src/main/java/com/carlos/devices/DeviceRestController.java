@@ -1,8 +1,13 @@
 package com.carlos.devices;
 
+import com.carlos.devices.cache.CachedResponse;
+import com.carlos.devices.cache.DeviceBytesCache;
+import com.carlos.devices.cache.ResponseBytesCache;
 import com.carlos.devices.domain.DeviceService;
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
 import com.carlos.devices.domain.model.DeviceState;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,16 +20,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * REST controller for managing devices.
  * Provides endpoints for performing CRUD operations on devices.
+ * <p>
+ * The brand and state lists are served through the {@link ResponseBytesCache} with {@code ETag} and
+ * {@code Last-Modified} headers, so clients can revalidate them with conditional requests and get a
+ * 304 when the list did not change. A single device is written from the bytes kept by the
+ * {@link DeviceBytesCache} with an {@code ETag}.
  */
 @OpenAPIDefinition(
         info = @Info(
@@ -38,18 +52,25 @@ import java.util.List;
 @RequestMapping("/api/device")
 public class DeviceRestController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final Logger logger = LoggerFactory.getLogger(DeviceRestController.class);
     private final DeviceService deviceService;
+    private final ResponseBytesCache responseCache;
+    private final DeviceBytesCache deviceCache;
 
-    public DeviceRestController(DeviceService deviceService) {
+    public DeviceRestController(DeviceService deviceService, ResponseBytesCache responseCache,
+                                DeviceBytesCache deviceCache) {
         this.deviceService = deviceService;
+        this.responseCache = responseCache;
+        this.deviceCache = deviceCache;
     }
 
     /**
      * Retrieves a device by its unique identifier.
      *
      * @param id the unique identifier of the device to be retrieved
-     * @return the {@code Device} instance corresponding to the provided identifier
+     * @return the JSON of the device corresponding to the provided identifier, with its {@code ETag}
      */
     @Operation(summary = "Get a device by its id")
     @ApiResponses(value = {
@@ -61,8 +82,14 @@ public class DeviceRestController {
             @ApiResponse(responseCode = "404", description = "Device not found",
                     content = @Content)})
     @GetMapping("/{id}")
-    public Device findById(@PathVariable Integer id) {
-        return deviceService.findById(id);
+    public ResponseEntity<byte[]> findById(@PathVariable Integer id) {
+        CachedResponse response = deviceCache.get(deviceService.findById(id));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(response.body().length)
+                .cacheControl(CacheControl.noCache())
+                .eTag(response.etag())
+                .body(response.body());
     }
 
     /**
@@ -79,8 +106,9 @@ public class DeviceRestController {
             @ApiResponse(responseCode = "400", description = "Invalid request",
                     content = @Content)})
     @GetMapping("brand/{brand}")
-    public Collection<Device> findByBrand(@PathVariable String brand) {
-        return deviceService.findAllByBrand(brand);
+    public ResponseEntity<byte[]> findByBrand(@PathVariable String brand) {
+        return cached(responseCache.get("brand/" + brand, Set.of(ResponseBytesCache.brandTag(brand)),
+                () -> deviceService.findAllByBrand(brand)));
     }
 
     /**
@@ -97,8 +125,9 @@ public class DeviceRestController {
             @ApiResponse(responseCode = "400", description = "Invalid request",
                     content = @Content)})
     @GetMapping("/state/{state}")
-    public Collection<Device> findByState(@PathVariable DeviceState state) {
-        return deviceService.findAllByDeviceState(state);
+    public ResponseEntity<byte[]> findByState(@PathVariable DeviceState state) {
+        return cached(responseCache.get("state/" + state.name(), Set.of(ResponseBytesCache.stateTag(state)),
+                () -> deviceService.findAllByDeviceState(state)));
     }
 
     /**
@@ -137,22 +166,32 @@ public class DeviceRestController {
 
     /**
      * Updates the details of an existing device identified by its unique identifier.
+     * <p>
+     * With the write-behind buffer enabled, a state-only update sent with {@code Prefer: respond-async}
+     * is answered with a 202 as soon as it is buffered, before it is written.
      *
      * @param id     the unique identifier of the device to be updated
      * @param device the {@code Device} object containing the updated details of the device
-     * @return the updated {@code Device} instance
+     * @param prefer the {@code Prefer} request header
+     * @return an empty response, 204 once the update is written or 202 when it was buffered
      */
     @Operation(summary = "Update a device brand or/and name")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Updated",
                     content = @Content),
+            @ApiResponse(responseCode = "202", description = "State update accepted, written in the next batch",
+                    content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid request",
                     content = @Content)})
     @PutMapping("/{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Device update(@PathVariable Integer id, @RequestBody CreateUpdateDevice device) {
-        deviceService.updateDevice(id, device);
-        return null;
+    public ResponseEntity<Void> update(@PathVariable Integer id, @RequestBody CreateUpdateDevice device,
+                                       @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (prefer == null || !prefer.contains(RESPOND_ASYNC)) {
+            deviceService.updateDevice(id, device);
+        } else if (deviceService.updateDeviceDeferred(id, device)) {
+            return ResponseEntity.accepted().header("Preference-Applied", RESPOND_ASYNC).build();
+        }
+        return ResponseEntity.noContent().build();
     }
 
     /**
@@ -174,5 +213,40 @@ public class DeviceRestController {
         deviceService.deleteDevice(id);
     }
 
+    /**
+     * Executes a list of creations, updates and deletions in a single transaction, with one JDBC batch per
+     * kind of operation.
+     *
+     * @param request the operations, and whether one invalid operation rolls the batch back
+     * @return the outcome of every operation, with a 200 when the batch was committed and a 422 when an
+     * atomic batch was rolled back
+     */
+    @Operation(summary = "Create, update and delete devices in one transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch committed, see the outcome of every operation",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DeviceBatchResult.class))}),
+            @ApiResponse(responseCode = "422", description = "Atomic batch rolled back, see the failed operations",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DeviceBatchResult.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request",
+                    content = @Content)})
+    @PostMapping("/batch")
+    public ResponseEntity<DeviceBatchResult> batch(@RequestBody DeviceBatchRequest request) {
+        DeviceBatchResult result = deviceService.executeBatch(request);
+        return ResponseEntity.status(result.committed() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+    }
 
+    /**
+     * Builds the response of a cached list. Spring answers a conditional GET matching the
+     * {@code ETag} or {@code Last-Modified} validators with a 304 and no body.
+     */
+    private static ResponseEntity<byte[]> cached(CachedResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(response.etag())
+                .lastModified(response.lastModified())
+                .body(response.body());
+    }
 }
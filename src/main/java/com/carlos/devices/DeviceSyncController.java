@@ -0,0 +1,62 @@
+package com.carlos.devices;
+
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.DeviceChanges;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for clients keeping a local copy of the devices in sync.
+ * Instead of downloading every device again, a client asks for the changes since the watermark of its
+ * previous sync. The endpoint is not registered with sharded storage, which does not track changes.
+ */
+@ConditionalOnExpression("!${devices.sharding.enabled:false}")
+@Tag(name = "Devices API", description = "Device related resources")
+@RestController
+@RequestMapping("/api/device")
+public class DeviceSyncController {
+
+    static final int MAX_LIMIT = 10_000;
+
+    private final DeviceChangeFeed deviceChangeFeed;
+
+    public DeviceSyncController(DeviceChangeFeed deviceChangeFeed) {
+        this.deviceChangeFeed = deviceChangeFeed;
+    }
+
+    /**
+     * Retrieves the devices created, updated and deleted since a watermark.
+     *
+     * @param since the watermark returned by the previous call, {@code 0-0} returns every device
+     * @param limit the maximum number of changes returned, at most 10000
+     * @return the changes in change order and the watermark for the next call; when {@code hasMore} is
+     * true the next page can be requested right away
+     */
+    @Operation(summary = "Get the device changes since a watermark")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = DeviceChanges.class))}),
+            @ApiResponse(responseCode = "400", description = "Invalid request",
+                    content = @Content)})
+    @GetMapping("/changes")
+    public DeviceChanges changes(@Parameter(description = "Watermark of the previous sync") @RequestParam(defaultValue = "0-0") String since,
+                                 @RequestParam(defaultValue = "1000") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BusinessRulesException("Limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+        return deviceChangeFeed.changesSince(ChangeWatermark.parse(since), limit);
+    }
+}
@@ -0,0 +1,53 @@
+package com.carlos.devices.admission;
+
+import com.carlos.devices.domain.useCases.DeviceServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts an {@link AdmissionControlledDeviceService} in front of the {@link DeviceServiceImpl} when
+ * {@code devices.admission.enabled=true}.
+ * <p>
+ * Unless configured, the highest limits of the two bulkheads split the connection pool: the reads get
+ * {@value #READ_SHARE_PERCENT}% of it and the writes the rest, each at least one.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "devices.admission.enabled", havingValue = "true")
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration {
+
+    static final int READ_SHARE_PERCENT = 70;
+
+    @Bean
+    public AimdLimiter readLimiter(AdmissionProperties properties,
+                                   @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        return new AimdLimiter("reads", properties.reads().withDefaultMaxLimit(readSlots(poolSize)));
+    }
+
+    @Bean
+    public AimdLimiter writeLimiter(AdmissionProperties properties,
+                                    @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        return new AimdLimiter("writes", properties.writes().withDefaultMaxLimit(writeSlots(poolSize)));
+    }
+
+    static int readSlots(int poolSize) {
+        return Math.max(1, Math.round(poolSize * READ_SHARE_PERCENT / 100f));
+    }
+
+    static int writeSlots(int poolSize) {
+        return Math.max(1, poolSize - readSlots(poolSize));
+    }
+
+    @Bean
+    @Primary
+    public AdmissionControlledDeviceService admissionControlledDeviceService(DeviceServiceImpl deviceService,
+                                                                             AimdLimiter readLimiter,
+                                                                             AimdLimiter writeLimiter,
+                                                                             AdmissionProperties properties) {
+        return new AdmissionControlledDeviceService(deviceService, readLimiter, writeLimiter, properties.retryAfter());
+    }
+}
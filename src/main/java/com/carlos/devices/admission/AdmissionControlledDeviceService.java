@@ -0,0 +1,118 @@
+package com.carlos.devices.admission;
+
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import com.carlos.devices.domain.exception.ServiceOverloadedException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.useCases.DeviceServiceImpl;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * {@link DeviceService} decorator that runs the lookups and the writes behind two separate
+ * {@link AimdLimiter}s, so a burst of slow writes cannot take the connections the lookups need and the
+ * other way around.
+ * <p>
+ * When a limiter has no slot left the call fails fast with a {@link ServiceOverloadedException} instead of
+ * waiting for a pooled connection. Calls that fail with a connection or query timeout count as dropped and
+ * lower the limit; business and not found errors are regular outcomes, and so are the calls cancelled at the
+ * deadline of their request, which are judged by their duration like any other call.
+ * <p>
+ * A state update left in the write-behind buffer gives its write slot back once it is queued: the buffer
+ * writes the batch on a connection of its own, so the update waits for the commit without holding a slot.
+ */
+public class AdmissionControlledDeviceService implements DeviceService {
+
+    private final DeviceService delegate;
+    private final AimdLimiter reads;
+    private final AimdLimiter writes;
+    private final Duration retryAfter;
+
+    public AdmissionControlledDeviceService(DeviceService delegate, AimdLimiter reads, AimdLimiter writes,
+                                            Duration retryAfter) {
+        this.delegate = delegate;
+        this.reads = reads;
+        this.writes = writes;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public Device findById(Integer id) {
+        return admit(reads, () -> delegate.findById(id));
+    }
+
+    @Override
+    public Collection<Device> findAllByBrand(String brand) {
+        return admit(reads, () -> delegate.findAllByBrand(brand));
+    }
+
+    @Override
+    public Collection<Device> findAllByDeviceState(DeviceState state) {
+        return admit(reads, () -> delegate.findAllByDeviceState(state));
+    }
+
+    @Override
+    public Collection<Device> findAll() {
+        return admit(reads, delegate::findAll);
+    }
+
+    @Override
+    public Device createDevice(CreateUpdateDevice device) {
+        return admit(writes, () -> delegate.createDevice(device));
+    }
+
+    @Override
+    public void updateDevice(Integer id, CreateUpdateDevice device) {
+        DeviceServiceImpl.awaitCommit(submitUpdate(id, device));
+    }
+
+    @Override
+    public boolean updateDeviceDeferred(Integer id, CreateUpdateDevice device) {
+        return admit(writes, () -> delegate.updateDeviceDeferred(id, device));
+    }
+
+    @Override
+    public CompletableFuture<Void> submitUpdate(Integer id, CreateUpdateDevice device) {
+        return admit(writes, () -> delegate.submitUpdate(id, device));
+    }
+
+    @Override
+    public void deleteDevice(Integer id) {
+        admit(writes, () -> {
+            delegate.deleteDevice(id);
+            return null;
+        });
+    }
+
+    @Override
+    public DeviceBatchResult executeBatch(DeviceBatchRequest request) {
+        return admit(writes, () -> delegate.executeBatch(request));
+    }
+
+    private <T> T admit(AimdLimiter limiter, Supplier<T> call) {
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException("Too many concurrent " + limiter.name() + ", retry later", retryAfter);
+        }
+        long start = System.nanoTime();
+        boolean dropped = false;
+        try {
+            return call.get();
+        } catch (DeadlineExceededException e) {
+            throw e;
+        } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+            dropped = true;
+            throw e;
+        } finally {
+            limiter.release(start, System.nanoTime(), dropped);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.carlos.devices.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the admission control in front of the device use cases.
+ *
+ * @param enabled    whether the use cases are run behind the read and write concurrency limits
+ * @param retryAfter the delay suggested to the clients of the rejected requests in the {@code Retry-After} header
+ * @param reads      the limits of the lookups
+ * @param writes     the limits of the creations, updates and deletions
+ */
+@ConfigurationProperties(prefix = "devices.admission")
+public record AdmissionProperties(@DefaultValue("false") boolean enabled,
+                                  @DefaultValue("1s") Duration retryAfter,
+                                  @DefaultValue Bulkhead reads,
+                                  @DefaultValue Bulkhead writes) {
+
+    /**
+     * Limits of one bulkhead. The concurrency limit starts at {@code initialLimit} and moves between
+     * {@code minLimit} and {@code maxLimit}: it grows by one for about every {@code limit} fast calls made
+     * while the bulkhead is busy, and is multiplied by {@code backoffRatio} when a call is slower than
+     * {@code latencyThreshold} or fails to reach the database.
+     *
+     * @param initialLimit     the concurrency limit at startup
+     * @param minLimit         the lowest the limit goes under overload
+     * @param maxLimit         the highest the limit goes; by default a share of the connection pool, 70% for
+     *                         the reads and the rest for the writes, so that both bulkheads together keep the
+     *                         requests out of the pool wait queue
+     * @param latencyThreshold the call duration above which the database is considered overloaded
+     * @param backoffRatio     the factor applied to the limit on overload
+     * @param maxQueue         how many requests can wait for a slot when the limit is reached, the rest are
+     *                         rejected immediately
+     * @param maxQueueWait     how long a request waits for a slot before it is rejected
+     */
+    public record Bulkhead(@DefaultValue("5") int initialLimit,
+                           @DefaultValue("1") int minLimit,
+                           Integer maxLimit,
+                           @DefaultValue("250ms") Duration latencyThreshold,
+                           @DefaultValue("0.9") double backoffRatio,
+                           @DefaultValue("20") int maxQueue,
+                           @DefaultValue("50ms") Duration maxQueueWait) {
+
+        /**
+         * Returns these limits, with the given highest limit when none is configured.
+         */
+        public Bulkhead withDefaultMaxLimit(int defaultMaxLimit) {
+            return maxLimit != null ? this : new Bulkhead(initialLimit, minLimit, defaultMaxLimit, latencyThreshold,
+                    backoffRatio, maxQueue, maxQueueWait);
+        }
+    }
+}
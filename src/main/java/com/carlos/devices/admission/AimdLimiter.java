@@ -0,0 +1,194 @@
+package com.carlos.devices.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter whose limit follows the latency of the calls it admits, with additive increase and
+ * multiplicative decrease (AIMD).
+ * <p>
+ * A call is admitted while fewer calls than the limit are in flight. Otherwise it waits in a bounded
+ * queue for at most {@link AdmissionProperties.Bulkhead#maxQueueWait()}, and is rejected when the queue
+ * is full or the wait times out.
+ * <p>
+ * A call that completes under {@link AdmissionProperties.Bulkhead#latencyThreshold()} while at least half
+ * of the limit is in use adds {@code 1 / limit} to the limit, so the limit grows by about one per round
+ * of calls. A slower or dropped call multiplies the limit by {@link AdmissionProperties.Bulkhead#backoffRatio()}.
+ * The calls admitted before a decrease all saw the same overloaded database, so only the first of them
+ * decreases the limit, the others are ignored.
+ * <p>
+ * The limit, the calls in flight, the queued calls and the rejections are published as
+ * {@code devices.admission.*} metrics tagged with the bulkhead name.
+ */
+public class AimdLimiter implements MeterBinder {
+
+    private final String name;
+    private final AdmissionProperties.Bulkhead settings;
+    private final long latencyThresholdNanos;
+    private final long maxQueueWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    public AimdLimiter(String name, AdmissionProperties.Bulkhead settings) {
+        this.name = name;
+        this.settings = settings;
+        this.latencyThresholdNanos = settings.latencyThreshold().toNanos();
+        this.maxQueueWaitNanos = settings.maxQueueWait().toNanos();
+        this.limit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Admits a call, waiting in the queue if the limit is reached.
+     *
+     * @return whether the call was admitted, in which case {@link #release} must be called once it completes
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= settings.maxQueue()) {
+                rejectedQueueFull.increment();
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = maxQueueWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejectedTimeout.increment();
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedTimeout.increment();
+                return false;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Completes an admitted call and adjusts the limit with its outcome.
+     *
+     * @param startNanos the {@link System#nanoTime()} when the call started
+     * @param endNanos   the {@link System#nanoTime()} when the call completed
+     * @param dropped    whether the call failed because the database could not serve it in time
+     */
+    public void release(long startNanos, long endNanos, boolean dropped) {
+        lock.lock();
+        try {
+            if (dropped || endNanos - startNanos > latencyThresholdNanos) {
+                if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+                    decreased = true;
+                    lastDecreaseNanos = endNanos;
+                }
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(settings.maxLimit(), limit + 1 / limit);
+            }
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the limit back to its initial value, forgetting what the calls admitted so far taught it, such as
+     * the synthetic ones of the startup warmup. The calls in flight and the rejection counts are kept.
+     */
+    public void reset() {
+        lock.lock();
+        try {
+            limit = Math.clamp(settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+            decreased = false;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long rejected() {
+        return rejectedQueueFull.sum() + rejectedTimeout.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("devices.admission.limit", this, AimdLimiter::limit)
+                .description("Current concurrency limit")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("devices.admission.in.flight", this, AimdLimiter::inFlight)
+                .description("Calls currently admitted")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("devices.admission.queued", this, AimdLimiter::queued)
+                .description("Calls waiting for a slot")
+                .tag("bulkhead", name)
+                .register(registry);
+        FunctionCounter.builder("devices.admission.rejected", rejectedQueueFull, LongAdder::sum)
+                .description("Calls rejected by admission control")
+                .tags("bulkhead", name, "reason", "queue_full")
+                .register(registry);
+        FunctionCounter.builder("devices.admission.rejected", rejectedTimeout, LongAdder::sum)
+                .description("Calls rejected by admission control")
+                .tags("bulkhead", name, "reason", "timeout")
+                .register(registry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.carlos.devices.cache;
+
+import org.springframework.util.DigestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A serialized response body and its validators.
+ *
+ * @param body         the JSON response body
+ * @param etag         the strong entity tag of the body, quoted
+ * @param lastModified when the body was produced, at second precision like the {@code Last-Modified} header
+ */
+public record CachedResponse(byte[] body, String etag, Instant lastModified) {
+
+    /**
+     * Tags the body with the MD5 digest of its bytes.
+     */
+    static CachedResponse of(byte[] body, Instant producedAt) {
+        return new CachedResponse(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"",
+                producedAt.truncatedTo(ChronoUnit.SECONDS));
+    }
+}
@@ -0,0 +1,189 @@
+package com.carlos.devices.cache;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DevicesImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of the JSON bytes of single devices, so that a device read again is not serialized again.
+ * <p>
+ * An entry is keyed by the device id and holds the device it was serialized from, which is its version: a
+ * lookup passes the device just read, and the cached bytes are only used if they were serialized from an
+ * equal device. A stale entry can therefore never be served, whatever the order of reads and writes; a
+ * committed {@link DeviceChangedEvent} removes the entry of the device so it does not take memory until it
+ * is read again, and an import clears the cache.
+ * <p>
+ * The entries are spread over {@value #SEGMENTS} segments by id, each a small LRU map behind its own lock,
+ * so concurrent lookups of different devices rarely wait for each other. The cache holds at most
+ * {@link DeviceCacheProperties#maxEntries()} devices. Hits and misses, the entries and their size are
+ * published as {@code devices.device.cache.*} metrics.
+ */
+@Component
+@EnableConfigurationProperties(DeviceCacheProperties.class)
+public class DeviceBytesCache implements MeterBinder {
+
+    static final int SEGMENTS = 16;
+
+    private record Entry(Device device, CachedResponse response) {
+    }
+
+    private static final class Segment extends LinkedHashMap<Integer, Entry> {
+
+        private final int maxEntries;
+        private long bytes;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            if (size() <= maxEntries) {
+                return false;
+            }
+            bytes -= eldest.getValue().response().body().length;
+            return true;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Clock clock;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public DeviceBytesCache(ObjectMapper objectMapper, DeviceCacheProperties properties) {
+        this(objectMapper, properties, Clock.systemUTC());
+    }
+
+    DeviceBytesCache(ObjectMapper objectMapper, DeviceCacheProperties properties, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.enabled = properties.enabled();
+        this.clock = clock;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(Math.max(properties.maxEntries() / SEGMENTS, 1));
+        }
+    }
+
+    /**
+     * Returns the serialized device, from the cache when it holds the bytes of an equal device.
+     *
+     * @param device the device just read
+     */
+    public CachedResponse get(Device device) {
+        if (!enabled) {
+            return serialize(device);
+        }
+        Segment segment = segment(device.id());
+        synchronized (segment) {
+            Entry entry = segment.get(device.id());
+            if (entry != null && entry.device().equals(device)) {
+                hits.increment();
+                return entry.response();
+            }
+        }
+        misses.increment();
+        CachedResponse response = serialize(device);
+        synchronized (segment) {
+            Entry previous = segment.put(device.id(), new Entry(device, response));
+            segment.bytes += response.body().length - (previous == null ? 0 : previous.response().body().length);
+        }
+        return response;
+    }
+
+    public void invalidate(int id) {
+        Segment segment = segment(id);
+        synchronized (segment) {
+            Entry removed = segment.remove(id);
+            if (removed != null) {
+                segment.bytes -= removed.response().body().length;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+                segment.bytes = 0;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        Device device = event.after() != null ? event.after() : event.before();
+        if (device != null) {
+            invalidate(device.id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesImported(DevicesImportedEvent event) {
+        invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("devices.device.cache.gets", hits, LongAdder::sum).tag("result", "hit")
+                .description("Device lookups answered with cached bytes").register(registry);
+        FunctionCounter.builder("devices.device.cache.gets", misses, LongAdder::sum).tag("result", "miss")
+                .description("Device lookups serialized again").register(registry);
+        Gauge.builder("devices.device.cache.entries", this, DeviceBytesCache::entryCount)
+                .description("Number of cached devices").register(registry);
+        Gauge.builder("devices.device.cache.size", this, DeviceBytesCache::size).baseUnit("bytes")
+                .description("Size of the cached device bodies").register(registry);
+    }
+
+    int entryCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.size();
+            }
+        }
+        return count;
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.bytes;
+            }
+        }
+        return size;
+    }
+
+    private Segment segment(int id) {
+        return segments[Math.floorMod(id, SEGMENTS)];
+    }
+
+    private CachedResponse serialize(Device device) {
+        try {
+            return CachedResponse.of(objectMapper.writeValueAsBytes(device), clock.instant());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
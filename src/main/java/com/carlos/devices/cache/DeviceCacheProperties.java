@@ -0,0 +1,16 @@
+package com.carlos.devices.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the cache of the serialized single-device responses.
+ *
+ * @param enabled    whether the serialized devices are kept in memory, when disabled every lookup is serialized
+ *                   again but still carries an ETag for revalidation
+ * @param maxEntries how many devices are kept at most, the least recently read are evicted beyond it
+ */
+@ConfigurationProperties(prefix = "devices.device-cache")
+public record DeviceCacheProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("100000") int maxEntries) {
+}
@@ -0,0 +1,302 @@
+package com.carlos.devices.cache;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.DevicesImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of serialized device list responses, keyed by query and tagged with the brands and
+ * states the query depends on.
+ * <p>
+ * A committed {@link DeviceChangedEvent} invalidates the tags of the device brand and state before and
+ * after the change, so a device moving from {@code AVAILABLE} to {@code IN_USE} invalidates both state
+ * lists and the list of its brand, and leaves every other list cached. An import invalidates everything.
+ * <p>
+ * Every invalidation takes the next number of a sequence, and the tag remembers it while loads that
+ * started before it are still running. A response is only stored if none of its tags was invalidated
+ * after its load started, so a load that read the database before a write committed cannot put the stale
+ * response back after the invalidation. Once no load started before it, the invalidation is forgotten, so
+ * that the brands seen only once do not stay in memory.
+ * <p>
+ * The cache is bounded by {@link ResponseCacheProperties#maxSize()} and evicts the least recently used
+ * responses. Every response counts for its body plus a fixed {@link #ENTRY_OVERHEAD_BYTES} for its key,
+ * tags and map entries, so that many small responses, such as the empty lists of unknown brands, are
+ * bounded as well. Hits, misses, evictions, the hit ratio and the cached size are published as
+ * {@code devices.response.cache.*} metrics.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseBytesCache implements MeterBinder {
+
+    /**
+     * Estimated memory taken by a cached response besides its body: the key, the tag set, the cached
+     * response and the map entries that index it.
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private record Entry(CachedResponse response, Set<String> tags, Instant expires) {
+
+        long weight() {
+            return ENTRY_OVERHEAD_BYTES + response.body().length;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final ResponseCacheProperties properties;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    // The sequence number of the last invalidation of each tag, only kept while a load started before it
+    private final Map<String, Long> invalidations = new HashMap<>();
+    // The sequence numbers the loads in flight started at, with the number of loads for each
+    private final TreeMap<Long, Integer> loading = new TreeMap<>();
+    private long sequence;
+    private long epoch;
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public ResponseBytesCache(ObjectMapper objectMapper, ResponseCacheProperties properties) {
+        this(objectMapper, properties, Clock.systemUTC());
+    }
+
+    ResponseBytesCache(ObjectMapper objectMapper, ResponseCacheProperties properties, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.enabled = properties.enabled();
+        this.maxBytes = properties.maxSize().toBytes();
+        this.clock = clock;
+    }
+
+    public static String brandTag(String brand) {
+        return "brand:" + brand;
+    }
+
+    public static String stateTag(DeviceState state) {
+        return "state:" + state.name();
+    }
+
+    /**
+     * Returns the cached response for the key, or loads, serializes and caches it.
+     *
+     * @param key    the query the response answers
+     * @param tags   the tags whose invalidation makes the response stale
+     * @param loader loads the response value on a cache miss
+     */
+    public CachedResponse get(String key, Set<String> tags, Supplier<?> loader) {
+        if (!enabled) {
+            return serialize(loader.get());
+        }
+        long loadEpoch;
+        long loadSequence;
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expires().isAfter(clock.instant())) {
+                hits.increment();
+                return entry.response();
+            }
+            if (entry != null) {
+                remove(key);
+            }
+            misses.increment();
+            loadEpoch = epoch;
+            loadSequence = sequence;
+            loading.merge(loadSequence, 1, Integer::sum);
+        }
+        CachedResponse response = null;
+        try {
+            response = serialize(loader.get());
+        } finally {
+            synchronized (lock) {
+                if (response != null) {
+                    store(key, tags, response, loadEpoch, loadSequence);
+                }
+                loadFinished(loadSequence);
+            }
+        }
+        return response;
+    }
+
+    public void invalidate(Set<String> tags) {
+        synchronized (lock) {
+            sequence++;
+            for (String tag : tags) {
+                if (!loading.isEmpty()) {
+                    invalidations.put(tag, sequence);
+                }
+                Set<String> keys = keysByTag.remove(tag);
+                if (keys != null) {
+                    keys.forEach(this::remove);
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (lock) {
+            epoch++;
+            entries.clear();
+            keysByTag.clear();
+            bytes = 0;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        Set<String> tags = new HashSet<>();
+        for (Device device : new Device[]{event.before(), event.after()}) {
+            if (device != null) {
+                tags.add(brandTag(device.brand()));
+                tags.add(stateTag(device.state()));
+            }
+        }
+        invalidate(tags);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDevicesImported(DevicesImportedEvent event) {
+        invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("devices.response.cache.gets", hits, LongAdder::sum).tag("result", "hit")
+                .description("Device list responses served from the cache").register(registry);
+        FunctionCounter.builder("devices.response.cache.gets", misses, LongAdder::sum).tag("result", "miss")
+                .description("Device list responses loaded from the database").register(registry);
+        FunctionCounter.builder("devices.response.cache.evictions", evictions, LongAdder::sum)
+                .description("Responses evicted to stay under the memory budget").register(registry);
+        Gauge.builder("devices.response.cache.hit.ratio", this, ResponseBytesCache::hitRatio)
+                .description("Share of the device list responses served from the cache").register(registry);
+        Gauge.builder("devices.response.cache.size", this, ResponseBytesCache::size).baseUnit("bytes")
+                .description("Size of the cached responses, their bodies plus a fixed overhead each").register(registry);
+        Gauge.builder("devices.response.cache.entries", this, ResponseBytesCache::entryCount)
+                .description("Number of cached responses").register(registry);
+    }
+
+    double hitRatio() {
+        long total = hits.sum() + misses.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    long size() {
+        synchronized (lock) {
+            return bytes;
+        }
+    }
+
+    int entryCount() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    int tagCount() {
+        synchronized (lock) {
+            return keysByTag.size();
+        }
+    }
+
+    int invalidationCount() {
+        synchronized (lock) {
+            return invalidations.size();
+        }
+    }
+
+    private CachedResponse serialize(Object value) {
+        try {
+            return CachedResponse.of(objectMapper.writeValueAsBytes(value), clock.instant());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void store(String key, Set<String> tags, CachedResponse response, long loadEpoch, long loadSequence) {
+        boolean stale = loadEpoch != epoch || tags.stream()
+                .anyMatch(tag -> invalidations.getOrDefault(tag, Long.MIN_VALUE) > loadSequence);
+        Entry entry = new Entry(response, Set.copyOf(tags), clock.instant().plus(properties.timeToLive()));
+        if (stale || entry.weight() > maxBytes / 4) {
+            return;
+        }
+        remove(key);
+        entries.put(key, entry);
+        tags.forEach(tag -> keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key));
+        bytes += entry.weight();
+        evictOverBudget();
+    }
+
+    /**
+     * Forgets the invalidations that no load in flight started before.
+     */
+    private void loadFinished(long loadSequence) {
+        loading.compute(loadSequence, (start, count) -> count == 1 ? null : count - 1);
+        if (loading.isEmpty()) {
+            invalidations.clear();
+        } else {
+            long oldest = loading.firstKey();
+            invalidations.values().removeIf(invalidated -> invalidated <= oldest);
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unlink(key, entry);
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> entry = eldest.next();
+            eldest.remove();
+            unlink(entry.getKey(), entry.getValue());
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes a response that left the cache from the keys of its tags and from the cached size.
+     */
+    private void unlink(String key, Entry entry) {
+        bytes -= entry.weight();
+        for (String tag : entry.tags()) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.carlos.devices.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for the cache of the serialized device list responses.
+ *
+ * @param enabled    whether responses are kept in memory, when disabled every request is serialized again
+ *                   but still carries an ETag for revalidation
+ * @param maxSize    the memory budget for the cached responses, their bodies plus a fixed overhead each, the
+ *                   least recently used responses are evicted to stay under it and a response larger than a
+ *                   quarter of it is not cached
+ * @param timeToLive how long a response is served from the cache at most, which bounds how long the writes
+ *                   made by other application instances can go unnoticed
+ */
+@ConfigurationProperties(prefix = "devices.response-cache")
+public record ResponseCacheProperties(@DefaultValue("false") boolean enabled,
+                                      @DefaultValue("64MB") DataSize maxSize,
+                                      @DefaultValue("5m") Duration timeToLive) {
+}
@@ -0,0 +1,30 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.DeviceState;
+
+/**
+ * Records which devices, brands and states the use cases are called for, to find the keys that drive the
+ * load. The calls are made on the request path and must be cheap.
+ */
+public interface DeviceAccessTracker {
+
+    /**
+     * A device was looked up by id, whether or not it exists.
+     */
+    void deviceRead(int id);
+
+    /**
+     * A device was created, or its update or deletion was asked for, whether or not it was allowed.
+     */
+    void deviceWritten(int id);
+
+    /**
+     * The devices of a brand were listed.
+     */
+    void brandQueried(String brand);
+
+    /**
+     * The devices in a state were listed.
+     */
+    void stateQueried(DeviceState state);
+}
@@ -0,0 +1,25 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+
+import java.util.Collection;
+
+/**
+ * In-memory copy of the devices that serves the list queries without going to the repository.
+ * The copy follows the repository with a short delay, so the lists it returns can miss the latest writes
+ * of other instances.
+ */
+public interface DeviceCatalog {
+
+    /**
+     * Whether the copy has been loaded and can serve queries; until then the repository serves them.
+     */
+    boolean isLoaded();
+
+    Collection<Device> findAll();
+
+    Collection<Device> findByBrand(String brand);
+
+    Collection<Device> findByState(DeviceState state);
+}
@@ -0,0 +1,15 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.DeviceChanges;
+
+public interface DeviceChangeFeed {
+
+    /**
+     * Returns the devices created, updated and deleted after the watermark.
+     *
+     * @param since the watermark returned by the previous call, or {@link ChangeWatermark#START} for all devices
+     * @param limit the maximum number of changes returned
+     */
+    DeviceChanges changesSince(ChangeWatermark since, int limit);
+}
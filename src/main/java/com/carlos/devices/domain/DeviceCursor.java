@@ -0,0 +1,20 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+
+import java.util.function.Consumer;
+
+public interface DeviceCursor {
+
+    /**
+     * Reads the devices from a database cursor and passes them to the consumer one at a time, so that only
+     * the rows of the current fetch are held in memory. The next rows are fetched once the consumer took the
+     * ones before, so a consumer that blocks holds the cursor and its connection open.
+     *
+     * @param brand    only read devices of this brand, or all brands when null
+     * @param state    only read devices in this state, or all states when null; ignored with a brand
+     * @param consumer called with every device; an exception it throws closes the cursor and is rethrown
+     */
+    void forEach(String brand, DeviceState state, Consumer<Device> consumer);
+}
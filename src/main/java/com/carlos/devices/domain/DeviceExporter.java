@@ -0,0 +1,18 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.DeviceState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface DeviceExporter {
+
+    /**
+     * Writes the devices as CSV, with a header line, ordered by id.
+     *
+     * @param brand  only export devices of this brand, or all brands when null
+     * @param state  only export devices in this state, or all states when null
+     * @param output the stream the CSV is written to, it is not closed
+     */
+    void exportCsv(String brand, DeviceState state, OutputStream output) throws IOException;
+}
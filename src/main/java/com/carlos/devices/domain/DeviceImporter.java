@@ -0,0 +1,22 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.ImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface DeviceImporter {
+
+    /**
+     * Creates a device for every valid row of a CSV file with a {@code name,brand} header line.
+     * Rows are validated with the same rules as {@link com.carlos.devices.domain.model.CreateUpdateDevice#isValidForCreation()},
+     * the valid rows are created in the {@code AVAILABLE} state and the rejected rows are written to
+     * the report with their row number and the reason they were rejected.
+     *
+     * @param csv      the CSV file, it is not closed
+     * @param rejected the stream the rejected rows report is written to, it is not closed
+     * @return the number of imported and rejected rows
+     */
+    ImportResult importCsv(InputStream csv, OutputStream rejected) throws IOException;
+}
@@ -0,0 +1,20 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+
+import java.util.List;
+
+public interface DevicePager {
+
+    /**
+     * Reads a page of devices ordered by id, starting after a device id. The next page starts after the id
+     * of the last device of this one; a page with fewer devices than the limit is the last one.
+     *
+     * @param brand   only read devices of this brand, or all brands when null
+     * @param state   only read devices in this state, or all states when null; ignored with a brand
+     * @param afterId only read devices with a greater id, {@code 0} reads the first page
+     * @param limit   the maximum number of devices read
+     */
+    List<Device> findPage(String brand, DeviceState state, int afterId, int limit);
+}
@@ -2,13 +2,22 @@ package com.carlos.devices.domain;
 
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
 import com.carlos.devices.domain.model.DeviceState;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface DeviceRepository {
     Device findById(Integer id);
 
+    /**
+     * Returns the device, or {@code null}, read from the primary and locked until the end of the current
+     * transaction, which must already be open, so that it can be checked and written without a concurrent change.
+     */
+    Device findByIdForUpdate(Integer id);
+
     void update(Integer id, CreateUpdateDevice device);
 
     Device create(CreateUpdateDevice device);
@@ -20,4 +29,27 @@ public interface DeviceRepository {
     Collection<Device> findByState(DeviceState state);
 
     Collection<Device> findAll();
+
+    /**
+     * Returns the existing devices among the ids, keyed by id, locked until the end of the current transaction,
+     * which must already be open.
+     */
+    Map<Integer, Device> findAllByIdForUpdate(Collection<Integer> ids);
+
+    /**
+     * Creates the devices in the {@code AVAILABLE} state with one JDBC batch.
+     *
+     * @return the created devices, in the order of the arguments
+     */
+    List<Device> createAll(List<CreateUpdateDevice> devices);
+
+    /**
+     * Writes the device after every change with one JDBC batch, in order.
+     */
+    void updateAll(List<DeviceChangedEvent> changes);
+
+    /**
+     * Deletes the devices with one JDBC batch.
+     */
+    void deleteAll(List<Device> devices);
 }
@@ -1,10 +1,13 @@
 package com.carlos.devices.domain;
 
 import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
 import com.carlos.devices.domain.model.Device;
 import com.carlos.devices.domain.model.DeviceState;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 public interface DeviceService {
     Device findById(Integer id);
@@ -19,5 +22,27 @@ public interface DeviceService {
 
     void updateDevice(Integer id, CreateUpdateDevice device);
 
+    /**
+     * Updates a device like {@link #updateDevice}, except that a state-only update left in the write-behind
+     * buffer is not waited for: it is written, or fails because the device does not exist, after this returns.
+     *
+     * @return whether the update was left in the buffer, {@code false} when it was written before returning
+     */
+    boolean updateDeviceDeferred(Integer id, CreateUpdateDevice device);
+
+    /**
+     * Updates a device like {@link #updateDeviceDeferred}, and returns the outcome of a buffered update to wait
+     * for outside of the call.
+     *
+     * @return a future completed once the update is committed, already completed when it was written before
+     * returning, and completed exceptionally with the error {@link #updateDevice} would throw
+     */
+    CompletableFuture<Void> submitUpdate(Integer id, CreateUpdateDevice device);
+
     void deleteDevice(Integer id);
+
+    /**
+     * Executes a list of creations, updates and deletions in a single transaction.
+     */
+    DeviceBatchResult executeBatch(DeviceBatchRequest request);
 }
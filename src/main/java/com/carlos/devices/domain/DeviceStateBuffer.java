@@ -0,0 +1,35 @@
+package com.carlos.devices.domain;
+
+import com.carlos.devices.domain.model.DeviceState;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Holds device state updates for a short window and writes them in batches, keeping only the last
+ * state submitted for each device.
+ */
+public interface DeviceStateBuffer {
+
+    /**
+     * Queues a new state for the device. A state submitted later for the same device, before the batch
+     * is written, replaces this one.
+     *
+     * @return a future completed once the last state queued for the device in this batch is committed,
+     * or completed exceptionally with a {@link com.carlos.devices.domain.exception.DataException} when the
+     * device does not exist
+     */
+    CompletableFuture<Void> submit(Integer id, DeviceState state);
+
+    /**
+     * Writes the queued states now and returns once they are committed.
+     */
+    void flush();
+
+    /**
+     * Writes the states queued for the given devices now, or waits for the batch already writing them, and
+     * returns once they are committed or failed. The states queued for the other devices stay in the buffer,
+     * and a failure is only reported to the callers that queued the states, through their futures.
+     */
+    void flush(Collection<Integer> ids);
+}
@@ -0,0 +1,14 @@
+package com.carlos.devices.domain;
+
+/**
+ * Tells the use cases whether the current request has to see the writes of its client, which a lookup shared
+ * with other requests may miss. The call is made on the request path and must be cheap.
+ */
+public interface ReadYourWrites {
+
+    /**
+     * @return whether the current request already wrote, or its client wrote recently enough that its reads
+     * go to the primary
+     */
+    boolean readsOwnWrites();
+}
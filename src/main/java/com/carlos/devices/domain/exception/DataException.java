@@ -1,7 +1,11 @@
 package com.carlos.devices.domain.exception;
 
+/**
+ * Signals that a device does not exist. It is answered with a 404 and never logged, so the stack
+ * trace is not captured, which keeps the lookups of nonexistent ids cheap.
+ */
 public class DataException extends RuntimeException {
  public DataException(String message) {
-  super(message);
+  super(message, null, false, false);
  }
 }
@@ -0,0 +1,20 @@
+package com.carlos.devices.domain.exception;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Signals that a database statement was cancelled, or not started, because the deadline of the request
+ * that ran it passed. It is answered with a 504. The client has usually given up already, so the stack
+ * trace is not captured.
+ */
+public class DeadlineExceededException extends QueryTimeoutException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
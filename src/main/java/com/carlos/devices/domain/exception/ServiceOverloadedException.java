@@ -0,0 +1,22 @@
+package com.carlos.devices.domain.exception;
+
+import java.time.Duration;
+
+/**
+ * Signals that a request was shed because the service is at its concurrency limit. It is answered
+ * with a 503 and a {@code Retry-After} header. Rejections happen in bursts under overload, so the
+ * stack trace is not captured.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,39 @@
+package com.carlos.devices.domain.model;
+
+import com.carlos.devices.domain.exception.BusinessRulesException;
+
+/**
+ * Position in the device change feed, written as {@code <transaction id>-<change sequence>}.
+ * <p>
+ * The transaction id is part of the position because change sequence values are taken when a row is
+ * written, not when its transaction commits, so a sequence value can become visible after larger ones.
+ * The feed only returns the changes of transactions older than every transaction still running, and
+ * orders them by transaction id first, so a change can never commit behind a watermark a client already has.
+ *
+ * @param txid the id of the transaction of the last change seen
+ * @param seq  the change sequence value of the last change seen
+ */
+public record ChangeWatermark(long txid, long seq) {
+
+    public static final ChangeWatermark START = new ChangeWatermark(0, 0);
+
+    public static ChangeWatermark parse(String watermark) {
+        String[] parts = watermark.split("-");
+        try {
+            if (parts.length == 2) {
+                ChangeWatermark parsed = new ChangeWatermark(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                if (parsed.txid() >= 0 && parsed.seq() >= 0) {
+                    return parsed;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new BusinessRulesException("Invalid change watermark: " + watermark);
+    }
+
+    @Override
+    public String toString() {
+        return txid + "-" + seq;
+    }
+}
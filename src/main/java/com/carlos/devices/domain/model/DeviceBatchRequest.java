@@ -0,0 +1,43 @@
+package com.carlos.devices.domain.model;
+
+import java.util.List;
+
+/**
+ * A list of device operations executed in a single transaction.
+ *
+ * @param mode       whether one failed operation rolls the whole batch back, {@link Mode#ATOMIC} when not set
+ * @param operations the operations, applied in order
+ */
+public record DeviceBatchRequest(Mode mode, List<Operation> operations) {
+
+    public enum Mode {
+        /**
+         * Nothing is written when an operation fails.
+         */
+        ATOMIC,
+        /**
+         * The failed operations are skipped and the others are written.
+         */
+        CONTINUE_ON_ERROR
+    }
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+
+    /**
+     * One operation of the batch, with the same rules as the single device endpoint it stands for.
+     *
+     * @param type   the operation
+     * @param id     the device updated or deleted, not set for a creation
+     * @param device the details of the created device, or the fields to update
+     */
+    public record Operation(Type type, Integer id, CreateUpdateDevice device) {
+    }
+
+    public DeviceBatchRequest {
+        if (mode == null) {
+            mode = Mode.ATOMIC;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.carlos.devices.domain.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link DeviceBatchRequest}.
+ *
+ * @param committed whether the batch was written, false when an atomic batch was rolled back
+ * @param results   the outcome of every operation, in the order of the request
+ */
+public record DeviceBatchResult(boolean committed, List<OperationResult> results) {
+
+    public enum Status {
+        /**
+         * The operation was written.
+         */
+        SUCCEEDED,
+        /**
+         * The operation was rejected, see its error.
+         */
+        FAILED,
+        /**
+         * The operation was valid but the atomic batch was rolled back because of another operation.
+         */
+        ROLLED_BACK
+    }
+
+    /**
+     * @param index  the position of the operation in the request
+     * @param status the outcome of the operation
+     * @param device the created or updated device, or the deleted one, when the operation succeeded
+     * @param error  the reason the operation failed
+     */
+    public record OperationResult(int index, Status status, Device device, ErrorDTO error) {
+    }
+}
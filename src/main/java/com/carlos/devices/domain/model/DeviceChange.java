@@ -0,0 +1,18 @@
+package com.carlos.devices.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A device created or updated (an upsert, with the current device) or deleted (a tombstone, with only its id).
+ *
+ * @param type   whether the device was upserted or deleted
+ * @param seq    the change sequence value
+ * @param id     the device id
+ * @param device the current device, absent for a deletion
+ */
+public record DeviceChange(Type type, long seq, Integer id, @JsonInclude(JsonInclude.Include.NON_NULL) Device device) {
+
+    public enum Type {
+        UPSERT, DELETE
+    }
+}
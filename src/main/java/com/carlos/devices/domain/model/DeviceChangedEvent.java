@@ -0,0 +1,16 @@
+package com.carlos.devices.domain.model;
+
+/**
+ * Published by the device repositories when a device is created, updated or deleted.
+ * Listeners that act on committed data should use
+ * {@link org.springframework.transaction.event.TransactionalEventListener}.
+ *
+ * @param before the device before the change, null when it was created
+ * @param after  the device after the change, null when it was deleted
+ */
+public record DeviceChangedEvent(Device before, Device after) {
+
+    public Integer id() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,13 @@
+package com.carlos.devices.domain.model;
+
+import java.util.List;
+
+/**
+ * A page of the device change feed.
+ *
+ * @param changes   the changes after the requested watermark, in change order
+ * @param watermark the watermark to request the next changes with
+ * @param hasMore   whether more changes are available right away after this page
+ */
+public record DeviceChanges(List<DeviceChange> changes, String watermark, boolean hasMore) {
+}
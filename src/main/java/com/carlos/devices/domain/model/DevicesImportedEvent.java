@@ -0,0 +1,10 @@
+package com.carlos.devices.domain.model;
+
+/**
+ * Published when devices are created in bulk by an import, which does not publish a
+ * {@link DeviceChangedEvent} per device.
+ *
+ * @param imported the number of devices created
+ */
+public record DevicesImportedEvent(long imported) {
+}
@@ -0,0 +1,10 @@
+package com.carlos.devices.domain.model;
+
+/**
+ * Outcome of a bulk device import.
+ *
+ * @param imported the number of devices created
+ * @param rejected the number of rows rejected by validation
+ */
+public record ImportResult(long imported, long rejected) {
+}
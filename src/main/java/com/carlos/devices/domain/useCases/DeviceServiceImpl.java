@@ -1,29 +1,111 @@
 package com.carlos.devices.domain.useCases;
 
+import com.carlos.devices.domain.DeviceAccessTracker;
+import com.carlos.devices.domain.DeviceCatalog;
 import com.carlos.devices.domain.DeviceRepository;
 import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.DeviceStateBuffer;
+import com.carlos.devices.domain.ReadYourWrites;
 import com.carlos.devices.domain.exception.BusinessRulesException;
 import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.exception.DeadlineExceededException;
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
 import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ErrorDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/**
+ * Device use cases.
+ * <p>
+ * Concurrent lookups by id, brand or state with the same argument are coalesced with a {@link SingleFlight}:
+ * they share one repository call and its result. A lookup can join a call started before a write of another
+ * client committed, like a lookup that arrived a moment earlier would have. When a {@link ReadYourWrites} is
+ * configured, with read replicas, the lookups that have to see their client's writes are not coalesced: they
+ * run on their own, on the primary, instead of joining a call that may have started before the write or been
+ * sent to a replica. A shared lookup cancelled at the deadline of the request that ran
+ * it is run again for the waiting lookups, under their own deadlines. The coalesced lookups are counted in the
+ * {@code devices.requests.coalesced} metric, tagged with the operation.
+ * <p>
+ * When a {@link DeviceStateBuffer} is configured, updates that only change the state go through it instead
+ * of being read and written one by one; the device existence is then checked by the batched write. The
+ * other updates and the deletions first write the states queued for their device, so they check and change
+ * the device as left by the state updates submitted before them, without waiting for the other devices.
+ * <p>
+ * The other updates and the deletions read the device with a lock, then check and write it, in one read-write
+ * transaction: the read goes to the primary even with read replicas, and no concurrent change slips in between,
+ * so a lagging replica can neither bring back old fields nor let a device in use be deleted.
+ * <p>
+ * When a loaded {@link DeviceCatalog} is configured, the lists of all devices and of the devices of a brand or
+ * in a state are read from it instead of the repository, and are not coalesced.
+ * <p>
+ * When a {@link DeviceAccessTracker} is configured, every lookup and list call and every written device is
+ * recorded in it, before coalescing, so the coalesced calls are counted as well.
+ */
 @Service
-public class DeviceServiceImpl implements DeviceService {
+public class DeviceServiceImpl implements DeviceService, MeterBinder {
+
+    public static final int MAX_BATCH_OPERATIONS = 1000;
 
     private final DeviceRepository deviceRepository;
+    private final TransactionOperations transactions;
+    private final DeviceStateBuffer stateBuffer;
+    private final DeviceCatalog catalog;
+    private final DeviceAccessTracker accessTracker;
+    private final ReadYourWrites readYourWrites;
+    private final SingleFlight<Integer, Device> findByIdFlights =
+            new SingleFlight<>(DeadlineExceededException.class::isInstance);
+    private final SingleFlight<String, Collection<Device>> findByBrandFlights =
+            new SingleFlight<>(DeadlineExceededException.class::isInstance);
+    private final SingleFlight<DeviceState, Collection<Device>> findByStateFlights =
+            new SingleFlight<>(DeadlineExceededException.class::isInstance);
+
+    public DeviceServiceImpl(DeviceRepository deviceRepository, TransactionOperations transactions,
+                             @Nullable DeviceStateBuffer stateBuffer, @Nullable DeviceCatalog catalog,
+                             @Nullable DeviceAccessTracker accessTracker) {
+        this(deviceRepository, transactions, stateBuffer, catalog, accessTracker, null);
+    }
 
-    public DeviceServiceImpl(DeviceRepository deviceRepository) {
+    @Autowired
+    public DeviceServiceImpl(DeviceRepository deviceRepository, TransactionOperations transactions,
+                             @Nullable DeviceStateBuffer stateBuffer, @Nullable DeviceCatalog catalog,
+                             @Nullable DeviceAccessTracker accessTracker, @Nullable ReadYourWrites readYourWrites) {
         this.deviceRepository = deviceRepository;
+        this.transactions = transactions;
+        this.stateBuffer = stateBuffer;
+        this.catalog = catalog;
+        this.accessTracker = accessTracker;
+        this.readYourWrites = readYourWrites;
     }
 
     @Override
     public Device findById(Integer id) {
-        Device device = deviceRepository.findById(id);
+        if (accessTracker != null) {
+            accessTracker.deviceRead(id);
+        }
+        Device device = coalesce(findByIdFlights, id, () -> deviceRepository.findById(id));
         if (device == null) {
             throw new DataException("Device not found for ID: " + id);
         }
@@ -32,31 +114,58 @@ public class DeviceServiceImpl implements DeviceService {
 
     @Override
     public Collection<Device> findAllByBrand(String brand) {
-        return deviceRepository.findByBrand(brand);
+        if (accessTracker != null) {
+            accessTracker.brandQueried(brand);
+        }
+        if (catalogLoaded()) {
+            return catalog.findByBrand(brand);
+        }
+        return coalesce(findByBrandFlights, brand, () -> deviceRepository.findByBrand(brand));
     }
 
     @Override
     public Collection<Device> findAllByDeviceState(DeviceState state) {
-        return deviceRepository.findByState(state);
+        if (accessTracker != null) {
+            accessTracker.stateQueried(state);
+        }
+        if (catalogLoaded()) {
+            return catalog.findByState(state);
+        }
+        return coalesce(findByStateFlights, state, () -> deviceRepository.findByState(state));
     }
 
     @Override
     public Collection<Device> findAll() {
+        if (catalogLoaded()) {
+            return catalog.findAll();
+        }
         return deviceRepository.findAll();
     }
 
+    private <K, V> V coalesce(SingleFlight<K, V> flights, K key, Supplier<V> lookup) {
+        if (readYourWrites != null && readYourWrites.readsOwnWrites()) {
+            return lookup.get();
+        }
+        return flights.execute(key, lookup);
+    }
+
+    private boolean catalogLoaded() {
+        return catalog != null && catalog.isLoaded();
+    }
+
     @Override
     public Device createDevice(CreateUpdateDevice device) {
-        if (!device.isValidForCreation()) {
-            throw new BusinessRulesException("Invalid device details, must have a name and a brand: " + device);
-        }
-        return deviceRepository.create(device);
+        checkCreation(device);
+        Device created = deviceRepository.create(device);
+        deviceWritten(created.id());
+        return created;
     }
 
     /**
      * Updates an existing device in the repository with the provided details.
      * Verifies the validity of the update request and the existence of the device in the repository.
      * Throws exceptions if the update request or operation violates business rules or if the device does not exist.
+     * A state-only update sent to the write-behind buffer returns once its batch is committed.
      *
      * @param id the unique identifier of the device to update
      * @param device the object containing the update details for the device
@@ -65,21 +174,51 @@ public class DeviceServiceImpl implements DeviceService {
      */
     @Override
     public void updateDevice(Integer id, CreateUpdateDevice device) {
-        if (!device.isValidForUpdate()) {
-            throw new BusinessRulesException("Invalid device details, must have at least one non-empty field: " + device);
-        }
-        Device existing = deviceRepository.findById(id);
-        if (existing == null) {
-            throw new DataException("Device for update not found for ID: " + id);
-        }
-        if (existing.state().equals(DeviceState.IN_USE) & !device.isStateUpdate()) {
-            throw new BusinessRulesException("Device in use, cannot be updated");
+        awaitCommit(submitUpdate(id, device));
+    }
+
+    @Override
+    public boolean updateDeviceDeferred(Integer id, CreateUpdateDevice device) {
+        return update(id, device) != null;
+    }
+
+    @Override
+    public CompletableFuture<Void> submitUpdate(Integer id, CreateUpdateDevice device) {
+        CompletableFuture<Void> buffered = update(id, device);
+        return buffered != null ? buffered : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Waits for an update returned by {@link #submitUpdate}, throwing the error it failed with.
+     */
+    public static void awaitCommit(CompletableFuture<Void> update) {
+        try {
+            update.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        String newName = StringUtils.hasLength(device.name()) ? device.name() : existing.name();
-        String newBrand = StringUtils.hasLength(device.brand())? device.brand() : existing.brand();
-        DeviceState newState = device.state() != null ? device.state() : existing.state();
+    }
 
-        deviceRepository.update(id, new CreateUpdateDevice(newName, newBrand, newState));
+    /**
+     * Applies the update, or submits it to the write-behind buffer when it only changes the state.
+     *
+     * @return the future of the buffered update, or {@code null} when the update was written
+     */
+    private CompletableFuture<Void> update(Integer id, CreateUpdateDevice device) {
+        deviceWritten(id);
+        checkUpdate(device);
+        if (stateBuffer != null && device.isStateUpdate()) {
+            return stateBuffer.submit(id, device.state());
+        }
+        flushStateBuffer(List.of(id));
+        transactions.executeWithoutResult(status -> {
+            Device updated = updated(id, deviceRepository.findByIdForUpdate(id), device);
+            deviceRepository.update(id, new CreateUpdateDevice(updated.name(), updated.brand(), updated.state()));
+        });
+        return null;
     }
 
     /**
@@ -93,13 +232,179 @@ public class DeviceServiceImpl implements DeviceService {
      */
     @Override
     public void deleteDevice(Integer id) {
-        Device existing = deviceRepository.findById(id);
+        deviceWritten(id);
+        flushStateBuffer(List.of(id));
+        transactions.executeWithoutResult(status -> {
+            checkDeletion(id, deviceRepository.findByIdForUpdate(id));
+            deviceRepository.delete(id);
+        });
+    }
+
+    /**
+     * Executes the operations of the batch in one transaction. The devices the operations refer to are locked
+     * first, then every operation is checked in order against the devices as left by the operations before it,
+     * with the rules of the single creation, update and deletion. The valid creations, updates and deletions
+     * are then written with one JDBC batch each, in that order, which leaves the devices as applying the
+     * operations in order would. In {@link DeviceBatchRequest.Mode#ATOMIC} mode nothing is written when an
+     * operation is invalid.
+     * <p>
+     * The states buffered for the devices are written before the transaction begins, so that the batch does not
+     * hold a connection while the buffer waits for one of its own.
+     *
+     * @param request the operations and the mode of the batch
+     * @return the outcome of every operation
+     * @throws BusinessRulesException if the batch is empty or has more than {@value #MAX_BATCH_OPERATIONS} operations
+     */
+    @Override
+    public DeviceBatchResult executeBatch(DeviceBatchRequest request) {
+        List<DeviceBatchRequest.Operation> operations = request.operations();
+        if (operations == null || operations.isEmpty() || operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new BusinessRulesException("A batch must have between 1 and " + MAX_BATCH_OPERATIONS + " operations");
+        }
+        Set<Integer> ids = operations.stream()
+                .map(DeviceBatchRequest.Operation::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // Committed on their own before the batch locks the devices, so they stay written if the batch fails
+        flushStateBuffer(ids);
+        ids.forEach(this::deviceWritten);
+        return transactions.execute(status -> applyBatch(operations, ids, request.mode()));
+    }
+
+    private DeviceBatchResult applyBatch(List<DeviceBatchRequest.Operation> operations, Set<Integer> ids,
+                                         DeviceBatchRequest.Mode mode) {
+        Map<Integer, Device> devices = new HashMap<>(deviceRepository.findAllByIdForUpdate(ids));
+
+        DeviceBatchResult.OperationResult[] results = new DeviceBatchResult.OperationResult[operations.size()];
+        List<Integer> creations = new ArrayList<>();
+        List<DeviceChangedEvent> updates = new ArrayList<>();
+        List<Device> deletions = new ArrayList<>();
+        boolean failed = false;
+        for (int i = 0; i < operations.size(); i++) {
+            DeviceBatchRequest.Operation operation = operations.get(i);
+            try {
+                if (operation.type() == null) {
+                    throw new BusinessRulesException("Invalid operation, must have a type: " + operation);
+                }
+                Integer id = operation.id();
+                switch (operation.type()) {
+                    case CREATE -> {
+                        checkCreation(operation.device());
+                        creations.add(i);
+                    }
+                    case UPDATE -> {
+                        checkUpdate(operation.device());
+                        Device before = devices.get(id);
+                        Device after = updated(id, before, operation.device());
+                        devices.put(id, after);
+                        updates.add(new DeviceChangedEvent(before, after));
+                        results[i] = succeeded(i, after);
+                    }
+                    case DELETE -> {
+                        Device existing = devices.get(id);
+                        checkDeletion(id, existing);
+                        devices.remove(id);
+                        deletions.add(existing);
+                        results[i] = succeeded(i, existing);
+                    }
+                }
+            } catch (BusinessRulesException e) {
+                results[i] = failed(i, "BUSINESS_ERROR", e);
+                failed = true;
+            } catch (DataException e) {
+                results[i] = failed(i, "DATA_ERROR", e);
+                failed = true;
+            }
+        }
+
+        if (failed && mode == DeviceBatchRequest.Mode.ATOMIC) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null || results[i].status() == DeviceBatchResult.Status.SUCCEEDED) {
+                    results[i] = new DeviceBatchResult.OperationResult(i, DeviceBatchResult.Status.ROLLED_BACK, null, null);
+                }
+            }
+            return new DeviceBatchResult(false, List.of(results));
+        }
+
+        List<Device> created = deviceRepository.createAll(creations.stream().map(i -> operations.get(i).device()).toList());
+        for (int i = 0; i < creations.size(); i++) {
+            results[creations.get(i)] = succeeded(creations.get(i), created.get(i));
+            deviceWritten(created.get(i).id());
+        }
+        deviceRepository.updateAll(updates);
+        deviceRepository.deleteAll(deletions);
+        return new DeviceBatchResult(true, List.of(results));
+    }
+
+    private static DeviceBatchResult.OperationResult succeeded(int index, Device device) {
+        return new DeviceBatchResult.OperationResult(index, DeviceBatchResult.Status.SUCCEEDED, device, null);
+    }
+
+    private static DeviceBatchResult.OperationResult failed(int index, String code, RuntimeException e) {
+        return new DeviceBatchResult.OperationResult(index, DeviceBatchResult.Status.FAILED, null, new ErrorDTO(code, e.getMessage()));
+    }
+
+    private static void checkCreation(CreateUpdateDevice device) {
+        if (device == null || !device.isValidForCreation()) {
+            throw new BusinessRulesException("Invalid device details, must have a name and a brand: " + device);
+        }
+    }
+
+    private static void checkUpdate(CreateUpdateDevice device) {
+        if (device == null || !device.isValidForUpdate()) {
+            throw new BusinessRulesException("Invalid device details, must have at least one non-empty field: " + device);
+        }
+    }
+
+    /**
+     * Returns the existing device with the fields set in the update, checking that the device exists and
+     * that only the state of a device in use is changed.
+     */
+    private static Device updated(Integer id, Device existing, CreateUpdateDevice device) {
+        if (existing == null) {
+            throw new DataException("Device for update not found for ID: " + id);
+        }
+        if (existing.state().equals(DeviceState.IN_USE) & !device.isStateUpdate()) {
+            throw new BusinessRulesException("Device in use, cannot be updated");
+        }
+        String newName = StringUtils.hasLength(device.name()) ? device.name() : existing.name();
+        String newBrand = StringUtils.hasLength(device.brand())? device.brand() : existing.brand();
+        DeviceState newState = device.state() != null ? device.state() : existing.state();
+        return new Device(id, newName, newBrand, newState, existing.creationTime());
+    }
+
+    private static void checkDeletion(Integer id, Device existing) {
         if (existing == null) {
             throw new DataException("Device for deletion not found for ID: " + id);
         }
         if (existing.state().equals(DeviceState.IN_USE)) {
             throw new BusinessRulesException("Device in use, cannot be deleted");
         }
-        deviceRepository.delete(id);
+    }
+
+    private void deviceWritten(Integer id) {
+        if (accessTracker != null && id != null) {
+            accessTracker.deviceWritten(id);
+        }
+    }
+
+    private void flushStateBuffer(Collection<Integer> ids) {
+        if (stateBuffer != null) {
+            stateBuffer.flush(ids);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCoalescedCounter(registry, "findById", findByIdFlights);
+        bindCoalescedCounter(registry, "findByBrand", findByBrandFlights);
+        bindCoalescedCounter(registry, "findByState", findByStateFlights);
+    }
+
+    private void bindCoalescedCounter(MeterRegistry registry, String operation, SingleFlight<?, ?> flights) {
+        FunctionCounter.builder("devices.requests.coalesced", flights, SingleFlight::coalesced)
+                .description("Lookups served by an identical lookup already in flight")
+                .tag("operation", operation)
+                .register(registry);
     }
 }
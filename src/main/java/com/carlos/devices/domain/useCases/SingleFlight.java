@@ -0,0 +1,105 @@
+package com.carlos.devices.domain.useCases;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into a single call.
+ * <p>
+ * The first caller for a key runs the call on its own thread, and the callers that arrive while it is
+ * running wait for it and get the same result or the same exception. The key is released as soon as the
+ * call completes, so a caller arriving afterwards always starts a new call and never sees an older result.
+ * <p>
+ * A waiting caller that is interrupted stops waiting and gets a {@link CancellationException}, without
+ * affecting the running call. When the running call is abandoned by its caller, because its thread was
+ * interrupted or because of a failure that only concerns that caller, the waiting callers are not failed
+ * with it: they start over, and one of them runs the call again.
+ *
+ * @param <K> the type of the call arguments
+ * @param <V> the type of the result, which is shared between the callers and must not be modified
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final Predicate<Throwable> abandoned;
+
+    SingleFlight() {
+        this(e -> false);
+    }
+
+    /**
+     * @param abandoned tells the failures that only concern the caller that ran the call
+     */
+    SingleFlight(Predicate<Throwable> abandoned) {
+        this.abandoned = abandoned;
+    }
+
+    V execute(K key, Supplier<V> call) {
+        if (key == null) {
+            return call.get();
+        }
+        while (true) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, created);
+            if (running == null) {
+                return lead(key, created, call);
+            }
+            coalesced.increment();
+            try {
+                return await(running);
+            } catch (CancellationException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                // The call was abandoned by its caller, start over
+            }
+        }
+    }
+
+    /**
+     * @return the number of calls that were served by a call already running for the same key
+     */
+    long coalesced() {
+        return coalesced.sum();
+    }
+
+    private V lead(K key, CompletableFuture<V> future, Supplier<V> call) {
+        try {
+            V result = call.get();
+            inFlight.remove(key, future);
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, future);
+            if (Thread.currentThread().isInterrupted() || abandoned.test(e)) {
+                future.cancel(false);
+            } else {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a coalesced call");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
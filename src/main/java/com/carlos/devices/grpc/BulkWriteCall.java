@@ -0,0 +1,176 @@
+package com.carlos.devices.grpc;
+
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
+import com.carlos.devices.domain.useCases.DeviceServiceImpl;
+import com.carlos.devices.grpc.v1.WriteRequest;
+import com.carlos.devices.grpc.v1.WriteResult;
+import com.carlos.devices.repository.routing.RoutingContext;
+import io.grpc.stub.StreamObserver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A bulk write call: the writes are gathered as they arrive and written with
+ * {@link DeviceService#executeBatch} in {@link DeviceBatchRequest.Mode#CONTINUE_ON_ERROR} mode, so each write
+ * is checked with the rules of its single device call and the valid ones are written whatever the others.
+ * <p>
+ * The writes received while a batch is written make the next batch, so a client sending fast gets batches of
+ * up to {@code batchSize} writes, capped to the {@value DeviceServiceImpl#MAX_BATCH_OPERATIONS} operations of
+ * a batch, and a client sending one write at a time gets each written at once. At most
+ * {@code batchSize} writes are requested from the client until they are written, which slows down a client
+ * sending faster than the database writes. The results are sent in the order of the writes, at the pace the
+ * client reads them.
+ * <p>
+ * A batch failing as a whole, such as when the database is down or the service overloaded, fails the call;
+ * the results already sent tell which writes were applied.
+ */
+final class BulkWriteCall implements StreamObserver<WriteRequest> {
+
+    private final DeviceService deviceService;
+    private final FlowControlledStream<WriteResult> responses;
+    private final Executor executor;
+
+    private final Object lock = new Object();
+    private final List<WriteRequest> pending = new ArrayList<>();
+    private long nextIndex;
+    private boolean draining;
+    private boolean halfClosed;
+    private boolean finished;
+
+    BulkWriteCall(DeviceService deviceService, StreamObserver<WriteResult> responses, Executor executor,
+                  int batchSize, Duration stallTimeout) {
+        this.deviceService = deviceService;
+        this.responses = new FlowControlledStream<>(responses, stallTimeout);
+        this.executor = executor;
+        this.responses.observer().disableAutoRequest();
+        this.responses.observer().request(Math.min(batchSize, DeviceServiceImpl.MAX_BATCH_OPERATIONS));
+    }
+
+    @Override
+    public void onNext(WriteRequest request) {
+        synchronized (lock) {
+            pending.add(request);
+            drainLater();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        synchronized (lock) {
+            finished = true;
+            pending.clear();
+        }
+    }
+
+    @Override
+    public void onCompleted() {
+        synchronized (lock) {
+            halfClosed = true;
+            drainLater();
+        }
+    }
+
+    private void drainLater() {
+        if (!draining && !finished) {
+            draining = true;
+            executor.execute(RoutingContext.propagate(this::drain));
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<WriteRequest> batch;
+            long firstIndex;
+            synchronized (lock) {
+                if (pending.isEmpty() || finished) {
+                    draining = false;
+                    if (!halfClosed || finished) {
+                        return;
+                    }
+                    finished = true;
+                    break;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                firstIndex = nextIndex;
+                nextIndex += batch.size();
+            }
+            try {
+                write(firstIndex, batch);
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    finished = true;
+                    draining = false;
+                    pending.clear();
+                }
+                responses.fail(DeviceMessages.status(e));
+                return;
+            }
+            responses.observer().request(batch.size());
+        }
+        responses.complete();
+    }
+
+    /**
+     * Writes the batch and sends the result of every write. The writes that cannot be converted, with a state
+     * this version does not know, fail without being sent to the service.
+     */
+    private void write(long firstIndex, List<WriteRequest> batch) {
+        WriteResult[] results = new WriteResult[batch.size()];
+        List<DeviceBatchRequest.Operation> operations = new ArrayList<>(batch.size());
+        List<Integer> positions = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                operations.add(operation(batch.get(i)));
+                positions.add(i);
+            } catch (BusinessRulesException e) {
+                results[i] = failed(firstIndex + i, "BUSINESS_ERROR", e.getMessage());
+            }
+        }
+        if (!operations.isEmpty()) {
+            DeviceBatchResult written = deviceService.executeBatch(
+                    new DeviceBatchRequest(DeviceBatchRequest.Mode.CONTINUE_ON_ERROR, operations));
+            for (DeviceBatchResult.OperationResult result : written.results()) {
+                int position = positions.get(result.index());
+                results[position] = result.status() == DeviceBatchResult.Status.SUCCEEDED
+                        ? WriteResult.newBuilder()
+                        .setIndex(firstIndex + position)
+                        .setSucceeded(true)
+                        .setDevice(DeviceMessages.device(result.device()))
+                        .build()
+                        : failed(firstIndex + position, result.error() != null ? result.error().code() : result.status().name(),
+                        result.error() != null ? result.error().message() : null);
+            }
+        }
+        for (WriteResult result : results) {
+            responses.send(result);
+        }
+    }
+
+    private static DeviceBatchRequest.Operation operation(WriteRequest request) {
+        return switch (request.getOperationCase()) {
+            case CREATE -> new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.CREATE, null,
+                    DeviceMessages.creation(request.getCreate()));
+            case UPDATE -> new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.UPDATE, request.getUpdate().getId(),
+                    DeviceMessages.update(request.getUpdate()));
+            case DELETE -> new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.DELETE, request.getDelete().getId(), null);
+            // Reported by the batch as an operation without a type
+            case OPERATION_NOT_SET -> new DeviceBatchRequest.Operation(null, null, null);
+        };
+    }
+
+    private static WriteResult failed(long index, String code, String message) {
+        return WriteResult.newBuilder()
+                .setIndex(index)
+                .setSucceeded(false)
+                .setErrorCode(code)
+                .setErrorMessage(message == null ? "" : message)
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.carlos.devices.grpc;
+
+import com.carlos.devices.domain.DeviceCursor;
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.routing.RoutingContext;
+import com.carlos.devices.grpc.v1.CreateDeviceRequest;
+import com.carlos.devices.grpc.v1.DeleteDeviceRequest;
+import com.carlos.devices.grpc.v1.Device;
+import com.carlos.devices.grpc.v1.DeviceList;
+import com.carlos.devices.grpc.v1.DeviceServiceGrpc;
+import com.carlos.devices.grpc.v1.GetDeviceRequest;
+import com.carlos.devices.grpc.v1.ListAllRequest;
+import com.carlos.devices.grpc.v1.ListByBrandRequest;
+import com.carlos.devices.grpc.v1.ListByStateRequest;
+import com.carlos.devices.grpc.v1.UpdateDeviceRequest;
+import com.carlos.devices.grpc.v1.WriteRequest;
+import com.carlos.devices.grpc.v1.WriteResult;
+import com.google.protobuf.Empty;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * The gRPC device service, on top of the same {@link DeviceService} as the REST controller, so that its
+ * calls go through the same rules, caches, admission control and write-behind buffer.
+ * <p>
+ * The list calls are the exception: they read the devices from a {@link DeviceCursor} and send them in chunks
+ * of {@link GrpcProperties#listChunkSize()} as the client reads them, instead of building the whole list in
+ * memory, so they do not use the list caches. Each open list call holds a connection of the pool until it is
+ * read to the end, so at most {@link GrpcProperties#maxListStreams()} are open at once. The rows are read and
+ * the bulk writes are written on virtual threads of their own, so that the call handler is free to run the
+ * flow control callbacks.
+ */
+public class DeviceGrpcService extends DeviceServiceGrpc.DeviceServiceImplBase implements AutoCloseable {
+
+    private final DeviceService deviceService;
+    private final DeviceCursor deviceCursor;
+    private final GrpcProperties properties;
+    private final Semaphore listStreams;
+    private final ExecutorService streams = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-stream-", 0).factory());
+
+    public DeviceGrpcService(DeviceService deviceService, DeviceCursor deviceCursor, GrpcProperties properties) {
+        this.deviceService = deviceService;
+        this.deviceCursor = deviceCursor;
+        this.properties = properties;
+        this.listStreams = new Semaphore(properties.maxListStreams());
+    }
+
+    @Override
+    public void get(GetDeviceRequest request, StreamObserver<Device> responses) {
+        unary(responses, () -> DeviceMessages.device(deviceService.findById(request.getId())));
+    }
+
+    @Override
+    public void create(CreateDeviceRequest request, StreamObserver<Device> responses) {
+        unary(responses, () -> DeviceMessages.device(deviceService.createDevice(DeviceMessages.creation(request))));
+    }
+
+    @Override
+    public void update(UpdateDeviceRequest request, StreamObserver<Empty> responses) {
+        unary(responses, () -> {
+            deviceService.updateDevice(request.getId(), DeviceMessages.update(request));
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    @Override
+    public void delete(DeleteDeviceRequest request, StreamObserver<Empty> responses) {
+        unary(responses, () -> {
+            deviceService.deleteDevice(request.getId());
+            return Empty.getDefaultInstance();
+        });
+    }
+
+    @Override
+    public void listByBrand(ListByBrandRequest request, StreamObserver<DeviceList> responses) {
+        if (request.getBrand().isBlank()) {
+            responses.onError(Status.INVALID_ARGUMENT.withDescription("A brand is required").asRuntimeException());
+            return;
+        }
+        list(request.getBrand(), null, responses);
+    }
+
+    @Override
+    public void listByState(ListByStateRequest request, StreamObserver<DeviceList> responses) {
+        DeviceState state;
+        try {
+            state = DeviceMessages.state(request.getState());
+        } catch (RuntimeException e) {
+            responses.onError(DeviceMessages.status(e));
+            return;
+        }
+        if (state == null) {
+            responses.onError(Status.INVALID_ARGUMENT.withDescription("A state is required").asRuntimeException());
+            return;
+        }
+        list(null, state, responses);
+    }
+
+    @Override
+    public void listAll(ListAllRequest request, StreamObserver<DeviceList> responses) {
+        list(null, null, responses);
+    }
+
+    @Override
+    public StreamObserver<WriteRequest> bulkWrite(StreamObserver<WriteResult> responses) {
+        return new BulkWriteCall(deviceService, responses, streams, properties.bulkBatchSize(), properties.stallTimeout());
+    }
+
+    private void list(String brand, DeviceState state, StreamObserver<DeviceList> responses) {
+        FlowControlledStream<DeviceList> stream = new FlowControlledStream<>(responses, properties.stallTimeout());
+        if (!listStreams.tryAcquire()) {
+            stream.fail(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many list calls open, at most " + properties.maxListStreams())
+                    .asRuntimeException());
+            return;
+        }
+        streams.execute(Context.current().wrap(RoutingContext.propagate(() -> {
+            try {
+                DeviceList.Builder chunk = DeviceList.newBuilder();
+                deviceCursor.forEach(brand, state, device -> {
+                    chunk.addDevices(DeviceMessages.device(device));
+                    if (chunk.getDevicesCount() == properties.listChunkSize()) {
+                        stream.send(chunk.build());
+                        chunk.clear();
+                    }
+                });
+                if (chunk.getDevicesCount() > 0) {
+                    stream.send(chunk.build());
+                }
+                stream.complete();
+            } catch (RuntimeException e) {
+                stream.fail(DeviceMessages.status(e));
+            } finally {
+                listStreams.release();
+            }
+        })));
+    }
+
+    private static <T> void unary(StreamObserver<T> responses, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            responses.onError(DeviceMessages.status(e));
+            return;
+        }
+        responses.onNext(response);
+        responses.onCompleted();
+    }
+
+    @Override
+    public void close() {
+        streams.shutdownNow();
+    }
+}
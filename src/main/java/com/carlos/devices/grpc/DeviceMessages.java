@@ -0,0 +1,101 @@
+package com.carlos.devices.grpc;
+
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import com.carlos.devices.domain.exception.ServiceOverloadedException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.grpc.v1.CreateDeviceRequest;
+import com.carlos.devices.grpc.v1.UpdateDeviceRequest;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conversions between the device model and the messages of the gRPC service, and from the exceptions of the
+ * use cases to the status of the call.
+ * <p>
+ * Protobuf strings and enums cannot be absent: an empty name or brand and an unspecified state stand for a
+ * field not set, as a missing field does in the REST API.
+ */
+final class DeviceMessages {
+
+    static final DateTimeFormatter CREATION_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceMessages.class);
+
+    private DeviceMessages() {
+    }
+
+    static com.carlos.devices.grpc.v1.Device device(Device device) {
+        com.carlos.devices.grpc.v1.Device.Builder message = com.carlos.devices.grpc.v1.Device.newBuilder()
+                .setId(device.id())
+                .setName(device.name())
+                .setBrand(device.brand())
+                .setState(state(device.state()));
+        if (device.creationTime() != null) {
+            message.setCreationTime(CREATION_TIME_FORMAT.format(device.creationTime()));
+        }
+        return message.build();
+    }
+
+    static CreateUpdateDevice creation(CreateDeviceRequest request) {
+        return new CreateUpdateDevice(emptyToNull(request.getName()), emptyToNull(request.getBrand()), null);
+    }
+
+    static CreateUpdateDevice update(UpdateDeviceRequest request) {
+        return new CreateUpdateDevice(emptyToNull(request.getName()), emptyToNull(request.getBrand()),
+                state(request.getState()));
+    }
+
+    static com.carlos.devices.grpc.v1.DeviceState state(DeviceState state) {
+        return switch (state) {
+            case AVAILABLE -> com.carlos.devices.grpc.v1.DeviceState.AVAILABLE;
+            case IN_USE -> com.carlos.devices.grpc.v1.DeviceState.IN_USE;
+            case DISABLED -> com.carlos.devices.grpc.v1.DeviceState.DISABLED;
+        };
+    }
+
+    /**
+     * @return the state, or {@code null} when unspecified
+     * @throws BusinessRulesException if the state is not one this version knows
+     */
+    static DeviceState state(com.carlos.devices.grpc.v1.DeviceState state) {
+        return switch (state) {
+            case DEVICE_STATE_UNSPECIFIED -> null;
+            case AVAILABLE -> DeviceState.AVAILABLE;
+            case IN_USE -> DeviceState.IN_USE;
+            case DISABLED -> DeviceState.DISABLED;
+            case UNRECOGNIZED -> throw new BusinessRulesException("Invalid device state: " + state);
+        };
+    }
+
+    /**
+     * The status a call fails with, with the HTTP status of the REST API in mind: {@code NOT_FOUND} for a
+     * 404, {@code INVALID_ARGUMENT} for a 400, {@code UNAVAILABLE} for a 503 and {@code DEADLINE_EXCEEDED}
+     * for a 504. Anything else is an {@code INTERNAL} error, logged.
+     */
+    static StatusRuntimeException status(RuntimeException exception) {
+        Status status = switch (exception) {
+            case StatusRuntimeException e -> e.getStatus();
+            case DataException e -> Status.NOT_FOUND.withDescription(e.getMessage());
+            case BusinessRulesException e -> Status.INVALID_ARGUMENT.withDescription(e.getMessage());
+            case ServiceOverloadedException e -> Status.UNAVAILABLE.withDescription(e.getMessage());
+            case DeadlineExceededException e -> Status.DEADLINE_EXCEEDED.withDescription(e.getMessage());
+            default -> {
+                logger.error("gRPC call failed", exception);
+                yield Status.INTERNAL.withDescription(exception.getMessage());
+            }
+        };
+        return status.withCause(exception).asRuntimeException();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,105 @@
+package com.carlos.devices.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the responses of a streaming call from a thread of its own, only as fast as the client reads them.
+ * <p>
+ * gRPC buffers whatever is sent to a client that does not read, so a producer that does not wait for the
+ * call to be ready would read a whole cursor into memory. gRPC runs the callbacks of a call one at a time,
+ * including the one telling it is ready again: the sending thread must not be the thread of the call
+ * handler, or it would wait for a callback that cannot run.
+ * <p>
+ * Must be created in the call handler, which is the only time gRPC accepts the ready and cancel handlers.
+ */
+final class FlowControlledStream<T> {
+
+    private final ServerCallStreamObserver<T> observer;
+    private final long stallTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition readyOrCancelled = lock.newCondition();
+    private volatile boolean cancelled;
+
+    FlowControlledStream(StreamObserver<T> responses, Duration stallTimeout) {
+        this.observer = (ServerCallStreamObserver<T>) responses;
+        this.stallTimeoutNanos = stallTimeout.toNanos();
+        observer.setOnReadyHandler(this::signal);
+        observer.setOnCancelHandler(() -> {
+            cancelled = true;
+            signal();
+        });
+    }
+
+    ServerCallStreamObserver<T> observer() {
+        return observer;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Sends the message once the client is ready for it.
+     *
+     * @throws StatusRuntimeException {@code CANCELLED} if the client cancelled the call, or
+     *                                {@code DEADLINE_EXCEEDED} if it read nothing for the stall timeout
+     */
+    void send(T message) {
+        if (cancelled || !observer.isReady()) {
+            awaitReady();
+        }
+        observer.onNext(message);
+    }
+
+    void complete() {
+        if (!cancelled) {
+            observer.onCompleted();
+        }
+    }
+
+    void fail(StatusRuntimeException exception) {
+        if (!cancelled) {
+            observer.onError(exception);
+        }
+    }
+
+    private void awaitReady() {
+        lock.lock();
+        try {
+            long remaining = stallTimeoutNanos;
+            while (!observer.isReady() && !cancelled) {
+                if (remaining <= 0) {
+                    throw Status.DEADLINE_EXCEEDED
+                            .withDescription("The client read nothing for " + TimeUnit.NANOSECONDS.toMillis(stallTimeoutNanos) + " ms")
+                            .asRuntimeException();
+                }
+                remaining = readyOrCancelled.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("Interrupted while waiting for the client").asRuntimeException();
+        } finally {
+            lock.unlock();
+        }
+        if (cancelled) {
+            throw Status.CANCELLED.withDescription("Cancelled by the client").asRuntimeException();
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            readyOrCancelled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.carlos.devices.grpc;
+
+import com.carlos.devices.domain.DeviceCursor;
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.repository.DatabaseDeviceCursor;
+import io.grpc.ServerInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Serves the device API over gRPC, next to the REST API, when {@code devices.grpc.enabled=true}.
+ * <p>
+ * Both APIs share the {@link DeviceService}, and so the connection pool. The list calls read the devices
+ * through a cursor on the application data source and the bulk writes are written as batches, neither of
+ * which knows about sharded storage, so there is no gRPC server with sharding, nor when the application only
+ * runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.grpc.enabled:false} and !${devices.sharding.enabled:false}"
+        + " and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(GrpcProperties.class)
+public class GrpcConfiguration {
+
+    @Bean
+    public DeviceCursor deviceCursor(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                     GrpcProperties properties) {
+        return new DatabaseDeviceCursor(dataSource, transactionManager, properties.fetchSize());
+    }
+
+    @Bean
+    public DeviceGrpcService deviceGrpcService(DeviceService deviceService, DeviceCursor deviceCursor,
+                                               GrpcProperties properties) {
+        return new DeviceGrpcService(deviceService, deviceCursor, properties);
+    }
+
+    @Bean
+    public GrpcServer grpcServer(DeviceGrpcService deviceGrpcService, ObjectProvider<ServerInterceptor> interceptors,
+                                 GrpcProperties properties) {
+        return new GrpcServer(deviceGrpcService, interceptors.orderedStream().toList(), properties);
+    }
+}
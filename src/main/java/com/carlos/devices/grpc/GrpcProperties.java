@@ -0,0 +1,32 @@
+package com.carlos.devices.grpc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the gRPC device service.
+ *
+ * @param enabled             whether the gRPC server is started next to the web server
+ * @param port                the port of the gRPC server, 0 for a random port
+ * @param fetchSize           the rows fetched at a time by the cursor of a list call
+ * @param listChunkSize       the devices sent per message of a list call
+ * @param maxListStreams      the list calls open at once, each holding a connection of the pool; the calls
+ *                            over it fail with {@code RESOURCE_EXHAUSTED}
+ * @param stallTimeout        how long a list or bulk write call waits for a client that reads no more
+ *                            messages before failing with {@code DEADLINE_EXCEEDED}
+ * @param bulkBatchSize       the most writes of a bulk write call written in one batch; larger values are
+ *                            capped to the 1000 operations a batch may have
+ * @param shutdownGracePeriod how long the calls in progress are given to complete at shutdown
+ */
+@ConfigurationProperties(prefix = "devices.grpc")
+public record GrpcProperties(@DefaultValue("false") boolean enabled,
+                             @DefaultValue("9090") int port,
+                             @DefaultValue("500") int fetchSize,
+                             @DefaultValue("100") int listChunkSize,
+                             @DefaultValue("4") int maxListStreams,
+                             @DefaultValue("30s") Duration stallTimeout,
+                             @DefaultValue("100") int bulkBatchSize,
+                             @DefaultValue("10s") Duration shutdownGracePeriod) {
+}
@@ -0,0 +1,99 @@
+package com.carlos.devices.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The gRPC server, on a port of its own next to the web server. It is started once the application context
+ * is refreshed and stopped before the beans it calls, the connection pool among them, are destroyed.
+ * <p>
+ * The calls run on virtual threads, as the web requests do, since the use cases block on the database. At
+ * shutdown the server stops accepting calls and gives the calls in progress
+ * {@link GrpcProperties#shutdownGracePeriod()} to complete before cancelling them.
+ * <p>
+ * The interceptors play the part of the servlet filters of the web requests, such as binding the routing
+ * context of the call.
+ */
+public class GrpcServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServer.class);
+
+    private final BindableService service;
+    private final List<ServerInterceptor> interceptors;
+    private final GrpcProperties properties;
+    private volatile Server server;
+    private volatile ExecutorService executor;
+
+    public GrpcServer(BindableService service, List<ServerInterceptor> interceptors, GrpcProperties properties) {
+        this.service = service;
+        this.interceptors = List.copyOf(interceptors);
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-", 0).factory());
+        try {
+            server = Grpc.newServerBuilderForPort(properties.port(), InsecureServerCredentials.create())
+                    .executor(executor)
+                    .addService(ServerInterceptors.intercept(service, interceptors))
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("The gRPC server could not start on port " + properties.port(), e);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(properties.shutdownGracePeriod().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("gRPC calls still in progress after {}, cancelling them", properties.shutdownGracePeriod());
+                running.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return the port the server listens on, the one picked when configured with port 0
+     */
+    public int getPort() {
+        Server running = server;
+        if (running == null) {
+            throw new IllegalStateException("The gRPC server is not running");
+        }
+        return running.getPort();
+    }
+}
@@ -0,0 +1,101 @@
+package com.carlos.devices.hotkeys;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch of how many times each key was seen, in a fixed amount of memory.
+ * <p>
+ * Each key is counted in one cell of each of the {@code depth} rows, chosen by independent hashes of the key,
+ * and its estimate is the smallest of those cells: it is never below the real count, and above it only by the
+ * other keys sharing all of its cells. The counters are striped: each thread counts in one of several copies
+ * of the table, picked from its id, so that concurrent threads seldom increment the same cell, and an estimate
+ * sums the copies. No lock is taken.
+ */
+final class CountMinSketch {
+
+    private static final int MAX_STRIPES = 8;
+    private static final long ROW_SEED = 0x9e3779b97f4a7c15L;
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicIntegerArray[] stripes;
+
+    /**
+     * @param width the cells of a row, rounded up to a power of two
+     * @param depth the rows, one hash each
+     */
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("The width and depth of a sketch must be positive");
+        }
+        this.depth = depth;
+        this.width = powerOfTwo(width);
+        this.mask = this.width - 1;
+        this.stripes = new AtomicIntegerArray[Math.min(MAX_STRIPES, powerOfTwo(Runtime.getRuntime().availableProcessors()))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new AtomicIntegerArray(depth * this.width);
+        }
+    }
+
+    /**
+     * Counts one occurrence of the key with the given hash.
+     */
+    void add(int hash) {
+        AtomicIntegerArray stripe = stripes[(int) mix(Thread.currentThread().threadId()) & (stripes.length - 1)];
+        for (int row = 0; row < depth; row++) {
+            stripe.getAndIncrement(cell(hash, row));
+        }
+    }
+
+    /**
+     * The estimated occurrences of the key with the given hash, never below the real count.
+     */
+    long estimate(int hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            long count = 0;
+            for (AtomicIntegerArray stripe : stripes) {
+                count += stripe.get(cell);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * Resets every count to zero.
+     */
+    void clear() {
+        for (AtomicIntegerArray stripe : stripes) {
+            for (int i = 0; i < stripe.length(); i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * The cell of the key in the row. Each row mixes the hash with its own seed, so that two keys sharing a
+     * cell in one row are no more likely to share one in the others.
+     */
+    private int cell(int hash, int row) {
+        return row * width + ((int) mix(hash + ROW_SEED * (row + 1)) & mask);
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3, so that close keys, like consecutive ids, land in unrelated cells.
+     */
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private static int powerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
@@ -0,0 +1,173 @@
+package com.carlos.devices.hotkeys;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The most frequent keys over a sliding window, found with count-min sketches.
+ * <p>
+ * The window is a ring of slices, each covering an equal part of it with its own {@link CountMinSketch} and
+ * its own set of candidate keys; {@link #rotate()} clears the oldest slice and counts in it from then on. A
+ * key becomes a candidate of the current slice when its estimate in that slice reaches the slice floor, the
+ * smallest estimate kept when the candidates were last trimmed down to the capacity, so only the keys that
+ * can be among the most frequent are kept. The top keys are the candidates of all slices, ranked by their
+ * estimates summed over the slices.
+ *
+ * @param <K> the type of the keys
+ */
+final class HeavyHitters<K> {
+
+    /**
+     * A key with its estimated occurrences over the window.
+     */
+    record Count<K>(K key, long count) {
+    }
+
+    private static final class Slice<K> {
+
+        private final CountMinSketch sketch;
+        private final Set<K> candidates = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean trimming = new AtomicBoolean();
+        private final LongAdder total = new LongAdder();
+        private volatile long floor;
+
+        Slice(int width, int depth) {
+            this.sketch = new CountMinSketch(width, depth);
+        }
+
+        void clear() {
+            sketch.clear();
+            candidates.clear();
+            total.reset();
+            floor = 0;
+        }
+    }
+
+    private final int capacity;
+    private final Slice<K>[] slices;
+    private final LongAdder events = new LongAdder();
+    private volatile int current;
+
+    /**
+     * @param capacity the candidates kept per slice, at least the number of top keys asked for
+     * @param slices   the slices of the window
+     * @param width    the width of the sketch of a slice
+     * @param depth    the depth of the sketch of a slice
+     */
+    @SuppressWarnings("unchecked")
+    HeavyHitters(int capacity, int slices, int width, int depth) {
+        if (capacity < 1 || slices < 1) {
+            throw new IllegalArgumentException("The capacity and slices of the heavy hitters must be positive");
+        }
+        this.capacity = capacity;
+        this.slices = (Slice<K>[]) new Slice<?>[slices];
+        for (int i = 0; i < slices; i++) {
+            this.slices[i] = new Slice<>(width, depth);
+        }
+    }
+
+    /**
+     * Counts one occurrence of the key.
+     */
+    void add(K key) {
+        Slice<K> slice = slices[current];
+        int hash = key.hashCode();
+        slice.sketch.add(hash);
+        slice.total.increment();
+        events.increment();
+        if (slice.candidates.contains(key) || slice.sketch.estimate(hash) < slice.floor) {
+            return;
+        }
+        slice.candidates.add(key);
+        if (slice.candidates.size() > 2 * capacity && slice.trimming.compareAndSet(false, true)) {
+            try {
+                trim(slice);
+            } finally {
+                slice.trimming.set(false);
+            }
+        }
+    }
+
+    /**
+     * Keeps the {@code capacity} candidates of the slice with the highest estimates, and raises its floor to
+     * the smallest of them.
+     */
+    private void trim(Slice<K> slice) {
+        List<Count<K>> counts = new ArrayList<>(slice.candidates.size());
+        for (K key : slice.candidates) {
+            counts.add(new Count<>(key, slice.sketch.estimate(key.hashCode())));
+        }
+        counts.sort(Comparator.comparingLong(Count<K>::count).reversed());
+        for (int i = capacity; i < counts.size(); i++) {
+            slice.candidates.remove(counts.get(i).key());
+        }
+        slice.floor = counts.get(capacity - 1).count();
+    }
+
+    /**
+     * Ends the current slice: the oldest slice is cleared and counts the next occurrences.
+     */
+    void rotate() {
+        int next = (current + 1) % slices.length;
+        slices[next].clear();
+        current = next;
+    }
+
+    /**
+     * Clears every slice, the occurrences counted since the start are kept.
+     */
+    void clear() {
+        for (Slice<K> slice : slices) {
+            slice.clear();
+        }
+    }
+
+    /**
+     * The {@code k} most frequent keys over the window, most frequent first.
+     */
+    List<Count<K>> top(int k) {
+        Set<K> keys = new HashSet<>();
+        for (Slice<K> slice : slices) {
+            keys.addAll(slice.candidates);
+        }
+        Map<K, Long> counts = new HashMap<>();
+        for (K key : keys) {
+            long count = 0;
+            for (Slice<K> slice : slices) {
+                count += slice.sketch.estimate(key.hashCode());
+            }
+            counts.put(key, count);
+        }
+        return counts.entrySet().stream()
+                .map(entry -> new Count<>(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(Count<K>::count).reversed())
+                .limit(k)
+                .toList();
+    }
+
+    /**
+     * The occurrences counted over the window.
+     */
+    long total() {
+        long total = 0;
+        for (Slice<K> slice : slices) {
+            total += slice.total.sum();
+        }
+        return total;
+    }
+
+    /**
+     * The occurrences counted since the start, for the counters.
+     */
+    long events() {
+        return events.sum();
+    }
+}
@@ -0,0 +1,179 @@
+package com.carlos.devices.hotkeys;
+
+import com.carlos.devices.domain.DeviceAccessTracker;
+import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the hot keys of the device traffic: the most read devices, the most written devices, and the most
+ * queried brands and states, each over the sliding window of {@link HotKeysProperties#window()}.
+ * <p>
+ * Each dimension is counted by {@link HeavyHitters} in striped count-min sketches, so recording a call takes
+ * a few atomic increments and no lock, and the memory does not grow with the number of keys. A background
+ * thread moves the window on every {@code window / slices}, and then publishes the hottest keys as the
+ * {@code devices.hotkeys.top} gauges; the calls counted per dimension are the {@code devices.hotkeys.events}
+ * counters. The full ranking is reported at {@code /actuator/hotkeys}.
+ */
+public class HotKeyTracker implements DeviceAccessTracker, MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HotKeyTracker.class);
+
+    /**
+     * A key and its estimated calls over the window.
+     */
+    public record HotKey(String key, long count) {
+    }
+
+    /**
+     * The calls counted over the window in a dimension, and its hottest keys.
+     */
+    public record Dimension(long total, List<HotKey> top) {
+    }
+
+    /**
+     * The hot keys of every dimension.
+     */
+    public record Report(Duration window, Map<String, Dimension> dimensions) {
+    }
+
+    private final HotKeysProperties properties;
+    private final HeavyHitters<Integer> reads;
+    private final HeavyHitters<Integer> writes;
+    private final HeavyHitters<String> brands;
+    private final HeavyHitters<DeviceState> states;
+    private final Map<String, HeavyHitters<?>> dimensions;
+    private final ScheduledExecutorService rotator;
+    private volatile MultiGauge topGauges;
+
+    public HotKeyTracker(HotKeysProperties properties) {
+        this.properties = properties;
+        if (properties.slices() < 1 || properties.window().compareTo(Duration.ofMillis(properties.slices())) < 0) {
+            throw new IllegalArgumentException("The hot keys window must have at least one millisecond per slice");
+        }
+        int capacity = Math.max(properties.topK(), properties.metricKeys());
+        this.reads = new HeavyHitters<>(capacity, properties.slices(), properties.width(), properties.depth());
+        this.writes = new HeavyHitters<>(capacity, properties.slices(), properties.width(), properties.depth());
+        this.brands = new HeavyHitters<>(capacity, properties.slices(), properties.width(), properties.depth());
+        this.states = new HeavyHitters<>(capacity, properties.slices(), properties.width(), properties.depth());
+        Map<String, HeavyHitters<?>> dimensions = new LinkedHashMap<>();
+        dimensions.put("read", reads);
+        dimensions.put("write", writes);
+        dimensions.put("brand", brands);
+        dimensions.put("state", states);
+        this.dimensions = Map.copyOf(dimensions);
+        this.rotator = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("device-hotkeys-rotate").daemon().factory());
+        long sliceNanos = properties.window().toNanos() / properties.slices();
+        rotator.scheduleAtFixedRate(this::rotateQuietly, sliceNanos, sliceNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void deviceRead(int id) {
+        reads.add(id);
+    }
+
+    @Override
+    public void deviceWritten(int id) {
+        writes.add(id);
+    }
+
+    @Override
+    public void brandQueried(String brand) {
+        if (brand != null) {
+            brands.add(brand);
+        }
+    }
+
+    @Override
+    public void stateQueried(DeviceState state) {
+        if (state != null) {
+            states.add(state);
+        }
+    }
+
+    /**
+     * The {@code k} hottest keys of every dimension over the window.
+     */
+    public Report report(int k) {
+        Map<String, Dimension> report = new LinkedHashMap<>();
+        for (String dimension : List.of("read", "write", "brand", "state")) {
+            HeavyHitters<?> hitters = dimensions.get(dimension);
+            report.put(dimension, new Dimension(hitters.total(), hitters.top(k).stream()
+                    .map(count -> new HotKey(String.valueOf(count.key()), count.count()))
+                    .toList()));
+        }
+        return new Report(properties.window(), report);
+    }
+
+    /**
+     * Moves the window on by one slice, then publishes the hottest keys as gauges.
+     */
+    void rotate() {
+        dimensions.values().forEach(HeavyHitters::rotate);
+        MultiGauge gauges = topGauges;
+        if (gauges != null) {
+            gauges.register(topRows(), true);
+        }
+    }
+
+    /**
+     * Forgets the calls counted over the window, such as the synthetic ones of the startup warmup, and
+     * withdraws the hot key gauges. The {@code devices.hotkeys.events} counters keep counting from where they are.
+     */
+    public void clear() {
+        dimensions.values().forEach(HeavyHitters::clear);
+        MultiGauge gauges = topGauges;
+        if (gauges != null) {
+            gauges.register(List.of(), true);
+        }
+    }
+
+    private void rotateQuietly() {
+        try {
+            rotate();
+        } catch (RuntimeException e) {
+            log.warn("Could not move the hot keys window", e);
+        }
+    }
+
+    private List<MultiGauge.Row<?>> topRows() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        report(properties.metricKeys()).dimensions().forEach((dimension, report) -> {
+            for (HotKey hotKey : report.top()) {
+                rows.add(MultiGauge.Row.of(Tags.of("dimension", dimension, "key", hotKey.key()), hotKey.count()));
+            }
+        });
+        return rows;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        rotator.shutdown();
+        rotator.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dimensions.forEach((dimension, hitters) -> FunctionCounter.builder("devices.hotkeys.events", hitters, HeavyHitters::events)
+                .description("Device calls counted for the hot keys")
+                .tag("dimension", dimension)
+                .register(registry));
+        topGauges = MultiGauge.builder("devices.hotkeys.top")
+                .description("Estimated calls over the window of the hottest keys, refreshed as the window moves")
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.carlos.devices.hotkeys;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracks the hot keys of the device traffic when {@code devices.hotkeys.enabled=true}, and reports them at
+ * {@code /actuator/hotkeys}.
+ * <p>
+ * The tracker is given to the device service, so it counts the calls whatever the storage, sharded or not.
+ * Nothing is tracked when the application only runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.hotkeys.enabled:false} and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(HotKeysProperties.class)
+public class HotKeysConfiguration {
+
+    @Bean
+    public HotKeyTracker hotKeyTracker(HotKeysProperties properties) {
+        return new HotKeyTracker(properties);
+    }
+
+    @Bean
+    public HotKeysEndpoint hotKeysEndpoint(HotKeyTracker tracker, HotKeysProperties properties) {
+        return new HotKeysEndpoint(tracker, properties);
+    }
+}
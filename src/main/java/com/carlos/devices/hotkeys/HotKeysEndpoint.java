@@ -0,0 +1,24 @@
+package com.carlos.devices.hotkeys;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Reports the hottest devices, brands and states over the sliding window at {@code /actuator/hotkeys}.
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker tracker;
+    private final HotKeysProperties properties;
+
+    public HotKeysEndpoint(HotKeyTracker tracker, HotKeysProperties properties) {
+        this.tracker = tracker;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public HotKeyTracker.Report hotKeys() {
+        return tracker.report(properties.topK());
+    }
+}
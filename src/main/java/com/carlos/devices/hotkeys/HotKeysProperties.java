@@ -0,0 +1,27 @@
+package com.carlos.devices.hotkeys;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the detection of the most read and written devices and the most queried brands and states.
+ *
+ * @param enabled    whether the device reads and writes are tracked
+ * @param window     the sliding window the keys are counted over
+ * @param slices     the slices of the window, one is dropped each {@code window / slices}
+ * @param width      the counters of a row of the sketch of a slice, a power of two
+ * @param depth      the rows of the sketch of a slice
+ * @param topK       the hottest keys reported by {@code /actuator/hotkeys}
+ * @param metricKeys the hottest keys published as {@code devices.hotkeys.top} gauges
+ */
+@ConfigurationProperties(prefix = "devices.hotkeys")
+public record HotKeysProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("1m") Duration window,
+                                @DefaultValue("6") int slices,
+                                @DefaultValue("1024") int width,
+                                @DefaultValue("4") int depth,
+                                @DefaultValue("20") int topK,
+                                @DefaultValue("5") int metricKeys) {
+}
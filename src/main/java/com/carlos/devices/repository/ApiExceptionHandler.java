@@ -2,9 +2,13 @@ package com.carlos.devices.repository;
 
 import com.carlos.devices.domain.exception.BusinessRulesException;
 import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import com.carlos.devices.domain.exception.ServiceOverloadedException;
 import com.carlos.devices.domain.model.ErrorDTO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -28,6 +32,10 @@ import org.springframework.web.servlet.resource.NoResourceFoundException;
  * - {@code DataException} results in a "DATA_ERROR" response with an HTTP 404 status.
  * - {@code NoResourceFoundException} results in an "INVALID_REQUEST" response with an HTTP 400 status.
  * - {@code MethodArgumentTypeMismatchException} results in an "INVALID_REQUEST" response with an HTTP 400 status.
+ * - {@code HttpMediaTypeNotSupportedException} results in an "INVALID_REQUEST" response with an HTTP 415 status.
+ * - {@code ServiceOverloadedException} results in an "OVERLOADED" response with an HTTP 503 status and a
+ *   {@code Retry-After} header.
+ * - {@code DeadlineExceededException} results in a "DEADLINE_EXCEEDED" response with an HTTP 504 status.
  * - Generic {@code Exception} results in a "SYSTEM_ERROR" response with an HTTP 500 status.
  *
  * Purpose:
@@ -58,6 +66,24 @@ public class ApiExceptionHandler {
         return new ResponseEntity<>(new ErrorDTO("INVALID_REQUEST", exception.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(value = HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ErrorDTO> unsupportedMediaType(HttpMediaTypeNotSupportedException exception) {
+        return new ResponseEntity<>(new ErrorDTO("INVALID_REQUEST", exception.getMessage()), HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    @ExceptionHandler(value = ServiceOverloadedException.class)
+    public ResponseEntity<ErrorDTO> overloaded(ServiceOverloadedException exception) {
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorDTO("OVERLOADED", exception.getMessage()));
+    }
+
+    @ExceptionHandler(value = DeadlineExceededException.class)
+    public ResponseEntity<ErrorDTO> deadlineExceeded(DeadlineExceededException exception) {
+        return new ResponseEntity<>(new ErrorDTO("DEADLINE_EXCEEDED", exception.getMessage()), HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorDTO> generalHandler(Exception exception) {
         return new ResponseEntity<>(new ErrorDTO("SYSTEM_ERROR", exception.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
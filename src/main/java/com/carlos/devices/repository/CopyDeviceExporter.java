@@ -0,0 +1,73 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.DeviceExporter;
+import com.carlos.devices.domain.model.DeviceState;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of the {@link DeviceExporter} interface using the PostgreSQL {@code COPY ... TO STDOUT}
+ * protocol.
+ * <p>
+ * The rows are formatted as CSV by the database and copied from the connection straight to the output
+ * stream by the pgjdbc {@link org.postgresql.copy.CopyManager}, so the export never materializes
+ * {@link com.carlos.devices.domain.model.Device} objects and its memory use does not depend on the
+ * number of devices.
+ * <p>
+ * {@code COPY} does not accept bind parameters, the brand filter is embedded as a literal escaped by
+ * the driver and the state filter comes from the {@link DeviceState} enum.
+ * <p>
+ * The export only reads the primary database, so it is not registered with sharded storage.
+ */
+@Repository
+@ConditionalOnExpression("!${devices.sharding.enabled:false}")
+@Transactional(readOnly = true)
+public class CopyDeviceExporter implements DeviceExporter {
+
+    static final String EXPORT_QUERY = "COPY (SELECT id, name, brand, state, creation_time FROM device%s ORDER BY id) "
+            + "TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CopyDeviceExporter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void exportCsv(String brand, DeviceState state, OutputStream output) throws IOException {
+        try {
+            jdbcTemplate.execute((Connection connection) -> {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try {
+                    return pgConnection.getCopyAPI().copyOut(String.format(EXPORT_QUERY, where(pgConnection, brand, state)), output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String where(PGConnection connection, String brand, DeviceState state) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        if (brand != null) {
+            conditions.add("brand = '" + connection.escapeLiteral(brand) + "'");
+        }
+        if (state != null) {
+            conditions.add("state = '" + state.name() + "'");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
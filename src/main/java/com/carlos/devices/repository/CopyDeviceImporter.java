@@ -0,0 +1,118 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.DeviceImporter;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.DevicesImportedEvent;
+import com.carlos.devices.domain.model.ImportResult;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Implementation of the {@link DeviceImporter} interface using the PostgreSQL {@code COPY ... FROM STDIN}
+ * protocol.
+ * <p>
+ * The import runs in a single transaction, in four set-based steps:
+ * <ol>
+ *   <li>The CSV file is streamed into a temporary staging table that is dropped on commit. The staging
+ *   columns are unconstrained text, so a row can only fail the copy when the file itself is malformed.</li>
+ *   <li>One {@code UPDATE} applies the device creation rules to every staged row and records why a row
+ *   is rejected.</li>
+ *   <li>One {@code INSERT ... SELECT} creates the valid rows, in file order.</li>
+ *   <li>The rejected rows are copied out as the CSV report.</li>
+ * </ol>
+ * Neither the file nor the report is held in memory, so the memory use does not depend on the file size.
+ * A {@link DevicesImportedEvent} is published when devices were created. The import only writes to the
+ * primary database, so it is not registered with sharded storage.
+ */
+@Repository
+@ConditionalOnExpression("!${devices.sharding.enabled:false}")
+@Transactional
+public class CopyDeviceImporter implements DeviceImporter {
+
+    static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE device_import (
+                record BIGINT GENERATED ALWAYS AS IDENTITY,
+                name TEXT,
+                brand TEXT,
+                reason TEXT
+            ) ON COMMIT DROP""";
+    static final String IMPORT_QUERY = "COPY device_import (name, brand) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    static final String VALIDATE_QUERY = """
+            UPDATE device_import SET reason = CASE
+                WHEN coalesce(name, '') ~ '^\\s*$' OR coalesce(brand, '') ~ '^\\s*$' THEN 'Invalid device details, must have a name and a brand'
+                WHEN length(name) > 240 THEN 'Name longer than 240 characters'
+                WHEN length(brand) > 120 THEN 'Brand longer than 120 characters'
+            END""";
+    static final String MERGE_QUERY = """
+            INSERT INTO device (name, brand, state, creation_time)
+            SELECT name, brand, '%s', localtimestamp
+            FROM device_import
+            WHERE reason IS NULL
+            ORDER BY record""".formatted(DeviceState.AVAILABLE.name());
+    static final String REJECTED_QUERY = "COPY (SELECT record, name, brand, reason FROM device_import WHERE reason IS NOT NULL ORDER BY record) "
+            + "TO STDOUT WITH (FORMAT csv, HEADER true)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CopyDeviceImporter(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ImportResult importCsv(InputStream csv, OutputStream rejected) throws IOException {
+        ImportResult result;
+        try {
+            result = jdbcTemplate.execute((Connection connection) -> {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_TABLE);
+                    copy(copyManager, csv);
+                    statement.executeUpdate(VALIDATE_QUERY);
+                    long imported = statement.executeLargeUpdate(MERGE_QUERY);
+                    long rejectedRows = copyManager.copyOut(REJECTED_QUERY, rejected);
+                    return new ImportResult(imported, rejectedRows);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (result.imported() > 0) {
+            eventPublisher.publishEvent(new DevicesImportedEvent(result.imported()));
+        }
+        return result;
+    }
+
+    /**
+     * Streams the file into the staging table. A file that is not valid CSV for the staging columns,
+     * for example a row with too many columns, is a client error and fails the whole import.
+     */
+    private static void copy(CopyManager copyManager, InputStream csv) throws SQLException, IOException {
+        try {
+            copyManager.copyIn(IMPORT_QUERY, csv);
+        } catch (SQLException e) {
+            if (!"22P04".equals(e.getSQLState()) && !"22021".equals(e.getSQLState())) {
+                throw e;
+            }
+            throw new BusinessRulesException("Invalid CSV file, expected the columns name,brand: "
+                    + e.getMessage().replaceAll("\\s+", " "));
+        }
+    }
+}
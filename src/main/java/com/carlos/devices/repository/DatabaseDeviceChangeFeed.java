@@ -0,0 +1,74 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChange;
+import com.carlos.devices.domain.model.DeviceChanges;
+import com.carlos.devices.domain.model.DeviceState;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementation of the {@link DeviceChangeFeed} interface over the change columns of the device table
+ * and the device tombstones, both maintained by {@link DatabaseDeviceRepository}.
+ * <p>
+ * Both tables are indexed on {@code (change_txid, change_seq)}, so a page is a merge of two index range
+ * scans and its cost depends on the number of changes since the watermark, not on the number of devices.
+ * Only the changes of transactions below {@code pg_snapshot_xmin}, which are all finished, are returned;
+ * the changes of running transactions are picked up by a later call, see {@link ChangeWatermark}.
+ * <p>
+ * The sharded repository does not track changes, so the feed is not registered with sharded storage.
+ */
+@Repository
+@ConditionalOnExpression("!${devices.sharding.enabled:false}")
+@Transactional(readOnly = true)
+public class DatabaseDeviceChangeFeed implements DeviceChangeFeed {
+
+    static final String CHANGES_QUERY = """
+            SELECT change_txid::text AS txid, change_seq, id, name, brand, state, creation_time, deleted
+            FROM (SELECT change_txid, change_seq, id, name, brand, state, creation_time, false AS deleted
+                  FROM device
+                  WHERE (change_txid, change_seq) > (?::text::xid8, ?)
+                    AND change_txid < pg_snapshot_xmin(pg_current_snapshot())
+                  UNION ALL
+                  SELECT change_txid, change_seq, id, NULL, NULL, NULL, NULL, true
+                  FROM device_tombstone
+                  WHERE (change_txid, change_seq) > (?::text::xid8, ?)
+                    AND change_txid < pg_snapshot_xmin(pg_current_snapshot())) changes
+            ORDER BY change_txid, change_seq
+            LIMIT ?""";
+
+    private record Row(long txid, DeviceChange change) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseDeviceChangeFeed(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public DeviceChanges changesSince(ChangeWatermark since, int limit) {
+        List<Row> rows = jdbcTemplate.query(CHANGES_QUERY, (rs, rowNum) -> {
+            long seq = rs.getLong("change_seq");
+            int id = rs.getInt("id");
+            DeviceChange change = rs.getBoolean("deleted")
+                    ? new DeviceChange(DeviceChange.Type.DELETE, seq, id, null)
+                    : new DeviceChange(DeviceChange.Type.UPSERT, seq, id, new Device(id, rs.getString("name"), rs.getString("brand"),
+                            DeviceState.valueOf(rs.getString("state")), rs.getObject("creation_time", LocalDateTime.class)));
+            return new Row(Long.parseLong(rs.getString("txid")), change);
+        }, since.txid(), since.seq(), since.txid(), since.seq(), limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<Row> page = hasMore ? rows.subList(0, limit) : rows;
+        ChangeWatermark watermark = page.isEmpty() ? since
+                : new ChangeWatermark(page.getLast().txid(), page.getLast().change().seq());
+        return new DeviceChanges(page.stream().map(Row::change).toList(), watermark.toString(), hasMore);
+    }
+}
@@ -0,0 +1,52 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.DeviceCursor;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the {@link DeviceCursor} interface with a PostgreSQL cursor.
+ * <p>
+ * The driver only keeps a cursor open, and fetches {@code fetchSize} rows at a time, for a query run inside a
+ * transaction with a fetch size; otherwise it reads the whole result before returning the first row. The
+ * queries are the ones of the {@link DatabaseDeviceRepository} lists, run in a read-only transaction, which
+ * is sent to a replica when replica routing is enabled.
+ */
+public class DatabaseDeviceCursor implements DeviceCursor {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DatabaseDeviceCursor(DataSource dataSource, PlatformTransactionManager transactionManager, int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void forEach(String brand, DeviceState state, Consumer<Device> consumer) {
+        List<Object> parameters = new ArrayList<>(1);
+        String query;
+        if (brand != null) {
+            query = DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_BRAND_QUERY;
+            parameters.add(brand);
+        } else if (state != null) {
+            query = DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_STATE_QUERY;
+            parameters.add(state.name());
+        } else {
+            query = DatabaseDeviceRepository.SELECT_ALL_DEVICES_QUERY;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(query,
+                (RowCallbackHandler) rs -> consumer.accept(DeviceResultSetExtractor.device(rs)), parameters.toArray()));
+    }
+}
@@ -4,17 +4,26 @@ import com.carlos.devices.domain.DeviceRepository;
 import com.carlos.devices.domain.exception.BusinessRulesException;
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
 import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the {@link DeviceRepository} interface that uses a relational database for
@@ -29,6 +38,7 @@ import java.util.Collection;
  * 5. Retrieve all devices filtered by a specific brand.
  * 6. Retrieve all devices filtered by their state.
  * 7. Retrieve all devices stored in the database.
+ * 8. Lock a set of devices, and create, update or delete lists of devices with one JDBC batch per list.
  *
  * Transactions:
  * Methods annotated with {@link Transactional} ensure that updates, creation, and deletion
@@ -38,6 +48,20 @@ import java.util.Collection;
  * Queries:
  * Predefined SQL queries are used for various database operations. These include SELECT, INSERT,
  * UPDATE, and DELETE statements that leverage parameterized queries to prevent SQL injection attacks.
+ * The single device and list statements are {@link NamedStatement}s, prepared on the server from their
+ * first run on a connection and timed by phase. The inserts return the new ids themselves, instead of the
+ * driver rewriting them to return every column when asked for generated keys; a batch of creations is one
+ * multi-row insert, built for its size.
+ *
+ * Change Events:
+ * Every create, update and delete publishes a {@link DeviceChangedEvent} with the device before and
+ * after the change. The update and delete statements return the previous row, locked by the statement,
+ * so the event does not need an extra query.
+ *
+ * Change Tracking:
+ * Every write stamps the row with the next value of {@code device_change_seq} and the id of the writing
+ * transaction (inserts through the column defaults), and a delete leaves a row in {@code device_tombstone},
+ * so that {@link DatabaseDeviceChangeFeed} can return the changes since a watermark.
  *
  * Data Mapping:
  * The {@link DeviceResultSetExtractor} class is employed to map the {@link ResultSet} returned
@@ -52,25 +76,49 @@ import java.util.Collection;
  */
 @Repository
 @Transactional(readOnly = true)
-public class DatabaseDeviceRepository implements DeviceRepository {
+public class DatabaseDeviceRepository implements DeviceRepository, MeterBinder {
+
+    static final String SELECT_DEVICE_QUERY = "SELECT * FROM device WHERE id = ?";
+    static final String DELETE_DEVICE_QUERY = "WITH deleted AS (DELETE FROM device WHERE id = ? RETURNING *), "
+            + "tombstone AS (INSERT INTO device_tombstone (id) SELECT id FROM deleted) SELECT * FROM deleted";
+    static final String SELECT_ALL_DEVICES_BY_BRAND_QUERY = "SELECT * FROM device WHERE brand = ?";
+    static final String SELECT_ALL_DEVICES_BY_STATE_QUERY = "SELECT * FROM device WHERE state = ?";
+    static final String SELECT_ALL_DEVICES_QUERY = "SELECT * FROM device";
+    static final String UPDATE_DEVICE_QUERY = "UPDATE device SET name = ?, brand = ?, state = ?, "
+            + "change_seq = nextval('device_change_seq'), change_txid = pg_current_xact_id() "
+            + "FROM (SELECT * FROM device WHERE id = ? FOR UPDATE) previous WHERE device.id = previous.id RETURNING previous.*";
+    static final String INSERT_DEVICE_QUERY = "INSERT INTO device (name, brand, state, creation_time) VALUES (?, ?, ?, ?) RETURNING id";
+    static final String BATCH_INSERT_DEVICE_QUERY = "INSERT INTO device (name, brand, state, creation_time) VALUES %s RETURNING id";
+    private static final String INSERT_VALUES_ROW = "(?, ?, ?, ?)";
+    static final String SELECT_DEVICES_FOR_UPDATE_QUERY = "SELECT * FROM device WHERE id = ANY (?) ORDER BY id FOR UPDATE";
+    static final String BATCH_UPDATE_DEVICE_QUERY = "UPDATE device SET name = ?, brand = ?, state = ?, "
+            + "change_seq = nextval('device_change_seq'), change_txid = pg_current_xact_id() WHERE id = ?";
+    static final String BATCH_DELETE_DEVICE_QUERY = "WITH deleted AS (DELETE FROM device WHERE id = ? RETURNING id) "
+            + "INSERT INTO device_tombstone (id) SELECT id FROM deleted";
 
-    private static final String SELECT_DEVICE_QUERY = "SELECT * FROM device WHERE id = ?";
-    private static final String DELETE_DEVICE_QUERY = "DELETE FROM device WHERE id = ?";
-    private static final String SELECT_ALL_DEVICES_BY_BRAND_QUERY = "SELECT * FROM device WHERE brand = ?";
-    private static final String SELECT_ALL_DEVICES_BY_STATE_QUERY = "SELECT * FROM device WHERE state = ?";
-    private static final String SELECT_ALL_DEVICES_QUERY = "SELECT * FROM device";
-    private static final String UPDATE_DEVICE_QUERY = "UPDATE device SET name = ?, brand = ?, state = ? WHERE id = ?";
-    private static final String INSERT_DEVICE_QUERY = "INSERT INTO device (name, brand, state, creation_time) VALUES (?, ?, ?, ?)";
+    private final NamedStatement findByIdStatement = new NamedStatement("findById", SELECT_DEVICE_QUERY);
+    private final NamedStatement findByBrandStatement = new NamedStatement("findByBrand", SELECT_ALL_DEVICES_BY_BRAND_QUERY);
+    private final NamedStatement findByStateStatement = new NamedStatement("findByState", SELECT_ALL_DEVICES_BY_STATE_QUERY);
+    private final NamedStatement findAllStatement = new NamedStatement("findAll", SELECT_ALL_DEVICES_QUERY);
+    private final NamedStatement findAllByIdForUpdateStatement = new NamedStatement("findAllByIdForUpdate", SELECT_DEVICES_FOR_UPDATE_QUERY);
+    private final NamedStatement createStatement = new NamedStatement("create", INSERT_DEVICE_QUERY);
+    private final NamedStatement updateStatement = new NamedStatement("update", UPDATE_DEVICE_QUERY);
+    private final NamedStatement deleteStatement = new NamedStatement("delete", DELETE_DEVICE_QUERY);
+    private final List<NamedStatement> statements = List.of(findByIdStatement, findByBrandStatement,
+            findByStateStatement, findAllStatement, findAllByIdForUpdateStatement, createStatement, updateStatement,
+            deleteStatement);
 
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DatabaseDeviceRepository(JdbcTemplate jdbcTemplate) {
+    public DatabaseDeviceRepository(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Device findById(Integer id) {
-        Collection<Device> devices = jdbcTemplate.query(SELECT_DEVICE_QUERY, new DeviceResultSetExtractor(), id);
+        Collection<Device> devices = findByIdStatement.query(jdbcTemplate, new DeviceResultSetExtractor(), id);
         assert devices != null;
         if (devices.isEmpty()) {
             return null;
@@ -78,52 +126,138 @@ public class DatabaseDeviceRepository implements DeviceRepository {
         return devices.iterator().next();
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Device findByIdForUpdate(Integer id) {
+        return findAllByIdForUpdate(List.of(id)).get(id);
+    }
+
     @Override
     @Transactional()
     public void update(Integer id, CreateUpdateDevice device) {
-        jdbcTemplate.update(UPDATE_DEVICE_QUERY, device.name(), device.brand(), device.state().name(), id);
+        Collection<Device> previous = updateStatement.query(jdbcTemplate, new DeviceResultSetExtractor(),
+                device.name(), device.brand(), device.state().name(), id);
+        assert previous != null;
+        previous.forEach(before -> eventPublisher.publishEvent(new DeviceChangedEvent(before,
+                new Device(id, device.name(), device.brand(), device.state(), before.creationTime()))));
     }
 
     @Override
     @Transactional()
     public Device create(CreateUpdateDevice device) {
-        KeyHolder keyHolder = new GeneratedKeyHolder();
         LocalDateTime now = LocalDateTime.now();
+        Integer id = createStatement.query(jdbcTemplate, rs -> rs.next() ? rs.getInt(1) : null,
+                device.name(), device.brand(), DeviceState.AVAILABLE.name(), new SqlParameterValue(Types.TIMESTAMP, now));
 
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(INSERT_DEVICE_QUERY,
-                    Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, device.name());
-            ps.setString(2, device.brand());
-            ps.setString(3, DeviceState.AVAILABLE.name());
-            ps.setObject(4, now, java.sql.Types.TIMESTAMP);
-            return ps;
-        }, keyHolder);
-
-        return new Device((Integer) keyHolder.getKeyList().getFirst().get("id"), device.name(), device.brand(), DeviceState.AVAILABLE, now);
+        Device created = new Device(id, device.name(), device.brand(), DeviceState.AVAILABLE, now);
+        eventPublisher.publishEvent(new DeviceChangedEvent(null, created));
+        return created;
     }
 
     @Override
     @Transactional
     public void delete(Integer id) {
-        int modified = jdbcTemplate.update(DELETE_DEVICE_QUERY, id);
-        if (modified != 1) {
+        Collection<Device> deleted = deleteStatement.query(jdbcTemplate, new DeviceResultSetExtractor(), id);
+        assert deleted != null;
+        if (deleted.size() != 1) {
             throw new BusinessRulesException("Device not found for deletion: " + id);
         }
+        eventPublisher.publishEvent(new DeviceChangedEvent(deleted.iterator().next(), null));
     }
 
     @Override
     public Collection<Device> findByBrand(String brand) {
-        return jdbcTemplate.query(SELECT_ALL_DEVICES_BY_BRAND_QUERY, new DeviceResultSetExtractor(), brand);
+        return findByBrandStatement.query(jdbcTemplate, new DeviceResultSetExtractor(), brand);
     }
 
     @Override
     public Collection<Device> findByState(DeviceState state) {
-        return jdbcTemplate.query(SELECT_ALL_DEVICES_BY_STATE_QUERY, new DeviceResultSetExtractor(), state.name());
+        return findByStateStatement.query(jdbcTemplate, new DeviceResultSetExtractor(), state.name());
     }
 
     @Override
     public Collection<Device> findAll() {
-        return jdbcTemplate.query(SELECT_ALL_DEVICES_QUERY, new DeviceResultSetExtractor());
+        return findAllStatement.query(jdbcTemplate, new DeviceResultSetExtractor());
+    }
+
+    @Override
+    // The rows stay locked by the read-write transaction of the caller, never by a read-only one of its own
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Integer, Device> findAllByIdForUpdate(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Collection<Device> devices = findAllByIdForUpdateStatement.query(jdbcTemplate, new DeviceResultSetExtractor(),
+                (Object) ids.toArray(Integer[]::new));
+        assert devices != null;
+        return devices.stream().collect(Collectors.toMap(Device::id, Function.identity()));
+    }
+
+    @Override
+    @Transactional
+    public List<Device> createAll(List<CreateUpdateDevice> devices) {
+        if (devices.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String sql = BATCH_INSERT_DEVICE_QUERY.formatted(String.join(", ", Collections.nCopies(devices.size(), INSERT_VALUES_ROW)));
+        List<Integer> ids = new ArrayList<>(jdbcTemplate.query(sql, ps -> {
+            int index = 1;
+            for (CreateUpdateDevice device : devices) {
+                ps.setString(index++, device.name());
+                ps.setString(index++, device.brand());
+                ps.setString(index++, DeviceState.AVAILABLE.name());
+                ps.setObject(index++, now, Types.TIMESTAMP);
+            }
+        }, (rs, rowNum) -> rs.getInt("id")));
+        // The ids are taken from the sequence in the order of the rows, but RETURNING does not promise that order
+        Collections.sort(ids);
+
+        List<Device> created = new ArrayList<>(devices.size());
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = new Device(ids.get(i), devices.get(i).name(), devices.get(i).brand(),
+                    DeviceState.AVAILABLE, now);
+            created.add(device);
+            eventPublisher.publishEvent(new DeviceChangedEvent(null, device));
+        }
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public void updateAll(List<DeviceChangedEvent> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(BATCH_UPDATE_DEVICE_QUERY, changes, changes.size(), (ps, change) -> {
+            ps.setString(1, change.after().name());
+            ps.setString(2, change.after().brand());
+            ps.setString(3, change.after().state().name());
+            ps.setInt(4, change.after().id());
+        });
+        changes.forEach(eventPublisher::publishEvent);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll(List<Device> devices) {
+        if (devices.isEmpty()) {
+            return;
+        }
+        int[][] deleted = jdbcTemplate.batchUpdate(BATCH_DELETE_DEVICE_QUERY, devices, devices.size(),
+                (ps, device) -> ps.setInt(1, device.id()));
+        for (int i = 0; i < devices.size(); i++) {
+            if (deleted[0][i] == 0) {
+                throw new BusinessRulesException("Device not found for deletion: " + devices.get(i).id());
+            }
+        }
+        devices.forEach(device -> eventPublisher.publishEvent(new DeviceChangedEvent(device, null)));
+    }
+
+    @Override
+    // Registering meters needs no connection, unlike the read-only transaction of the class
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void bindTo(MeterRegistry registry) {
+        statements.forEach(statement -> statement.bindTo(registry));
     }
 }
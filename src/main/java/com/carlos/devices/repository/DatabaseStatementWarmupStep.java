@@ -0,0 +1,118 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.warmup.ConnectionPoolWarmupStep;
+import com.carlos.devices.warmup.WarmupProgress;
+import com.carlos.devices.warmup.WarmupStep;
+import org.postgresql.PGConnection;
+import org.springframework.core.annotation.Order;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepares the statements of the {@link DatabaseDeviceRepository} and the {@link DatabaseDeviceChangeFeed} on
+ * every idle connection of the pool.
+ * <p>
+ * The PostgreSQL driver only turns a statement into a named server-side prepared statement after it has run
+ * {@code prepareThreshold} times on a connection, and the server only settles on a generic plan for a prepared
+ * statement after five more executions. Until then every execution is parsed and planned. Each statement is
+ * run that many times on each connection, with parameters of the types the repository binds but that match
+ * no device, in a transaction that is rolled back. The repository statements are prepared from their first run,
+ * see {@link NamedStatement}, but still need the runs for the generic plan. The insert would take an id from
+ * the sequence, so it is only parsed.
+ */
+@Order(2)
+public class DatabaseStatementWarmupStep implements WarmupStep {
+
+    static final int GENERIC_PLAN_EXECUTIONS = 5;
+    private static final int NO_DEVICE = -1;
+    private static final long NO_CHANGE_TXID = Long.MAX_VALUE;
+
+    record BoundStatement(String sql, Object... parameters) {
+    }
+
+    static final List<BoundStatement> STATEMENTS = List.of(
+            new BoundStatement(DatabaseDeviceRepository.SELECT_DEVICE_QUERY, NO_DEVICE),
+            new BoundStatement(DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_BRAND_QUERY, ""),
+            new BoundStatement(DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_STATE_QUERY, ""),
+            new BoundStatement(DatabaseDeviceRepository.SELECT_ALL_DEVICES_QUERY),
+            new BoundStatement(DatabaseDeviceRepository.SELECT_DEVICES_FOR_UPDATE_QUERY, (Object) new Integer[]{NO_DEVICE}),
+            new BoundStatement(DatabaseDeviceRepository.UPDATE_DEVICE_QUERY, "", "", "", NO_DEVICE),
+            new BoundStatement(DatabaseDeviceRepository.DELETE_DEVICE_QUERY, NO_DEVICE),
+            new BoundStatement(DatabaseDeviceRepository.BATCH_UPDATE_DEVICE_QUERY, "", "", "", NO_DEVICE),
+            new BoundStatement(DatabaseDeviceRepository.BATCH_DELETE_DEVICE_QUERY, NO_DEVICE),
+            new BoundStatement(DatabaseDeviceChangeFeed.CHANGES_QUERY, NO_CHANGE_TXID, 0L, NO_CHANGE_TXID, 0L, 1));
+
+    private final DataSource dataSource;
+
+    public DatabaseStatementWarmupStep(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public String name() {
+        return "statements";
+    }
+
+    @Override
+    public void run(WarmupProgress.Stage stage) throws SQLException {
+        int size = ConnectionPoolWarmupStep.idleConnections(dataSource);
+        stage.total((long) size * (STATEMENTS.size() + 1));
+        // Holding the connections at once makes each one a different connection of the pool
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            while (connections.size() < size && !stage.expired()) {
+                connections.add(dataSource.getConnection());
+            }
+            for (Connection connection : connections) {
+                prepare(connection, stage);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        stage.detail(STATEMENTS.size() + 1 + " statements on " + connections.size() + " connections");
+    }
+
+    private static void prepare(Connection connection, WarmupProgress.Stage stage) throws SQLException {
+        int executions = executions(connection);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (BoundStatement statement : STATEMENTS) {
+                if (stage.expired()) {
+                    return;
+                }
+                for (int i = 0; i < executions; i++) {
+                    try (PreparedStatement ps = connection.prepareStatement(statement.sql())) {
+                        for (int p = 0; p < statement.parameters().length; p++) {
+                            ps.setObject(p + 1, statement.parameters()[p]);
+                        }
+                        ps.setMaxRows(1);
+                        ps.execute();
+                    }
+                }
+                stage.advance();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(DatabaseDeviceRepository.INSERT_DEVICE_QUERY)) {
+                ps.getParameterMetaData();
+            }
+            stage.advance();
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int executions(Connection connection) throws SQLException {
+        int threshold = connection.isWrapperFor(PGConnection.class)
+                ? connection.unwrap(PGConnection.class).getPrepareThreshold()
+                : 0;
+        return Math.max(threshold, 1) + GENERIC_PLAN_EXECUTIONS;
+    }
+}
@@ -36,13 +36,20 @@ public class DeviceResultSetExtractor implements ResultSetExtractor<Collection<D
     public Collection<Device> extractData(ResultSet rs) throws SQLException, DataAccessException {
         List<Device> devices = new ArrayList<>();
         while (rs.next()) {
-            devices.add(new Device(rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("brand"),
-                    DeviceState.valueOf(rs.getString("state")),
-                    rs.getObject("creation_time", LocalDateTime.class)
-            ));
+            devices.add(device(rs));
         }
         return devices;
     }
+
+    /**
+     * Maps the current row of the {@link ResultSet} to a {@link Device}.
+     */
+    static Device device(ResultSet rs) throws SQLException {
+        return new Device(rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("brand"),
+                DeviceState.valueOf(rs.getString("state")),
+                rs.getObject("creation_time", LocalDateTime.class)
+        );
+    }
 }
@@ -0,0 +1,192 @@
+package com.carlos.devices.repository;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGStatement;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.SqlProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A statement of the {@link DatabaseDeviceRepository}, with a name, that is prepared on the server from its
+ * first run on a connection and timed phase by phase.
+ * <p>
+ * The PostgreSQL driver sends every statement with an unnamed server statement, parsed and planned again on
+ * each run, until it has run {@code prepareThreshold} times on the connection; only then does it prepare a
+ * named server statement that later runs only bind and execute. The repository runs the same few statements
+ * over and over, so they skip the threshold and are prepared at once; the statements built at runtime, such
+ * as the write-behind batches whose text changes with their size, keep the driver threshold. The driver keeps
+ * the server statements in its per-connection statement cache, by the text of the statement.
+ * <p>
+ * Each run is timed in four phases, published as the {@code devices.repository.statement} timer with the
+ * {@code statement} name, the {@code phase} and whether the server statement was {@code prepared} by an earlier
+ * run on the connection:
+ * <ul>
+ *   <li>{@code prepare}: the driver parses the text, or finds it in its statement cache;</li>
+ *   <li>{@code bind}: the parameters are set on the statement;</li>
+ *   <li>{@code execute}: the Parse, Bind and Execute messages go to the server in one round trip and the
+ *   first rows come back. A run with {@code prepared=true} skips the Parse, and the planning once the server
+ *   settled on a generic plan, so the difference between both is what the server spent parsing and
+ *   planning;</li>
+ *   <li>{@code read}: the rows are mapped.</li>
+ * </ul>
+ */
+final class NamedStatement {
+
+    static final String TIMER = "devices.repository.statement";
+    static final int PREPARE_THRESHOLD = 1;
+
+    enum Phase {
+        PREPARE, BIND, EXECUTE, READ
+    }
+
+    private final String name;
+    private final String sql;
+    // Indexed by phase, then by whether the server statement was already prepared
+    private final LongAdder[][] counts = new LongAdder[Phase.values().length][2];
+    private final LongAdder[][] nanos = new LongAdder[Phase.values().length][2];
+
+    NamedStatement(String name, String sql) {
+        this.name = name;
+        this.sql = sql;
+        for (Phase phase : Phase.values()) {
+            for (int prepared = 0; prepared < 2; prepared++) {
+                counts[phase.ordinal()][prepared] = new LongAdder();
+                nanos[phase.ordinal()][prepared] = new LongAdder();
+            }
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    /**
+     * Runs the statement with the arguments and extracts the result from its rows.
+     */
+    <T> T query(JdbcTemplate jdbcTemplate, ResultSetExtractor<T> extractor, Object... args) {
+        Creator creator = new Creator();
+        return jdbcTemplate.execute(creator, (PreparedStatement ps) -> {
+            Run run = new Run(creator.prepareNanos, ps, args);
+            ResultSet rs = ps.executeQuery();
+            try {
+                run.executed();
+                T result = extractor.extractData(rs);
+                run.read();
+                return result;
+            } finally {
+                rs.close();
+            }
+        });
+    }
+
+    void bindTo(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            for (int prepared = 0; prepared < 2; prepared++) {
+                LongAdder count = counts[phase.ordinal()][prepared];
+                LongAdder time = nanos[phase.ordinal()][prepared];
+                FunctionTimer.builder(TIMER, this, statement -> count.sum(), statement -> time.sum(), TimeUnit.NANOSECONDS)
+                        .description("Time of the repository statements, by phase")
+                        .tag("statement", name)
+                        .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                        .tag("prepared", Boolean.toString(prepared == 1))
+                        .register(registry);
+            }
+        }
+    }
+
+    long count(Phase phase, boolean prepared) {
+        return counts[phase.ordinal()][prepared ? 1 : 0].sum();
+    }
+
+    /**
+     * Whether the driver runs the statement with a server statement it already prepared. It tells whether the
+     * next run uses a server statement; asked with a threshold one higher, it tells whether the statement has
+     * already run on the connection since reaching the threshold.
+     */
+    private static boolean preparedOnServer(PreparedStatement ps) throws SQLException {
+        if (!ps.isWrapperFor(PGStatement.class)) {
+            return false;
+        }
+        PGStatement statement = ps.unwrap(PGStatement.class);
+        statement.setPrepareThreshold(PREPARE_THRESHOLD + 1);
+        boolean prepared = statement.isUseServerPrepare();
+        statement.setPrepareThreshold(PREPARE_THRESHOLD);
+        return prepared;
+    }
+
+    /**
+     * Binds the arguments and times the phases of one run.
+     */
+    private final class Run {
+
+        private final long prepareNanos;
+        private final long bindNanos;
+        private final int prepared;
+        private long start;
+
+        Run(long prepareNanos, PreparedStatement ps, Object[] args) throws SQLException {
+            this.prepareNanos = prepareNanos;
+            this.prepared = preparedOnServer(ps) ? 1 : 0;
+            long bindStart = System.nanoTime();
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            this.start = System.nanoTime();
+            this.bindNanos = start - bindStart;
+        }
+
+        void executed() {
+            long now = System.nanoTime();
+            record(Phase.PREPARE, prepareNanos);
+            record(Phase.BIND, bindNanos);
+            record(Phase.EXECUTE, now - start);
+            start = now;
+        }
+
+        void read() {
+            record(Phase.READ, System.nanoTime() - start);
+        }
+
+        private void record(Phase phase, long elapsed) {
+            counts[phase.ordinal()][prepared].increment();
+            nanos[phase.ordinal()][prepared].add(elapsed);
+        }
+    }
+
+    /**
+     * Prepares the statement with the repository threshold, and keeps how long it took for the run.
+     */
+    private final class Creator implements PreparedStatementCreator, SqlProvider {
+
+        private long prepareNanos;
+
+        @Override
+        public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+            long start = System.nanoTime();
+            PreparedStatement ps = con.prepareStatement(sql);
+            if (ps.isWrapperFor(PGStatement.class)) {
+                ps.unwrap(PGStatement.class).setPrepareThreshold(PREPARE_THRESHOLD);
+            }
+            prepareNanos = System.nanoTime() - start;
+            return ps;
+        }
+
+        @Override
+        public String getSql() {
+            return sql;
+        }
+    }
+}
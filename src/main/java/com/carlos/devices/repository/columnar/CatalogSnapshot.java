@@ -0,0 +1,222 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.model.ChangeWatermark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A {@link DeviceColumns} copy saved to a local file, with the change feed watermark it is current up to.
+ * <p>
+ * The file is a fixed header, the columns of the live rows as little-endian arrays aligned on 8 bytes, the
+ * packed names, the brand dictionary (length-prefixed UTF-8) and a CRC32C of everything before it:
+ * <pre>
+ * magic "DVCS" | version | watermark txid | watermark seq | rows | brands | name bytes | dictionary bytes | written at
+ * ids | states | brands | creation times | name offsets | name lengths | names | dictionary | crc32c
+ * </pre>
+ * A snapshot is read by mapping the file privately: the columns are the mapped sections, read from the page
+ * cache on first use and copied on write, so nothing is loaded or changed in the file. A file with another
+ * magic or version, a size that does not match its header, or a checksum mismatch is rejected.
+ * <p>
+ * A snapshot is first encoded to a buffer, then written to a temporary file next to the target, forced to
+ * disk and renamed over the target, so a crash while writing leaves the previous snapshot in place.
+ *
+ * @param columns   the devices
+ * @param watermark the change feed position the devices are current up to
+ * @param writtenAt when the snapshot was written, in milliseconds since the epoch
+ */
+record CatalogSnapshot(DeviceColumns columns, ChangeWatermark watermark, long writtenAt) {
+
+    static final int MAGIC = 0x44564353;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 48;
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    /**
+     * Offsets of the sections of a snapshot file.
+     */
+    private record Layout(int rows, int nameBytes, int dictionaryBytes) {
+
+        long ids() {
+            return HEADER_BYTES;
+        }
+
+        long states() {
+            return ids() + (long) rows * Integer.BYTES;
+        }
+
+        long brands() {
+            return align(states() + rows);
+        }
+
+        long creationTimes() {
+            return brands() + (long) rows * Integer.BYTES;
+        }
+
+        long nameOffsets() {
+            return creationTimes() + (long) rows * Long.BYTES;
+        }
+
+        long nameLengths() {
+            return nameOffsets() + (long) rows * Integer.BYTES;
+        }
+
+        long names() {
+            return nameLengths() + (long) rows * Integer.BYTES;
+        }
+
+        long dictionary() {
+            return align(names() + nameBytes);
+        }
+
+        long checksum() {
+            return align(dictionary() + dictionaryBytes);
+        }
+
+        long fileSize() {
+            return checksum() + CHECKSUM_BYTES;
+        }
+
+        private static long align(long offset) {
+            return (offset + 7) & ~7L;
+        }
+    }
+
+    static void write(Path file, DeviceColumns columns, ChangeWatermark watermark) throws IOException {
+        write(file, encode(columns, watermark));
+    }
+
+    /**
+     * Copies the live rows of the columns and the watermark to a buffer laid out like a snapshot file, without
+     * its checksum, so the columns can change again while the buffer is written.
+     */
+    static ByteBuffer encode(DeviceColumns columns, ChangeWatermark watermark) {
+        List<byte[]> brands = columns.brandDictionary().stream()
+                .map(brand -> brand.getBytes(StandardCharsets.UTF_8))
+                .toList();
+        int dictionaryBytes = brands.stream().mapToInt(brand -> Integer.BYTES + brand.length).sum();
+        Layout layout = new Layout(columns.devices(), Math.toIntExact(columns.liveNameBytes()), dictionaryBytes);
+
+        // Off the heap, like the columns it copies
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.toIntExact(layout.fileSize())).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putLong(8, watermark.txid())
+                .putLong(16, watermark.seq())
+                .putInt(24, layout.rows())
+                .putInt(28, brands.size())
+                .putInt(32, layout.nameBytes())
+                .putInt(36, layout.dictionaryBytes())
+                .putLong(40, System.currentTimeMillis());
+        columns.copyLiveRows(
+                section(buffer, layout.ids(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                section(buffer, layout.states(), layout.rows()),
+                section(buffer, layout.brands(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                section(buffer, layout.creationTimes(), layout.rows() * Long.BYTES).asLongBuffer(),
+                section(buffer, layout.nameOffsets(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                section(buffer, layout.nameLengths(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                section(buffer, layout.names(), layout.nameBytes()));
+        int offset = (int) layout.dictionary();
+        for (byte[] brand : brands) {
+            buffer.putInt(offset, brand.length).put(offset + Integer.BYTES, brand);
+            offset += Integer.BYTES + brand.length;
+        }
+        return buffer;
+    }
+
+    /**
+     * Completes an {@link #encode encoded} snapshot with its checksum and saves it to the file.
+     */
+    static void write(Path file, ByteBuffer encoded) throws IOException {
+        int checksumOffset = encoded.capacity() - CHECKSUM_BYTES;
+        encoded.putInt(checksumOffset, checksum(encoded, checksumOffset));
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer remaining = encoded.duplicate().clear();
+            while (remaining.hasRemaining()) {
+                channel.write(remaining);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot file and checks its format and checksum.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static CatalogSnapshot read(Path file) throws IOException {
+        // A private mapping needs a writable channel, though its writes never reach the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES + CHECKSUM_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid device catalog snapshot size " + fileSize + ": " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.PRIVATE, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a device catalog snapshot: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported device catalog snapshot version " + buffer.getInt(4) + ": " + file);
+            }
+            ChangeWatermark watermark = new ChangeWatermark(buffer.getLong(8), buffer.getLong(16));
+            int brandCount = buffer.getInt(28);
+            Layout layout = new Layout(buffer.getInt(24), buffer.getInt(32), buffer.getInt(36));
+            if (layout.rows() < 0 || brandCount < 0 || layout.nameBytes() < 0 || layout.dictionaryBytes() < 0
+                    || layout.fileSize() != fileSize) {
+                throw new IOException("Device catalog snapshot size does not match its header: " + file);
+            }
+            if (buffer.getInt((int) layout.checksum()) != checksum(buffer, layout.checksum())) {
+                throw new IOException("Device catalog snapshot checksum mismatch: " + file);
+            }
+
+            List<String> brands = new ArrayList<>(brandCount);
+            int offset = (int) layout.dictionary();
+            for (int i = 0; i < brandCount; i++) {
+                byte[] brand = new byte[buffer.getInt(offset)];
+                buffer.get(offset + Integer.BYTES, brand);
+                brands.add(new String(brand, StandardCharsets.UTF_8));
+                offset += Integer.BYTES + brand.length;
+            }
+            DeviceColumns columns = new DeviceColumns(layout.rows(),
+                    section(buffer, layout.ids(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                    section(buffer, layout.states(), layout.rows()),
+                    section(buffer, layout.brands(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                    section(buffer, layout.creationTimes(), layout.rows() * Long.BYTES).asLongBuffer(),
+                    section(buffer, layout.nameOffsets(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                    section(buffer, layout.nameLengths(), layout.rows() * Integer.BYTES).asIntBuffer(),
+                    section(buffer, layout.names(), layout.nameBytes()),
+                    brands);
+            return new CatalogSnapshot(columns, watermark, buffer.getLong(40));
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt device catalog snapshot: " + file, e);
+        }
+    }
+
+    private static ByteBuffer section(ByteBuffer buffer, long offset, int length) {
+        return buffer.slice((int) offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int checksum(ByteBuffer buffer, long length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, (int) length));
+        return (int) crc.getValue();
+    }
+}
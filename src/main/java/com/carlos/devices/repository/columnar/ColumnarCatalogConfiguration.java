@@ -0,0 +1,33 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.DeviceChangeFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Serves the device list queries from a {@link ColumnarDeviceCatalog} when
+ * {@code devices.columnar-catalog.enabled=true}.
+ * <p>
+ * The catalog is loaded from the single device table and kept current from its change feed, so it is not
+ * used with sharded storage, and it is not built when the application only runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.columnar-catalog.enabled:false} and !${devices.sharding.enabled:false} and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(ColumnarCatalogProperties.class)
+public class ColumnarCatalogConfiguration {
+
+    @Bean
+    @DependsOnDatabaseInitialization
+    public ColumnarDeviceCatalog columnarDeviceCatalog(DataSource dataSource,
+                                                       PlatformTransactionManager transactionManager,
+                                                       DeviceChangeFeed changeFeed,
+                                                       ColumnarCatalogProperties properties) {
+        return new ColumnarDeviceCatalog(dataSource, transactionManager, changeFeed, properties);
+    }
+}
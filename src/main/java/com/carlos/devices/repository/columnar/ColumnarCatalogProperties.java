@@ -0,0 +1,26 @@
+package com.carlos.devices.repository.columnar;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the columnar copy of the device catalog.
+ *
+ * @param enabled          whether the list queries are served from the columnar copy
+ * @param initialCapacity  the number of devices the columns are first sized for; they double when full
+ * @param fetchSize        the rows fetched per round trip by the scan that loads the copy
+ * @param refreshInterval  how often the changes written by other instances are read from the change feed
+ * @param snapshotFile     the local file the catalog is saved to and loaded from at startup, none by default
+ * @param snapshotInterval how often the catalog is saved to the snapshot file
+ */
+@ConfigurationProperties(prefix = "devices.columnar-catalog")
+public record ColumnarCatalogProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("65536") int initialCapacity,
+                                        @DefaultValue("10000") int fetchSize,
+                                        @DefaultValue("1s") Duration refreshInterval,
+                                        Path snapshotFile,
+                                        @DefaultValue("5m") Duration snapshotInterval) {
+}
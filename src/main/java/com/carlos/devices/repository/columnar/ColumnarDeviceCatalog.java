@@ -0,0 +1,352 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.DeviceCatalog;
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChange;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceChanges;
+import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * {@link DeviceCatalog} over a {@link DeviceColumns} copy of the device table, kept outside the Java heap so
+ * that a large catalog adds little to the heap and nothing to the garbage collection work. The list queries
+ * are scans of the state or brand column that only build the {@link Device} objects they return.
+ * <p>
+ * The copy is loaded in the background when the bean is created, by a scan of the device table streamed
+ * {@link ColumnarCatalogProperties#fetchSize()} rows at a time. Until then {@link #isLoaded()} is false and
+ * the queries go to the repository. The scan reads the oldest transaction still running in its snapshot, and
+ * the change feed is read from that transaction on, so the writes the scan may have missed are applied after it.
+ * <p>
+ * After the load, the writes of this instance are applied when their transaction commits, from their
+ * {@link DeviceChangedEvent}, and every {@link ColumnarCatalogProperties#refreshInterval()} the
+ * {@link DeviceChangeFeed} is read for the writes of the other instances and of the bulk imports, which do
+ * not publish device events. Applying a change is idempotent, so a write seen both ways is harmless; a
+ * change read from the feed can be older than an event applied just before it, and is then replaced again by
+ * the next refresh.
+ * <p>
+ * With a {@link ColumnarCatalogProperties#snapshotFile()}, the copy is saved to a {@link CatalogSnapshot} every
+ * {@link ColumnarCatalogProperties#snapshotInterval()} and when the bean is closed. At startup a valid snapshot
+ * is mapped instead of scanning the table, and serves queries before the database is reached; the changes
+ * since its watermark are then read from the feed like any refresh. An invalid snapshot is ignored.
+ * <p>
+ * The devices, brands and off-heap bytes of the copy, the failed refreshes and the snapshot writes are
+ * published as {@code devices.catalog.*} metrics.
+ */
+public class ColumnarDeviceCatalog implements DeviceCatalog, MeterBinder, AutoCloseable {
+
+    static final String SNAPSHOT_XMIN_QUERY = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+    static final String SNAPSHOT_XMAX_QUERY = "SELECT pg_snapshot_xmax(pg_current_snapshot())::text";
+    static final String SCAN_QUERY = "SELECT id, name, brand, state, creation_time FROM device ORDER BY id";
+    static final int CHANGES_PAGE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(ColumnarDeviceCatalog.class);
+    private final JdbcTemplate scanTemplate;
+    private final TransactionTemplate scanTransaction;
+    private final DeviceChangeFeed changeFeed;
+    private final int initialCapacity;
+    private final Path snapshotFile;
+    private final ScheduledExecutorService refresher;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private DeviceColumns columns;
+    private ChangeWatermark watermark;
+    private volatile boolean loaded;
+    private boolean fromSnapshot;
+
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder snapshotWrites = new LongAdder();
+    private final LongAdder snapshotNanos = new LongAdder();
+
+    public ColumnarDeviceCatalog(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                 DeviceChangeFeed changeFeed, ColumnarCatalogProperties properties) {
+        this.scanTemplate = new JdbcTemplate(dataSource);
+        this.scanTemplate.setFetchSize(properties.fetchSize());
+        // The driver only streams the rows of a query run inside a transaction
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+        this.scanTransaction.setReadOnly(true);
+        this.scanTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.changeFeed = changeFeed;
+        this.initialCapacity = properties.initialCapacity();
+        this.snapshotFile = properties.snapshotFile();
+        this.columns = new DeviceColumns(0);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("device-catalog-refresh").daemon().factory());
+        long intervalNanos = properties.refreshInterval().toNanos();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, intervalNanos, TimeUnit.NANOSECONDS);
+        if (snapshotFile != null) {
+            long snapshotIntervalNanos = properties.snapshotInterval().toNanos();
+            refresher.scheduleWithFixedDelay(this::writeSnapshotQuietly, snapshotIntervalNanos, snapshotIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public Collection<Device> findAll() {
+        return read(DeviceColumns::all);
+    }
+
+    @Override
+    public Collection<Device> findByBrand(String brand) {
+        return read(columns -> columns.withBrand(brand));
+    }
+
+    @Override
+    public Collection<Device> findByState(DeviceState state) {
+        return read(columns -> columns.withState(state));
+    }
+
+    private <T> T read(Function<DeviceColumns, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.after() == null) {
+                columns.delete(event.before().id());
+            } else {
+                columns.upsert(event.after());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the copy when it is not loaded yet, from the snapshot file when there is a valid one, then applies
+     * the changes of the feed since the last refresh.
+     */
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            if (!loaded && !loadSnapshot()) {
+                load();
+            }
+            if (fromSnapshot) {
+                checkSnapshot();
+            }
+            ChangeWatermark since = watermark;
+            DeviceChanges page;
+            do {
+                page = changeFeed.changesSince(since, CHANGES_PAGE);
+                apply(page);
+                since = ChangeWatermark.parse(page.watermark());
+            } while (page.hasMore());
+            watermark = since;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            refreshFailures.increment();
+            logger.warn("Device catalog refresh failed", e);
+        }
+    }
+
+    /**
+     * Maps the snapshot file, without going to the database, so the copy can serve queries at once.
+     *
+     * @return whether a valid snapshot was loaded
+     */
+    private boolean loadSnapshot() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        CatalogSnapshot snapshot;
+        try {
+            snapshot = CatalogSnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Ignoring the device catalog snapshot, loading the catalog from the database", e);
+            return false;
+        }
+        swap(snapshot.columns(), snapshot.watermark());
+        fromSnapshot = true;
+        logger.info("Device catalog loaded {} devices from the snapshot written at {} in {} ms",
+                snapshot.columns().devices(), Instant.ofEpochMilli(snapshot.writtenAt()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+
+    /**
+     * Checks that the watermark of the loaded snapshot is a position of this database before catching up from
+     * it. A snapshot taken from another database, such as one restored from a backup, is replaced by a scan.
+     */
+    private void checkSnapshot() {
+        String xmax = scanTemplate.queryForObject(SNAPSHOT_XMAX_QUERY, String.class);
+        assert xmax != null;
+        if (watermark.txid() >= Long.parseLong(xmax)) {
+            logger.warn("The device catalog snapshot is ahead of the database, loading the catalog from the database");
+            loaded = false;
+            load();
+        }
+        fromSnapshot = false;
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        DeviceColumns scanned = new DeviceColumns(initialCapacity);
+        ChangeWatermark scanWatermark = scanTransaction.execute(status -> {
+            String xmin = scanTemplate.queryForObject(SNAPSHOT_XMIN_QUERY, String.class);
+            assert xmin != null;
+            scanTemplate.query(SCAN_QUERY, (RowCallbackHandler) rs -> scanned.upsert(new Device(rs.getInt("id"),
+                    rs.getString("name"), rs.getString("brand"), DeviceState.valueOf(rs.getString("state")),
+                    rs.getObject("creation_time", LocalDateTime.class))));
+            // Every change of a transaction below xmin is in the scan, the later ones are read from the feed
+            return new ChangeWatermark(Long.parseLong(xmin) - 1, Long.MAX_VALUE);
+        });
+        swap(scanned, scanWatermark);
+        logger.info("Device catalog loaded {} devices in {} ms, {} bytes off-heap", scanned.devices(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), scanned.offHeapBytes());
+    }
+
+    private void swap(DeviceColumns loadedColumns, ChangeWatermark loadedWatermark) {
+        lock.writeLock().lock();
+        try {
+            columns = loadedColumns;
+            watermark = loadedWatermark;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Saves the copy to the snapshot file, with the watermark of the last refresh. The copy is encoded to a
+     * buffer under the read lock, and the buffer is written to the file once the lock is released, so neither
+     * the queries nor the writes wait on the disk.
+     */
+    public void writeSnapshot() throws IOException {
+        refreshLock.lock();
+        try {
+            if (snapshotFile == null || !loaded || fromSnapshot) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                ByteBuffer encoded;
+                lock.readLock().lock();
+                try {
+                    encoded = CatalogSnapshot.encode(columns, watermark);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                saveSnapshot(encoded);
+            } finally {
+                snapshotWrites.increment();
+                snapshotNanos.add(System.nanoTime() - start);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    void saveSnapshot(ByteBuffer encoded) throws IOException {
+        CatalogSnapshot.write(snapshotFile, encoded);
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Device catalog snapshot write failed", e);
+        }
+    }
+
+    private void apply(DeviceChanges page) {
+        if (page.changes().isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (DeviceChange change : page.changes()) {
+                if (change.type() == DeviceChange.Type.DELETE) {
+                    columns.delete(change.id());
+                } else {
+                    columns.upsert(change.device());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the refreshes and saves the snapshot one last time. The off-heap columns are released with the bean.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        refresher.shutdown();
+        refresher.awaitTermination(10, TimeUnit.SECONDS);
+        writeSnapshotQuietly();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("devices.catalog.devices", this, catalog -> catalog.read(DeviceColumns::devices))
+                .description("Devices in the columnar catalog")
+                .register(registry);
+        Gauge.builder("devices.catalog.brands", this, catalog -> catalog.read(DeviceColumns::brands))
+                .description("Brands in the dictionary of the columnar catalog")
+                .register(registry);
+        Gauge.builder("devices.catalog.off.heap", this, catalog -> catalog.read(DeviceColumns::offHeapBytes))
+                .description("Bytes reserved outside the heap by the columnar catalog")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("devices.catalog.refresh.failures", refreshFailures, LongAdder::sum)
+                .description("Columnar catalog loads and refreshes that failed")
+                .register(registry);
+        FunctionTimer.builder("devices.catalog.snapshot.write", this,
+                        catalog -> catalog.snapshotWrites.sum(), catalog -> catalog.snapshotNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time to save the columnar catalog to its snapshot file")
+                .register(registry);
+    }
+}
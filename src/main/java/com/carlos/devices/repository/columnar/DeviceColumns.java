@@ -0,0 +1,343 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Devices stored column by column in little-endian direct buffers, outside the Java heap, one row per device in
+ * id order. The buffers can also be the mapped sections of a {@link CatalogSnapshot}.
+ * <p>
+ * The id, state ordinal, brand code and creation time (microseconds since the epoch, the precision of the
+ * database column) of a device are fixed-width columns. Brands are coded with a dictionary, which is the only
+ * part kept on the heap. Names are UTF-8 bytes appended to an arena, with their offset and length in two more
+ * columns; the bytes of a replaced name are left in the arena until it is full, then the live names are
+ * copied to a new arena.
+ * <p>
+ * A deleted device keeps its row, with the {@link #DELETED} state, until a quarter of the rows are deleted and
+ * the columns are compacted. Rows are found by binary search on the id column; devices arrive in id order, so
+ * new rows are appended and the rows after a device inserted out of order are rarely shifted.
+ * <p>
+ * Not thread-safe, see {@link ColumnarDeviceCatalog}.
+ */
+final class DeviceColumns {
+
+    static final byte DELETED = -1;
+
+    private static final DeviceState[] STATES = DeviceState.values();
+    private static final int MIN_COMPACTION_ROWS = 1024;
+    private static final long NO_CREATION_TIME = Long.MIN_VALUE;
+
+    private int capacity;
+    private int size;
+    private int deleted;
+    private IntBuffer ids;
+    private ByteBuffer states;
+    private IntBuffer brands;
+    private LongBuffer creationTimes;
+    private IntBuffer nameOffsets;
+    private IntBuffer nameLengths;
+    private ByteBuffer names;
+    private int namesEnd;
+    private long liveNameBytes;
+
+    private final List<String> brandDictionary = new ArrayList<>();
+    private final Map<String, Integer> brandCodes = new HashMap<>();
+
+    DeviceColumns(int capacity) {
+        this.capacity = Math.max(capacity, 16);
+        ids = allocate(this.capacity * Integer.BYTES).asIntBuffer();
+        states = allocate(this.capacity);
+        brands = allocate(this.capacity * Integer.BYTES).asIntBuffer();
+        creationTimes = allocate(this.capacity * Long.BYTES).asLongBuffer();
+        nameOffsets = allocate(this.capacity * Integer.BYTES).asIntBuffer();
+        nameLengths = allocate(this.capacity * Integer.BYTES).asIntBuffer();
+        names = allocate(this.capacity * 16);
+    }
+
+    /**
+     * Columns over existing buffers, such as the sections of a mapped {@link CatalogSnapshot}, holding
+     * {@code rows} live rows and their packed names. The buffers are written in place until they are full.
+     */
+    DeviceColumns(int rows, IntBuffer ids, ByteBuffer states, IntBuffer brands, LongBuffer creationTimes,
+                  IntBuffer nameOffsets, IntBuffer nameLengths, ByteBuffer names, List<String> brandDictionary) {
+        this.capacity = rows;
+        this.size = rows;
+        this.ids = ids;
+        this.states = states;
+        this.brands = brands;
+        this.creationTimes = creationTimes;
+        this.nameOffsets = nameOffsets;
+        this.nameLengths = nameLengths;
+        this.names = names;
+        this.namesEnd = names.capacity();
+        this.liveNameBytes = names.capacity();
+        brandDictionary.forEach(this::brandCode);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Adds the device, or replaces the row of the device with the same id.
+     */
+    void upsert(Device device) {
+        int row = find(device.id());
+        if (row >= 0) {
+            if (states.get(row) == DELETED) {
+                deleted--;
+            } else {
+                liveNameBytes -= nameLengths.get(row);
+            }
+        } else {
+            row = -row - 1;
+            ensureCapacity(size + 1);
+            for (int i = size; i > row; i--) {
+                copyRow(i - 1, i);
+            }
+            size++;
+        }
+        byte[] name = device.name().getBytes(StandardCharsets.UTF_8);
+        // Appending can compact the arena, which must not count the name being replaced as live
+        states.put(row, DELETED);
+        int offset = appendName(name);
+        ids.put(row, device.id());
+        states.put(row, (byte) device.state().ordinal());
+        brands.put(row, brandCode(device.brand()));
+        creationTimes.put(row, toMicros(device.creationTime()));
+        nameOffsets.put(row, offset);
+        nameLengths.put(row, name.length);
+        liveNameBytes += name.length;
+    }
+
+    /**
+     * Marks the row of the device as deleted.
+     *
+     * @return whether the device was present
+     */
+    boolean delete(int id) {
+        int row = find(id);
+        if (row < 0 || states.get(row) == DELETED) {
+            return false;
+        }
+        states.put(row, DELETED);
+        liveNameBytes -= nameLengths.get(row);
+        deleted++;
+        if (deleted >= MIN_COMPACTION_ROWS && deleted * 4 >= size) {
+            compactRows();
+        }
+        return true;
+    }
+
+    List<Device> all() {
+        List<Device> devices = new ArrayList<>(size - deleted);
+        for (int row = 0; row < size; row++) {
+            if (states.get(row) != DELETED) {
+                devices.add(device(row));
+            }
+        }
+        return devices;
+    }
+
+    List<Device> withState(DeviceState state) {
+        byte ordinal = (byte) state.ordinal();
+        List<Device> devices = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (states.get(row) == ordinal) {
+                devices.add(device(row));
+            }
+        }
+        return devices;
+    }
+
+    List<Device> withBrand(String brand) {
+        Integer found = brandCodes.get(brand);
+        List<Device> devices = new ArrayList<>();
+        if (found == null) {
+            return devices;
+        }
+        int code = found;
+        for (int row = 0; row < size; row++) {
+            if (brands.get(row) == code && states.get(row) != DELETED) {
+                devices.add(device(row));
+            }
+        }
+        return devices;
+    }
+
+    int devices() {
+        return size - deleted;
+    }
+
+    int brands() {
+        return brandDictionary.size();
+    }
+
+    List<String> brandDictionary() {
+        return brandDictionary;
+    }
+
+    long liveNameBytes() {
+        return liveNameBytes;
+    }
+
+    /**
+     * Copies the live rows to the given columns, in id order and with their names packed from the start of
+     * the {@code names} buffer.
+     */
+    void copyLiveRows(IntBuffer ids, ByteBuffer states, IntBuffer brands, LongBuffer creationTimes,
+                      IntBuffer nameOffsets, IntBuffer nameLengths, ByteBuffer names) {
+        int live = 0;
+        int end = 0;
+        for (int row = 0; row < size; row++) {
+            if (this.states.get(row) != DELETED) {
+                int length = this.nameLengths.get(row);
+                ids.put(live, this.ids.get(row));
+                states.put(live, this.states.get(row));
+                brands.put(live, this.brands.get(row));
+                creationTimes.put(live, this.creationTimes.get(row));
+                nameOffsets.put(live, end);
+                nameLengths.put(live, length);
+                names.put(end, this.names, this.nameOffsets.get(row), length);
+                end += length;
+                live++;
+            }
+        }
+    }
+
+    /**
+     * The bytes reserved outside the heap by the columns and the name arena.
+     */
+    long offHeapBytes() {
+        return (long) capacity * (Integer.BYTES * 4 + Long.BYTES + 1) + names.capacity();
+    }
+
+    private Device device(int row) {
+        byte[] name = new byte[nameLengths.get(row)];
+        names.get(nameOffsets.get(row), name);
+        return new Device(ids.get(row), new String(name, StandardCharsets.UTF_8), brandDictionary.get(brands.get(row)),
+                STATES[states.get(row)], fromMicros(creationTimes.get(row)));
+    }
+
+    /**
+     * Returns the row of the id, or {@code -(insertion row) - 1} when it is not present.
+     */
+    private int find(int id) {
+        if (size > 0 && ids.get(size - 1) < id) {
+            return -size - 1;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = ids.get(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private int brandCode(String brand) {
+        return brandCodes.computeIfAbsent(brand, b -> {
+            brandDictionary.add(b);
+            return brandDictionary.size() - 1;
+        });
+    }
+
+    private void copyRow(int from, int to) {
+        ids.put(to, ids.get(from));
+        states.put(to, states.get(from));
+        brands.put(to, brands.get(from));
+        creationTimes.put(to, creationTimes.get(from));
+        nameOffsets.put(to, nameOffsets.get(from));
+        nameLengths.put(to, nameLengths.get(from));
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= capacity) {
+            return;
+        }
+        int grown = Math.max(rows, capacity * 2);
+        ids = allocate(grown * Integer.BYTES).asIntBuffer().put(ids.clear().limit(size)).clear();
+        states = allocate(grown).put(states.clear().limit(size)).clear();
+        brands = allocate(grown * Integer.BYTES).asIntBuffer().put(brands.clear().limit(size)).clear();
+        creationTimes = allocate(grown * Long.BYTES).asLongBuffer().put(creationTimes.clear().limit(size)).clear();
+        nameOffsets = allocate(grown * Integer.BYTES).asIntBuffer().put(nameOffsets.clear().limit(size)).clear();
+        nameLengths = allocate(grown * Integer.BYTES).asIntBuffer().put(nameLengths.clear().limit(size)).clear();
+        capacity = grown;
+    }
+
+    /**
+     * Appends the name to the arena, first copying the live names to a new arena when it is full. The new
+     * arena is twice as large when the live names would fill more than half of the current one.
+     */
+    private int appendName(byte[] name) {
+        if (namesEnd + name.length > names.capacity()) {
+            long needed = liveNameBytes + name.length;
+            int arenaCapacity = (int) Math.min(Integer.MAX_VALUE - 8,
+                    needed * 2 > names.capacity() ? Math.max(needed * 2, names.capacity() * 2L) : names.capacity());
+            ByteBuffer arena = allocate(arenaCapacity);
+            int end = 0;
+            for (int row = 0; row < size; row++) {
+                if (states.get(row) != DELETED) {
+                    int length = nameLengths.get(row);
+                    arena.put(end, names, nameOffsets.get(row), length);
+                    nameOffsets.put(row, end);
+                    end += length;
+                }
+            }
+            names = arena;
+            namesEnd = end;
+        }
+        int offset = namesEnd;
+        names.put(offset, name);
+        namesEnd += name.length;
+        return offset;
+    }
+
+    private void compactRows() {
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (states.get(row) != DELETED) {
+                if (live != row) {
+                    copyRow(row, live);
+                }
+                live++;
+            }
+        }
+        size = live;
+        deleted = 0;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_CREATION_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_CREATION_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,48 @@
+package com.carlos.devices.repository.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies request deadlines to the database statements when {@code devices.deadline.enabled=true}: the
+ * application {@code JdbcTemplate} is replaced by a {@link DeadlineJdbcTemplate}, and the
+ * {@link DeadlineInterceptor} binds the deadline of every API request.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "devices.deadline.enabled", havingValue = "true")
+@EnableConfigurationProperties({DeadlineProperties.class, JdbcProperties.class})
+public class DeadlineConfiguration implements WebMvcConfigurer {
+
+    private final DeadlineProperties properties;
+    private final DeadlineMetrics metrics;
+
+    public DeadlineConfiguration(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.metrics = new DeadlineMetrics(meterRegistry);
+    }
+
+    @Bean
+    public DeadlineJdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties jdbcProperties) {
+        DeadlineJdbcTemplate jdbcTemplate = new DeadlineJdbcTemplate(dataSource);
+        JdbcProperties.Template template = jdbcProperties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor(properties, metrics)).addPathPatterns("/api/**");
+    }
+}
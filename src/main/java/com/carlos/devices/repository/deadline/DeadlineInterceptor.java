@@ -0,0 +1,71 @@
+package com.carlos.devices.repository.deadline;
+
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+/**
+ * Binds a {@link RequestDeadline} to the request thread while the handler runs.
+ * <p>
+ * The timeout is taken from the request header, capped by {@link DeadlineProperties#maxTimeout()}, or else
+ * from the default of the endpoint. A client that sends the timeout after which it gives up gets its
+ * statements cancelled at that moment: servlet containers do not report a client that goes away while the
+ * handler waits for the database, so without the header the statement runs until the endpoint default.
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private final DeadlineProperties properties;
+    private final DeadlineMetrics metrics;
+
+    public DeadlineInterceptor(DeadlineProperties properties, DeadlineMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long start = System.nanoTime();
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Duration defaultTimeout = properties.defaultTimeout(pattern);
+        Duration timeout = requestedTimeout(request.getHeader(properties.header()));
+        if (timeout == null) {
+            timeout = defaultTimeout;
+        }
+        if (timeout.isPositive()) {
+            RequestDeadline.bind(new RequestDeadline(start, timeout, defaultTimeout, metrics));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    private Duration requestedTimeout(String header) {
+        if (!StringUtils.hasText(header)) {
+            return null;
+        }
+        Duration timeout;
+        try {
+            timeout = DurationStyle.detectAndParse(header.trim());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRulesException("Invalid " + properties.header() + " header: " + header);
+        }
+        if (!timeout.isPositive()) {
+            throw new BusinessRulesException("Invalid " + properties.header() + " header, must be positive: " + header);
+        }
+        return timeout.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout() : timeout;
+    }
+}
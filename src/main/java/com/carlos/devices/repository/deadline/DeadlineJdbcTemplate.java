@@ -0,0 +1,68 @@
+package com.carlos.devices.repository.deadline;
+
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import org.postgresql.jdbc.PgStatement;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * {@link JdbcTemplate} that bounds every statement by the deadline of the current request.
+ * <p>
+ * The time left until the deadline is set as the statement query timeout, with millisecond precision on
+ * PostgreSQL, unless the transaction timeout is shorter. When it runs out the driver cancels the statement,
+ * which fails with a {@link DeadlineExceededException} and releases the connection. A statement is not
+ * started at all once the deadline has passed. Without a request deadline, for example in scheduled tasks,
+ * it behaves like a plain {@link JdbcTemplate}.
+ */
+public class DeadlineJdbcTemplate extends JdbcTemplate {
+
+    static final String QUERY_CANCELED = "57014";
+
+    /**
+     * The driver cancels the statement on a timer that can fire slightly before the deadline.
+     */
+    private static final Duration TIMER_TOLERANCE = Duration.ofMillis(5);
+
+    public DeadlineJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return;
+        }
+        Duration remaining = deadline.remaining();
+        if (!remaining.isPositive()) {
+            deadline.expired();
+            throw new DeadlineExceededException("Request deadline exceeded before the statement started");
+        }
+        int queryTimeout = stmt.getQueryTimeout();
+        if (queryTimeout == 0 || Duration.ofSeconds(queryTimeout).compareTo(remaining) > 0) {
+            if (stmt.isWrapperFor(PgStatement.class)) {
+                stmt.unwrap(PgStatement.class).setQueryTimeoutMs(Math.max(1, remaining.toMillis()));
+            } else {
+                stmt.setQueryTimeout((int) Math.max(1, (remaining.toMillis() + 999) / 1000));
+            }
+        }
+    }
+
+    @Override
+    protected DataAccessException translateException(String task, @Nullable String sql, SQLException ex) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null && QUERY_CANCELED.equals(ex.getSQLState())
+                && deadline.remaining().compareTo(TIMER_TOLERANCE) <= 0) {
+            deadline.cancelled();
+            return new DeadlineExceededException("Request deadline exceeded, statement cancelled");
+        }
+        return super.translateException(task, sql, ex);
+    }
+}
@@ -0,0 +1,47 @@
+package com.carlos.devices.repository.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+
+/**
+ * Metrics of the statements stopped by a request deadline.
+ * <p>
+ * {@code devices.queries.cancelled} counts the statements cancelled while running ({@code reason=deadline})
+ * and the ones not started because the deadline had already passed ({@code reason=expired}).
+ * {@code devices.queries.connection.time.saved} records, for the statements cancelled at a deadline shorter
+ * than the endpoint default, how much longer the connection could have been held under the default.
+ */
+public class DeadlineMetrics {
+
+    private final Counter cancelled;
+    private final Counter expired;
+    private final Timer timeSaved;
+
+    public DeadlineMetrics(MeterRegistry registry) {
+        this.cancelled = Counter.builder("devices.queries.cancelled")
+                .description("Statements stopped by the request deadline")
+                .tag("reason", "deadline")
+                .register(registry);
+        this.expired = Counter.builder("devices.queries.cancelled")
+                .description("Statements stopped by the request deadline")
+                .tag("reason", "expired")
+                .register(registry);
+        this.timeSaved = Timer.builder("devices.queries.connection.time.saved")
+                .description("Connection time saved by cancelling statements at the client deadline instead of the default one")
+                .register(registry);
+    }
+
+    void cancelled(Duration saved) {
+        cancelled.increment();
+        if (saved.isPositive()) {
+            timeSaved.record(saved);
+        }
+    }
+
+    void expired() {
+        expired.increment();
+    }
+}
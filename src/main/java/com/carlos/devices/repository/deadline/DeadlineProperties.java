@@ -0,0 +1,38 @@
+package com.carlos.devices.repository.deadline;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings for the request deadlines applied to the database statements.
+ *
+ * @param enabled        whether the statements run for a request are cancelled when its deadline passes
+ * @param header         the request header with the client timeout, as a duration ({@code 500ms}, {@code 2s})
+ *                       or a number of milliseconds
+ * @param defaultTimeout the timeout of the requests without the header, for the endpoints not listed in
+ *                       {@code endpoints}, zero for no deadline
+ * @param maxTimeout     the longest timeout a client can ask for in the header
+ * @param endpoints      the default timeout per endpoint, keyed by the request mapping pattern such as
+ *                       {@code /api/device} or {@code /api/device/brand/{brand}}
+ */
+@ConfigurationProperties(prefix = "devices.deadline")
+public record DeadlineProperties(@DefaultValue("false") boolean enabled,
+                                 @DefaultValue("X-Request-Timeout") String header,
+                                 @DefaultValue("30s") Duration defaultTimeout,
+                                 @DefaultValue("60s") Duration maxTimeout,
+                                 Map<String, Duration> endpoints) {
+
+    public DeadlineProperties {
+        endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+    }
+
+    /**
+     * @return the default timeout of the endpoint with the given request mapping pattern, zero for no deadline
+     */
+    public Duration defaultTimeout(String pattern) {
+        return pattern == null ? defaultTimeout : endpoints.getOrDefault(pattern, defaultTimeout);
+    }
+}
@@ -0,0 +1,81 @@
+package com.carlos.devices.repository.deadline;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Deadline of the current request, bound to the request thread by {@link DeadlineInterceptor} and
+ * applied to the database statements by {@link DeadlineJdbcTemplate}.
+ * <p>
+ * Also keeps the default timeout of the endpoint, so that a statement cancelled at a deadline the client
+ * asked for can be reported with the connection time saved compared to the default.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final long deadlineNanos;
+    private final Duration defaultTimeout;
+    private final DeadlineMetrics metrics;
+
+    RequestDeadline(long startNanos, Duration timeout, Duration defaultTimeout, DeadlineMetrics metrics) {
+        this.startNanos = startNanos;
+        this.deadlineNanos = startNanos + timeout.toNanos();
+        this.defaultTimeout = defaultTimeout;
+        this.metrics = metrics;
+    }
+
+    static void bind(RequestDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a task that runs statements on another thread so that they are bounded by the deadline of the
+     * current request.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * @return the time left until the deadline, negative once it passed
+     */
+    Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Records a statement that was not started because the deadline had already passed.
+     */
+    void expired() {
+        metrics.expired();
+    }
+
+    /**
+     * Records a statement that was cancelled when the deadline passed.
+     */
+    void cancelled() {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        metrics.cancelled(defaultTimeout.isZero() ? Duration.ZERO : defaultTimeout.minus(elapsed));
+    }
+}
@@ -0,0 +1,137 @@
+package com.carlos.devices.repository.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Membership filter of the existing device ids, one bit per id up to the highest id seen by the last
+ * rebuild (the high-water mark).
+ * <p>
+ * {@link #mightExist(int)} only answers {@code false} for an id that is at or below the high-water mark
+ * and whose bit is clear. Ids above the mark may have been created after the rebuild, possibly by another
+ * application instance, and are always reported as possibly existing. The mark must therefore stay below
+ * every id whose insert was not yet visible to the rebuild, see {@link DeviceIdFilterLoader}. Devices deleted
+ * by other instances stay in the filter until the next rebuild, which only costs a database lookup.
+ * <p>
+ * Reads are lock free. Local creates and deletes are applied under a lock. The ones that happen from the
+ * start of a rebuild, before the high-water mark is read, are replayed on the new bitmap before it replaces
+ * the old one.
+ */
+public class DeviceIdFilter {
+
+    private record Bitmap(AtomicLongArray words, int highWater) {
+
+        boolean get(int id) {
+            return (words.get(id >>> 6) & (1L << id)) != 0;
+        }
+
+        void set(int id, boolean value) {
+            if (id < 0 || id > highWater) {
+                return;
+            }
+            long mask = 1L << id;
+            if (value) {
+                words.getAndAccumulate(id >>> 6, mask, (word, bit) -> word | bit);
+            } else {
+                words.getAndAccumulate(id >>> 6, ~mask, (word, bits) -> word & bits);
+            }
+        }
+    }
+
+    private record Change(int id, boolean exists) {
+    }
+
+    private final Object lock = new Object();
+    private volatile Bitmap bitmap;
+    private List<Change> changesDuringRebuild;
+
+    /**
+     * @return false when the device certainly does not exist, true when it may exist or the filter was
+     * not built yet
+     */
+    public boolean mightExist(int id) {
+        Bitmap current = bitmap;
+        return current == null || id < 0 || id > current.highWater() || current.get(id);
+    }
+
+    public void added(int id) {
+        apply(new Change(id, true));
+    }
+
+    public void removed(int id) {
+        apply(new Change(id, false));
+    }
+
+    /**
+     * Replaces the filter content with the ids produced by the scanner. The local changes are recorded
+     * before the high-water mark is read, so a device created locally while the scanner reads an older
+     * snapshot is not lost.
+     *
+     * @param highWater reads the highest id covered by the new filter, ids above it are reported as possibly
+     *                  existing; a negative value turns the filter off
+     * @param scanner   feeds every existing id up to the high-water mark to the given consumer
+     * @return false when the filter was turned off
+     */
+    public boolean rebuild(IntSupplier highWater, Consumer<IntConsumer> scanner) {
+        synchronized (lock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        Bitmap rebuilt;
+        try {
+            int mark = highWater.getAsInt();
+            if (mark < 0) {
+                synchronized (lock) {
+                    changesDuringRebuild = null;
+                    bitmap = null;
+                }
+                return false;
+            }
+            rebuilt = new Bitmap(new AtomicLongArray((mark >>> 6) + 1), mark);
+            scanner.accept(id -> rebuilt.set(id, true));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                changesDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            changesDuringRebuild.forEach(change -> rebuilt.set(change.id(), change.exists()));
+            changesDuringRebuild = null;
+            bitmap = rebuilt;
+        }
+        return true;
+    }
+
+    /**
+     * Turns the filter off, every id is then reported as possibly existing.
+     */
+    public void clear() {
+        synchronized (lock) {
+            bitmap = null;
+        }
+    }
+
+    /**
+     * @return the high-water mark of the filter, or -1 when it is not built
+     */
+    public int highWater() {
+        Bitmap current = bitmap;
+        return current == null ? -1 : current.highWater();
+    }
+
+    private void apply(Change change) {
+        synchronized (lock) {
+            Bitmap current = bitmap;
+            if (current != null) {
+                current.set(change.id(), change.exists());
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+    }
+}
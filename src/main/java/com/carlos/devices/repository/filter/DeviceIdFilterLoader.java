@@ -0,0 +1,75 @@
+package com.carlos.devices.repository.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Builds the {@link DeviceIdFilter} when the application starts and rebuilds it periodically.
+ * <p>
+ * The high-water mark and the ids are read in one repeatable-read transaction, so both come from the
+ * same snapshot, and the ids are streamed with a cursor instead of being loaded at once. The filter
+ * lets every lookup through until the first build completes.
+ * <p>
+ * The snapshot cannot see the inserts still in flight when it is taken, by other instances or by
+ * transactions that took their id from the sequence before a later, already committed insert. The
+ * high-water mark is therefore the highest id among the rows written by transactions that ended before
+ * the oldest transaction still running ({@code pg_snapshot_xmin}), so that the ids of the inserts in
+ * flight stay above it and go to the database. A long-running write transaction holds the mark back
+ * until it ends, which only sends more lookups to the database.
+ */
+public class DeviceIdFilterLoader {
+
+    static final String HIGH_WATER_QUERY = "SELECT coalesce(max(id), 0) FROM device "
+            + "WHERE change_txid < pg_snapshot_xmin(pg_current_snapshot())";
+    static final String SCAN_QUERY = "SELECT id FROM device WHERE id >= 0";
+
+    private final Logger logger = LoggerFactory.getLogger(DeviceIdFilterLoader.class);
+    private final DeviceIdFilter filter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxId;
+    private volatile boolean initialized;
+
+    public DeviceIdFilterLoader(DeviceIdFilter filter, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, IdFilterProperties properties) {
+        this.filter = filter;
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(properties.fetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.maxId = properties.maxId();
+    }
+
+    @Scheduled(fixedDelayString = "${devices.id-filter.rebuild-interval:10m}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            // The filter records the local changes from here on, before the snapshot is taken by the first query
+            boolean built = filter.rebuild(() -> {
+                Integer highWater = jdbcTemplate.queryForObject(HIGH_WATER_QUERY, Integer.class);
+                if (highWater == null || highWater > maxId) {
+                    logger.warn("Device id filter disabled, the highest device id {} is above the maximum {}", highWater, maxId);
+                    return -1;
+                }
+                return highWater;
+            }, ids -> jdbcTemplate.query(SCAN_QUERY, (RowCallbackHandler) rs -> ids.accept(rs.getInt(1))));
+            if (built) {
+                logger.info("Device id filter rebuilt up to id {} in {} ms", filter.highWater(), (System.nanoTime() - start) / 1_000_000);
+            }
+        });
+        initialized = true;
+    }
+
+    /**
+     * Whether the first build has completed, the filter is built or disabled.
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+}
@@ -0,0 +1,43 @@
+package com.carlos.devices.repository.filter;
+
+import com.carlos.devices.repository.DatabaseDeviceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Puts an {@link IdFilteringDeviceRepository} in front of the {@link DatabaseDeviceRepository} when
+ * {@code devices.id-filter.enabled=true}.
+ * <p>
+ * The filter relies on the ids of the single database sequence growing over time, so it is not used
+ * with sharded storage, and it is not built when the application only runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.id-filter.enabled:false} and !${devices.sharding.enabled:false} and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(IdFilterProperties.class)
+public class IdFilterConfiguration {
+
+    @Bean
+    public DeviceIdFilter deviceIdFilter() {
+        return new DeviceIdFilter();
+    }
+
+    @Bean
+    public DeviceIdFilterLoader deviceIdFilterLoader(DeviceIdFilter filter, JdbcTemplate jdbcTemplate,
+                                                     PlatformTransactionManager transactionManager,
+                                                     IdFilterProperties properties) {
+        return new DeviceIdFilterLoader(filter, jdbcTemplate, transactionManager, properties);
+    }
+
+    @Bean
+    @Primary
+    public IdFilteringDeviceRepository idFilteringDeviceRepository(DatabaseDeviceRepository databaseDeviceRepository,
+                                                                   DeviceIdFilter filter, MeterRegistry meterRegistry) {
+        return new IdFilteringDeviceRepository(databaseDeviceRepository, filter, meterRegistry);
+    }
+}
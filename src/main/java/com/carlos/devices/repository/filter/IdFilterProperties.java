@@ -0,0 +1,23 @@
+package com.carlos.devices.repository.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-memory filter of existing device ids.
+ *
+ * @param enabled         whether lookups of ids that are known not to exist skip the database
+ * @param rebuildInterval how often the filter is rebuilt from the device table, which also picks up
+ *                        the devices deleted by other application instances
+ * @param maxId           the filter is not built when the highest device id is above this value, it
+ *                        takes one bit per id up to the highest id (12 MB for 100 million ids)
+ * @param fetchSize       the number of ids read per round trip when the filter is rebuilt
+ */
+@ConfigurationProperties(prefix = "devices.id-filter")
+public record IdFilterProperties(@DefaultValue("false") boolean enabled,
+                                 @DefaultValue("10m") Duration rebuildInterval,
+                                 @DefaultValue("100000000") int maxId,
+                                 @DefaultValue("10000") int fetchSize) {
+}
@@ -0,0 +1,125 @@
+package com.carlos.devices.repository.filter;
+
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DeviceRepository} decorator that answers the lookups of device ids that certainly do not exist
+ * from the {@link DeviceIdFilter}, without a database query.
+ * <p>
+ * The filter is kept up to date with the devices created and deleted through this repository once
+ * their transaction commits. The lookups that skipped the database are counted in the
+ * {@code devices.id.filter.skipped} metric.
+ */
+public class IdFilteringDeviceRepository implements DeviceRepository {
+
+    private final DeviceRepository delegate;
+    private final DeviceIdFilter filter;
+    private final Counter skipped;
+
+    public IdFilteringDeviceRepository(DeviceRepository delegate, DeviceIdFilter filter, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.filter = filter;
+        this.skipped = Counter.builder("devices.id.filter.skipped")
+                .description("Lookups of nonexistent device ids answered without a database query")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Device findById(Integer id) {
+        if (!filter.mightExist(id)) {
+            skipped.increment();
+            return null;
+        }
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Device findByIdForUpdate(Integer id) {
+        if (!filter.mightExist(id)) {
+            skipped.increment();
+            return null;
+        }
+        return delegate.findByIdForUpdate(id);
+    }
+
+    @Override
+    public void update(Integer id, CreateUpdateDevice device) {
+        delegate.update(id, device);
+    }
+
+    @Override
+    public Device create(CreateUpdateDevice device) {
+        Device created = delegate.create(device);
+        afterCommit(() -> filter.added(created.id()));
+        return created;
+    }
+
+    @Override
+    public void delete(Integer id) {
+        delegate.delete(id);
+        afterCommit(() -> filter.removed(id));
+    }
+
+    @Override
+    public Collection<Device> findByBrand(String brand) {
+        return delegate.findByBrand(brand);
+    }
+
+    @Override
+    public Collection<Device> findByState(DeviceState state) {
+        return delegate.findByState(state);
+    }
+
+    @Override
+    public Collection<Device> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Map<Integer, Device> findAllByIdForUpdate(Collection<Integer> ids) {
+        return delegate.findAllByIdForUpdate(ids);
+    }
+
+    @Override
+    public List<Device> createAll(List<CreateUpdateDevice> devices) {
+        List<Device> created = delegate.createAll(devices);
+        afterCommit(() -> created.forEach(device -> filter.added(device.id())));
+        return created;
+    }
+
+    @Override
+    public void updateAll(List<DeviceChangedEvent> changes) {
+        delegate.updateAll(changes);
+    }
+
+    @Override
+    public void deleteAll(List<Device> devices) {
+        delegate.deleteAll(devices);
+        afterCommit(() -> devices.forEach(device -> filter.removed(device.id())));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.carlos.devices.repository.pool;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the maximum size and the minimum idle connections of a Hikari pool at runtime, through its
+ * {@link HikariConfigMXBean}, as decided by a {@link PoolSizeController}.
+ * <p>
+ * Every interval, the pool metrics Hikari publishes are read: the {@code hikaricp.connections.acquire} timer
+ * gives the mean time borrowers waited, the {@code hikaricp.connections.usage} timer the mean time a
+ * connection was held, which follows the query latency, and the total time held over the interval the mean
+ * number of connections in use; the pool gives the threads still waiting. Each change is logged and kept
+ * for {@code /actuator/poolautotune}, and counted by the {@code devices.pool.autotune.changes} counter.
+ * <p>
+ * Hikari does not close connections when its maximum size goes down: the connections above the new minimum
+ * idle are retired by its housekeeper once idle for {@code idleTimeout}, or at {@code maxLifetime} when the
+ * minimum idle equals the maximum, and no new ones are opened past the new size. The pool is thus down to its
+ * new size gradually, without closing the connections still in use.
+ */
+public class HikariPoolAutotuner implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HikariPoolAutotuner.class);
+
+    static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+    static final String USAGE_TIMER = "hikaricp.connections.usage";
+    /**
+     * The pool metrics are bound once the application has started, and the pool starts with its first
+     * connection; they are only reported missing after a few intervals.
+     */
+    private static final int MISSING_METRICS_WARNING_INTERVALS = 3;
+
+    /**
+     * A change of the pool sizes.
+     */
+    public record Change(Instant at, int fromMaximumPoolSize, int toMaximumPoolSize, int fromMinimumIdle,
+                         int toMinimumIdle, String reason) {
+    }
+
+    /**
+     * The current pool sizes, their limits and the last changes, most recent first.
+     */
+    public record Report(String pool, int maximumPoolSize, int minimumIdle, int minPoolSize, int maxPoolSize,
+                         List<Change> changes) {
+    }
+
+    private final HikariDataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final PoolAutotuneProperties properties;
+    private final PoolSizeController controller;
+    private final Clock clock;
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private final Counter grown;
+    private final Counter shrunk;
+    private final ScheduledExecutorService tuner;
+
+    private long lastTickNanos;
+    private long lastAcquireCount;
+    private double lastAcquireMillis;
+    private long lastUsageCount;
+    private double lastUsageMillis;
+    private int missingMetricsIntervals;
+
+    public HikariPoolAutotuner(HikariDataSource dataSource, MeterRegistry meterRegistry,
+                               PoolAutotuneProperties properties) {
+        this(dataSource, meterRegistry, properties, Clock.systemUTC(), true);
+    }
+
+    HikariPoolAutotuner(HikariDataSource dataSource, MeterRegistry meterRegistry, PoolAutotuneProperties properties,
+                        Clock clock, boolean scheduled) {
+        if (properties.minPoolSize() < 1 || properties.maxPoolSize() < properties.minPoolSize() || properties.step() < 1) {
+            throw new IllegalArgumentException("The pool autotune limits must satisfy 1 <= min-pool-size <= max-pool-size"
+                    + " and step >= 1");
+        }
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.clock = clock;
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        this.controller = new PoolSizeController(properties,
+                (double) Math.min(config.getMinimumIdle(), config.getMaximumPoolSize()) / config.getMaximumPoolSize());
+        this.grown = Counter.builder("devices.pool.autotune.changes")
+                .description("Changes of the maximum pool size made by the autotuner")
+                .tag("direction", "grow")
+                .register(meterRegistry);
+        this.shrunk = Counter.builder("devices.pool.autotune.changes")
+                .description("Changes of the maximum pool size made by the autotuner")
+                .tag("direction", "shrink")
+                .register(meterRegistry);
+        this.lastTickNanos = System.nanoTime();
+        if (scheduled) {
+            this.tuner = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("pool-autotune").daemon().factory());
+            long intervalNanos = properties.interval().toNanos();
+            tuner.scheduleWithFixedDelay(this::tuneQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.tuner = null;
+        }
+    }
+
+    /**
+     * Reads the pool metrics of the interval since the last call, and applies the sizes decided from them.
+     *
+     * @return the change made, or {@code null}
+     */
+    synchronized Change tune() {
+        Timer acquire = timer(ACQUIRE_TIMER);
+        Timer usage = timer(USAGE_TIMER);
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (acquire == null || usage == null || pool == null) {
+            if (++missingMetricsIntervals == MISSING_METRICS_WARNING_INTERVALS) {
+                log.warn("The metrics of pool {} are not published yet, the pool size is not tuned", dataSource.getPoolName());
+            }
+            return null;
+        }
+        long now = System.nanoTime();
+        double elapsedMillis = (now - lastTickNanos) / 1_000_000d;
+        long acquireCount = acquire.count();
+        double acquireMillis = acquire.totalTime(TimeUnit.MILLISECONDS);
+        long usageCount = usage.count();
+        double usageMillis = usage.totalTime(TimeUnit.MILLISECONDS);
+        PoolSizeController.Observation observation = new PoolSizeController.Observation(
+                mean(acquireMillis - lastAcquireMillis, acquireCount - lastAcquireCount),
+                mean(usageMillis - lastUsageMillis, usageCount - lastUsageCount),
+                elapsedMillis > 0 ? (usageMillis - lastUsageMillis) / elapsedMillis : 0,
+                pool.getThreadsAwaitingConnection());
+        lastTickNanos = now;
+        lastAcquireCount = acquireCount;
+        lastAcquireMillis = acquireMillis;
+        lastUsageCount = usageCount;
+        lastUsageMillis = usageMillis;
+
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        int maximumPoolSize = config.getMaximumPoolSize();
+        int minimumIdle = config.getMinimumIdle();
+        PoolSizeController.Decision decision = controller.observe(maximumPoolSize, observation);
+        if (decision == null) {
+            return null;
+        }
+        // The minimum idle must never be above the maximum, even between the two calls
+        if (decision.maximumPoolSize() > maximumPoolSize) {
+            config.setMaximumPoolSize(decision.maximumPoolSize());
+            config.setMinimumIdle(decision.minimumIdle());
+            grown.increment();
+        } else {
+            config.setMinimumIdle(decision.minimumIdle());
+            config.setMaximumPoolSize(decision.maximumPoolSize());
+            shrunk.increment();
+        }
+        Change change = new Change(clock.instant(), maximumPoolSize, decision.maximumPoolSize(), minimumIdle,
+                decision.minimumIdle(), decision.reason());
+        log.info("Pool {} maximum-pool-size {} -> {}, minimum-idle {} -> {}: {}", dataSource.getPoolName(),
+                change.fromMaximumPoolSize(), change.toMaximumPoolSize(), change.fromMinimumIdle(),
+                change.toMinimumIdle(), change.reason());
+        changes.addFirst(change);
+        while (changes.size() > properties.auditSize()) {
+            changes.removeLast();
+        }
+        return change;
+    }
+
+    private void tuneQuietly() {
+        try {
+            tune();
+        } catch (RuntimeException e) {
+            log.warn("Could not tune pool {}", dataSource.getPoolName(), e);
+        }
+    }
+
+    private Timer timer(String name) {
+        return meterRegistry.find(name).tag("pool", dataSource.getPoolName()).timer();
+    }
+
+    private static double mean(double totalMillis, long count) {
+        return count > 0 ? totalMillis / count : 0;
+    }
+
+    public synchronized Report report() {
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        return new Report(dataSource.getPoolName(), config.getMaximumPoolSize(), config.getMinimumIdle(),
+                properties.minPoolSize(), properties.maxPoolSize(), List.copyOf(changes));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (tuner != null) {
+            tuner.shutdown();
+            tuner.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
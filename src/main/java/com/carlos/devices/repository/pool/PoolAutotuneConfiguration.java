@@ -0,0 +1,40 @@
+package com.carlos.devices.repository.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Tunes the size of the application connection pool at runtime when {@code devices.pool.autotune.enabled=true},
+ * and reports the changes at {@code /actuator/poolautotune}.
+ * <p>
+ * The Hikari pool is unwrapped from the application data source; with replica routing that is the primary
+ * pool, the replica pools keep their size. The shards have pools of their own, so nothing is tuned with
+ * sharded storage, nor when the application only runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.pool.autotune.enabled:false} and !${devices.sharding.enabled:false}"
+        + " and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(PoolAutotuneProperties.class)
+public class PoolAutotuneConfiguration {
+
+    @Bean
+    public HikariPoolAutotuner hikariPoolAutotuner(DataSource dataSource, MeterRegistry meterRegistry,
+                                                   PoolAutotuneProperties properties) throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            throw new IllegalStateException("devices.pool.autotune.enabled=true needs a Hikari connection pool");
+        }
+        return new HikariPoolAutotuner(dataSource.unwrap(HikariDataSource.class), meterRegistry, properties);
+    }
+
+    @Bean
+    public PoolAutotuneEndpoint poolAutotuneEndpoint(HikariPoolAutotuner autotuner) {
+        return new PoolAutotuneEndpoint(autotuner);
+    }
+}
@@ -0,0 +1,22 @@
+package com.carlos.devices.repository.pool;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Reports the current pool sizes and the changes made by the autotuner at {@code /actuator/poolautotune}.
+ */
+@Endpoint(id = "poolautotune")
+public class PoolAutotuneEndpoint {
+
+    private final HikariPoolAutotuner autotuner;
+
+    public PoolAutotuneEndpoint(HikariPoolAutotuner autotuner) {
+        this.autotuner = autotuner;
+    }
+
+    @ReadOperation
+    public HikariPoolAutotuner.Report poolAutotune() {
+        return autotuner.report();
+    }
+}
@@ -0,0 +1,36 @@
+package com.carlos.devices.repository.pool;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the runtime sizing of the connection pool.
+ *
+ * @param enabled              whether the pool size is adjusted at runtime
+ * @param interval             how often the pool metrics are read and the size reconsidered
+ * @param minPoolSize          the smallest maximum pool size set
+ * @param maxPoolSize          the largest maximum pool size set
+ * @param step                 the connections added or removed at a time
+ * @param targetAcquireTime    the mean time to borrow a connection above which the pool grows
+ * @param lowUtilization       the share of the pool in use below which it shrinks
+ * @param growAfter            the intervals in a row the borrowers must wait before the pool grows
+ * @param shrinkAfter          the intervals in a row the pool must be underused before it shrinks
+ * @param latencyTolerance     how much slower each borrow can get after the pool grew, while borrowers still
+ *                             wait, before the growth is undone as saturating the database
+ * @param auditSize            the last changes kept for {@code /actuator/poolautotune}
+ */
+@ConfigurationProperties(prefix = "devices.pool.autotune")
+public record PoolAutotuneProperties(@DefaultValue("false") boolean enabled,
+                                     @DefaultValue("10s") Duration interval,
+                                     @DefaultValue("2") int minPoolSize,
+                                     @DefaultValue("50") int maxPoolSize,
+                                     @DefaultValue("2") int step,
+                                     @DefaultValue("5ms") Duration targetAcquireTime,
+                                     @DefaultValue("0.5") double lowUtilization,
+                                     @DefaultValue("2") int growAfter,
+                                     @DefaultValue("6") int shrinkAfter,
+                                     @DefaultValue("1.5") double latencyTolerance,
+                                     @DefaultValue("50") int auditSize) {
+}
@@ -0,0 +1,109 @@
+package com.carlos.devices.repository.pool;
+
+/**
+ * Decides the maximum pool size from what the pool went through during the last interval.
+ * <p>
+ * The pool grows by a step when borrowers waited, longer than the target on average or still waiting at the
+ * end of the interval, for {@code growAfter} intervals in a row, and shrinks by a step when less than
+ * {@code lowUtilization} of it was in use, without waiting, for {@code shrinkAfter} intervals in a row. The
+ * different delays and the band between the two conditions keep the size from flapping. If, while the pool
+ * keeps growing, borrowers still wait and connections are held {@code latencyTolerance} times longer than
+ * when it started growing, the database is what saturates and more connections only make each query slower:
+ * the last step is undone, and the pool does not grow past that size again until it has shrunk, the load
+ * having gone down.
+ * <p>
+ * The minimum idle connections follow the maximum, in the proportion configured at startup. Not thread-safe,
+ * the decisions are made from a single thread.
+ */
+final class PoolSizeController {
+
+    /**
+     * What the pool went through during an interval.
+     *
+     * @param acquireMillis   the mean time to borrow a connection
+     * @param usageMillis     the mean time a connection was held
+     * @param busyConnections the mean number of connections in use
+     * @param pending         the threads waiting for a connection at the end of the interval
+     */
+    record Observation(double acquireMillis, double usageMillis, double busyConnections, int pending) {
+    }
+
+    /**
+     * The sizes to set, and why.
+     */
+    record Decision(int maximumPoolSize, int minimumIdle, String reason) {
+    }
+
+    private final PoolAutotuneProperties properties;
+    private final double idleRatio;
+    private int growStreak;
+    private int shrinkStreak;
+    private Double usageBaseline;
+    private Integer ceiling;
+
+    /**
+     * @param idleRatio the minimum idle connections per connection of the maximum pool size
+     */
+    PoolSizeController(PoolAutotuneProperties properties, double idleRatio) {
+        this.properties = properties;
+        this.idleRatio = idleRatio;
+    }
+
+    /**
+     * @return the new sizes, or {@code null} to keep the current ones
+     */
+    Decision observe(int maximumPoolSize, Observation observation) {
+        double target = properties.targetAcquireTime().toNanos() / 1_000_000d;
+        boolean waiting = observation.acquireMillis() > target || observation.pending() > 0;
+        if (!waiting) {
+            usageBaseline = null;
+        } else if (usageBaseline != null
+                && observation.usageMillis() > usageBaseline * properties.latencyTolerance()) {
+            int size = clamp(maximumPoolSize - properties.step());
+            String reason = String.format("connections held %.1f ms instead of %.1f ms before the pool grew, "
+                    + "the database is saturated", observation.usageMillis(), usageBaseline);
+            ceiling = size;
+            usageBaseline = null;
+            growStreak = 0;
+            shrinkStreak = 0;
+            return size == maximumPoolSize ? null : decision(size, reason);
+        }
+
+        if (waiting) {
+            growStreak++;
+            shrinkStreak = 0;
+        } else if (observation.busyConnections() < properties.lowUtilization() * maximumPoolSize) {
+            shrinkStreak++;
+            growStreak = 0;
+        } else {
+            growStreak = 0;
+            shrinkStreak = 0;
+        }
+
+        int limit = ceiling == null ? properties.maxPoolSize() : Math.min(ceiling, properties.maxPoolSize());
+        if (growStreak >= properties.growAfter() && maximumPoolSize < limit) {
+            growStreak = 0;
+            usageBaseline = usageBaseline == null
+                    ? observation.usageMillis()
+                    : Math.min(usageBaseline, observation.usageMillis());
+            return decision(Math.min(limit, maximumPoolSize + properties.step()), String.format(
+                    "borrowers waited %.1f ms on average, %d waiting", observation.acquireMillis(), observation.pending()));
+        }
+        if (shrinkStreak >= properties.shrinkAfter() && maximumPoolSize > properties.minPoolSize()) {
+            shrinkStreak = 0;
+            ceiling = null;
+            return decision(clamp(maximumPoolSize - properties.step()), String.format(
+                    "%.1f connections in use on average", observation.busyConnections()));
+        }
+        return null;
+    }
+
+    private Decision decision(int maximumPoolSize, String reason) {
+        int minimumIdle = (int) Math.min(maximumPoolSize, Math.round(maximumPoolSize * idleRatio));
+        return new Decision(maximumPoolSize, minimumIdle, reason);
+    }
+
+    private int clamp(int size) {
+        return Math.max(properties.minPoolSize(), Math.min(properties.maxPoolSize(), size));
+    }
+}
@@ -0,0 +1,57 @@
+package com.carlos.devices.repository.routing;
+
+import com.carlos.devices.domain.ReadYourWrites;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each client last wrote, so its reads can stay on the primary for a short window
+ * instead of reading stale data from a lagging replica.
+ */
+public class ReadYourWritesTracker implements ReadYourWrites {
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String clientId) {
+        lastWrites.put(clientId, System.nanoTime());
+    }
+
+    public boolean isSticky(String clientId) {
+        Long lastWrite = lastWrites.get(clientId);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite < windowNanos) {
+            return true;
+        }
+        lastWrites.remove(clientId, lastWrite);
+        return false;
+    }
+
+    /**
+     * Whether the request bound to the current thread reads from the primary: it already wrote, or its
+     * client wrote within the window.
+     */
+    @Override
+    public boolean readsOwnWrites() {
+        RoutingContext context = RoutingContext.current();
+        return context != null && (context.written() || (context.clientId() != null && isSticky(context.clientId())));
+    }
+
+    /**
+     * Drops the entries of clients whose window already expired.
+     */
+    @Scheduled(fixedDelayString = "${devices.datasource.routing.sticky-window:2s}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
@@ -0,0 +1,83 @@
+package com.carlos.devices.repository.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks every replica and takes it out of rotation when it cannot be reached, when it is not
+ * receiving WAL from the primary, or when its replication lag goes over the configured maximum.
+ * <p>
+ * A replica that has replayed all the WAL it received is considered to have no lag, so an idle primary does
+ * not make its replicas look stale; that only holds while its WAL receiver is streaming, as a disconnected
+ * replica has replayed everything it received too. Without the {@code pg_read_all_stats} role the status of
+ * the receiver is hidden, and a running receiver is taken as streaming.
+ * <p>
+ * The checks run on a thread of their own, every {@code health-check-interval}, so a replica that does not
+ * answer cannot delay the other scheduled tasks of the application. A check waits at most
+ * {@code connection-timeout} for a connection, and as long again for the query.
+ */
+public class ReplicaHealthChecker implements AutoCloseable {
+
+    static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE COALESCE(status, 'streaming') = 'streaming') THEN NULL
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final Logger logger = LoggerFactory.getLogger(ReplicaHealthChecker.class);
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Duration maxLag;
+    private final int queryTimeoutSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaHealthChecker(ReplicaRoutingDataSource routingDataSource, Duration maxLag,
+                                Duration healthCheckInterval, Duration connectionTimeout) {
+        this.routingDataSource = routingDataSource;
+        this.maxLag = maxLag;
+        this.queryTimeoutSeconds = (int) Math.max(connectionTimeout.toSeconds(), 1);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-health-check").daemon().factory());
+        long intervalNanos = healthCheckInterval.toNanos();
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void checkReplicas() {
+        routingDataSource.replicas().forEach(this::check);
+    }
+
+    void check(ReplicaRoutingDataSource.Replica replica) {
+        boolean wasHealthy = replica.healthy();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.dataSource());
+            jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+            Number lagMillis = jdbcTemplate.queryForObject(LAG_QUERY, Number.class);
+            if (lagMillis == null) {
+                replica.update(false, replica.lag());
+                logger.debug("Replica {} is not streaming WAL from the primary", replica.name());
+            } else {
+                Duration lag = Duration.ofMillis(lagMillis.longValue());
+                replica.update(lag.compareTo(maxLag) <= 0, lag);
+            }
+        } catch (RuntimeException e) {
+            replica.update(false, replica.lag());
+            logger.debug("Health check failed for replica {}", replica.name(), e);
+        }
+        if (wasHealthy != replica.healthy()) {
+            logger.warn("Replica {} is now {} (lag {})", replica.name(), replica.healthy() ? "in rotation" : "out of rotation", replica.lag());
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.carlos.devices.repository.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single application data source with a {@link ReplicaRoutingDataSource} when
+ * {@code devices.datasource.routing.enabled=true}.
+ * <p>
+ * The primary pool keeps using the {@code spring.datasource.*} settings and is the one Liquibase
+ * migrates; each replica gets its own Hikari pool. Example:
+ * <pre>
+ * devices.datasource.routing.enabled=true
+ * devices.datasource.routing.replicas[0].url=jdbc:postgresql://replica-1:5432/device
+ * devices.datasource.routing.replicas[0].username=...
+ * devices.datasource.routing.replicas[0].password=...
+ * </pre>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "devices.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesTracker(properties.stickyWindow());
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaRoutingProperties properties,
+                                                             ReadYourWritesTracker readYourWritesTracker) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReplicaRoutingProperties.Replica replica = properties.replicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+            pool.setJdbcUrl(replica.url());
+            pool.setUsername(replica.username());
+            pool.setPassword(replica.password());
+            pool.setMaximumPoolSize(properties.maximumPoolSize());
+            pool.setConnectionTimeout(properties.connectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // The same driver settings, statement cache included, as the primary
+            pool.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replicas.add(new ReplicaRoutingDataSource.Replica("replica-" + i, pool));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesTracker);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                     ReplicaRoutingProperties properties) {
+        return new ReplicaHealthChecker(replicaRoutingDataSource, properties.maxLag(),
+                properties.healthCheckInterval(), properties.connectionTimeout());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RoutingContextFilter> routingContextFilter(ReplicaRoutingProperties properties) {
+        return new FilterRegistrationBean<>(new RoutingContextFilter(properties.clientHeader()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "devices.grpc.enabled", havingValue = "true")
+    public RoutingContextInterceptor routingContextInterceptor(ReplicaRoutingProperties properties) {
+        return new RoutingContextInterceptor(properties.clientHeader());
+    }
+}
@@ -0,0 +1,125 @@
+package com.carlos.devices.repository.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link AbstractRoutingDataSource} that sends read-only transactions to the replica pools and
+ * everything else to the primary.
+ * <p>
+ * Replicas are load balanced in round-robin order, skipping the ones marked unhealthy by
+ * {@link ReplicaHealthChecker}. When no replica is healthy the read goes to the primary.
+ * Reads also go to the primary when the current request already wrote, or when the client
+ * wrote within the read-your-writes window tracked by {@link ReadYourWritesTracker}.
+ * <p>
+ * The lookup key is resolved when the connection is obtained, so this data source must be
+ * wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the
+ * transaction read-only flag to be known at that point.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReadYourWritesTracker readYourWritesTracker) {
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name(), replica.dataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        RoutingContext context = RoutingContext.current();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (context != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                context.markWritten();
+                if (context.clientId() != null) {
+                    readYourWritesTracker.recordWrite(context.clientId());
+                }
+            }
+            return PRIMARY;
+        }
+        if (readYourWritesTracker.readsOwnWrites()) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica();
+    }
+
+    private String nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy()) {
+                return replica.name();
+            }
+        }
+        return PRIMARY;
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Closes the replica pools, the primary pool is managed as its own bean.
+     */
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * A replica pool and its last known health.
+     */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile Duration lag = Duration.ZERO;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean healthy() {
+            return healthy;
+        }
+
+        public Duration lag() {
+            return lag;
+        }
+
+        void update(boolean healthy, Duration lag) {
+            this.healthy = healthy;
+            this.lag = lag;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.carlos.devices.repository.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to replica databases.
+ *
+ * @param enabled             whether read-only transactions are routed to the replicas
+ * @param replicas            the replica connection settings, load balanced in round-robin order
+ * @param maxLag              replicas lagging more than this behind the primary are taken out of rotation
+ * @param healthCheckInterval how often the replica health and lag are checked
+ * @param stickyWindow        how long the reads of a client go to the primary after that client wrote
+ * @param clientHeader        the request header identifying a client for read-your-writes stickiness
+ * @param maximumPoolSize     the maximum pool size of each replica pool
+ * @param connectionTimeout   how long a read or a health check waits for a replica connection, kept short so
+ *                            an unreachable replica fails fast and is taken out of rotation
+ */
+@ConfigurationProperties(prefix = "devices.datasource.routing")
+public record ReplicaRoutingProperties(@DefaultValue("false") boolean enabled,
+                                       @DefaultValue List<Replica> replicas,
+                                       @DefaultValue("5s") Duration maxLag,
+                                       @DefaultValue("5s") Duration healthCheckInterval,
+                                       @DefaultValue("2s") Duration stickyWindow,
+                                       @DefaultValue("X-Client-Id") String clientHeader,
+                                       @DefaultValue("10") int maximumPoolSize,
+                                       @DefaultValue("1s") Duration connectionTimeout) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
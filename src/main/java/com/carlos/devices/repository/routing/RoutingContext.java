@@ -0,0 +1,86 @@
+package com.carlos.devices.repository.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-request routing state, bound to the request thread by {@link RoutingContextFilter}, and to the threads
+ * running a gRPC call by {@link RoutingContextInterceptor}.
+ * <p>
+ * Holds the client identifier used for read-your-writes stickiness and whether the current
+ * request already wrote, so reads issued later in the same request are sent to the primary.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<RoutingContext> CURRENT = new ThreadLocal<>();
+
+    private final String clientId;
+    private volatile boolean written;
+
+    private RoutingContext(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public static void bind(String clientId) {
+        CURRENT.set(new RoutingContext(clientId));
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task handed to another thread so that it runs with the routing context of the caller, and so
+     * marks the same request as written.
+     */
+    public static Runnable propagate(Runnable task) {
+        RoutingContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> context.run(task);
+    }
+
+    static RoutingContext of(String clientId) {
+        return new RoutingContext(clientId);
+    }
+
+    void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the task with this context bound, then restores the context bound before.
+     */
+    <T> T call(Supplier<T> task) {
+        RoutingContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static RoutingContext current() {
+        return CURRENT.get();
+    }
+
+    String clientId() {
+        return clientId;
+    }
+
+    boolean written() {
+        return written;
+    }
+
+    void markWritten() {
+        written = true;
+    }
+}
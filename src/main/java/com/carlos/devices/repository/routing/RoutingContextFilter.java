@@ -0,0 +1,32 @@
+package com.carlos.devices.repository.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds a {@link RoutingContext} for each request, identifying the client through the configured header.
+ */
+public class RoutingContextFilter extends OncePerRequestFilter {
+
+    private final String clientHeader;
+
+    public RoutingContextFilter(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RoutingContext.bind(request.getHeader(clientHeader));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.carlos.devices.repository.routing;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Binds a {@link RoutingContext} for each gRPC call, identifying the client through the metadata entry named
+ * like the HTTP header, the gRPC counterpart of {@link RoutingContextFilter}.
+ * <p>
+ * The callbacks of a call may run on different threads, so the same context is bound around each of them:
+ * a read following a write of the same call, such as the next message of a bulk write, goes to the primary.
+ * Work the call hands to other threads has to be wrapped with {@link RoutingContext#propagate}.
+ */
+public class RoutingContextInterceptor implements ServerInterceptor {
+
+    private final Metadata.Key<String> clientKey;
+
+    public RoutingContextInterceptor(String clientHeader) {
+        this.clientKey = Metadata.Key.of(clientHeader, Metadata.ASCII_STRING_MARSHALLER);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        RoutingContext context = RoutingContext.of(headers.get(clientKey));
+        ServerCall.Listener<ReqT> listener = context.call(() -> next.startCall(call, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                context.run(() -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                context.run(super::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                context.run(super::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                context.run(super::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                context.run(super::onReady);
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.carlos.devices.repository.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The connection pools of the shards, in shard index order.
+ * <p>
+ * Applies the Liquibase changelog to every shard when created, and closes the pools on shutdown.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public ShardDataSources(ShardingProperties properties, String changeLog) throws Exception {
+        for (int i = 0; i < properties.shards().size(); i++) {
+            ShardingProperties.Shard shard = properties.shards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("device-api-shard-" + i);
+            pool.setJdbcUrl(shard.url());
+            pool.setUsername(shard.username());
+            pool.setPassword(shard.password());
+            pool.setMaximumPoolSize(properties.maximumPoolSize());
+            pools.add(pool);
+            migrate(pool, changeLog);
+        }
+    }
+
+    public List<HikariDataSource> pools() {
+        return pools;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private static void migrate(HikariDataSource pool, String changeLog) throws Exception {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(pool);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+}
@@ -0,0 +1,36 @@
+package com.carlos.devices.repository.sharding;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps device ids to shards and allocates the ids of new devices.
+ * <p>
+ * Each shard keeps its own {@code device_id_seq} sequence, and a new device stored on shard {@code k}
+ * of {@code n} gets the id {@code nextval * n + k}. Ids are therefore unique across shards and the
+ * owning shard of any id is simply {@code id mod n}, without a lookup table. New devices are spread
+ * over the shards in round-robin order.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(int id) {
+        return Math.floorMod(id, shardCount);
+    }
+
+    public int shardForNewDevice() {
+        return Math.floorMod(next.getAndIncrement(), shardCount);
+    }
+}
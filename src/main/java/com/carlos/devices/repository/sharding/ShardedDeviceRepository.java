@@ -0,0 +1,336 @@
+package com.carlos.devices.repository.sharding;
+
+import com.carlos.devices.domain.DeviceCursor;
+import com.carlos.devices.domain.DevicePager;
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.DeviceResultSetExtractor;
+import com.carlos.devices.repository.deadline.RequestDeadline;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the {@link DeviceRepository} interface that spreads the devices over several
+ * PostgreSQL databases (shards).
+ * <p>
+ * Single device operations are routed to the shard owning the id, see {@link ShardRouter} for how ids
+ * are allocated. List queries are scattered to all shards in parallel and gathered with a streaming
+ * k-way merge ordered by id: every shard is read in keyset-paginated batches of {@code fetchSize} rows,
+ * and while the merge consumes a batch the next one is already being read, so a shard never holds up the
+ * merge with a round trip once its first batch arrived. The merge is exposed without collecting it as a
+ * {@link DeviceCursor}, and backs the {@link DevicePager} keyset pagination across shards.
+ * <p>
+ * Every statement runs in its own auto-committed shard transaction; there are no transactions
+ * spanning shards. Like the single database repository, every write publishes a {@link DeviceChangedEvent},
+ * which is delivered right away since there is no surrounding transaction to wait for.
+ */
+public class ShardedDeviceRepository implements DeviceRepository, DeviceCursor, DevicePager, AutoCloseable {
+
+    static final String SELECT_DEVICE_QUERY = "SELECT * FROM device WHERE id = ?";
+    static final String DELETE_DEVICE_QUERY = "DELETE FROM device WHERE id = ? RETURNING *";
+    static final String UPDATE_DEVICE_QUERY = "UPDATE device SET name = ?, brand = ?, state = ? "
+            + "FROM (SELECT * FROM device WHERE id = ? FOR UPDATE) previous WHERE device.id = previous.id RETURNING previous.*";
+    static final String INSERT_DEVICE_QUERY = "INSERT INTO device (id, name, brand, state, creation_time) "
+            + "VALUES (nextval('device_id_seq') * ? + ?, ?, ?, ?, ?) RETURNING id";
+    static final String SELECT_ALL_DEVICES_PAGE_QUERY = "SELECT * FROM device WHERE id > ? ORDER BY id LIMIT ?";
+    static final String SELECT_ALL_DEVICES_BY_BRAND_PAGE_QUERY = "SELECT * FROM device WHERE brand = ? AND id > ? ORDER BY id LIMIT ?";
+    static final String SELECT_ALL_DEVICES_BY_STATE_PAGE_QUERY = "SELECT * FROM device WHERE state = ? AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String BATCHES_NOT_SUPPORTED = "Device batches are not supported with sharded storage";
+
+    private final List<JdbcTemplate> shards;
+    private final ShardRouter router;
+    private final int fetchSize;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedDeviceRepository(List<JdbcTemplate> shards, int fetchSize, ApplicationEventPublisher eventPublisher) {
+        this.shards = List.copyOf(shards);
+        this.router = new ShardRouter(shards.size());
+        this.fetchSize = fetchSize;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Device findById(Integer id) {
+        Collection<Device> devices = shard(id).query(SELECT_DEVICE_QUERY, new DeviceResultSetExtractor(), id);
+        assert devices != null;
+        return devices.isEmpty() ? null : devices.iterator().next();
+    }
+
+    /**
+     * Reads the device from its shard without a lock: the shards have no replicas, and no transaction spans
+     * the read and the write that follows it.
+     */
+    @Override
+    public Device findByIdForUpdate(Integer id) {
+        return findById(id);
+    }
+
+    @Override
+    public void update(Integer id, CreateUpdateDevice device) {
+        Collection<Device> previous = shard(id).query(UPDATE_DEVICE_QUERY, new DeviceResultSetExtractor(),
+                device.name(), device.brand(), device.state().name(), id);
+        assert previous != null;
+        previous.forEach(before -> eventPublisher.publishEvent(new DeviceChangedEvent(before,
+                new Device(id, device.name(), device.brand(), device.state(), before.creationTime()))));
+    }
+
+    @Override
+    public Device create(CreateUpdateDevice device) {
+        int shard = router.shardForNewDevice();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Integer id = shards.get(shard).queryForObject(INSERT_DEVICE_QUERY, Integer.class,
+                router.shardCount(), shard, device.name(), device.brand(), DeviceState.AVAILABLE.name(), now);
+        Device created = new Device(id, device.name(), device.brand(), DeviceState.AVAILABLE, now);
+        eventPublisher.publishEvent(new DeviceChangedEvent(null, created));
+        return created;
+    }
+
+    @Override
+    public void delete(Integer id) {
+        Collection<Device> deleted = shard(id).query(DELETE_DEVICE_QUERY, new DeviceResultSetExtractor(), id);
+        assert deleted != null;
+        if (deleted.size() != 1) {
+            throw new BusinessRulesException("Device not found for deletion: " + id);
+        }
+        eventPublisher.publishEvent(new DeviceChangedEvent(deleted.iterator().next(), null));
+    }
+
+    @Override
+    public Collection<Device> findByBrand(String brand) {
+        return collect(brand, null);
+    }
+
+    @Override
+    public Collection<Device> findByState(DeviceState state) {
+        return collect(null, state);
+    }
+
+    @Override
+    public Collection<Device> findAll() {
+        return collect(null, null);
+    }
+
+    /**
+     * Passes the merged devices of all shards to the consumer in id order, holding at most two batches per
+     * shard in memory: the one being merged and the one being read.
+     */
+    @Override
+    public void forEach(String brand, DeviceState state, Consumer<Device> consumer) {
+        try (MergingIterator devices = merge(brand, state, 0, Integer.MAX_VALUE)) {
+            devices.forEachRemaining(consumer);
+        }
+    }
+
+    @Override
+    public List<Device> findPage(String brand, DeviceState state, int afterId, int limit) {
+        List<Device> result = new ArrayList<>(limit);
+        try (MergingIterator devices = merge(brand, state, afterId, limit)) {
+            while (result.size() < limit && devices.hasNext()) {
+                result.add(devices.next());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Not supported: the devices of a batch live on several shards and there are no transactions spanning shards.
+     */
+    @Override
+    public Map<Integer, Device> findAllByIdForUpdate(Collection<Integer> ids) {
+        throw new BusinessRulesException(BATCHES_NOT_SUPPORTED);
+    }
+
+    @Override
+    public List<Device> createAll(List<CreateUpdateDevice> devices) {
+        throw new BusinessRulesException(BATCHES_NOT_SUPPORTED);
+    }
+
+    @Override
+    public void updateAll(List<DeviceChangedEvent> changes) {
+        throw new BusinessRulesException(BATCHES_NOT_SUPPORTED);
+    }
+
+    @Override
+    public void deleteAll(List<Device> devices) {
+        throw new BusinessRulesException(BATCHES_NOT_SUPPORTED);
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private JdbcTemplate shard(int id) {
+        return shards.get(router.shardFor(id));
+    }
+
+    private List<Device> collect(String brand, DeviceState state) {
+        List<Device> result = new ArrayList<>();
+        forEach(brand, state, result::add);
+        return result;
+    }
+
+    /**
+     * Starts merging the devices with an id greater than {@code afterId}, of which the caller takes at most
+     * {@code limit}. The state is ignored with a brand, like in {@link DeviceCursor}.
+     */
+    private MergingIterator merge(String brand, DeviceState state, int afterId, int limit) {
+        if (brand != null) {
+            return new MergingIterator(SELECT_ALL_DEVICES_BY_BRAND_PAGE_QUERY, brand, afterId, limit);
+        }
+        if (state != null) {
+            return new MergingIterator(SELECT_ALL_DEVICES_BY_STATE_PAGE_QUERY, state.name(), afterId, limit);
+        }
+        return new MergingIterator(SELECT_ALL_DEVICES_PAGE_QUERY, null, afterId, limit);
+    }
+
+    /**
+     * K-way merge of the per-shard keyset-paginated result streams, ordered by id.
+     * <p>
+     * Every shard keeps one batch in flight on the executor, read while the merge consumes the batch
+     * before it. When the caller takes at most one batch per shard, which is the case for pages no larger
+     * than {@code fetchSize}, nothing is read ahead. Closing the merge drops the batches still in flight;
+     * their queries are left to finish rather than interrupted, which would close the pooled connection.
+     */
+    private final class MergingIterator implements Iterator<Device>, AutoCloseable {
+
+        private final String query;
+        private final Object filter;
+        private final int batchSize;
+        private final boolean readAhead;
+        private final List<ShardCursor> cursors = new ArrayList<>();
+
+        MergingIterator(String query, Object filter, int afterId, int limit) {
+            this.query = query;
+            this.filter = filter;
+            this.batchSize = Math.min(limit, fetchSize);
+            this.readAhead = limit > batchSize;
+            for (JdbcTemplate shard : shards) {
+                ShardCursor cursor = new ShardCursor(shard, afterId);
+                cursors.add(cursor);
+                cursor.read();
+            }
+            try {
+                for (ShardCursor cursor : cursors) {
+                    cursor.advance();
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursors.stream().anyMatch(cursor -> !cursor.buffer.isEmpty());
+        }
+
+        @Override
+        public Device next() {
+            ShardCursor lowest = null;
+            for (ShardCursor cursor : cursors) {
+                if (!cursor.buffer.isEmpty() && (lowest == null || cursor.buffer.peek().id() < lowest.buffer.peek().id())) {
+                    lowest = cursor;
+                }
+            }
+            if (lowest == null) {
+                throw new NoSuchElementException();
+            }
+            Device device = lowest.buffer.poll();
+            if (lowest.buffer.isEmpty() && !lowest.exhausted) {
+                try {
+                    lowest.advance();
+                } catch (RuntimeException e) {
+                    close();
+                    throw e;
+                }
+            }
+            return device;
+        }
+
+        @Override
+        public void close() {
+            for (ShardCursor cursor : cursors) {
+                if (cursor.next != null) {
+                    cursor.next.cancel(false);
+                    cursor.next = null;
+                }
+            }
+        }
+
+        private final class ShardCursor {
+            private final JdbcTemplate shard;
+            private final ArrayDeque<Device> buffer = new ArrayDeque<>();
+            private Future<Collection<Device>> next;
+            private int lastId;
+            private boolean exhausted;
+
+            ShardCursor(JdbcTemplate shard, int afterId) {
+                this.shard = shard;
+                this.lastId = afterId;
+            }
+
+            /**
+             * Starts reading the batch after the last id read.
+             */
+            void read() {
+                int afterId = lastId;
+                next = executor.submit(RequestDeadline.propagate(() -> filter == null
+                        ? shard.query(query, new DeviceResultSetExtractor(), afterId, batchSize)
+                        : shard.query(query, new DeviceResultSetExtractor(), filter, afterId, batchSize)));
+            }
+
+            /**
+             * Waits for the batch being read and, unless it was the last one, starts reading the batch after it.
+             */
+            void advance() {
+                Collection<Device> rows = await(next);
+                next = null;
+                assert rows != null;
+                buffer.addAll(rows);
+                exhausted = rows.size() < batchSize || !readAhead;
+                if (!buffer.isEmpty()) {
+                    lastId = buffer.peekLast().id();
+                }
+                if (!exhausted) {
+                    read();
+                }
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
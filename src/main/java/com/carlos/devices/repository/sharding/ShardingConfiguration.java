@@ -0,0 +1,54 @@
+package com.carlos.devices.repository.sharding;
+
+import com.carlos.devices.repository.deadline.DeadlineJdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Replaces the single database {@link com.carlos.devices.repository.DatabaseDeviceRepository} with a
+ * {@link ShardedDeviceRepository} when {@code devices.sharding.enabled=true}.
+ * <p>
+ * Each shard gets its own Hikari pool and the Liquibase changelog is applied to every shard before
+ * the repository is used. The shard statements are bounded by the request deadline like the ones of
+ * the single database. Example:
+ * <pre>
+ * devices.sharding.enabled=true
+ * devices.sharding.shards[0].url=jdbc:postgresql://shard-0:5432/device
+ * devices.sharding.shards[1].url=jdbc:postgresql://shard-1:5432/device
+ * </pre>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "devices.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    @Bean
+    public ShardDataSources shardDataSources(ShardingProperties properties,
+                                             @Value("${spring.liquibase.change-log}") String changeLog) throws Exception {
+        return new ShardDataSources(properties, changeLog);
+    }
+
+    /**
+     * Every shard statement commits on its own, so the service transactions would only hold a connection of the
+     * unused single database.
+     */
+    @Bean
+    public TransactionOperations deviceTransactions() {
+        return TransactionOperations.withoutTransaction();
+    }
+
+    @Bean
+    @Primary
+    public ShardedDeviceRepository shardedDeviceRepository(ShardDataSources shardDataSources, ShardingProperties properties,
+                                                           ApplicationEventPublisher eventPublisher) {
+        return new ShardedDeviceRepository(shardDataSources.pools().stream().<JdbcTemplate>map(DeadlineJdbcTemplate::new).toList(),
+                properties.fetchSize(), eventPublisher);
+    }
+}
@@ -0,0 +1,25 @@
+package com.carlos.devices.repository.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Settings for storing devices across several PostgreSQL databases.
+ *
+ * @param enabled         whether the sharded repository replaces the single database repository
+ * @param shards          the shard connection settings; the position in the list is the shard index
+ *                        and must never change once devices were stored
+ * @param maximumPoolSize the maximum pool size of each shard pool
+ * @param fetchSize       the number of rows read per shard and round trip when merging list queries
+ */
+@ConfigurationProperties(prefix = "devices.sharding")
+public record ShardingProperties(@DefaultValue("false") boolean enabled,
+                                 @DefaultValue List<Shard> shards,
+                                 @DefaultValue("10") int maximumPoolSize,
+                                 @DefaultValue("1000") int fetchSize) {
+
+    public record Shard(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.carlos.devices.repository.writebehind;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Buffers the state-only device updates in a {@link WriteBehindDeviceStateBuffer} when
+ * {@code devices.write-behind.enabled=true}.
+ * <p>
+ * The batched update runs on the single device table, so the buffer is not used with sharded storage,
+ * and it is not built when the application only runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.write-behind.enabled:false} and !${devices.sharding.enabled:false} and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindConfiguration {
+
+    @Bean
+    public WriteBehindDeviceStateBuffer writeBehindDeviceStateBuffer(JdbcTemplate jdbcTemplate,
+                                                                     PlatformTransactionManager transactionManager,
+                                                                     ApplicationEventPublisher eventPublisher,
+                                                                     WriteBehindProperties properties) {
+        return new WriteBehindDeviceStateBuffer(jdbcTemplate, transactionManager, eventPublisher, properties);
+    }
+}
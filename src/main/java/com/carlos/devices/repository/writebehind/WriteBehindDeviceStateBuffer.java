@@ -0,0 +1,324 @@
+package com.carlos.devices.repository.writebehind;
+
+import com.carlos.devices.domain.DeviceStateBuffer;
+import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.DeviceResultSetExtractor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * {@link DeviceStateBuffer} that writes the buffered states every {@link WriteBehindProperties#window()},
+ * or as soon as {@link WriteBehindProperties#maxBatch()} devices are waiting, with one
+ * {@code UPDATE ... FROM (VALUES ...)} per batch.
+ * <p>
+ * A device has at most one entry in the buffer, holding the last state submitted for it, so a device
+ * flipping between states many times in a window costs one row update and the buffer never holds more
+ * entries than there are devices. The rows of a batch are locked in id order, like concurrent batches
+ * from other instances, so batches do not deadlock each other.
+ * <p>
+ * Batches are written one at a time and in the order they were taken from the buffer, so the states of a
+ * device are applied in the order they were submitted to this instance. A write of a single device, before
+ * it is renamed or deleted, only takes the states queued for that device out of the buffer.
+ * <p>
+ * Every batch commits in a transaction of its own, on the flusher thread when a request asks for it, so the
+ * states queued by other callers, who are told once it commits, never join the transaction of the request,
+ * nor run under its deadline. Like the single updates of
+ * {@link com.carlos.devices.repository.DatabaseDeviceRepository}, each written row gets a new change
+ * sequence and publishes a {@link DeviceChangedEvent} in the batch transaction.
+ * <p>
+ * The devices waiting, the updates replaced by a later one, the rows written and the batch write time are
+ * published as {@code devices.write.behind.*} metrics. The buffer is written before the bean is closed.
+ */
+public class WriteBehindDeviceStateBuffer implements DeviceStateBuffer, MeterBinder, AutoCloseable {
+
+    public static final String BATCH_UPDATE_QUERY = "UPDATE device SET state = previous.new_state, "
+            + "change_seq = nextval('device_change_seq'), change_txid = pg_current_xact_id() "
+            + "FROM (SELECT device.*, v.state AS new_state FROM device JOIN (VALUES %s) v (id, state) ON device.id = v.id "
+            + "ORDER BY device.id FOR UPDATE OF device) previous WHERE device.id = previous.id RETURNING previous.*";
+    private static final String VALUES_ROW = "(?::integer, ?)";
+
+    private final Logger logger = LoggerFactory.getLogger(WriteBehindDeviceStateBuffer.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxBatch;
+    private final ScheduledExecutorService flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<Integer, Pending> pending = new LinkedHashMap<>();
+    // The devices taken out of the buffer by the write in progress
+    private Set<Integer> writing = Set.of();
+
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+
+    private static final class Pending {
+        private DeviceState state;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+
+    public WriteBehindDeviceStateBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                        ApplicationEventPublisher eventPublisher, WriteBehindProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.maxBatch = properties.maxBatch();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("device-write-behind").daemon().factory());
+        long windowNanos = properties.window().toNanos();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(Integer id, DeviceState state) {
+        Pending entry;
+        boolean full;
+        lock.lock();
+        try {
+            entry = pending.get(id);
+            if (entry == null) {
+                entry = new Pending();
+                pending.put(id, entry);
+            } else {
+                coalesced.increment();
+            }
+            entry.state = state;
+            full = pending.size() == maxBatch;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flusher.execute(this::flushQuietly);
+        }
+        // A caller cancelling its copy does not cancel the other callers waiting on the same device
+        return entry.done.copy();
+    }
+
+    @Override
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Integer, Pending> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                writing = batch.keySet();
+            } finally {
+                lock.unlock();
+            }
+            RuntimeException failure = writeAll(new ArrayList<>(batch.entrySet()));
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void flush(Collection<Integer> ids) {
+        lock.lock();
+        try {
+            if (ids.stream().noneMatch(id -> pending.containsKey(id) || writing.contains(id))) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        Future<?> written;
+        try {
+            written = flusher.submit(() -> writeQueued(ids));
+        } catch (RejectedExecutionException e) {
+            // Closed, the flusher thread is gone
+            writeQueued(ids);
+            return;
+        }
+        try {
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing the buffered device states", e);
+        } catch (ExecutionException e) {
+            // The failure reaches the callers that queued the states through their futures
+        }
+    }
+
+    /**
+     * Writes the states queued for the devices, after the write in progress, which may hold earlier ones.
+     */
+    private void writeQueued(Collection<Integer> ids) {
+        flushLock.lock();
+        try {
+            List<Map.Entry<Integer, Pending>> entries = new ArrayList<>();
+            lock.lock();
+            try {
+                for (Integer id : ids) {
+                    Pending entry = pending.remove(id);
+                    if (entry != null) {
+                        entries.add(Map.entry(id, entry));
+                    }
+                }
+                writing = entries.stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+            } finally {
+                lock.unlock();
+            }
+            writeAll(entries);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Device state write-behind flush failed", e);
+        }
+    }
+
+    /**
+     * Writes the entries in batches of at most {@code maxBatch} devices.
+     *
+     * @return the failure of the first batch that failed, with the later ones suppressed, or {@code null}
+     */
+    private RuntimeException writeAll(List<Map.Entry<Integer, Pending>> entries) {
+        RuntimeException failure = null;
+        try {
+            for (int from = 0; from < entries.size(); from += maxBatch) {
+                try {
+                    write(entries.subList(from, Math.min(from + maxBatch, entries.size())));
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            lock.lock();
+            try {
+                writing = Set.of();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Writes one batch in its own transaction and completes the futures of its devices once it commits.
+     */
+    private void write(List<Map.Entry<Integer, Pending>> batch) {
+        long start = System.nanoTime();
+        Map<Integer, DeviceState> states = batch.stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().state));
+        Object[] args = new Object[batch.size() * 2];
+        for (int i = 0; i < batch.size(); i++) {
+            args[i * 2] = batch.get(i).getKey();
+            args[i * 2 + 1] = batch.get(i).getValue().state.name();
+        }
+        String sql = BATCH_UPDATE_QUERY.formatted(String.join(", ", Collections.nCopies(batch.size(), VALUES_ROW)));
+        Collection<Device> previous;
+        try {
+            previous = transactionTemplate.execute(status -> {
+                Collection<Device> before = jdbcTemplate.query(sql, new DeviceResultSetExtractor(), args);
+                assert before != null;
+                before.forEach(device -> eventPublisher.publishEvent(new DeviceChangedEvent(device,
+                        new Device(device.id(), device.name(), device.brand(), states.get(device.id()), device.creationTime()))));
+                return before;
+            });
+        } catch (RuntimeException e) {
+            batch.forEach(entry -> entry.getValue().done.completeExceptionally(e));
+            throw e;
+        } finally {
+            batches.increment();
+            batchNanos.add(System.nanoTime() - start);
+        }
+        assert previous != null;
+        written.add(previous.size());
+        previous.forEach(device -> states.remove(device.id()));
+        for (Map.Entry<Integer, Pending> entry : batch) {
+            if (states.containsKey(entry.getKey())) {
+                entry.getValue().done.completeExceptionally(
+                        new DataException("Device for update not found for ID: " + entry.getKey()));
+            } else {
+                entry.getValue().done.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic writes and writes what is left in the buffer.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("devices.write.behind.pending", this, WriteBehindDeviceStateBuffer::pending)
+                .description("Devices with a state update waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("devices.write.behind.coalesced", coalesced, LongAdder::sum)
+                .description("State updates replaced by a later update of the same device before being written")
+                .register(registry);
+        FunctionCounter.builder("devices.write.behind.written", written, LongAdder::sum)
+                .description("Device rows written by the batched state updates")
+                .register(registry);
+        FunctionTimer.builder("devices.write.behind.batch", this,
+                        buffer -> buffer.batches.sum(), buffer -> buffer.batchNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time to write a batch of state updates")
+                .register(registry);
+    }
+
+    int pending() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.carlos.devices.repository.writebehind;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the write-behind of device state updates.
+ *
+ * @param enabled  whether state-only updates are buffered and written in batches
+ * @param window   how long a state update waits in the buffer for newer updates before it is written
+ * @param maxBatch the number of devices waiting in the buffer that triggers a write before the window ends,
+ *                 and the most rows written by a single statement
+ */
+@ConfigurationProperties(prefix = "devices.write-behind")
+public record WriteBehindProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("50ms") Duration window,
+                                    @DefaultValue("1000") int maxBatch) {
+}
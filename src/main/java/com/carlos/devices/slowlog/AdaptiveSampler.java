@@ -0,0 +1,59 @@
+package com.carlos.devices.slowlog;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks events at random so that about {@code targetPerSecond} of them are kept each second, whatever the
+ * rate they come at.
+ * <p>
+ * The events seen during each second set the probability used in the next one: all are kept while they
+ * come at most at the target rate, and a proportional share of them above it. The probability an event was
+ * kept with is returned, so the kept events can be counted back to the events seen.
+ */
+final class AdaptiveSampler {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double targetPerSecond;
+    private final LongSupplier nanoTime;
+    private final AtomicLong windowStart;
+    private final LongAdder seen = new LongAdder();
+    private volatile double probability = 1;
+
+    AdaptiveSampler(double targetPerSecond) {
+        this(targetPerSecond, System::nanoTime);
+    }
+
+    AdaptiveSampler(double targetPerSecond, LongSupplier nanoTime) {
+        this.targetPerSecond = targetPerSecond;
+        this.nanoTime = nanoTime;
+        this.windowStart = new AtomicLong(nanoTime.getAsLong());
+        if (targetPerSecond <= 0) {
+            probability = 0;
+        }
+    }
+
+    /**
+     * Counts an event and decides whether it is kept.
+     *
+     * @return the probability the event was kept with, or 0 when it is dropped
+     */
+    double sample() {
+        if (targetPerSecond <= 0) {
+            return 0;
+        }
+        long now = nanoTime.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            double perSecond = seen.sumThenReset() * (double) WINDOW_NANOS / (now - start);
+            probability = perSecond <= targetPerSecond ? 1 : targetPerSecond / perSecond;
+        }
+        seen.increment();
+        double current = probability;
+        return current >= 1 || ThreadLocalRandom.current().nextDouble() < current ? current : 0;
+    }
+}
@@ -0,0 +1,162 @@
+package com.carlos.devices.slowlog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the slow log: one JSON object per line for each statement or request that took at least its
+ * threshold, and for a sample of the faster ones.
+ * <p>
+ * The entries go to the {@value #LOGGER} logger, which {@code logback-spring.xml} sends through an
+ * asynchronous appender with a bounded queue: the request thread only formats the entry and queues it, and
+ * never waits for the output. When the queue fills up the sampled entries, logged at {@code INFO}, are
+ * dropped first, then the slow ones, logged at {@code WARN}. Each sampled entry carries the probability it
+ * was sampled with, so that the counts of the faster events can be estimated from it. Only the slow and
+ * sampled entries are formatted, the others cost the timing and the sampler only. The requests of the startup
+ * warmup and their statements are left out, so they neither fill the log nor count towards the sampled rate.
+ */
+public class SlowLog {
+
+    static final String LOGGER = "devices.slowlog";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER);
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record StatementEntry(String type, String timestamp, String traceId, boolean slow, Double sampleRate,
+                          double durationMs, double connectionWaitMs, Long rows, Integer batchSize, String sql,
+                          List<String> parameters, String sqlState) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record RequestEntry(String type, String timestamp, String traceId, boolean slow, Double sampleRate,
+                        double durationMs, String method, String path, String pattern, Map<String, String> parameters,
+                        String query, int status, int statements, double databaseMs, double connectionWaitMs) {
+    }
+
+    private final long statementThresholdNanos;
+    private final long requestThresholdNanos;
+    private final int maxParameterLength;
+    private final AdaptiveSampler statementSampler;
+    private final AdaptiveSampler requestSampler;
+    private final Clock clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public SlowLog(SlowLogProperties properties) {
+        this(properties, new AdaptiveSampler(properties.sampledPerSecond()),
+                new AdaptiveSampler(properties.sampledPerSecond()), Clock.systemUTC());
+    }
+
+    SlowLog(SlowLogProperties properties, AdaptiveSampler statementSampler, AdaptiveSampler requestSampler, Clock clock) {
+        this.statementThresholdNanos = properties.statementThreshold().toNanos();
+        this.requestThresholdNanos = properties.requestThreshold().toNanos();
+        this.maxParameterLength = properties.maxParameterLength();
+        this.statementSampler = statementSampler;
+        this.requestSampler = requestSampler;
+        this.clock = clock;
+    }
+
+    /**
+     * Records a statement, and adds it to the database time of the current request.
+     *
+     * @param sql                 the statement
+     * @param parameters          the parameters bound, of the first row for a batch
+     * @param rows                the rows read or written, {@code null} when unknown
+     * @param batchSize           the rows of the batch, {@code null} when not a batch
+     * @param nanos               the time from the execution until the statement was closed
+     * @param connectionWaitNanos the time waited for the connection the statement ran on
+     * @param sqlState            the SQL state of the failure, {@code null} when it succeeded
+     */
+    void statement(String sql, List<?> parameters, Long rows, Integer batchSize, long nanos, long connectionWaitNanos,
+                   String sqlState) {
+        SlowLogContext context = SlowLogContext.current();
+        if (context != null) {
+            if (context.warmup()) {
+                return;
+            }
+            context.statement(nanos);
+        }
+        boolean slow = nanos >= statementThresholdNanos;
+        Double sampleRate = slow ? null : sampleRate(statementSampler);
+        if (!slow && sampleRate == null) {
+            return;
+        }
+        write(slow, new StatementEntry("statement", clock.instant().toString(), context == null ? null : context.traceId(),
+                slow, sampleRate, millis(nanos), millis(connectionWaitNanos), rows, batchSize, sql,
+                parameters(parameters), sqlState));
+    }
+
+    /**
+     * Records a request of the device API, with the database time of its statements.
+     */
+    void request(SlowLogContext context, long nanos, String method, String path, String pattern,
+                 Map<String, String> parameters, String query, int status) {
+        if (context.warmup()) {
+            return;
+        }
+        boolean slow = nanos >= requestThresholdNanos;
+        Double sampleRate = slow ? null : sampleRate(requestSampler);
+        if (!slow && sampleRate == null) {
+            return;
+        }
+        write(slow, new RequestEntry("request", clock.instant().toString(), context.traceId(), slow, sampleRate,
+                millis(nanos), method, path, pattern, parameters, query, status, context.statements(),
+                millis(context.databaseNanos()), millis(context.connectionWaitNanos())));
+    }
+
+    private static Double sampleRate(AdaptiveSampler sampler) {
+        if (!log.isInfoEnabled()) {
+            return null;
+        }
+        double rate = sampler.sample();
+        return rate > 0 ? rate : null;
+    }
+
+    private void write(boolean slow, Object entry) {
+        if (slow ? !log.isWarnEnabled() : !log.isInfoEnabled()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not write a slow log entry", e);
+            return;
+        }
+        if (slow) {
+            log.warn(json);
+        } else {
+            log.info(json);
+        }
+    }
+
+    private List<String> parameters(List<?> parameters) {
+        if (parameters.isEmpty()) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(parameters.size());
+        for (Object parameter : parameters) {
+            values.add(parameter == null ? null : truncate(parameter instanceof Object[] array
+                    ? Arrays.deepToString(array)
+                    : String.valueOf(parameter)));
+        }
+        return values;
+    }
+
+    private String truncate(String value) {
+        return value.length() <= maxParameterLength ? value : value.substring(0, maxParameterLength) + "...";
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / NANOS_PER_MILLI * 1000) / 1000d;
+    }
+}
@@ -0,0 +1,52 @@
+package com.carlos.devices.slowlog;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Logs the slow statements and device API requests when {@code devices.slow-log.enabled=true}.
+ * <p>
+ * The application data source, the {@code dataSource} bean, is wrapped in a {@link SlowLogDataSource}, so
+ * the statements of the repository, the change feed and the background tasks are all timed; the pools of
+ * the shards, with sharded storage, and the connections Liquibase migrates with are not. With replica
+ * routing, a connection is only borrowed at its first statement, so its wait is not measured. The
+ * {@link SlowLogFilter} times the requests to {@code /api/device} and below.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.slow-log.enabled:false} and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(SlowLogProperties.class)
+public class SlowLogConfiguration {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public SlowLog slowLog(SlowLogProperties properties) {
+        return new SlowLog(properties);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowLogDataSourcePostProcessor(ObjectProvider<SlowLog> slowLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        ? new SlowLogDataSource(dataSource, slowLog.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SlowLogFilter> slowLogFilter(SlowLog slowLog) {
+        FilterRegistrationBean<SlowLogFilter> registration = new FilterRegistrationBean<>(new SlowLogFilter(slowLog));
+        registration.addUrlPatterns("/api/device", "/api/device/*");
+        return registration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.carlos.devices.slowlog;
+
+/**
+ * Trace id and database time of the current request, bound to the request thread by {@link SlowLogFilter}
+ * and added to by the statements the request runs. A warmup request and its statements are not logged.
+ */
+final class SlowLogContext {
+
+    private static final ThreadLocal<SlowLogContext> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final boolean warmup;
+    private int statements;
+    private long databaseNanos;
+    private long connectionWaitNanos;
+
+    SlowLogContext(String traceId) {
+        this(traceId, false);
+    }
+
+    SlowLogContext(String traceId, boolean warmup) {
+        this.traceId = traceId;
+        this.warmup = warmup;
+    }
+
+    static void bind(SlowLogContext context) {
+        CURRENT.set(context);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static SlowLogContext current() {
+        return CURRENT.get();
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    boolean warmup() {
+        return warmup;
+    }
+
+    void statement(long nanos) {
+        statements++;
+        databaseNanos += nanos;
+    }
+
+    void connectionWaited(long nanos) {
+        connectionWaitNanos += nanos;
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long databaseNanos() {
+        return databaseNanos;
+    }
+
+    long connectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+}
@@ -0,0 +1,262 @@
+package com.carlos.devices.slowlog;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Data source that times the statements run on its connections and hands them to the {@link SlowLog}.
+ * <p>
+ * The time waited for each connection is measured when it is borrowed. The statements created on the
+ * connection record the parameters bound to them, and are timed from their execution until they are closed,
+ * which includes reading the rows of a query; the rows read, or the rows updated, are counted. The JDBC
+ * objects are wrapped in dynamic proxies that pass every other call, {@code unwrap} included, to the driver.
+ * Closing this data source closes the wrapped one, the pool being closed with the application.
+ */
+public class SlowLogDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final SlowLog slowLog;
+
+    public SlowLogDataSource(DataSource dataSource, SlowLog slowLog) {
+        super(dataSource);
+        this.slowLog = slowLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return connection(connection, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return connection(connection, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection connection(Connection connection, long waitNanos) {
+        SlowLogContext context = SlowLogContext.current();
+        if (context != null) {
+            context.connectionWaited(waitNanos);
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, waitNanos));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SlowLogDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Calls the method on the driver object, throwing what it throws.
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Answers the {@link Object} methods of a proxy, {@code null} for the other methods.
+     */
+    private static Object objectMethod(Object proxy, Object target, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> args.length == 1 && proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "SlowLog[" + target + "]";
+            default -> null;
+        };
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final long waitNanos;
+
+        ConnectionHandler(Connection connection, long waitNanos) {
+            this.connection = connection;
+            this.waitNanos = waitNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, connection, method, args);
+            }
+            Object result = SlowLogDataSource.invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" ->
+                        proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0], waitNanos));
+                case "prepareCall" ->
+                        proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0], waitNanos));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, null, waitNanos));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final long waitNanos;
+        private final List<Object> parameters = new ArrayList<>();
+        private String sql;
+        private List<Object> batchParameters;
+        private int batchSize;
+        private List<Object> executedParameters;
+        private Integer executedBatchSize;
+        private long startNanos;
+        private Long rows;
+        private boolean executing;
+
+        StatementHandler(Statement statement, String sql, long waitNanos) {
+            this.statement = statement;
+            this.sql = sql;
+            this.waitNanos = waitNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, statement, method, args);
+            }
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            if (name.equals("close")) {
+                finish(null);
+                return SlowLogDataSource.invoke(statement, method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && method.getParameterTypes()[0] == int.class) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                if (args != null && args.length == 1) {
+                    sql = (String) args[0];
+                }
+                if (batchSize++ == 0) {
+                    batchParameters = new ArrayList<>(parameters);
+                }
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+                batchParameters = null;
+            }
+            Object result = SlowLogDataSource.invoke(statement, method, args);
+            if (name.equals("getResultSet") && result != null) {
+                return resultSet((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish(null);
+            if (args != null && args.length > 0 && args[0] instanceof String statementSql) {
+                sql = statementSql;
+            }
+            // A statement can run several batches before it is closed, each is logged on its own
+            executedParameters = batchSize > 0 ? batchParameters : new ArrayList<>(parameters);
+            executedBatchSize = batchSize > 0 ? batchSize : null;
+            batchSize = 0;
+            batchParameters = null;
+            executing = true;
+            rows = null;
+            startNanos = System.nanoTime();
+            Object result;
+            try {
+                result = SlowLogDataSource.invoke(statement, method, args);
+            } catch (SQLException e) {
+                finish(e.getSQLState());
+                throw e;
+            }
+            switch (result) {
+                case ResultSet resultSet -> {
+                    return resultSet(resultSet);
+                }
+                case Integer count -> rows = (long) count;
+                case Long count -> rows = count;
+                case int[] counts -> rows = updated(counts.length, i -> counts[i]);
+                case long[] counts -> rows = updated(counts.length, i -> counts[i]);
+                case Boolean hasResultSet when !hasResultSet -> rows = (long) statement.getUpdateCount();
+                case null, default -> {
+                }
+            }
+            return result;
+        }
+
+        private ResultSet resultSet(ResultSet resultSet) {
+            rows = 0L;
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return objectMethod(proxy, resultSet, method, args);
+                }
+                Object result = SlowLogDataSource.invoke(resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result) && rows != null) {
+                    rows++;
+                }
+                return result;
+            });
+        }
+
+        private static Long updated(int size, IntToLongFunction count) {
+            long rows = 0;
+            for (int i = 0; i < size; i++) {
+                // Statement.SUCCESS_NO_INFO is negative, the rows are then unknown
+                if (count.applyAsLong(i) < 0) {
+                    return null;
+                }
+                rows += count.applyAsLong(i);
+            }
+            return rows;
+        }
+
+        /**
+         * Hands the execution in progress, if any, to the slow log.
+         */
+        private void finish(String sqlState) {
+            if (!executing) {
+                return;
+            }
+            executing = false;
+            slowLog.statement(sql, executedParameters, rows, executedBatchSize, System.nanoTime() - startNanos,
+                    waitNanos, sqlState);
+            executedParameters = null;
+        }
+    }
+}
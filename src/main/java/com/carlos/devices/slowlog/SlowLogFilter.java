@@ -0,0 +1,106 @@
+package com.carlos.devices.slowlog;
+
+import com.carlos.devices.warmup.RequestMixWarmupStep;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times each device API request and hands it to the {@link SlowLog}.
+ * <p>
+ * The trace id of the request is taken from its W3C {@code traceparent} header, or else from its
+ * {@value #REQUEST_ID_HEADER} header, or else generated. It is bound for the statements of the request, put
+ * in the logging MDC as {@value #TRACE_ID}, and returned in the {@value #TRACE_ID_HEADER} response header.
+ * A request handled asynchronously is logged when it completes, with the statements run on the request
+ * thread. The requests sent by the startup warmup, marked with the {@value RequestMixWarmupStep#WARMUP_HEADER}
+ * header, are not logged.
+ */
+public class SlowLogFilter extends OncePerRequestFilter {
+
+    static final String TRACE_ID = "traceId";
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+    static final String TRACE_ID_HEADER = "X-Trace-Id";
+    private static final Pattern TRACEPARENT = Pattern.compile("^[0-9a-f]{2}-([0-9a-f]{32})-[0-9a-f]{16}-[0-9a-f]{2}$");
+
+    private final SlowLog slowLog;
+
+    public SlowLogFilter(SlowLog slowLog) {
+        this.slowLog = slowLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        SlowLogContext context = new SlowLogContext(traceId(request),
+                request.getHeader(RequestMixWarmupStep.WARMUP_HEADER) != null);
+        response.setHeader(TRACE_ID_HEADER, context.traceId());
+        SlowLogContext.bind(context);
+        MDC.put(TRACE_ID, context.traceId());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SlowLogContext.clear();
+            MDC.remove(TRACE_ID);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, context, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, context, start);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response, SlowLogContext context, long start) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        slowLog.request(context, System.nanoTime() - start, request.getMethod(), request.getRequestURI(),
+                (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                variables == null || variables.isEmpty() ? null : variables, request.getQueryString(),
+                response.getStatus());
+    }
+
+    private static String traceId(HttpServletRequest request) {
+        String traceparent = request.getHeader("traceparent");
+        if (traceparent != null) {
+            Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+            if (matcher.matches()) {
+                return matcher.group(1);
+            }
+        }
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (StringUtils.hasText(requestId) && requestId.length() <= 64) {
+            return requestId.trim();
+        }
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,24 @@
+package com.carlos.devices.slowlog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the structured log of slow statements and requests.
+ *
+ * @param enabled              whether the statements and the device API requests are timed and logged
+ * @param statementThreshold   the duration from which a statement is always logged
+ * @param requestThreshold     the duration from which a request is always logged
+ * @param sampledPerSecond     the faster statements, and separately the faster requests, logged per second
+ *                             on average, 0 to log only the slow ones
+ * @param maxParameterLength   the characters of a parameter value logged, longer values are cut
+ */
+@ConfigurationProperties(prefix = "devices.slow-log")
+public record SlowLogProperties(@DefaultValue("false") boolean enabled,
+                                @DefaultValue("100ms") Duration statementThreshold,
+                                @DefaultValue("500ms") Duration requestThreshold,
+                                @DefaultValue("1") double sampledPerSecond,
+                                @DefaultValue("100") int maxParameterLength) {
+}
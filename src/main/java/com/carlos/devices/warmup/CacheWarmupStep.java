@@ -0,0 +1,65 @@
+package com.carlos.devices.warmup;
+
+import com.carlos.devices.domain.DeviceCatalog;
+import com.carlos.devices.repository.filter.DeviceIdFilterLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits for the caches loaded in the background at startup: the columnar catalog and the nonexistent id
+ * filter, when enabled.
+ * <p>
+ * Until they are loaded, the queries they answer go to the database. Waiting for them before the request mix
+ * lets the mix run the code paths that serve the traffic once the application is ready.
+ */
+@Order(3)
+public class CacheWarmupStep implements WarmupStep {
+
+    private static final long POLL_MILLIS = 20;
+
+    private final ObjectProvider<DeviceCatalog> catalog;
+    private final ObjectProvider<DeviceIdFilterLoader> idFilterLoader;
+
+    public CacheWarmupStep(ObjectProvider<DeviceCatalog> catalog, ObjectProvider<DeviceIdFilterLoader> idFilterLoader) {
+        this.catalog = catalog;
+        this.idFilterLoader = idFilterLoader;
+    }
+
+    @Override
+    public String name() {
+        return "caches";
+    }
+
+    @Override
+    public void run(WarmupProgress.Stage stage) throws InterruptedException {
+        List<String> names = new ArrayList<>();
+        List<BooleanSupplier> loaded = new ArrayList<>();
+        catalog.ifAvailable(catalog -> {
+            names.add("columnar catalog");
+            loaded.add(catalog::isLoaded);
+        });
+        idFilterLoader.ifAvailable(loader -> {
+            names.add("id filter");
+            loaded.add(loader::isInitialized);
+        });
+        if (loaded.isEmpty()) {
+            stage.skip("no cache loaded at startup");
+            return;
+        }
+        stage.total(loaded.size());
+        stage.detail(String.join(", ", names));
+        for (BooleanSupplier cache : loaded) {
+            while (!cache.getAsBoolean()) {
+                if (stage.expired()) {
+                    return;
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            stage.advance();
+        }
+    }
+}
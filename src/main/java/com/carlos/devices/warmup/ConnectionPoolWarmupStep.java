@@ -0,0 +1,86 @@
+package com.carlos.devices.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the connection pools up to their {@code minimum-idle} size.
+ * <p>
+ * Hikari opens the idle connections in the background after the pool starts, and the first requests wait for
+ * them. Holding {@code minimum-idle} connections of a pool at once makes it open them now; they are idle in the
+ * pool once released.
+ * <p>
+ * With replica routing the application data source is a lazy proxy, whose connections only reach a pool on
+ * their first statement, so the connections are borrowed from the primary and replica pools behind it instead.
+ */
+@Order(1)
+public class ConnectionPoolWarmupStep implements WarmupStep {
+
+    private final DataSource dataSource;
+
+    public ConnectionPoolWarmupStep(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public String name() {
+        return "connection-pool";
+    }
+
+    @Override
+    public void run(WarmupProgress.Stage stage) throws SQLException {
+        List<DataSource> pools = pools(dataSource);
+        int total = 0;
+        for (DataSource pool : pools) {
+            total += idleConnections(pool);
+        }
+        stage.total(total);
+        int opened = 0;
+        for (DataSource pool : pools) {
+            opened += fill(pool, stage);
+        }
+        stage.detail(opened + " connections open in " + pools.size() + (pools.size() == 1 ? " pool" : " pools"));
+    }
+
+    private static int fill(DataSource pool, WarmupProgress.Stage stage) throws SQLException {
+        int size = idleConnections(pool);
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            while (connections.size() < size && !stage.expired()) {
+                connections.add(pool.getConnection());
+                stage.advance();
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return connections.size();
+    }
+
+    /**
+     * The pools behind the data source: the targets of a routing data source, or the data source itself.
+     */
+    static List<DataSource> pools(DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(AbstractRoutingDataSource.class)) {
+            return List.copyOf(dataSource.unwrap(AbstractRoutingDataSource.class).getResolvedDataSources().values());
+        }
+        return List.of(dataSource);
+    }
+
+    /**
+     * The number of connections the pool keeps idle, 1 when the data source is not a Hikari pool.
+     */
+    public static int idleConnections(DataSource dataSource) throws SQLException {
+        return dataSource.isWrapperFor(HikariDataSource.class)
+                ? Math.max(dataSource.unwrap(HikariDataSource.class).getMinimumIdle(), 1)
+                : 1;
+    }
+}
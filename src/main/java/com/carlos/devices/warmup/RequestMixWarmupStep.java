@@ -0,0 +1,166 @@
+package com.carlos.devices.warmup;
+
+import com.carlos.devices.admission.AimdLimiter;
+import com.carlos.devices.hotkeys.HotKeyTracker;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a synthetic request mix to the device endpoints over HTTP, so that it goes through the whole serving
+ * path: the web server, the filters, the controller, the JSON mapping, the service and the repository.
+ * <p>
+ * The mix is made of lookups of existing devices, brand lists, lookups of a missing device and creations
+ * rejected as invalid, so that the error handling is warmed up as well without anything being written. The
+ * existing ids and brands are taken from the last devices created. The lists of all devices and of the
+ * devices in a state are left out, as their size grows with the table. Running the mix fills the response
+ * cache with the brand lists and lets the JIT compile the serving path before the real traffic arrives.
+ * <p>
+ * The requests carry the {@value #WARMUP_HEADER} header, so the slow log leaves them out. The hot keys they
+ * counted and the concurrency limits they moved are reset once the mix is done, so the real traffic starts
+ * from a clean window and the configured initial limits.
+ */
+@Order(4)
+public class RequestMixWarmupStep implements WarmupStep {
+
+    public static final String WARMUP_HEADER = "X-Warmup";
+    static final String SAMPLE_QUERY = "SELECT id, brand FROM device ORDER BY id DESC LIMIT 100";
+    static final int MISSING_ID = Integer.MAX_VALUE;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final WarmupProperties properties;
+    private final ObjectProvider<HotKeyTracker> hotKeyTracker;
+    private final ObjectProvider<AimdLimiter> limiters;
+
+    public RequestMixWarmupStep(JdbcTemplate jdbcTemplate, Environment environment, WarmupProperties properties,
+                                ObjectProvider<HotKeyTracker> hotKeyTracker, ObjectProvider<AimdLimiter> limiters) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+        this.properties = properties;
+        this.hotKeyTracker = hotKeyTracker;
+        this.limiters = limiters;
+    }
+
+    @Override
+    public String name() {
+        return "request-mix";
+    }
+
+    @Override
+    public void run(WarmupProgress.Stage stage) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            stage.skip("no web server");
+            return;
+        }
+        List<Integer> ids = new ArrayList<>();
+        Set<String> brands = new LinkedHashSet<>();
+        try {
+            jdbcTemplate.query(SAMPLE_QUERY, (RowCallbackHandler) rs -> {
+                ids.add(rs.getInt("id"));
+                brands.add(rs.getString("brand"));
+            });
+        } catch (DataAccessException e) {
+            // With sharded storage the default database may have no device table, the mix goes without samples
+            ids.clear();
+            brands.clear();
+        }
+        List<HttpRequest> mix = mix(port, ids, List.copyOf(brands));
+
+        stage.total(properties.requests());
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(properties.concurrency(), Thread.ofPlatform()
+                .name("warmup-request-", 0).daemon().factory());
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < properties.concurrency(); i++) {
+                futures.add(callers.submit(() -> {
+                    while (next.getAndIncrement() < properties.requests() && !stage.expired()) {
+                        HttpRequest request = mix.get(ThreadLocalRandom.current().nextInt(mix.size()));
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        stage.advance();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            callers.shutdownNow();
+            hotKeyTracker.ifAvailable(HotKeyTracker::clear);
+            limiters.forEach(AimdLimiter::reset);
+        }
+        stage.detail(ids.size() + " devices sampled, " + errors.get() + " requests failed");
+    }
+
+    /**
+     * The requests of the mix, in their proportions: 60 in 100 lookups of an existing device, 20 brand lists,
+     * 15 lookups of a missing device and 5 invalid creations. Only the last two are sent when the table is
+     * empty.
+     */
+    static List<HttpRequest> mix(int port, List<Integer> ids, List<String> brands) throws URISyntaxException {
+        List<HttpRequest> mix = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            mix.add(get(port, "/api/device/" + MISSING_ID));
+        }
+        for (int i = 0; i < 5; i++) {
+            mix.add(HttpRequest.newBuilder(uri(port, "/api/device"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header(WARMUP_HEADER, "true")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"\",\"brand\":\"\"}"))
+                    .build());
+        }
+        if (ids.isEmpty()) {
+            return mix;
+        }
+        for (int i = 0; i < 60; i++) {
+            mix.add(get(port, "/api/device/" + ids.get(i % ids.size())));
+        }
+        for (int i = 0; i < 20; i++) {
+            mix.add(get(port, "/api/device/brand/" + brands.get(i % brands.size())));
+        }
+        return mix;
+    }
+
+    private static HttpRequest get(int port, String path) throws URISyntaxException {
+        return HttpRequest.newBuilder(uri(port, path)).timeout(REQUEST_TIMEOUT).header(WARMUP_HEADER, "true").GET().build();
+    }
+
+    private static URI uri(int port, String path) throws URISyntaxException {
+        return new URI("http", null, "localhost", port, path, null, null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.carlos.devices.warmup;
+
+import com.carlos.devices.admission.AimdLimiter;
+import com.carlos.devices.domain.DeviceCatalog;
+import com.carlos.devices.hotkeys.HotKeyTracker;
+import com.carlos.devices.repository.DatabaseStatementWarmupStep;
+import com.carlos.devices.repository.filter.DeviceIdFilterLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs the startup warmup when {@code devices.warmup.enabled=true}, and reports it at {@code /actuator/warmup}.
+ * <p>
+ * The statements are prepared on the connections of the single device table, so that step is left out with
+ * sharded storage. Nothing is warmed up when the application only runs the migrations.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${devices.warmup.enabled:false} and !${devices.migrate-and-exit:false}")
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfiguration {
+
+    @Bean
+    public WarmupProgress warmupProgress() {
+        return new WarmupProgress();
+    }
+
+    @Bean
+    public WarmupEndpoint warmupEndpoint(WarmupProgress progress) {
+        return new WarmupEndpoint(progress);
+    }
+
+    @Bean
+    public ConnectionPoolWarmupStep connectionPoolWarmupStep(DataSource dataSource) {
+        return new ConnectionPoolWarmupStep(dataSource);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!${devices.sharding.enabled:false}")
+    public DatabaseStatementWarmupStep databaseStatementWarmupStep(DataSource dataSource) {
+        return new DatabaseStatementWarmupStep(dataSource);
+    }
+
+    @Bean
+    public CacheWarmupStep cacheWarmupStep(ObjectProvider<DeviceCatalog> catalog,
+                                           ObjectProvider<DeviceIdFilterLoader> idFilterLoader) {
+        return new CacheWarmupStep(catalog, idFilterLoader);
+    }
+
+    @Bean
+    public RequestMixWarmupStep requestMixWarmupStep(JdbcTemplate jdbcTemplate, Environment environment,
+                                                     WarmupProperties properties,
+                                                     ObjectProvider<HotKeyTracker> hotKeyTracker,
+                                                     ObjectProvider<AimdLimiter> limiters) {
+        return new RequestMixWarmupStep(jdbcTemplate, environment, properties, hotKeyTracker, limiters);
+    }
+
+    @Bean
+    public WarmupRunner warmupRunner(ObjectProvider<WarmupStep> steps, WarmupProgress progress,
+                                     WarmupProperties properties) {
+        return new WarmupRunner(steps.orderedStream().toList(), progress, properties);
+    }
+}
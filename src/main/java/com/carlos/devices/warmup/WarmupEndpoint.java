@@ -0,0 +1,22 @@
+package com.carlos.devices.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Reports the duration and progress of the startup warmup at {@code /actuator/warmup}.
+ */
+@Endpoint(id = "warmup")
+public class WarmupEndpoint {
+
+    private final WarmupProgress progress;
+
+    public WarmupEndpoint(WarmupProgress progress) {
+        this.progress = progress;
+    }
+
+    @ReadOperation
+    public WarmupProgress.Report warmup() {
+        return progress.report();
+    }
+}
@@ -0,0 +1,185 @@
+package com.carlos.devices.warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the startup warmup, reported at {@code /actuator/warmup}.
+ * <p>
+ * The stages are registered before the warmup starts, so the report lists the pending ones as well. The
+ * stages are updated by the threads running them and read by the endpoint at any time.
+ */
+public class WarmupProgress {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, SKIPPED, TIMED_OUT, FAILED
+    }
+
+    /**
+     * Progress of one warmup step.
+     */
+    public static final class Stage {
+
+        private final String name;
+        private final AtomicLong completed = new AtomicLong();
+        private volatile Status status = Status.PENDING;
+        private volatile long total;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile long deadlineNanos;
+        private volatile String detail;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Sets the number of units of work of the step.
+         */
+        public void total(long total) {
+            this.total = total;
+        }
+
+        /**
+         * Records one more unit of work done.
+         */
+        public void advance() {
+            completed.incrementAndGet();
+        }
+
+        /**
+         * Sets a human-readable detail reported with the stage.
+         */
+        public void detail(String detail) {
+            this.detail = detail;
+        }
+
+        /**
+         * Marks the step as not applicable, with the reason.
+         */
+        public void skip(String reason) {
+            status = Status.SKIPPED;
+            detail = reason;
+        }
+
+        /**
+         * Whether the warmup timeout has been reached, the step should stop.
+         */
+        public boolean expired() {
+            return remaining().isZero();
+        }
+
+        /**
+         * The time left before the warmup timeout.
+         */
+        public Duration remaining() {
+            return Duration.ofNanos(Math.max(deadlineNanos - System.nanoTime(), 0));
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Status status() {
+            return status;
+        }
+
+        public long completed() {
+            return completed.get();
+        }
+
+        void start(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+            this.startNanos = System.nanoTime();
+            this.status = Status.RUNNING;
+        }
+
+        void finish() {
+            endNanos = System.nanoTime();
+            if (status == Status.RUNNING) {
+                status = expired() && completed() < total ? Status.TIMED_OUT : Status.COMPLETED;
+            }
+        }
+
+        void fail(Exception e) {
+            endNanos = System.nanoTime();
+            status = Status.FAILED;
+            detail = e.toString();
+        }
+
+        void timeOut() {
+            status = Status.TIMED_OUT;
+        }
+
+        StageReport report() {
+            Status current = status;
+            Long durationMs = switch (current) {
+                case PENDING, SKIPPED -> null;
+                case RUNNING -> Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+                default -> startNanos == 0 ? null : Duration.ofNanos(endNanos - startNanos).toMillis();
+            };
+            return new StageReport(name, current, completed(), total, durationMs, detail);
+        }
+    }
+
+    /**
+     * @param name       the step name
+     * @param status     the step status
+     * @param completed  the units of work done
+     * @param total      the units of work planned, 0 when unknown
+     * @param durationMs the time the step has taken, none when it has not run
+     * @param detail     what the step did or why it was skipped or failed
+     */
+    public record StageReport(String name, Status status, long completed, long total, Long durationMs, String detail) {
+    }
+
+    /**
+     * @param status     {@code PENDING} before the warmup, {@code RUNNING}, then {@code COMPLETED} whatever
+     *                   the outcome of the steps
+     * @param startedAt  when the warmup started
+     * @param durationMs the time the warmup has taken
+     * @param stages     the steps
+     */
+    public record Report(Status status, Instant startedAt, Long durationMs, List<StageReport> stages) {
+    }
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private volatile Status status = Status.PENDING;
+    private volatile Instant startedAt;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    Stage stage(String name) {
+        Stage stage = new Stage(name);
+        stages.add(stage);
+        return stage;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        startNanos = System.nanoTime();
+        status = Status.RUNNING;
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        status = Status.COMPLETED;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    public Report report() {
+        Status current = status;
+        Long durationMs = switch (current) {
+            case PENDING -> null;
+            case RUNNING -> Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+            default -> Duration.ofNanos(endNanos - startNanos).toMillis();
+        };
+        return new Report(current, startedAt, durationMs, stages.stream().map(Stage::report).toList());
+    }
+}
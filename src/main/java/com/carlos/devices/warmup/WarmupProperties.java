@@ -0,0 +1,21 @@
+package com.carlos.devices.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the warmup run before the application reports ready.
+ *
+ * @param enabled     whether the warmup runs at startup
+ * @param timeout     how long the warmup can delay readiness, the steps still running are cut short
+ * @param requests    the number of requests of the synthetic mix sent to the device endpoints
+ * @param concurrency the number of those requests in flight at a time
+ */
+@ConfigurationProperties(prefix = "devices.warmup")
+public record WarmupProperties(@DefaultValue("false") boolean enabled,
+                               @DefaultValue("60s") Duration timeout,
+                               @DefaultValue("2000") int requests,
+                               @DefaultValue("4") int concurrency) {
+}
@@ -0,0 +1,66 @@
+package com.carlos.devices.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.ReadinessState;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the {@link WarmupStep}s at startup, before the application reports ready.
+ * <p>
+ * Spring Boot publishes {@link ReadinessState#ACCEPTING_TRAFFIC} once every application runner has returned,
+ * while the web server is already listening. Running the steps here keeps the readiness probe
+ * ({@code /actuator/health/readiness}) out of service until they are done, and lets the request mix reach the
+ * server. The steps share one {@code timeout}: a step still running when it is reached is cut short, and the
+ * steps not started yet are reported as timed out. A failed step does not keep the application from becoming
+ * ready.
+ */
+public class WarmupRunner implements ApplicationRunner {
+
+    private final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+    private final List<WarmupStep> steps;
+    private final WarmupProgress progress;
+    private final WarmupProperties properties;
+
+    public WarmupRunner(List<WarmupStep> steps, WarmupProgress progress, WarmupProperties properties) {
+        this.steps = steps;
+        this.progress = progress;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<WarmupProgress.Stage> stages = steps.stream().map(step -> progress.stage(step.name())).toList();
+        long deadlineNanos = System.nanoTime() + properties.timeout().toNanos();
+        progress.start();
+        for (int i = 0; i < steps.size(); i++) {
+            WarmupProgress.Stage stage = stages.get(i);
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                stage.timeOut();
+                continue;
+            }
+            stage.start(deadlineNanos);
+            try {
+                steps.get(i).run(stage);
+                stage.finish();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stage.fail(e);
+                break;
+            } catch (Exception e) {
+                logger.warn("Warmup step {} failed", stage.name(), e);
+                stage.fail(e);
+            }
+        }
+        progress.finish();
+
+        WarmupProgress.Report report = progress.report();
+        logger.info("Warmup took {} ms: {}", report.durationMs(), report.stages().stream()
+                .map(stage -> stage.name() + " " + stage.status() + (stage.durationMs() == null ? "" : " in " + stage.durationMs() + " ms"))
+                .collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,24 @@
+package com.carlos.devices.warmup;
+
+/**
+ * One step of the startup warmup.
+ * <p>
+ * The steps are run one after the other, in their {@link org.springframework.core.annotation.Order}, before
+ * the application reports ready. A step reports its progress on its {@link WarmupProgress.Stage} and stops
+ * early once the stage has expired.
+ */
+public interface WarmupStep {
+
+    /**
+     * The name the step is reported under.
+     */
+    String name();
+
+    /**
+     * Runs the step.
+     *
+     * @param stage the progress of the step
+     * @throws Exception if the step failed, the warmup goes on with the next step
+     */
+    void run(WarmupProgress.Stage stage) throws Exception;
+}
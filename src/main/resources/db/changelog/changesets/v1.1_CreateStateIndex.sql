@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset carlos:2025_06_02_0
+--comment: Create device state search index
+
+create index device_state_index
+    on public.device (state);
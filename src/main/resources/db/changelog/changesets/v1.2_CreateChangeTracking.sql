@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset carlos:2025_06_09_0
+--comment: Track device changes for delta sync
+
+create sequence device_change_seq;
+
+alter table public.device
+    add column change_seq bigint not null default nextval('device_change_seq'),
+    add column change_txid xid8 not null default pg_current_xact_id();
+
+create index device_change_index
+    on public.device (change_txid, change_seq);
+
+create table if not exists device_tombstone
+(
+    id INTEGER NOT NULL,
+    change_seq BIGINT NOT NULL DEFAULT nextval('device_change_seq'),
+    change_txid XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    deletion_time TIMESTAMP NOT NULL DEFAULT localtimestamp
+);
+
+create index device_tombstone_change_index
+    on public.device_tombstone (change_txid, change_seq);
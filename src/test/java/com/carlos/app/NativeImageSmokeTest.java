@@ -0,0 +1,143 @@
+package com.carlos.app;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Smoke test of the native executable built with {@code ./mvnw -Pnative native:compile}.
+ * <p>
+ * Starts the binary given by the {@code native.binary} system property against a PostgreSQL container,
+ * then goes through the device endpoints, the error handling and the OpenAPI document.
+ * Reports the time until the first successful request and the resident set size of the process.
+ * <pre>
+ * ./mvnw test -Dtest=NativeImageSmokeTest -Dnative.binary=target/devicesAPI
+ * </pre>
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class NativeImageSmokeTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Process process;
+    private String baseUrl;
+
+    @BeforeAll
+    void startBinary() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        ProcessBuilder builder = new ProcessBuilder(List.of(System.getProperty("native.binary"),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--logging.level.root=WARN"))
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target", "native-smoke-test.log").toFile());
+
+        long start = System.nanoTime();
+        process = builder.start();
+        awaitReady(Duration.ofSeconds(30));
+        System.out.printf("Native image ready in %d ms, RSS %s%n",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), residentSetSize());
+    }
+
+    @AfterAll
+    void stopBinary() {
+        if (process != null) {
+            process.destroy();
+        }
+    }
+
+    @Test
+    void deviceEndpoints_ShouldWorkInTheNativeImage() throws Exception {
+        HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/device"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Native Device\",\"brand\":\"Native Brand\"}")));
+        assertThat(created.statusCode()).isEqualTo(201);
+        assertThat(created.body()).contains("\"name\":\"Native Device\"", "\"state\":\"AVAILABLE\"")
+                .containsPattern("\"creationTime\":\"\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\"");
+
+        assertThat(get("/api/device/brand/Native Brand".replace(" ", "%20")).body()).contains("Native Device");
+        assertThat(get("/api/device/state/AVAILABLE").statusCode()).isEqualTo(200);
+        assertThat(get("/api/device").body()).contains("Native Device");
+    }
+
+    @Test
+    void errors_ShouldBeMappedInTheNativeImage() throws Exception {
+        HttpResponse<String> notFound = get("/api/device/999999");
+        assertThat(notFound.statusCode()).isEqualTo(404);
+        assertThat(notFound.body()).contains("DATA_ERROR");
+
+        assertThat(get("/api/device/state/UNKNOWN").statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void openApiDocument_ShouldBeServedByTheNativeImage() throws Exception {
+        HttpResponse<String> apiDocs = get("/api-docs");
+        assertThat(apiDocs.statusCode()).isEqualTo(200);
+        assertThat(apiDocs.body()).contains("Devices API", "/api/device/{id}");
+    }
+
+    private void awaitReady(Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            assertThat(process.isAlive()).as("native process is running, see target/native-smoke-test.log").isTrue();
+            try {
+                if (get("/actuator/health").statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Native image not ready after " + timeout);
+    }
+
+    private String residentSetSize() throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return "unknown";
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.substring("VmRSS:".length()).trim())
+                .findFirst().orElse("unknown");
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
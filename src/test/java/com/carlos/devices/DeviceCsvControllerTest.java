@@ -0,0 +1,200 @@
+package com.carlos.devices;
+
+import com.carlos.devices.domain.DeviceExporter;
+import com.carlos.devices.domain.DeviceImporter;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ImportResult;
+import com.carlos.devices.repository.ApiExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link DeviceCsvController} using Spring MVC test framework.
+ * The {@link DeviceExporter} and {@link DeviceImporter} are mocked.
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(DeviceCsvController.class)
+@Import({DeviceCsvController.class, ApiExceptionHandler.class, DeviceCsvControllerTest.TestConfig.class})
+public class DeviceCsvControllerTest {
+
+    private static final String CSV = "id,name,brand,state,creation_time\n1,Device 1,Brand A,AVAILABLE,2025-01-01 10:00:00\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DeviceExporter deviceExporter;
+
+    @Autowired
+    private DeviceImporter deviceImporter;
+
+    @Configuration
+    static class TestConfig {
+        @Bean
+        public DeviceExporter deviceExporter() {
+            return mock(DeviceExporter.class);
+        }
+
+        @Bean
+        public DeviceImporter deviceImporter() {
+            return mock(DeviceImporter.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reset(deviceExporter, deviceImporter);
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(CSV.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(deviceExporter).exportCsv(any(), any(), any());
+    }
+
+    @Test
+    void export_ShouldStreamCsv() throws Exception {
+        // Arrange
+        MvcResult result = mockMvc.perform(get("/api/device/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"devices.csv\""))
+                .andExpect(content().string(CSV));
+        verify(deviceExporter).exportCsv(isNull(), isNull(), any());
+    }
+
+    @Test
+    void export_WithFilters_ShouldPassFiltersToExporter() throws Exception {
+        // Arrange
+        MvcResult result = mockMvc.perform(get("/api/device/export")
+                        .param("brand", "Brand A")
+                        .param("state", "IN_USE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Act
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        // Assert
+        verify(deviceExporter).exportCsv(eq("Brand A"), eq(DeviceState.IN_USE), any());
+    }
+
+    @Test
+    void export_WithGzip_ShouldCompressCsv() throws Exception {
+        // Arrange
+        MvcResult result = mockMvc.perform(get("/api/device/export").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Act
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"devices.csv.gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(CSV);
+        }
+    }
+
+    @Test
+    void export_WithUnsupportedFormat_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/device/export").param("format", "parquet"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(deviceExporter);
+    }
+
+    @Test
+    void export_WithInvalidState_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/device/export").param("state", "BROKEN"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(deviceExporter);
+    }
+
+    @Test
+    void importCsv_ShouldReturnRejectedRowsReport() throws Exception {
+        // Arrange
+        String upload = "name,brand\nDevice 1,Brand A\n,Brand B\n";
+        String report = "record,name,brand,reason\n2,,Brand B,\"Invalid device details, must have a name and a brand\"\n";
+        when(deviceImporter.importCsv(any(), any())).thenAnswer(invocation -> {
+            assertThat(new String(invocation.getArgument(0, InputStream.class).readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo(upload);
+            invocation.getArgument(1, OutputStream.class).write(report.getBytes(StandardCharsets.UTF_8));
+            return new ImportResult(1, 1);
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/device/import")
+                        .contentType("text/csv")
+                        .content(upload))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"rejected-devices.csv\""))
+                .andExpect(header().string("X-Imported-Rows", "1"))
+                .andExpect(header().string("X-Rejected-Rows", "1"))
+                .andExpect(content().string(report));
+    }
+
+    @Test
+    void importCsv_WithMalformedFile_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        when(deviceImporter.importCsv(any(), any())).thenThrow(new BusinessRulesException("Invalid CSV file"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/device/import")
+                        .contentType("text/csv")
+                        .content("name,brand\na,b,c\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BUSINESS_ERROR"));
+    }
+
+    @Test
+    void importCsv_WithOtherContentType_ShouldReturnUnsupportedMediaType() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/device/import")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.code").value("INVALID_REQUEST"));
+        verifyNoInteractions(deviceImporter);
+    }
+}
@@ -0,0 +1,91 @@
+package com.carlos.devices;
+
+import com.carlos.devices.domain.DevicePager;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.ApiExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link DevicePageController} using Spring MVC test framework.
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(DevicePageController.class)
+@Import({DevicePageController.class, ApiExceptionHandler.class, DevicePageControllerTest.TestConfig.class})
+@TestPropertySource(properties = "devices.sharding.enabled=true")
+public class DevicePageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DevicePager devicePager;
+
+    @Configuration
+    static class TestConfig {
+        @Bean
+        public DevicePager devicePager() {
+            return mock(DevicePager.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(devicePager);
+    }
+
+    @Test
+    void page_ShouldReturnTheDevicesAfterTheId() throws Exception {
+        // Arrange
+        Device device = new Device(42, "Device 42", "Brand A", DeviceState.IN_USE, LocalDateTime.now());
+        when(devicePager.findPage("Brand A", DeviceState.IN_USE, 40, 2)).thenReturn(List.of(device));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/page").param("after", "40").param("limit", "2")
+                        .param("brand", "Brand A").param("state", "IN_USE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(42)));
+    }
+
+    @Test
+    void page_WithoutParameters_ShouldReturnTheFirstPage() throws Exception {
+        // Arrange
+        when(devicePager.findPage(null, null, 0, 100)).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", empty()));
+    }
+
+    @Test
+    void page_WithLimitOutOfRange_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/device/page").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/device/page").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+        verify(devicePager, never()).findPage(any(), any(), anyInt(), anyInt());
+    }
+}
@@ -1,10 +1,19 @@
 package com.carlos.devices;
 
+import com.carlos.devices.cache.DeviceBytesCache;
+import com.carlos.devices.cache.DeviceCacheProperties;
+import com.carlos.devices.cache.ResponseBytesCache;
+import com.carlos.devices.cache.ResponseCacheProperties;
 import com.carlos.devices.domain.DeviceService;
 import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import com.carlos.devices.domain.exception.ServiceOverloadedException;
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
 import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ErrorDTO;
 import com.carlos.devices.repository.ApiExceptionHandler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,10 +25,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -57,12 +69,28 @@ public class DeviceRestControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResponseBytesCache responseCache;
+
+    @Autowired
+    private DeviceBytesCache deviceCache;
+
     @Configuration
     static class TestConfig {
         @Bean
         public DeviceService deviceService() {
             return mock(DeviceService.class);
         }
+
+        @Bean
+        public ResponseBytesCache responseBytesCache(ObjectMapper objectMapper) {
+            return new ResponseBytesCache(objectMapper, new ResponseCacheProperties(true, DataSize.ofMegabytes(1), Duration.ofMinutes(5)));
+        }
+
+        @Bean
+        public DeviceBytesCache deviceBytesCache(ObjectMapper objectMapper) {
+            return new DeviceBytesCache(objectMapper, new DeviceCacheProperties(true, 100));
+        }
     }
 
     private Device testDevice;
@@ -70,8 +98,10 @@ public class DeviceRestControllerTest {
 
     @BeforeEach
     void setUp() {
-        // Reset mock
+        // Reset mock and cache
         reset(deviceService);
+        responseCache.invalidateAll();
+        deviceCache.invalidateAll();
 
         // Initialize test data
         testDevice = new Device(1, "Test Device", "Test Brand", DeviceState.AVAILABLE, LocalDateTime.now());
@@ -98,6 +128,46 @@ public class DeviceRestControllerTest {
                 .andExpect(jsonPath("$.state", is("AVAILABLE")));
     }
 
+    @Test
+    void findById_ShouldWriteTheDeviceBytesWithTheirLengthAndETag() throws Exception {
+        // Arrange
+        testDevice = new Device(1, "Test Device", "Test Brand", DeviceState.AVAILABLE, LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+        when(deviceService.findById(1)).thenReturn(testDevice);
+        byte[] expected = objectMapper.writeValueAsBytes(testDevice);
+
+        // Act
+        String etag = mockMvc.perform(get("/api/device/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(expected))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, expected.length))
+                .andExpect(jsonPath("$.creationTime", is("2025-01-02 03:04:05")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        mockMvc.perform(get("/api/device/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(expected));
+        mockMvc.perform(get("/api/device/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void findById_WhenTheDeviceChanged_ShouldWriteTheNewDevice() throws Exception {
+        // Arrange
+        when(deviceService.findById(1)).thenReturn(testDevice);
+        String etag = mockMvc.perform(get("/api/device/1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        when(deviceService.findById(1)).thenReturn(new Device(1, "Test Device", "Test Brand", DeviceState.IN_USE,
+                testDevice.creationTime()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.state", is("IN_USE")));
+    }
+
     @Test
     void findByBrand_ShouldReturnDevices() throws Exception {
         // Arrange
@@ -133,6 +203,65 @@ public class DeviceRestControllerTest {
                 .andExpect(jsonPath("$[0].state", is("AVAILABLE")));
     }
 
+    @Test
+    void findByBrand_ShouldServeRepeatedRequestsFromCache() throws Exception {
+        // Arrange
+        when(deviceService.findAllByBrand("Brand A")).thenReturn(List.of(testDevices.getFirst()));
+
+        // Act
+        String etag = mockMvc.perform(get("/api/device/brand/Brand A"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/device/brand/Brand A"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        // Assert
+        verify(deviceService, times(1)).findAllByBrand("Brand A");
+    }
+
+    @Test
+    void findByState_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(deviceService.findAllByDeviceState(DeviceState.IN_USE)).thenReturn(List.of(testDevices.get(1)));
+        String etag = mockMvc.perform(get("/api/device/state/IN_USE"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/state/IN_USE").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/device/state/IN_USE").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void findById_WhenOverloaded_ShouldReturnServiceUnavailableWithRetryAfter() throws Exception {
+        // Arrange
+        when(deviceService.findById(1)).thenThrow(new ServiceOverloadedException("Too many concurrent reads, retry later",
+                Duration.ofMillis(1500)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.code", is("OVERLOADED")));
+    }
+
+    @Test
+    void findAll_WhenTheDeadlineIsExceeded_ShouldReturnGatewayTimeout() throws Exception {
+        // Arrange
+        when(deviceService.findAll()).thenThrow(new DeadlineExceededException("Request deadline exceeded, statement cancelled"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.code", is("DEADLINE_EXCEEDED")));
+    }
+
     @Test
     void findAll_ShouldReturnAllDevices() throws Exception {
         // Arrange
@@ -200,6 +329,79 @@ public class DeviceRestControllerTest {
         verify(deviceService).updateDevice(eq(1), any(CreateUpdateDevice.class));
     }
 
+    @Test
+    void updateWithRespondAsync_ShouldAccept_WhenUpdateIsBuffered() throws Exception {
+        // Arrange
+        CreateUpdateDevice updateDevice = new CreateUpdateDevice(null, null, DeviceState.IN_USE);
+        when(deviceService.updateDeviceDeferred(eq(1), any(CreateUpdateDevice.class))).thenReturn(true);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/device/1")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDevice)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"));
+
+        verify(deviceService, never()).updateDevice(anyInt(), any(CreateUpdateDevice.class));
+    }
+
+    @Test
+    void updateWithRespondAsync_ShouldReturnNoContent_WhenUpdateIsWritten() throws Exception {
+        // Arrange
+        CreateUpdateDevice updateDevice = new CreateUpdateDevice("Updated Device", null, null);
+        when(deviceService.updateDeviceDeferred(eq(1), any(CreateUpdateDevice.class))).thenReturn(false);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/device/1")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDevice)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist("Preference-Applied"));
+    }
+
+    @Test
+    void batch_ShouldReturnOperationResults_WhenBatchIsCommitted() throws Exception {
+        // Arrange
+        Device created = new Device(4, "New Device", "New Brand", DeviceState.AVAILABLE, LocalDateTime.now());
+        when(deviceService.executeBatch(any(DeviceBatchRequest.class))).thenReturn(new DeviceBatchResult(true, List.of(
+                new DeviceBatchResult.OperationResult(0, DeviceBatchResult.Status.SUCCEEDED, created, null))));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/device/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mode": "CONTINUE_ON_ERROR",
+                                 "operations": [{"type": "CREATE", "device": {"name": "New Device", "brand": "New Brand"}}]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed", is(true)))
+                .andExpect(jsonPath("$.results[0].status", is("SUCCEEDED")))
+                .andExpect(jsonPath("$.results[0].device.id", is(4)));
+
+        verify(deviceService).executeBatch(new DeviceBatchRequest(DeviceBatchRequest.Mode.CONTINUE_ON_ERROR, List.of(
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.CREATE, null, new CreateUpdateDevice("New Device", "New Brand", null)))));
+    }
+
+    @Test
+    void batch_ShouldReturnUnprocessableEntity_WhenAtomicBatchIsRolledBack() throws Exception {
+        // Arrange
+        when(deviceService.executeBatch(any(DeviceBatchRequest.class))).thenReturn(new DeviceBatchResult(false, List.of(
+                new DeviceBatchResult.OperationResult(0, DeviceBatchResult.Status.FAILED, null,
+                        new ErrorDTO("DATA_ERROR", "Device for deletion not found for ID: 9")))));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/device/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"operations": [{"type": "DELETE", "id": 9}]}
+                                """))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.committed", is(false)))
+                .andExpect(jsonPath("$.results[0].error.code", is("DATA_ERROR")));
+    }
+
     @Test
     void delete_ShouldDeleteDevice() throws Exception {
         // Arrange
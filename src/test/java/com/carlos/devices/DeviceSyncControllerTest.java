@@ -0,0 +1,111 @@
+package com.carlos.devices;
+
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChange;
+import com.carlos.devices.domain.model.DeviceChanges;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.ApiExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link DeviceSyncController} using Spring MVC test framework.
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(DeviceSyncController.class)
+@Import({DeviceSyncController.class, ApiExceptionHandler.class, DeviceSyncControllerTest.TestConfig.class})
+public class DeviceSyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DeviceChangeFeed deviceChangeFeed;
+
+    @Configuration
+    static class TestConfig {
+        @Bean
+        public DeviceChangeFeed deviceChangeFeed() {
+            return mock(DeviceChangeFeed.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(deviceChangeFeed);
+    }
+
+    @Test
+    void changes_ShouldReturnUpsertsAndTombstones() throws Exception {
+        // Arrange
+        Device device = new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now());
+        when(deviceChangeFeed.changesSince(new ChangeWatermark(740, 12), 2)).thenReturn(new DeviceChanges(List.of(
+                new DeviceChange(DeviceChange.Type.UPSERT, 13, 1, device),
+                new DeviceChange(DeviceChange.Type.DELETE, 14, 2, null)), "741-14", true));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/changes").param("since", "740-12").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].type", is("UPSERT")))
+                .andExpect(jsonPath("$.changes[0].device.name", is("Device 1")))
+                .andExpect(jsonPath("$.changes[1].type", is("DELETE")))
+                .andExpect(jsonPath("$.changes[1].id", is(2)))
+                .andExpect(jsonPath("$.changes[1].device").doesNotExist())
+                .andExpect(jsonPath("$.watermark", is("741-14")))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+    }
+
+    @Test
+    void changes_WithoutWatermark_ShouldStartFromTheBeginning() throws Exception {
+        // Arrange
+        when(deviceChangeFeed.changesSince(ChangeWatermark.START, 1000)).thenReturn(new DeviceChanges(List.of(), "0-0", false));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/device/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", empty()))
+                .andExpect(jsonPath("$.watermark", is("0-0")));
+    }
+
+    @Test
+    void changes_WithInvalidWatermark_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        for (String since : List.of("12", "a-b", "-1-2", "1-2-3")) {
+            mockMvc.perform(get("/api/device/changes").param("since", since))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code", is("BUSINESS_ERROR")));
+        }
+        verifyNoInteractions(deviceChangeFeed);
+    }
+
+    @Test
+    void changes_WithLimitOutOfRange_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/device/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/device/changes").param("limit", "10001"))
+                .andExpect(status().isBadRequest());
+        verify(deviceChangeFeed, never()).changesSince(any(), anyInt());
+    }
+}
@@ -0,0 +1,42 @@
+package com.carlos.devices.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the default limits of {@link AdmissionConfiguration}.
+ */
+class AdmissionConfigurationTest {
+
+    @Test
+    void defaultMaxLimits_ShouldSplitThePoolBetweenReadsAndWrites() {
+        // Act & Assert
+        assertThat(AdmissionConfiguration.readSlots(10)).isEqualTo(7);
+        assertThat(AdmissionConfiguration.writeSlots(10)).isEqualTo(3);
+        assertThat(AdmissionConfiguration.readSlots(50) + AdmissionConfiguration.writeSlots(50)).isEqualTo(50);
+        assertThat(AdmissionConfiguration.readSlots(1)).isEqualTo(1);
+        assertThat(AdmissionConfiguration.writeSlots(1)).isEqualTo(1);
+    }
+
+    @Test
+    void limiters_ShouldUseTheShareOfThePool_OnlyWhenNoMaxLimitIsConfigured() {
+        // Arrange
+        AdmissionProperties.Bulkhead unset = new AdmissionProperties.Bulkhead(5, 1, null,
+                Duration.ofMillis(250), 0.9, 20, Duration.ofMillis(50));
+        AdmissionProperties.Bulkhead configured = new AdmissionProperties.Bulkhead(5, 1, 8,
+                Duration.ofMillis(250), 0.9, 20, Duration.ofMillis(50));
+        AdmissionProperties properties = new AdmissionProperties(true, Duration.ofSeconds(1), configured, unset);
+        AdmissionConfiguration configuration = new AdmissionConfiguration();
+
+        // Act
+        AimdLimiter reads = configuration.readLimiter(properties, 10);
+        AimdLimiter writes = configuration.writeLimiter(properties, 10);
+
+        // Assert: the initial limit of 5 is capped to the 3 writes of a pool of 10
+        assertThat(reads.limit()).isEqualTo(5);
+        assertThat(writes.limit()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,147 @@
+package com.carlos.devices.admission;
+
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.exception.ServiceOverloadedException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chaos test for the admission control: the application talks to the database through a
+ * {@link LatencyProxy}, and latency is injected while bursts of lookups are running.
+ * <p>
+ * While the database is slow, the calls over the read limit must be rejected quickly instead of waiting
+ * for a pooled connection, and the limit must go down. Once the latency is removed, the limit must grow
+ * back to its maximum.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Testcontainers
+class AdmissionControlChaosTest {
+
+    private static final int MAX_READS = 4;
+    private static final Duration INJECTED_LATENCY = Duration.ofMillis(300);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    private static LatencyProxy proxy;
+
+    @DynamicPropertySource
+    static void admissionProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:postgresql://localhost:" + proxy().port() + "/" + postgres.getDatabaseName());
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> MAX_READS);
+        registry.add("spring.datasource.hikari.minimum-idle", () -> MAX_READS);
+        registry.add("devices.admission.enabled", () -> "true");
+        registry.add("devices.admission.reads.initial-limit", () -> MAX_READS);
+        registry.add("devices.admission.reads.max-limit", () -> MAX_READS);
+        registry.add("devices.admission.reads.latency-threshold", () -> "100ms");
+        registry.add("devices.admission.reads.max-queue", () -> 4);
+        registry.add("devices.admission.reads.max-queue-wait", () -> "20ms");
+    }
+
+    private static synchronized LatencyProxy proxy() {
+        if (proxy == null) {
+            try {
+                proxy = new LatencyProxy(postgres.getHost(), postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return proxy;
+    }
+
+    @AfterAll
+    static void closeProxy() throws IOException {
+        proxy.close();
+    }
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private AimdLimiter readLimiter;
+
+    private record Outcome(boolean admitted, Duration elapsed) {
+    }
+
+    @Test
+    void findById_WithInjectedLatency_ShouldShedLoadFastAndRecover() throws Exception {
+        // Arrange
+        int id = deviceService.createDevice(new CreateUpdateDevice("Chaos Device", "Chaos Brand", DeviceState.AVAILABLE)).id();
+        for (int round = 0; round < 10; round++) {
+            assertThat(burst(id, MAX_READS)).allMatch(Outcome::admitted);
+        }
+        assertThat(readLimiter.limit()).isEqualTo(MAX_READS);
+
+        // Act
+        proxy().setLatency(INJECTED_LATENCY);
+        List<Outcome> underLatency = burst(id, 40);
+        int limitUnderLatency = readLimiter.limit();
+
+        // Assert
+        assertThat(underLatency).filteredOn(Outcome::admitted).hasSizeGreaterThanOrEqualTo(MAX_READS);
+        assertThat(underLatency).filteredOn(outcome -> !outcome.admitted())
+                .isNotEmpty()
+                .allMatch(outcome -> outcome.elapsed().compareTo(INJECTED_LATENCY) < 0);
+        assertThat(limitUnderLatency).isLessThan(MAX_READS);
+
+        // Act
+        proxy().setLatency(Duration.ZERO);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (readLimiter.limit() < MAX_READS && System.nanoTime() < deadline) {
+            burst(id, MAX_READS);
+        }
+
+        // Assert
+        assertThat(readLimiter.limit()).isEqualTo(MAX_READS);
+        assertThat(burst(id, MAX_READS)).allMatch(Outcome::admitted);
+    }
+
+    private List<Outcome> burst(int id, int calls) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                futures.add(executor.submit(() -> find(id)));
+            }
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        }
+    }
+
+    private Outcome find(int id) {
+        long start = System.nanoTime();
+        try {
+            deviceService.findById(id);
+            return new Outcome(true, Duration.ofNanos(System.nanoTime() - start));
+        } catch (ServiceOverloadedException e) {
+            return new Outcome(false, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
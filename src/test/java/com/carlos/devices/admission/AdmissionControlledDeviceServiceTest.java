@@ -0,0 +1,160 @@
+package com.carlos.devices.admission;
+
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import com.carlos.devices.domain.exception.ServiceOverloadedException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link AdmissionControlledDeviceService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlledDeviceServiceTest {
+
+    @Mock
+    private DeviceService delegate;
+
+    private AimdLimiter reads;
+    private AimdLimiter writes;
+    private AdmissionControlledDeviceService service;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties.Bulkhead bulkhead = new AdmissionProperties.Bulkhead(4, 1, 4,
+                Duration.ofMillis(250), 0.5, 0, Duration.ZERO);
+        reads = new AimdLimiter("reads", bulkhead);
+        writes = new AimdLimiter("writes", bulkhead);
+        service = new AdmissionControlledDeviceService(delegate, reads, writes, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void findById_ShouldRunInsideTheReadLimit() {
+        // Arrange
+        Device device = new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now());
+        when(delegate.findById(1)).thenAnswer(invocation -> {
+            assertThat(reads.inFlight()).isEqualTo(1);
+            assertThat(writes.inFlight()).isZero();
+            return device;
+        });
+
+        // Act
+        Device found = service.findById(1);
+
+        // Assert
+        assertThat(found).isEqualTo(device);
+        assertThat(reads.inFlight()).isZero();
+    }
+
+    @Test
+    void findAll_WithTheReadLimitReached_ShouldRejectWithoutCallingTheDelegate() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            reads.tryAcquire();
+        }
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.findAll())
+                .isInstanceOf(ServiceOverloadedException.class)
+                .extracting(e -> ((ServiceOverloadedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void updateDevice_WithTheReadLimitReached_ShouldStillBeAdmitted() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            reads.tryAcquire();
+        }
+        CreateUpdateDevice update = new CreateUpdateDevice("Device 1", null, null);
+        when(delegate.submitUpdate(1, update)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        service.updateDevice(1, update);
+
+        // Assert
+        verify(delegate).submitUpdate(1, update);
+        assertThat(writes.inFlight()).isZero();
+    }
+
+    @Test
+    void updateDevice_WhenTheUpdateIsBuffered_ShouldReleaseTheWriteSlotBeforeTheCommit() throws Exception {
+        // Arrange
+        CreateUpdateDevice update = new CreateUpdateDevice(null, null, DeviceState.IN_USE);
+        CompletableFuture<Void> commit = new CompletableFuture<>();
+        when(delegate.submitUpdate(1, update)).thenReturn(commit);
+
+        // Act
+        CompletableFuture<Void> updated = CompletableFuture.runAsync(() -> service.updateDevice(1, update));
+
+        // Assert
+        verify(delegate, timeout(5000)).submitUpdate(1, update);
+        assertThat(writes.inFlight()).isZero();
+        assertThat(updated).isNotDone();
+        commit.complete(null);
+        updated.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void updateDevice_WhenTheBufferedUpdateFails_ShouldThrowItsError() {
+        // Arrange
+        CreateUpdateDevice update = new CreateUpdateDevice(null, null, DeviceState.IN_USE);
+        when(delegate.submitUpdate(2, update))
+                .thenReturn(CompletableFuture.failedFuture(new DataException("Device not found for ID: 2")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.updateDevice(2, update)).isInstanceOf(DataException.class);
+        assertThat(writes.inFlight()).isZero();
+    }
+
+    @Test
+    void deleteDevice_WhenNoConnectionIsAvailable_ShouldLowerTheWriteLimit() {
+        // Arrange
+        doThrow(new CannotGetJdbcConnectionException("Connection is not available"))
+                .when(delegate).deleteDevice(1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.deleteDevice(1)).isInstanceOf(CannotGetJdbcConnectionException.class);
+        assertThat(writes.limit()).isEqualTo(2);
+        assertThat(writes.inFlight()).isZero();
+    }
+
+    @Test
+    void findById_WithNotFoundDevice_ShouldKeepTheReadLimit() {
+        // Arrange
+        when(delegate.findById(2)).thenThrow(new DataException("Device not found for ID: 2"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.findById(2)).isInstanceOf(DataException.class);
+        assertThat(reads.limit()).isEqualTo(4);
+        assertThat(reads.inFlight()).isZero();
+    }
+
+    @Test
+    void findAll_CancelledAtTheRequestDeadline_ShouldNotCountAsDropped() {
+        // Arrange
+        when(delegate.findAll()).thenThrow(new DeadlineExceededException("Request deadline exceeded, statement cancelled"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.findAll()).isInstanceOf(DeadlineExceededException.class);
+        assertThat(reads.limit()).isEqualTo(4);
+    }
+}
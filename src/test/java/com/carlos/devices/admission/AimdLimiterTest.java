@@ -0,0 +1,179 @@
+package com.carlos.devices.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link AimdLimiter}.
+ */
+class AimdLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void tryAcquire_OverTheLimitWithoutQueue_ShouldRejectImmediately() {
+        // Arrange
+        AimdLimiter limiter = limiter(2, 0, Duration.ZERO);
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_WhenTheQueueWaitTimesOut_ShouldReject() {
+        // Arrange
+        AimdLimiter limiter = limiter(2, 5, Duration.ofMillis(20));
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        // Act
+        long start = System.nanoTime();
+        boolean admitted = limiter.tryAcquire();
+
+        // Assert
+        assertThat(admitted).isFalse();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_WhenASlotIsReleased_ShouldAdmitTheQueuedCall() throws Exception {
+        // Arrange
+        AimdLimiter limiter = limiter(2, 5, Duration.ofSeconds(10));
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while (limiter.queued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Act
+        limiter.release(0, FAST, false);
+
+        // Assert
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void release_WithFastCallsWhileBusy_ShouldIncreaseTheLimit() {
+        // Arrange
+        AimdLimiter limiter = limiter(4, 0, Duration.ZERO);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            while (limiter.tryAcquire()) {
+                // fill the limit
+            }
+            limiter.release(0, FAST, false);
+            while (limiter.inFlight() > 0) {
+                limiter.release(0, FAST, false);
+            }
+        }
+
+        // Assert
+        assertThat(limiter.limit()).isGreaterThan(4).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void release_WithFastCallsWhileIdle_ShouldKeepTheLimit() {
+        // Arrange
+        AimdLimiter limiter = limiter(4, 0, Duration.ZERO);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, FAST, false);
+        }
+
+        // Assert
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void release_WithSlowCallsAdmittedTogether_ShouldDecreaseTheLimitOnce() {
+        // Arrange
+        AimdLimiter limiter = limiter(10, 0, Duration.ZERO);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+        }
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            limiter.release(0, SLOW + i, false);
+        }
+
+        // Assert
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void reset_ShouldPutBackTheInitialLimit_AndKeepTheCallsInFlight() {
+        // Arrange
+        AimdLimiter limiter = limiter(10, 0, Duration.ZERO);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release(0, SLOW, false);
+
+        // Act
+        limiter.reset();
+
+        // Assert
+        assertThat(limiter.limit()).isEqualTo(10);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        limiter.release(1, SLOW, false);
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void release_WithRepeatedDrops_ShouldNotGoUnderTheMinimum() {
+        // Arrange
+        AimdLimiter limiter = limiter(10, 0, Duration.ZERO);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(i * SLOW, i * SLOW + FAST, true);
+        }
+
+        // Assert
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void bindTo_ShouldPublishTheLimiterState() {
+        // Arrange
+        AimdLimiter limiter = limiter(2, 0, Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+
+        // Act
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        // Assert
+        assertThat(registry.get("devices.admission.limit").tag("bulkhead", "reads").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("devices.admission.in.flight").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("devices.admission.rejected").tag("reason", "queue_full").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    private AimdLimiter limiter(int initialLimit, int maxQueue, Duration maxQueueWait) {
+        return new AimdLimiter("reads", new AdmissionProperties.Bulkhead(initialLimit, 2, 10,
+                Duration.ofMillis(250), 0.5, maxQueue, maxQueueWait));
+    }
+}
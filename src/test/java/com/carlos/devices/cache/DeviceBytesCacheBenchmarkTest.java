@@ -0,0 +1,108 @@
+package com.carlos.devices.cache;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Allocation and latency of writing a single device, serialized by Jackson on every request as before and
+ * from the bytes kept by the {@link DeviceBytesCache}.
+ * <p>
+ * Each run writes {@code benchmark.device-cache.ops} random devices out of {@code benchmark.device-cache.devices}
+ * to a discarding stream, from device objects equal to but not the same as the cached ones, like the devices
+ * read again from the database. The bytes allocated per write, from the thread allocation counter, and the
+ * median and 99th percentile write times are printed for both paths. The cache must allocate less and have a
+ * lower 99th percentile. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class DeviceBytesCacheBenchmarkTest {
+
+    private static final int DEVICES = Integer.getInteger("benchmark.device-cache.devices", 10_000);
+    private static final int OPS = Integer.getInteger("benchmark.device-cache.ops", 1_000_000);
+
+    private record Result(double bytesPerOp, double p50Nanos, double p99Nanos) {
+    }
+
+    private interface Write {
+        void write(Device device) throws IOException;
+    }
+
+    /**
+     * Discards what is written, and stays open when Jackson closes it after a value.
+     */
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void findById_FromCachedBytes_ShouldAllocateLessAndHaveALowerP99() throws IOException {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+        Device[] devices = new Device[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            devices[i] = new Device(i, "Device " + i, "Brand " + (i % 500),
+                    i % 10 == 0 ? DeviceState.IN_USE : DeviceState.AVAILABLE, created);
+        }
+        DeviceBytesCache cache = new DeviceBytesCache(objectMapper, new DeviceCacheProperties(true, DEVICES));
+        Write serialize = device -> objectMapper.writeValue(DISCARD, device);
+        Write cached = device -> DISCARD.write(cache.get(device).body());
+
+        // Act
+        for (int round = 0; round < 3; round++) {
+            run(serialize, devices);
+            run(cached, devices);
+        }
+        Result serialized = run(serialize, devices);
+        Result fromCache = run(cached, devices);
+
+        // Assert
+        System.out.printf("%d writes of %d devices: serialized %.0f B/op, p50 %.0f ns, p99 %.0f ns; "
+                        + "cached bytes %.0f B/op, p50 %.0f ns, p99 %.0f ns%n", OPS, DEVICES,
+                serialized.bytesPerOp(), serialized.p50Nanos(), serialized.p99Nanos(),
+                fromCache.bytesPerOp(), fromCache.p50Nanos(), fromCache.p99Nanos());
+        assertThat(fromCache.bytesPerOp()).isLessThan(serialized.bytesPerOp());
+        assertThat(fromCache.p99Nanos()).isLessThan(serialized.p99Nanos());
+    }
+
+    /**
+     * Writes copies of random devices, then returns the allocation per write and the write time percentiles.
+     */
+    private static Result run(Write write, Device[] devices) throws IOException {
+        Device[] reads = new Device[OPS];
+        for (int i = 0; i < OPS; i++) {
+            Device device = devices[ThreadLocalRandom.current().nextInt(devices.length)];
+            reads[i] = new Device(device.id(), device.name(), device.brand(), device.state(), device.creationTime());
+        }
+        long[] nanos = new long[OPS];
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < OPS; i++) {
+            long start = System.nanoTime();
+            write.write(reads[i]);
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Result((double) allocated / OPS, nanos[OPS / 2], nanos[(int) (OPS * 0.99)]);
+    }
+}
@@ -0,0 +1,140 @@
+package com.carlos.devices.cache;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.DevicesImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DeviceBytesCache}.
+ */
+class DeviceBytesCacheTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final DeviceBytesCache cache = new DeviceBytesCache(objectMapper, new DeviceCacheProperties(true, 1000));
+    private final Device device = new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, CREATED);
+
+    @Test
+    void get_ShouldSerializeOnceAndServeTheSameBytes() throws Exception {
+        // Act
+        CachedResponse first = cache.get(device);
+        CachedResponse second = cache.get(new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, CREATED));
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(first.body()).isEqualTo(objectMapper.writeValueAsBytes(device));
+        assertThat(first.body()).asString().contains("\"creationTime\":\"2025-03-14 15:09:26\"");
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void get_ShouldSerializeAgain_WhenTheDeviceRead_IsAnotherVersion() {
+        // Arrange
+        CachedResponse first = cache.get(device);
+        Device updated = new Device(1, "Device 1", "Brand A", DeviceState.IN_USE, CREATED);
+
+        // Act
+        CachedResponse second = cache.get(updated);
+
+        // Assert
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+        assertThat(second.body()).asString().contains("IN_USE");
+        assertThat(cache.get(updated)).isSameAs(second);
+        assertThat(cache.entryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onDeviceChanged_ShouldRemoveTheDevice() {
+        // Arrange
+        cache.get(device);
+        cache.get(new Device(2, "Device 2", "Brand B", DeviceState.AVAILABLE, CREATED));
+
+        // Act
+        cache.onDeviceChanged(new DeviceChangedEvent(device, null));
+
+        // Assert
+        assertThat(cache.entryCount()).isEqualTo(1);
+        assertThat(cache.get(device)).isNotNull();
+        assertThat(cache.entryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void onDevicesImported_ShouldClearTheCache() {
+        // Arrange
+        cache.get(device);
+
+        // Act
+        cache.onDevicesImported(new DevicesImportedEvent(1));
+
+        // Assert
+        assertThat(cache.entryCount()).isZero();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_ShouldEvictTheLeastRecentlyReadDevices_OverTheMaximum() throws Exception {
+        // Arrange
+        DeviceBytesCache small = new DeviceBytesCache(objectMapper,
+                new DeviceCacheProperties(true, DeviceBytesCache.SEGMENTS));
+        Device first = new Device(0, "Device 0", "Brand A", DeviceState.AVAILABLE, CREATED);
+        CachedResponse cached = small.get(first);
+
+        // Act
+        for (int id = 1; id <= 4 * DeviceBytesCache.SEGMENTS; id++) {
+            small.get(new Device(id, "Device " + id, "Brand A", DeviceState.AVAILABLE, CREATED));
+        }
+
+        // Assert
+        long lastReadBytes = 0;
+        for (int id = 3 * DeviceBytesCache.SEGMENTS + 1; id <= 4 * DeviceBytesCache.SEGMENTS; id++) {
+            lastReadBytes += objectMapper.writeValueAsBytes(
+                    new Device(id, "Device " + id, "Brand A", DeviceState.AVAILABLE, CREATED)).length;
+        }
+        assertThat(small.entryCount()).isEqualTo(DeviceBytesCache.SEGMENTS);
+        assertThat(small.size()).isEqualTo(lastReadBytes);
+        assertThat(small.get(first)).isNotSameAs(cached);
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldSerializeEveryTime() {
+        // Arrange
+        DeviceBytesCache disabled = new DeviceBytesCache(objectMapper, new DeviceCacheProperties(false, 1000));
+
+        // Act
+        CachedResponse first = disabled.get(device);
+        CachedResponse second = disabled.get(device);
+
+        // Assert
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.etag()).isEqualTo(first.etag());
+        assertThat(disabled.entryCount()).isZero();
+    }
+
+    @Test
+    void bindTo_ShouldPublishTheHitsMissesAndSize() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        CachedResponse response = cache.get(device);
+
+        // Act
+        cache.get(device);
+        cache.get(device);
+
+        // Assert
+        assertThat(registry.get("devices.device.cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("devices.device.cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("devices.device.cache.entries").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("devices.device.cache.size").gauge().value()).isEqualTo(response.body().length);
+    }
+}
@@ -0,0 +1,241 @@
+package com.carlos.devices.cache;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.DevicesImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ResponseBytesCache}.
+ */
+class ResponseBytesCacheTest {
+
+    private static final String BRAND_A = ResponseBytesCache.brandTag("Brand A");
+    private static final String AVAILABLE = ResponseBytesCache.stateTag(DeviceState.AVAILABLE);
+    private static final String IN_USE = ResponseBytesCache.stateTag(DeviceState.IN_USE);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final MutableClock clock = new MutableClock();
+    private final ResponseBytesCache cache = cache(DataSize.ofMegabytes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromCache() {
+        // Act
+        CachedResponse first = cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        CachedResponse second = cache.get("brand/Brand A", Set.of(BRAND_A), loader("b"));
+
+        // Assert
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.body())).isEqualTo("[\"a\"]");
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void onDeviceChanged_ShouldOnlyInvalidateTheBrandAndBothStates() {
+        // Arrange
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        cache.get("brand/Brand B", Set.of(ResponseBytesCache.brandTag("Brand B")), loader("b"));
+        cache.get("state/AVAILABLE", Set.of(AVAILABLE), loader("available"));
+        cache.get("state/IN_USE", Set.of(IN_USE), loader("in use"));
+        cache.get("state/DISABLED", Set.of(ResponseBytesCache.stateTag(DeviceState.DISABLED)), loader("disabled"));
+        Device before = new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now());
+        Device after = new Device(1, "Device 1", "Brand A", DeviceState.IN_USE, before.creationTime());
+
+        // Act
+        cache.onDeviceChanged(new DeviceChangedEvent(before, after));
+
+        // Assert
+        loads.set(0);
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        cache.get("state/AVAILABLE", Set.of(AVAILABLE), loader("available"));
+        cache.get("state/IN_USE", Set.of(IN_USE), loader("in use"));
+        assertThat(loads).hasValue(3);
+        cache.get("brand/Brand B", Set.of(ResponseBytesCache.brandTag("Brand B")), loader("b"));
+        cache.get("state/DISABLED", Set.of(ResponseBytesCache.stateTag(DeviceState.DISABLED)), loader("disabled"));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void get_WhenInvalidatedDuringLoad_ShouldNotCacheTheStaleResponse() {
+        // Arrange
+        Supplier<List<String>> racingLoader = () -> {
+            loads.incrementAndGet();
+            cache.invalidate(Set.of(BRAND_A));
+            return List.of("stale");
+        };
+
+        // Act
+        cache.get("brand/Brand A", Set.of(BRAND_A), racingLoader);
+        CachedResponse next = cache.get("brand/Brand A", Set.of(BRAND_A), loader("fresh"));
+
+        // Assert
+        assertThat(loads).hasValue(2);
+        assertThat(new String(next.body())).isEqualTo("[\"fresh\"]");
+    }
+
+    @Test
+    void onDevicesImported_ShouldInvalidateEverything() {
+        // Arrange
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+
+        // Act
+        cache.onDevicesImported(new DevicesImportedEvent(10));
+
+        // Assert
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_OverMemoryBudget_ShouldEvictLeastRecentlyUsed() {
+        // Arrange
+        // Room for four responses of 90 characters
+        ResponseBytesCache small = cache(DataSize.ofBytes(4 * (ResponseBytesCache.ENTRY_OVERHEAD_BYTES + 100)));
+        String value = "x".repeat(90);
+        small.get("1", Set.of("1"), loader(value));
+        small.get("2", Set.of("2"), loader(value));
+        small.get("3", Set.of("3"), loader(value));
+        small.get("1", Set.of("1"), loader(value));
+
+        // Act
+        small.get("4", Set.of("4"), loader(value));
+        small.get("5", Set.of("5"), loader(value));
+
+        // Assert
+        assertThat(small.size()).isLessThanOrEqualTo(4 * (ResponseBytesCache.ENTRY_OVERHEAD_BYTES + 100));
+        assertThat(small.entryCount()).isEqualTo(4);
+        loads.set(0);
+        small.get("1", Set.of("1"), loader(value));
+        assertThat(loads).hasValue(0);
+        small.get("2", Set.of("2"), loader(value));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_WithChurningBrands_ShouldStayBounded() {
+        // Arrange: room for 100 empty lists, as returned for the random brands of a scanner
+        ResponseBytesCache small = cache(DataSize.ofBytes(100 * (ResponseBytesCache.ENTRY_OVERHEAD_BYTES + 2)));
+        Device device = new Device(1, "Device 1", "Brand 0", DeviceState.AVAILABLE, LocalDateTime.now());
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            Device moved = new Device(1, "Device 1", "Brand " + i, DeviceState.AVAILABLE, device.creationTime());
+            boolean racing = i % 3 == 0;
+            // Every third brand is also written while its list is being loaded
+            small.get("brand/Brand " + i, Set.of(ResponseBytesCache.brandTag("Brand " + i)), () -> {
+                if (racing) {
+                    small.onDeviceChanged(new DeviceChangedEvent(device, moved));
+                }
+                return List.of();
+            });
+            if (i % 7 == 0) {
+                clock.advance(Duration.ofMinutes(1));
+            }
+        }
+
+        // Assert
+        assertThat(small.entryCount()).isLessThanOrEqualTo(100);
+        assertThat(small.tagCount()).isLessThanOrEqualTo(small.entryCount());
+        assertThat(small.invalidationCount()).isZero();
+    }
+
+    @Test
+    void get_AfterTimeToLive_ShouldLoadAgain() {
+        // Arrange
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+
+        // Act
+        clock.advance(Duration.ofMinutes(6));
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+
+        // Assert
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldAlwaysLoad() {
+        // Arrange
+        ResponseBytesCache disabled = new ResponseBytesCache(objectMapper,
+                new ResponseCacheProperties(false, DataSize.ofMegabytes(1), Duration.ofMinutes(5)), clock);
+
+        // Act
+        CachedResponse first = disabled.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        CachedResponse second = disabled.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+
+        // Assert
+        assertThat(loads).hasValue(2);
+        assertThat(second.etag()).isEqualTo(first.etag());
+    }
+
+    @Test
+    void bindTo_ShouldPublishHitRatio() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Act
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+        cache.get("brand/Brand A", Set.of(BRAND_A), loader("a"));
+
+        // Assert
+        assertThat(registry.get("devices.response.cache.hit.ratio").gauge().value()).isEqualTo(0.75);
+        assertThat(registry.get("devices.response.cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("devices.response.cache.entries").gauge().value()).isEqualTo(1);
+    }
+
+    private ResponseBytesCache cache(DataSize maxSize) {
+        return new ResponseBytesCache(objectMapper, new ResponseCacheProperties(true, maxSize, Duration.ofMinutes(5)), clock);
+    }
+
+    private Supplier<List<String>> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(value);
+        };
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-06-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,24 +1,38 @@
 package com.carlos.devices.domain.useCases;
 
+import com.carlos.devices.domain.DeviceAccessTracker;
+import com.carlos.devices.domain.DeviceCatalog;
 import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.DeviceStateBuffer;
 import com.carlos.devices.domain.exception.BusinessRulesException;
 import com.carlos.devices.domain.exception.DataException;
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
 import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
@@ -34,7 +48,8 @@ class DeviceServiceImplTest {
     @Mock
     private DeviceRepository deviceRepository;
 
-    @InjectMocks
+    private final TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
     private DeviceServiceImpl deviceService;
 
     private Device testDevice;
@@ -43,6 +58,7 @@ class DeviceServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        deviceService = new DeviceServiceImpl(deviceRepository, transactions, null, null, null);
         now = LocalDateTime.now();
 
         // Initialize test data
@@ -81,6 +97,66 @@ class DeviceServiceImplTest {
         verify(deviceRepository).findById(999);
     }
 
+    @Test
+    void findById_WithConcurrentLookupsOfTheSameId_ShouldShareOneRepositoryCall() throws Exception {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        deviceService.bindTo(registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceRepository.findById(1)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return testDevice;
+        });
+        CompletableFuture<Device> first = CompletableFuture.supplyAsync(() -> deviceService.findById(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Device> second = CompletableFuture.supplyAsync(() -> deviceService.findById(1));
+        while (registry.get("devices.requests.coalesced").tag("operation", "findById").functionCounter().count() < 1) {
+            Thread.sleep(1);
+        }
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(testDevice);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(testDevice);
+        verify(deviceRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void findById_WhenTheRequestReadsItsOwnWrites_ShouldNotJoinTheSharedLookup() throws Exception {
+        // Arrange
+        ThreadLocal<Boolean> wrote = ThreadLocal.withInitial(() -> false);
+        DeviceServiceImpl routedService = new DeviceServiceImpl(deviceRepository, transactions, null, null, null, wrote::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Device renamed = new Device(1, "Renamed", testDevice.brand(), testDevice.state(), testDevice.creationTime());
+        when(deviceRepository.findById(1)).thenAnswer(invocation -> {
+            if (wrote.get()) {
+                return renamed;
+            }
+            started.countDown();
+            release.await();
+            return testDevice;
+        });
+        CompletableFuture<Device> shared = CompletableFuture.supplyAsync(() -> routedService.findById(1));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        CompletableFuture<Device> own = CompletableFuture.supplyAsync(() -> {
+            wrote.set(true);
+            return routedService.findById(1);
+        });
+
+        // Assert
+        assertThat(own.get(5, TimeUnit.SECONDS)).isEqualTo(renamed);
+        release.countDown();
+        assertThat(shared.get(5, TimeUnit.SECONDS)).isEqualTo(testDevice);
+        verify(deviceRepository, times(2)).findById(1);
+    }
+
     @Test
     void findAllByBrand_ShouldReturnDevices_WhenBrandExists() {
         // Arrange
@@ -131,6 +207,44 @@ class DeviceServiceImplTest {
         verify(deviceRepository).findAll();
     }
 
+    @Test
+    void findLists_WithLoadedCatalog_ShouldReadTheCatalog() {
+        // Arrange
+        DeviceCatalog catalog = mock(DeviceCatalog.class);
+        DeviceServiceImpl catalogService = new DeviceServiceImpl(deviceRepository, transactions, null, catalog, null);
+        when(catalog.isLoaded()).thenReturn(true);
+        when(catalog.findAll()).thenReturn(testDevices);
+        when(catalog.findByBrand("Brand A")).thenReturn(List.of(testDevice));
+        when(catalog.findByState(DeviceState.IN_USE)).thenReturn(List.of(testDevices.get(1)));
+
+        // Act
+        Collection<Device> all = catalogService.findAll();
+        Collection<Device> byBrand = catalogService.findAllByBrand("Brand A");
+        Collection<Device> byState = catalogService.findAllByDeviceState(DeviceState.IN_USE);
+
+        // Assert
+        assertThat(all).isEqualTo(testDevices);
+        assertThat(byBrand).containsExactly(testDevice);
+        assertThat(byState).containsExactly(testDevices.get(1));
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    void findAll_WithCatalogNotLoaded_ShouldReadTheRepository() {
+        // Arrange
+        DeviceCatalog catalog = mock(DeviceCatalog.class);
+        DeviceServiceImpl catalogService = new DeviceServiceImpl(deviceRepository, transactions, null, catalog, null);
+        when(catalog.isLoaded()).thenReturn(false);
+        when(deviceRepository.findAll()).thenReturn(testDevices);
+
+        // Act
+        Collection<Device> result = catalogService.findAll();
+
+        // Assert
+        assertThat(result).isEqualTo(testDevices);
+        verify(catalog, never()).findAll();
+    }
+
     @Test
     void createDevice_ShouldCreateAndReturnDevice_WhenInputIsValid() {
         // Arrange
@@ -165,14 +279,14 @@ class DeviceServiceImplTest {
         // Arrange
         CreateUpdateDevice updateDevice = new CreateUpdateDevice("Updated Device", "Updated Brand", DeviceState.DISABLED);
 
-        when(deviceRepository.findById(1)).thenReturn(testDevice);
+        when(deviceRepository.findByIdForUpdate(1)).thenReturn(testDevice);
         doNothing().when(deviceRepository).update(anyInt(), any(CreateUpdateDevice.class));
 
         // Act
         deviceService.updateDevice(1, updateDevice);
 
         // Assert
-        verify(deviceRepository).findById(1);
+        verify(deviceRepository).findByIdForUpdate(1);
         verify(deviceRepository).update(eq(1), any(CreateUpdateDevice.class));
     }
 
@@ -194,14 +308,14 @@ class DeviceServiceImplTest {
         // Arrange
         CreateUpdateDevice updateDevice = new CreateUpdateDevice("Updated Device", "Updated Brand", DeviceState.DISABLED);
 
-        when(deviceRepository.findById(999)).thenReturn(null);
+        when(deviceRepository.findByIdForUpdate(999)).thenReturn(null);
 
         // Act & Assert
         assertThatThrownBy(() -> deviceService.updateDevice(999, updateDevice))
                 .isInstanceOf(DataException.class)
                 .hasMessageContaining("Device for update not found for ID: 999");
 
-        verify(deviceRepository).findById(999);
+        verify(deviceRepository).findByIdForUpdate(999);
         verify(deviceRepository, never()).update(anyInt(), any());
     }
 
@@ -211,42 +325,42 @@ class DeviceServiceImplTest {
         Device inUseDevice = new Device(2, "Device 2", "Brand B", DeviceState.IN_USE, now);
         CreateUpdateDevice updateDevice = new CreateUpdateDevice("Updated Device", "Updated Brand", DeviceState.DISABLED);
 
-        when(deviceRepository.findById(2)).thenReturn(inUseDevice);
+        when(deviceRepository.findByIdForUpdate(2)).thenReturn(inUseDevice);
 
         // Act & Assert
         assertThatThrownBy(() -> deviceService.updateDevice(2, updateDevice))
                 .isInstanceOf(BusinessRulesException.class)
                 .hasMessageContaining("Device in use, cannot be updated");
 
-        verify(deviceRepository).findById(2);
+        verify(deviceRepository).findByIdForUpdate(2);
         verify(deviceRepository, never()).update(anyInt(), any());
     }
 
     @Test
     void deleteDevice_ShouldDeleteDevice_WhenDeviceExistsAndIsNotInUse() {
         // Arrange
-        when(deviceRepository.findById(1)).thenReturn(testDevice);
+        when(deviceRepository.findByIdForUpdate(1)).thenReturn(testDevice);
         doNothing().when(deviceRepository).delete(1);
 
         // Act
         deviceService.deleteDevice(1);
 
         // Assert
-        verify(deviceRepository).findById(1);
+        verify(deviceRepository).findByIdForUpdate(1);
         verify(deviceRepository).delete(1);
     }
 
     @Test
     void deleteDevice_ShouldThrowException_WhenDeviceDoesNotExist() {
         // Arrange
-        when(deviceRepository.findById(999)).thenReturn(null);
+        when(deviceRepository.findByIdForUpdate(999)).thenReturn(null);
 
         // Act & Assert
         assertThatThrownBy(() -> deviceService.deleteDevice(999))
                 .isInstanceOf(DataException.class)
                 .hasMessageContaining("Device for deletion not found for ID: 999");
 
-        verify(deviceRepository).findById(999);
+        verify(deviceRepository).findByIdForUpdate(999);
         verify(deviceRepository, never()).delete(anyInt());
     }
 
@@ -255,14 +369,14 @@ class DeviceServiceImplTest {
         // Arrange
         Device inUseDevice = new Device(2, "Device 2", "Brand B", DeviceState.IN_USE, now);
 
-        when(deviceRepository.findById(2)).thenReturn(inUseDevice);
+        when(deviceRepository.findByIdForUpdate(2)).thenReturn(inUseDevice);
 
         // Act & Assert
         assertThatThrownBy(() -> deviceService.deleteDevice(2))
                 .isInstanceOf(BusinessRulesException.class)
                 .hasMessageContaining("Device in use, cannot be deleted");
 
-        verify(deviceRepository).findById(2);
+        verify(deviceRepository).findByIdForUpdate(2);
         verify(deviceRepository, never()).delete(anyInt());
     }
 
@@ -277,11 +391,11 @@ class DeviceServiceImplTest {
      *
      * Execution:
      * - The `updateDevice` method is invoked with the ID of the device and the state-only update details.
-     * - The `deviceRepository.findById` method is called to retrieve the existing device.
+     * - The `deviceRepository.findByIdForUpdate` method is called to retrieve the existing device.
      * - The `deviceRepository.update` method is called with the provided details, only modifying the state and keeping other attributes unchanged.
      *
      * Postconditions:
-     * - The repository's `findById` method is verified to have been called once with the correct device ID.
+     * - The repository's `findByIdForUpdate` method is verified to have been called once with the correct device ID.
      * - The repository's `update` method is verified to have been invoked with the correct arguments, ensuring the update focused solely on state transition.
      */
     @Test
@@ -291,14 +405,242 @@ class DeviceServiceImplTest {
         // Create a state-only update (only state is set, name and brand are null/empty)
         CreateUpdateDevice stateOnlyUpdate = new CreateUpdateDevice(null, null, DeviceState.AVAILABLE);
 
-        when(deviceRepository.findById(2)).thenReturn(inUseDevice);
+        when(deviceRepository.findByIdForUpdate(2)).thenReturn(inUseDevice);
         doNothing().when(deviceRepository).update(anyInt(), any(CreateUpdateDevice.class));
 
         // Act
         deviceService.updateDevice(2, stateOnlyUpdate);
 
         // Assert
-        verify(deviceRepository).findById(2);
+        verify(deviceRepository).findByIdForUpdate(2);
         verify(deviceRepository).update(eq(2), any(CreateUpdateDevice.class));
     }
+
+    @Test
+    void updateDevice_WithStateBuffer_ShouldBufferStateOnlyUpdateAndWaitForIt() {
+        // Arrange
+        DeviceStateBuffer stateBuffer = mock(DeviceStateBuffer.class);
+        DeviceServiceImpl bufferedService = new DeviceServiceImpl(deviceRepository, transactions, stateBuffer, null, null);
+        when(stateBuffer.submit(2, DeviceState.AVAILABLE)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        bufferedService.updateDevice(2, new CreateUpdateDevice(null, null, DeviceState.AVAILABLE));
+
+        // Assert
+        verify(stateBuffer).submit(2, DeviceState.AVAILABLE);
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    void updateDevice_WithStateBuffer_ShouldThrowException_WhenBufferedDeviceDoesNotExist() {
+        // Arrange
+        DeviceStateBuffer stateBuffer = mock(DeviceStateBuffer.class);
+        DeviceServiceImpl bufferedService = new DeviceServiceImpl(deviceRepository, transactions, stateBuffer, null, null);
+        when(stateBuffer.submit(99, DeviceState.IN_USE))
+                .thenReturn(CompletableFuture.failedFuture(new DataException("Device for update not found for ID: 99")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> bufferedService.updateDevice(99, new CreateUpdateDevice(null, null, DeviceState.IN_USE)))
+                .isInstanceOf(DataException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void updateDeviceDeferred_WithStateBuffer_ShouldNotWaitForTheBufferedUpdate() {
+        // Arrange
+        DeviceStateBuffer stateBuffer = mock(DeviceStateBuffer.class);
+        DeviceServiceImpl bufferedService = new DeviceServiceImpl(deviceRepository, transactions, stateBuffer, null, null);
+        when(stateBuffer.submit(2, DeviceState.IN_USE)).thenReturn(new CompletableFuture<>());
+
+        // Act
+        boolean deferred = bufferedService.updateDeviceDeferred(2, new CreateUpdateDevice(null, null, DeviceState.IN_USE));
+
+        // Assert
+        assertThat(deferred).isTrue();
+    }
+
+    @Test
+    void updateDevice_WithStateBuffer_ShouldFlushTheDeviceBeforeOtherUpdates() {
+        // Arrange
+        DeviceStateBuffer stateBuffer = mock(DeviceStateBuffer.class);
+        DeviceServiceImpl bufferedService = new DeviceServiceImpl(deviceRepository, transactions, stateBuffer, null, null);
+        when(deviceRepository.findByIdForUpdate(1)).thenReturn(testDevice);
+
+        // Act
+        boolean deferred = bufferedService.updateDeviceDeferred(1, new CreateUpdateDevice("Renamed", null, null));
+
+        // Assert
+        assertThat(deferred).isFalse();
+        InOrder inOrder = inOrder(stateBuffer, deviceRepository);
+        inOrder.verify(stateBuffer).flush(List.of(1));
+        inOrder.verify(deviceRepository).findByIdForUpdate(1);
+        inOrder.verify(deviceRepository).update(eq(1), any(CreateUpdateDevice.class));
+        verify(stateBuffer, never()).submit(anyInt(), any());
+        verify(stateBuffer, never()).flush();
+    }
+
+    @Test
+    void deleteDevice_WithStateBuffer_ShouldFlushTheDeviceFirst() {
+        // Arrange
+        DeviceStateBuffer stateBuffer = mock(DeviceStateBuffer.class);
+        DeviceServiceImpl bufferedService = new DeviceServiceImpl(deviceRepository, transactions, stateBuffer, null, null);
+        when(deviceRepository.findByIdForUpdate(1)).thenReturn(testDevice);
+
+        // Act
+        bufferedService.deleteDevice(1);
+
+        // Assert
+        InOrder inOrder = inOrder(stateBuffer, deviceRepository);
+        inOrder.verify(stateBuffer).flush(List.of(1));
+        inOrder.verify(deviceRepository).findByIdForUpdate(1);
+        inOrder.verify(deviceRepository).delete(1);
+        verify(stateBuffer, never()).flush();
+    }
+
+    @Test
+    void executeBatch_ShouldFlushOnlyTheBufferedStatesOfItsDevices_BeforeItsTransaction() {
+        // Arrange
+        DeviceStateBuffer stateBuffer = mock(DeviceStateBuffer.class);
+        TransactionOperations batchTransactions = spy(transactions);
+        DeviceServiceImpl bufferedService = new DeviceServiceImpl(deviceRepository, batchTransactions, stateBuffer, null, null);
+        when(deviceRepository.findAllByIdForUpdate(Set.of(1))).thenReturn(Map.of(1, testDevices.get(0)));
+        DeviceBatchRequest request = new DeviceBatchRequest(null, List.of(
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.UPDATE, 1, new CreateUpdateDevice("Renamed", null, null))));
+
+        // Act
+        bufferedService.executeBatch(request);
+
+        // Assert
+        InOrder inOrder = inOrder(stateBuffer, batchTransactions, deviceRepository);
+        inOrder.verify(stateBuffer).flush(Set.of(1));
+        inOrder.verify(batchTransactions).execute(any());
+        inOrder.verify(deviceRepository).findAllByIdForUpdate(Set.of(1));
+        verify(stateBuffer, never()).flush();
+    }
+
+    @Test
+    void executeBatch_ShouldApplyOperationsInOrderWithOneRepositoryCallPerKind() {
+        // Arrange
+        Device available = testDevices.get(0);
+        Device disabled = testDevices.get(2);
+        Device created = new Device(4, "Device 4", "Brand C", DeviceState.AVAILABLE, now);
+        when(deviceRepository.findAllByIdForUpdate(Set.of(1, 3))).thenReturn(Map.of(1, available, 3, disabled));
+        when(deviceRepository.createAll(List.of(new CreateUpdateDevice("Device 4", "Brand C", null)))).thenReturn(List.of(created));
+        DeviceBatchRequest request = new DeviceBatchRequest(null, List.of(
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.UPDATE, 1, new CreateUpdateDevice("Renamed", null, null)),
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.CREATE, null, new CreateUpdateDevice("Device 4", "Brand C", null)),
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.UPDATE, 1, new CreateUpdateDevice(null, null, DeviceState.IN_USE)),
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.DELETE, 3, null)));
+
+        // Act
+        DeviceBatchResult result = deviceService.executeBatch(request);
+
+        // Assert
+        Device renamed = new Device(1, "Renamed", "Brand A", DeviceState.AVAILABLE, now);
+        Device inUse = new Device(1, "Renamed", "Brand A", DeviceState.IN_USE, now);
+        assertThat(result.committed()).isTrue();
+        assertThat(result.results()).extracting(DeviceBatchResult.OperationResult::status, DeviceBatchResult.OperationResult::device)
+                .containsExactly(
+                        tuple(DeviceBatchResult.Status.SUCCEEDED, renamed),
+                        tuple(DeviceBatchResult.Status.SUCCEEDED, created),
+                        tuple(DeviceBatchResult.Status.SUCCEEDED, inUse),
+                        tuple(DeviceBatchResult.Status.SUCCEEDED, disabled));
+        verify(deviceRepository).updateAll(List.of(new DeviceChangedEvent(available, renamed), new DeviceChangedEvent(renamed, inUse)));
+        verify(deviceRepository).deleteAll(List.of(disabled));
+        verify(deviceRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void executeBatch_InAtomicMode_ShouldWriteNothing_WhenAnOperationFails() {
+        // Arrange
+        when(deviceRepository.findAllByIdForUpdate(Set.of(1, 2))).thenReturn(Map.of(1, testDevices.get(0), 2, testDevices.get(1)));
+        DeviceBatchRequest request = new DeviceBatchRequest(DeviceBatchRequest.Mode.ATOMIC, List.of(
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.UPDATE, 1, new CreateUpdateDevice("Renamed", null, null)),
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.DELETE, 2, null)));
+
+        // Act
+        DeviceBatchResult result = deviceService.executeBatch(request);
+
+        // Assert
+        assertThat(result.committed()).isFalse();
+        assertThat(result.results()).extracting(DeviceBatchResult.OperationResult::status)
+                .containsExactly(DeviceBatchResult.Status.ROLLED_BACK, DeviceBatchResult.Status.FAILED);
+        assertThat(result.results().get(1).error().message()).isEqualTo("Device in use, cannot be deleted");
+        verify(deviceRepository, never()).createAll(any());
+        verify(deviceRepository, never()).updateAll(any());
+        verify(deviceRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void executeBatch_InContinueOnErrorMode_ShouldWriteTheValidOperations() {
+        // Arrange
+        when(deviceRepository.findAllByIdForUpdate(Set.of(1, 99))).thenReturn(Map.of(1, testDevices.get(0)));
+        DeviceBatchRequest request = new DeviceBatchRequest(DeviceBatchRequest.Mode.CONTINUE_ON_ERROR, List.of(
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.DELETE, 99, null),
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.CREATE, null, new CreateUpdateDevice("No brand", null, null)),
+                new DeviceBatchRequest.Operation(DeviceBatchRequest.Type.DELETE, 1, null)));
+
+        // Act
+        DeviceBatchResult result = deviceService.executeBatch(request);
+
+        // Assert
+        assertThat(result.committed()).isTrue();
+        assertThat(result.results()).extracting(r -> r.status(), r -> r.error() == null ? null : r.error().code())
+                .containsExactly(
+                        tuple(DeviceBatchResult.Status.FAILED, "DATA_ERROR"),
+                        tuple(DeviceBatchResult.Status.FAILED, "BUSINESS_ERROR"),
+                        tuple(DeviceBatchResult.Status.SUCCEEDED, null));
+        verify(deviceRepository).deleteAll(List.of(testDevices.get(0)));
+    }
+
+    @Test
+    void executeBatch_ShouldThrowException_WhenBatchIsEmpty() {
+        // Act & Assert
+        assertThatThrownBy(() -> deviceService.executeBatch(new DeviceBatchRequest(null, List.of())))
+                .isInstanceOf(BusinessRulesException.class);
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    void findMethods_WithAccessTracker_ShouldRecordTheReadKeys() {
+        // Arrange
+        DeviceAccessTracker tracker = mock(DeviceAccessTracker.class);
+        DeviceServiceImpl trackedService = new DeviceServiceImpl(deviceRepository, transactions, null, null, tracker);
+        when(deviceRepository.findById(1)).thenReturn(testDevice);
+
+        // Act
+        trackedService.findById(1);
+        assertThatThrownBy(() -> trackedService.findById(99)).isInstanceOf(DataException.class);
+        trackedService.findAllByBrand("Brand A");
+        trackedService.findAllByDeviceState(DeviceState.IN_USE);
+
+        // Assert
+        verify(tracker).deviceRead(1);
+        verify(tracker).deviceRead(99);
+        verify(tracker).brandQueried("Brand A");
+        verify(tracker).stateQueried(DeviceState.IN_USE);
+        verifyNoMoreInteractions(tracker);
+    }
+
+    @Test
+    void writeMethods_WithAccessTracker_ShouldRecordTheWrittenDevices() {
+        // Arrange
+        DeviceAccessTracker tracker = mock(DeviceAccessTracker.class);
+        DeviceServiceImpl trackedService = new DeviceServiceImpl(deviceRepository, transactions, null, null, tracker);
+        CreateUpdateDevice creation = new CreateUpdateDevice("Device 4", "Brand C", null);
+        when(deviceRepository.create(creation)).thenReturn(new Device(4, "Device 4", "Brand C", DeviceState.AVAILABLE, now));
+        when(deviceRepository.findByIdForUpdate(1)).thenReturn(testDevice);
+        when(deviceRepository.findByIdForUpdate(2)).thenReturn(testDevices.get(1));
+
+        // Act
+        trackedService.createDevice(creation);
+        trackedService.updateDevice(1, new CreateUpdateDevice("Renamed", null, null));
+        assertThatThrownBy(() -> trackedService.deleteDevice(2)).isInstanceOf(BusinessRulesException.class);
+
+        // Assert
+        verify(tracker).deviceWritten(4);
+        verify(tracker).deviceWritten(1);
+        verify(tracker).deviceWritten(2);
+        verifyNoMoreInteractions(tracker);
+    }
 }
@@ -0,0 +1,217 @@
+package com.carlos.devices.domain.useCases;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SingleFlight}.
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_WithConcurrentCallsForTheSameKey_ShouldRunTheCallOnce() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flights.execute("a", blockingCall(release, () -> "result")));
+        awaitCalls(1);
+        Future<String> follower1 = executor.submit(() -> flights.execute("a", () -> "other"));
+        Future<String> follower2 = executor.submit(() -> flights.execute("a", () -> "other"));
+        awaitCoalesced(2);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(follower1.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(follower2.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void execute_WithDifferentKeys_ShouldNotCoalesce() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> flights.execute("a", blockingCall(release, () -> "a")));
+        awaitCalls(1);
+
+        // Act
+        String second = flights.execute("b", () -> "b");
+        release.countDown();
+
+        // Assert
+        assertThat(second).isEqualTo("b");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(flights.coalesced()).isZero();
+    }
+
+    @Test
+    void execute_WhenTheCallFails_ShouldPropagateTheFailureToEveryCaller() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+        Future<String> leader = executor.submit(() -> flights.execute("a", blockingCall(release, () -> {
+            throw failure;
+        })));
+        awaitCalls(1);
+        Future<String> follower = executor.submit(() -> flights.execute("a", () -> "other"));
+        awaitCoalesced(1);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCause(failure);
+    }
+
+    @Test
+    void execute_AfterTheCallCompleted_ShouldStartANewCall() {
+        // Act
+        String first = flights.execute("a", () -> "first");
+        String second = flights.execute("a", () -> "second");
+
+        // Assert
+        assertThat(first).isEqualTo("first");
+        assertThat(second).isEqualTo("second");
+        assertThat(flights.coalesced()).isZero();
+    }
+
+    @Test
+    void execute_WhenAWaitingCallerIsInterrupted_ShouldOnlyCancelThatCaller() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flights.execute("a", blockingCall(release, () -> "result")));
+        awaitCalls(1);
+        Future<String> interrupted = executor.submit(() -> flights.execute("a", () -> "other"));
+        awaitCoalesced(1);
+
+        // Act
+        interrupted.cancel(true);
+        release.countDown();
+
+        // Assert
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void execute_WhenTheRunningCallIsInterrupted_ShouldRunItAgainForTheWaitingCallers() throws Exception {
+        // Arrange
+        CountDownLatch never = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flights.execute("a", blockingCall(never, () -> "abandoned")));
+        awaitCalls(1);
+        Future<String> follower = executor.submit(() -> flights.execute("a", () -> "retried"));
+        awaitCoalesced(1);
+
+        // Act
+        leader.cancel(true);
+
+        // Assert
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("retried");
+    }
+
+    @Test
+    void execute_WhenTheRunningCallIsAbandoned_ShouldRunItAgainForTheWaitingCallers() throws Exception {
+        // Arrange
+        SingleFlight<String, String> flights = new SingleFlight<>(UnsupportedOperationException.class::isInstance);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flights.execute("a", () -> {
+            started.countDown();
+            await(release);
+            throw new UnsupportedOperationException("deadline of the first caller");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> follower = executor.submit(() -> flights.execute("a", () -> "retried"));
+        while (flights.coalesced() < 1) {
+            Thread.sleep(1);
+        }
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UnsupportedOperationException.class);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("retried");
+    }
+
+    @Test
+    void execute_WhenInterruptedWhileWaiting_ShouldThrowCancellation() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> flights.execute("a", blockingCall(release, () -> "result")));
+        awaitCalls(1);
+        Thread.currentThread().interrupt();
+
+        // Act & Assert
+        try {
+            assertThatThrownBy(() -> flights.execute("a", () -> "other")).isInstanceOf(CancellationException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+            release.countDown();
+        }
+    }
+
+    /**
+     * A call that blocks until released, and fails like a JDBC call when its thread is interrupted.
+     */
+    private Supplier<String> blockingCall(CountDownLatch release, Supplier<String> result) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+            return result.get();
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(calls).hasValue(expected);
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.coalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(flights.coalesced()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,321 @@
+package com.carlos.devices.grpc;
+
+import com.carlos.devices.domain.DeviceCursor;
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceBatchRequest;
+import com.carlos.devices.domain.model.DeviceBatchResult;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ErrorDTO;
+import com.carlos.devices.grpc.v1.CreateDeviceRequest;
+import com.carlos.devices.grpc.v1.DeleteDeviceRequest;
+import com.carlos.devices.grpc.v1.DeviceList;
+import com.carlos.devices.grpc.v1.DeviceServiceGrpc;
+import com.carlos.devices.grpc.v1.GetDeviceRequest;
+import com.carlos.devices.grpc.v1.ListByBrandRequest;
+import com.carlos.devices.grpc.v1.ListByStateRequest;
+import com.carlos.devices.grpc.v1.UpdateDeviceRequest;
+import com.carlos.devices.grpc.v1.WriteRequest;
+import com.carlos.devices.grpc.v1.WriteResult;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link DeviceGrpcService}, called through an in-process server.
+ */
+@ExtendWith(MockitoExtension.class)
+class DeviceGrpcServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 10, 30, 0);
+
+    @Mock
+    private DeviceService deviceService;
+
+    @Mock
+    private DeviceCursor deviceCursor;
+
+    private DeviceGrpcService service;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        start(100);
+    }
+
+    private void start(int bulkBatchSize) throws IOException {
+        GrpcProperties properties = new GrpcProperties(true, 0, 500, 2, 1, Duration.ofSeconds(5), bulkBatchSize,
+                Duration.ofSeconds(1));
+        service = new DeviceGrpcService(deviceService, deviceCursor, properties);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).addService(service).build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        service.close();
+    }
+
+    @Test
+    void get_ShouldReturnTheDevice() {
+        // Arrange
+        when(deviceService.findById(1)).thenReturn(device(1, "Brand A", DeviceState.IN_USE));
+
+        // Act
+        com.carlos.devices.grpc.v1.Device device = DeviceServiceGrpc.newBlockingStub(channel)
+                .get(GetDeviceRequest.newBuilder().setId(1).build());
+
+        // Assert
+        assertThat(device.getId()).isEqualTo(1);
+        assertThat(device.getName()).isEqualTo("Device 1");
+        assertThat(device.getBrand()).isEqualTo("Brand A");
+        assertThat(device.getState()).isEqualTo(com.carlos.devices.grpc.v1.DeviceState.IN_USE);
+        assertThat(device.getCreationTime()).isEqualTo("2024-05-01 10:30:00");
+    }
+
+    @Test
+    void get_ShouldFailWithNotFound_WhenTheDeviceDoesNotExist() {
+        // Arrange
+        when(deviceService.findById(99)).thenThrow(new DataException("Device not found"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> DeviceServiceGrpc.newBlockingStub(channel)
+                .get(GetDeviceRequest.newBuilder().setId(99).build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                    assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND);
+                    assertThat(e.getStatus().getDescription()).isEqualTo("Device not found");
+                });
+    }
+
+    @Test
+    void create_ShouldPassEmptyFieldsAsMissing_AndFailWithInvalidArgument() {
+        // Arrange
+        when(deviceService.createDevice(any())).thenThrow(new BusinessRulesException("Name is required"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> DeviceServiceGrpc.newBlockingStub(channel)
+                .create(CreateDeviceRequest.newBuilder().setBrand("Brand A").build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+        verify(deviceService).createDevice(new CreateUpdateDevice(null, "Brand A", null));
+    }
+
+    @Test
+    void updateAndDelete_ShouldCallTheService() {
+        // Arrange
+        DeviceServiceGrpc.DeviceServiceBlockingStub stub = DeviceServiceGrpc.newBlockingStub(channel);
+
+        // Act
+        stub.update(UpdateDeviceRequest.newBuilder().setId(3)
+                .setState(com.carlos.devices.grpc.v1.DeviceState.DISABLED).build());
+        stub.delete(DeleteDeviceRequest.newBuilder().setId(4).build());
+
+        // Assert
+        verify(deviceService).updateDevice(3, new CreateUpdateDevice(null, null, DeviceState.DISABLED));
+        verify(deviceService).deleteDevice(4);
+    }
+
+    @Test
+    void listByBrand_ShouldStreamTheDevicesInChunks() {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Device> consumer = invocation.getArgument(2);
+            for (int id = 1; id <= 5; id++) {
+                consumer.accept(device(id, "Brand A", DeviceState.AVAILABLE));
+            }
+            return null;
+        }).when(deviceCursor).forEach(eq("Brand A"), isNull(), any());
+
+        // Act
+        List<DeviceList> chunks = new ArrayList<>();
+        DeviceServiceGrpc.newBlockingStub(channel)
+                .listByBrand(ListByBrandRequest.newBuilder().setBrand("Brand A").build())
+                .forEachRemaining(chunks::add);
+
+        // Assert
+        assertThat(chunks).extracting(DeviceList::getDevicesCount).containsExactly(2, 2, 1);
+        assertThat(chunks.stream().flatMap(chunk -> chunk.getDevicesList().stream()))
+                .extracting(com.carlos.devices.grpc.v1.Device::getId)
+                .containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void listByState_ShouldFailWithInvalidArgument_WhenTheStateIsUnspecified() {
+        // Act & Assert
+        Iterator<DeviceList> chunks = DeviceServiceGrpc.newBlockingStub(channel)
+                .listByState(ListByStateRequest.getDefaultInstance());
+        assertThatThrownBy(chunks::hasNext)
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+        verifyNoInteractions(deviceCursor);
+    }
+
+    @Test
+    void listByBrand_ShouldFailWithResourceExhausted_WhenTooManyListsAreOpen() throws InterruptedException {
+        // Arrange
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(deviceCursor).forEach(eq("Brand A"), isNull(), any());
+        DeviceServiceGrpc.DeviceServiceBlockingStub stub = DeviceServiceGrpc.newBlockingStub(channel);
+        Iterator<DeviceList> first = stub.listByBrand(ListByBrandRequest.newBuilder().setBrand("Brand A").build());
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Act & Assert
+        Iterator<DeviceList> second = stub.listByBrand(ListByBrandRequest.newBuilder().setBrand("Brand B").build());
+        assertThatThrownBy(second::hasNext)
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED));
+        release.countDown();
+        assertThat(first.hasNext()).isFalse();
+    }
+
+    @Test
+    void bulkWrite_ShouldWriteInContinueOnErrorMode_AndReturnTheResultsInOrder() throws Exception {
+        // Arrange
+        when(deviceService.executeBatch(any())).thenAnswer(invocation -> {
+            DeviceBatchRequest request = invocation.getArgument(0);
+            List<DeviceBatchResult.OperationResult> results = new ArrayList<>();
+            for (int i = 0; i < request.operations().size(); i++) {
+                DeviceBatchRequest.Operation operation = request.operations().get(i);
+                results.add(operation.type() == DeviceBatchRequest.Type.DELETE
+                        ? new DeviceBatchResult.OperationResult(i, DeviceBatchResult.Status.FAILED, null,
+                        new ErrorDTO("BUSINESS_ERROR", "Device is in use"))
+                        : new DeviceBatchResult.OperationResult(i, DeviceBatchResult.Status.SUCCEEDED,
+                        device(10 + i, "Brand A", DeviceState.AVAILABLE), null));
+            }
+            return new DeviceBatchResult(true, results);
+        });
+        List<WriteResult> results = new ArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        // Act
+        StreamObserver<WriteRequest> requests = DeviceServiceGrpc.newStub(channel).bulkWrite(new StreamObserver<>() {
+            @Override
+            public void onNext(WriteResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+        requests.onNext(WriteRequest.newBuilder()
+                .setCreate(CreateDeviceRequest.newBuilder().setName("Device").setBrand("Brand A")).build());
+        requests.onNext(WriteRequest.newBuilder()
+                .setUpdate(UpdateDeviceRequest.newBuilder().setId(1).setStateValue(42)).build());
+        requests.onNext(WriteRequest.newBuilder()
+                .setDelete(DeleteDeviceRequest.newBuilder().setId(2)).build());
+        requests.onCompleted();
+        completed.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(results).extracting(WriteResult::getIndex).containsExactly(0L, 1L, 2L);
+        assertThat(results).extracting(WriteResult::getSucceeded).containsExactly(true, false, false);
+        assertThat(results.get(0).getDevice().getBrand()).isEqualTo("Brand A");
+        assertThat(results.get(1).getErrorCode()).isEqualTo("BUSINESS_ERROR");
+        assertThat(results.get(2).getErrorMessage()).isEqualTo("Device is in use");
+        ArgumentCaptor<DeviceBatchRequest> batches = ArgumentCaptor.forClass(DeviceBatchRequest.class);
+        verify(deviceService, atLeastOnce()).executeBatch(batches.capture());
+        assertThat(batches.getAllValues())
+                .allSatisfy(batch -> assertThat(batch.mode()).isEqualTo(DeviceBatchRequest.Mode.CONTINUE_ON_ERROR));
+        assertThat(batches.getAllValues().stream().mapToInt(batch -> batch.operations().size()).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void bulkWrite_ShouldCapTheBatchesToTheBatchLimit_WhenTheBatchSizeIsLarger() throws Exception {
+        // Arrange
+        tearDown();
+        start(5000);
+        when(deviceService.executeBatch(any())).thenAnswer(invocation -> {
+            DeviceBatchRequest request = invocation.getArgument(0);
+            List<DeviceBatchResult.OperationResult> results = new ArrayList<>();
+            for (int i = 0; i < request.operations().size(); i++) {
+                results.add(new DeviceBatchResult.OperationResult(i, DeviceBatchResult.Status.SUCCEEDED,
+                        device(i, "Brand A", DeviceState.AVAILABLE), null));
+            }
+            return new DeviceBatchResult(true, results);
+        });
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        List<WriteResult> results = new ArrayList<>();
+
+        // Act
+        StreamObserver<WriteRequest> requests = DeviceServiceGrpc.newStub(channel).bulkWrite(new StreamObserver<>() {
+            @Override
+            public void onNext(WriteResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+        for (int i = 0; i < 2500; i++) {
+            requests.onNext(WriteRequest.newBuilder()
+                    .setCreate(CreateDeviceRequest.newBuilder().setName("Device " + i).setBrand("Brand A")).build());
+        }
+        requests.onCompleted();
+        completed.get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(results).hasSize(2500).allMatch(WriteResult::getSucceeded);
+        ArgumentCaptor<DeviceBatchRequest> batches = ArgumentCaptor.forClass(DeviceBatchRequest.class);
+        verify(deviceService, atLeastOnce()).executeBatch(batches.capture());
+        assertThat(batches.getAllValues()).allSatisfy(batch -> assertThat(batch.operations()).hasSizeLessThanOrEqualTo(1000));
+    }
+
+    private static Device device(int id, String brand, DeviceState state) {
+        return new Device(id, "Device " + id, brand, state, CREATED);
+    }
+}
@@ -0,0 +1,156 @@
+package com.carlos.devices.grpc;
+
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.grpc.v1.DeviceServiceGrpc;
+import com.carlos.devices.grpc.v1.GetDeviceRequest;
+import com.carlos.devices.grpc.v1.ListByBrandRequest;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the device API over REST, JSON over HTTP/1.1, and over gRPC, protobuf over HTTP/2, served by the
+ * same application and the same {@link com.carlos.devices.domain.DeviceService}.
+ * <p>
+ * One caller reads {@code benchmark.grpc.ops} random devices out of {@code benchmark.grpc.devices} by id, then
+ * the devices of random brands out of {@code benchmark.grpc.brands}, through both APIs in turn, on a kept-alive
+ * connection each. The median and 99th percentile call times of each API are printed; the gRPC reads by id
+ * must have the lower median. The brand lists are read to the end, from the list cache over REST and from a
+ * database cursor over gRPC, so their times tell the cost of streaming rather than of the protocol. Run with
+ * {@code ./mvnw test -Pbenchmark}.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@Tag("benchmark")
+class GrpcRestLatencyBenchmarkTest {
+
+    private static final int DEVICES = Integer.getInteger("benchmark.grpc.devices", 5_000);
+    private static final int BRANDS = Integer.getInteger("benchmark.grpc.brands", 50);
+    private static final int OPS = Integer.getInteger("benchmark.grpc.ops", 20_000);
+    private static final int WARMUP_OPS = OPS / 2;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @DynamicPropertySource
+    static void grpcProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("devices.grpc.enabled", () -> "true");
+        registry.add("devices.grpc.port", () -> "0");
+        registry.add("logging.level.root", () -> "INFO");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GrpcServer grpcServer;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private record Result(double p50Micros, double p99Micros) {
+    }
+
+    private interface Call {
+        void call(int key) throws Exception;
+    }
+
+    @Test
+    void get_OverGrpc_ShouldHaveALowerMedianThanOverRest() throws Exception {
+        // Arrange
+        jdbcTemplate.update("DELETE FROM device");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            ids.add(deviceRepository.create(new CreateUpdateDevice("Bench Device " + i, "Bench Brand " + (i % BRANDS), null)).id());
+        }
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ManagedChannel channel = Grpc.newChannelBuilderForAddress("localhost", grpcServer.getPort(),
+                InsecureChannelCredentials.create()).build();
+        DeviceServiceGrpc.DeviceServiceBlockingStub grpc = DeviceServiceGrpc.newBlockingStub(channel);
+        Call restGet = key -> get(http, "/api/device/" + ids.get(key % DEVICES));
+        Call grpcGet = key -> grpc.get(GetDeviceRequest.newBuilder().setId(ids.get(key % DEVICES)).build());
+        Call restList = key -> get(http, "/api/device/brand/Bench%20Brand%20" + key % BRANDS);
+        Call grpcList = key -> grpc.listByBrand(ListByBrandRequest.newBuilder()
+                .setBrand("Bench Brand " + key % BRANDS).build()).forEachRemaining(chunk -> {
+        });
+
+        // Act
+        Result restById;
+        Result grpcById;
+        Result restByBrand;
+        Result grpcByBrand;
+        try {
+            run(restGet, WARMUP_OPS);
+            run(grpcGet, WARMUP_OPS);
+            restById = run(restGet, OPS);
+            grpcById = run(grpcGet, OPS);
+            run(restList, WARMUP_OPS / 10);
+            run(grpcList, WARMUP_OPS / 10);
+            restByBrand = run(restList, OPS / 10);
+            grpcByBrand = run(grpcList, OPS / 10);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        System.out.printf("Reads by id of %d devices: REST p50 %.0f us, p99 %.0f us; gRPC p50 %.0f us, p99 %.0f us%n",
+                DEVICES, restById.p50Micros(), restById.p99Micros(), grpcById.p50Micros(), grpcById.p99Micros());
+        System.out.printf("Lists of %d devices by brand: REST p50 %.0f us, p99 %.0f us; gRPC p50 %.0f us, p99 %.0f us%n",
+                DEVICES / BRANDS, restByBrand.p50Micros(), restByBrand.p99Micros(),
+                grpcByBrand.p50Micros(), grpcByBrand.p99Micros());
+        assertThat(grpcById.p50Micros()).isLessThan(restById.p50Micros());
+    }
+
+    private void get(HttpClient http, String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    /**
+     * Makes the calls with random keys, one at a time, and returns the call time percentiles.
+     */
+    private static Result run(Call call, int ops) throws Exception {
+        long[] nanos = new long[ops];
+        for (int i = 0; i < ops; i++) {
+            int key = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+            long start = System.nanoTime();
+            call.call(key);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Result(nanos[ops / 2] / 1e3, nanos[(int) (ops * 0.99)] / 1e3);
+    }
+}
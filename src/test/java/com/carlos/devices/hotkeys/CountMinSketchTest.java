@@ -0,0 +1,101 @@
+package com.carlos.devices.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link CountMinSketch}.
+ */
+class CountMinSketchTest {
+
+    @Test
+    void estimate_ShouldNeverBeBelowTheRealCount() {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        int[] counts = new int[1000];
+        for (int key = 0; key < counts.length; key++) {
+            counts[key] = key % 7 + 1;
+            for (int i = 0; i < counts[key]; i++) {
+                sketch.add(key);
+            }
+        }
+
+        // Act & Assert
+        for (int key = 0; key < counts.length; key++) {
+            assertThat(sketch.estimate(key)).isGreaterThanOrEqualTo(counts[key]);
+        }
+    }
+
+    @Test
+    void estimate_ShouldBeExact_WhenKeysDoNotCollide() {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(4096, 4);
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            sketch.add(42);
+        }
+        sketch.add(7);
+
+        // Assert
+        assertThat(sketch.estimate(42)).isEqualTo(500);
+        assertThat(sketch.estimate(7)).isEqualTo(1);
+        assertThat(sketch.estimate(8)).isZero();
+    }
+
+    @Test
+    void add_FromConcurrentThreads_ShouldCountEveryOccurrence() throws InterruptedException {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        int threads = 8;
+        int adds = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < adds; i++) {
+                    sketch.add(42);
+                }
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Assert
+        assertThat(sketch.estimate(42)).isEqualTo((long) threads * adds);
+    }
+
+    @Test
+    void clear_ShouldResetTheCounts() {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        sketch.add(42);
+
+        // Act
+        sketch.clear();
+
+        // Assert
+        assertThat(sketch.estimate(42)).isZero();
+    }
+
+    @Test
+    void constructor_ShouldRejectAnEmptySketch() {
+        // Act & Assert
+        assertThatThrownBy(() -> new CountMinSketch(0, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.carlos.devices.hotkeys;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link HeavyHitters}.
+ */
+class HeavyHittersTest {
+
+    @Test
+    void top_ShouldRankTheMostFrequentKeys_AmongManyRareOnes() {
+        // Arrange
+        HeavyHitters<Integer> hitters = new HeavyHitters<>(5, 3, 1024, 4);
+        for (int i = 0; i < 20_000; i++) {
+            hitters.add(100_000 + i);
+            if (i % 10 == 0) {
+                hitters.add(1);
+            }
+            if (i % 20 == 0) {
+                hitters.add(2);
+            }
+            if (i % 40 == 0) {
+                hitters.add(3);
+            }
+        }
+
+        // Act
+        List<HeavyHitters.Count<Integer>> top = hitters.top(3);
+
+        // Assert
+        assertThat(top).extracting(HeavyHitters.Count::key).containsExactly(1, 2, 3);
+        assertThat(top.get(0).count()).isGreaterThanOrEqualTo(2_000);
+        assertThat(hitters.total()).isEqualTo(20_000 + 2_000 + 1_000 + 500);
+    }
+
+    @Test
+    void top_ShouldSumTheCountsOfEverySliceOfTheWindow() {
+        // Arrange
+        HeavyHitters<String> hitters = new HeavyHitters<>(5, 3, 1024, 4);
+        hitters.add("Apple");
+        hitters.rotate();
+        hitters.add("Apple");
+        hitters.add("Samsung");
+
+        // Act
+        List<HeavyHitters.Count<String>> top = hitters.top(5);
+
+        // Assert
+        assertThat(top).containsExactly(new HeavyHitters.Count<>("Apple", 2), new HeavyHitters.Count<>("Samsung", 1));
+    }
+
+    @Test
+    void rotate_ShouldDropTheKeysOnceTheirSliceLeavesTheWindow() {
+        // Arrange
+        HeavyHitters<String> hitters = new HeavyHitters<>(5, 2, 1024, 4);
+        hitters.add("Apple");
+        hitters.rotate();
+
+        // Act
+        hitters.rotate();
+
+        // Assert
+        assertThat(hitters.top(5)).isEmpty();
+        assertThat(hitters.total()).isZero();
+        assertThat(hitters.events()).isEqualTo(1);
+    }
+}
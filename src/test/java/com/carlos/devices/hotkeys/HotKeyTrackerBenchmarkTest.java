@@ -0,0 +1,119 @@
+package com.carlos.devices.hotkeys;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost and accuracy of tracking the device reads with the {@link HotKeyTracker}.
+ * <p>
+ * {@code benchmark.hotkeys.threads} threads each record {@code benchmark.hotkeys.ops} reads of ids drawn from
+ * a Zipf distribution over {@code benchmark.hotkeys.devices} devices, once with the tracker and once with a
+ * consumer that only keeps the id, and the time per read of both is printed. The 10 hottest devices reported
+ * are compared with the 10 most read ones: the tracker must find them all, and add less than a microsecond to
+ * a read. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class HotKeyTrackerBenchmarkTest {
+
+    private static final int DEVICES = Integer.getInteger("benchmark.hotkeys.devices", 1_000_000);
+    private static final int THREADS = Integer.getInteger("benchmark.hotkeys.threads", Runtime.getRuntime().availableProcessors());
+    private static final int OPS = Integer.getInteger("benchmark.hotkeys.ops", 2_000_000);
+    private static final double ZIPF_EXPONENT = 1.1;
+
+    private static volatile int sink;
+
+    @Test
+    void deviceRead_ShouldFindTheHottestDevices_AtALowCostPerRead() throws InterruptedException {
+        // Arrange
+        int[][] reads = zipfReads();
+        HotKeysProperties properties = new HotKeysProperties(true, Duration.ofHours(1), 6, 1024, 4, 20, 5);
+        IntConsumer noOp = id -> sink = id;
+
+        // Act
+        for (int round = 0; round < 2; round++) {
+            try (HotKeyTracker warmup = new HotKeyTracker(properties)) {
+                run(warmup::deviceRead, reads);
+            }
+            run(noOp, reads);
+        }
+        double baseline = run(noOp, reads);
+        List<HotKeyTracker.HotKey> top;
+        double tracked;
+        try (HotKeyTracker tracker = new HotKeyTracker(properties)) {
+            tracked = run(tracker::deviceRead, reads);
+            top = tracker.report(10).dimensions().get("read").top();
+        }
+
+        // Assert
+        // The Zipf ranks are the ids, so the 10 most read devices are 1 to 10
+        Set<String> hottest = IntStream.rangeClosed(1, 10).mapToObj(String::valueOf).collect(Collectors.toSet());
+        long found = top.stream().map(HotKeyTracker.HotKey::key).filter(hottest::contains).count();
+        System.out.printf("%d threads x %d Zipf reads of %d devices: %.1f ns/read without tracking, "
+                        + "%.1f ns/read tracked, top 10 recall %d/10%n", THREADS, OPS, DEVICES, baseline, tracked, found);
+        assertThat(found).isEqualTo(10);
+        assertThat(tracked - baseline).isLessThan(1_000);
+    }
+
+    /**
+     * The ids read by each thread, with the id of rank {@code r} read in proportion to {@code 1 / r^s}.
+     */
+    private static int[][] zipfReads() {
+        double[] cumulative = new double[DEVICES];
+        double sum = 0;
+        for (int rank = 1; rank <= DEVICES; rank++) {
+            sum += 1 / Math.pow(rank, ZIPF_EXPONENT);
+            cumulative[rank - 1] = sum;
+        }
+        int[][] reads = new int[THREADS][OPS];
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            for (int i = 0; i < OPS; i++) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                reads[t][i] = (index < 0 ? -index - 1 : index) + 1;
+            }
+        }
+        return reads;
+    }
+
+    /**
+     * Records the reads from all the threads at once, and returns the processor time per read: the wall time
+     * over the reads of each thread, scaled down when the threads are more than the processors.
+     */
+    private static double run(IntConsumer read, int[][] reads) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int[] ids : reads) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int id : ids) {
+                    read.accept(id);
+                }
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int busy = Math.min(reads.length, Runtime.getRuntime().availableProcessors());
+        return (double) (System.nanoTime() - begin) * busy / ((long) reads.length * OPS);
+    }
+}
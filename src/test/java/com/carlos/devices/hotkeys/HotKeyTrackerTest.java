@@ -0,0 +1,86 @@
+package com.carlos.devices.hotkeys;
+
+import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link HotKeyTracker}.
+ */
+class HotKeyTrackerTest {
+
+    private final HotKeyTracker tracker = new HotKeyTracker(new HotKeysProperties(true, Duration.ofHours(1), 6, 1024, 4, 3, 2));
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tracker.close();
+    }
+
+    @Test
+    void report_ShouldRankTheKeysOfEachDimension() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            tracker.deviceRead(7);
+        }
+        tracker.deviceRead(8);
+        tracker.deviceWritten(9);
+        tracker.brandQueried("Apple");
+        tracker.brandQueried(null);
+        tracker.stateQueried(DeviceState.IN_USE);
+
+        // Act
+        HotKeyTracker.Report report = tracker.report(3);
+
+        // Assert
+        assertThat(report.window()).isEqualTo(Duration.ofHours(1));
+        assertThat(report.dimensions()).containsOnlyKeys("read", "write", "brand", "state");
+        assertThat(report.dimensions().get("read")).isEqualTo(new HotKeyTracker.Dimension(4, List.of(
+                new HotKeyTracker.HotKey("7", 3), new HotKeyTracker.HotKey("8", 1))));
+        assertThat(report.dimensions().get("write").top()).containsExactly(new HotKeyTracker.HotKey("9", 1));
+        assertThat(report.dimensions().get("brand").top()).containsExactly(new HotKeyTracker.HotKey("Apple", 1));
+        assertThat(report.dimensions().get("state").top()).containsExactly(new HotKeyTracker.HotKey("IN_USE", 1));
+    }
+
+    @Test
+    void clear_ShouldForgetTheWindow_AndKeepTheEventCounters() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tracker.bindTo(registry);
+        tracker.deviceRead(7);
+        tracker.brandQueried("Apple");
+
+        // Act
+        tracker.clear();
+
+        // Assert
+        assertThat(tracker.report(3).dimensions().values())
+                .allMatch(dimension -> dimension.total() == 0 && dimension.top().isEmpty());
+        assertThat(registry.get("devices.hotkeys.events").tag("dimension", "read").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rotate_ShouldPublishTheHottestKeysAsGauges() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tracker.bindTo(registry);
+        for (int i = 0; i < 3; i++) {
+            tracker.deviceRead(7);
+        }
+        tracker.deviceRead(8);
+        tracker.deviceRead(9);
+
+        // Act
+        tracker.rotate();
+
+        // Assert
+        assertThat(registry.get("devices.hotkeys.events").tag("dimension", "read").functionCounter().count()).isEqualTo(5);
+        assertThat(registry.get("devices.hotkeys.top").tag("dimension", "read").tag("key", "7").gauge().value()).isEqualTo(3);
+        assertThat(registry.find("devices.hotkeys.top").tag("dimension", "read").gauges()).hasSize(2);
+    }
+}
@@ -0,0 +1,178 @@
+package com.carlos.devices.loadtest;
+
+import com.carlos.app.DevicesApiApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the device endpoints: replays every {@link LoadMix} with the {@link LoadGenerator} and writes
+ * the latency percentiles, throughput and error rates to {@code target/loadtest} with the {@link LoadReport}.
+ * <p>
+ * The application is started in this JVM on a random port, against a PostgreSQL container, or against the
+ * database of {@code -Dloadtest.jdbc-url} when set. With {@code -Dloadtest.url} the load is sent to an
+ * application already running instead, which keeps the load generator off the CPUs of the application. The
+ * runs write devices, so the database should be a disposable one. Extra application arguments, such as the
+ * features to enable, are passed with {@code -Dloadtest.app-args}; the application logs at {@code INFO} unless
+ * they say otherwise.
+ * <p>
+ * A mix fails when more than {@code loadtest.max-error-rate} of its requests fail. The same
+ * {@code -Dloadtest.seed} replays the same requests. Run with {@code ./mvnw test -Ploadtest}.
+ */
+@Tag("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DeviceApiLoadTest {
+
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 200);
+    private static final int SECONDS = Integer.getInteger("loadtest.seconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 5);
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("loadtest.max-in-flight", 256);
+    private static final int DEVICES = Integer.getInteger("loadtest.devices", 2_000);
+    private static final int BRANDS = Integer.getInteger("loadtest.brands", 50);
+    private static final int HOT_DEVICES = Integer.getInteger("loadtest.hot-devices", 8);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final String MIXES = System.getProperty("loadtest.mixes",
+            String.join(",", Arrays.stream(LoadMix.values()).map(LoadMix::id).toList()));
+    private static final String URL = System.getProperty("loadtest.url", "");
+    private static final String JDBC_URL = System.getProperty("loadtest.jdbc-url", "");
+    private static final String JDBC_USERNAME = System.getProperty("loadtest.jdbc-username", "postgres");
+    private static final String JDBC_PASSWORD = System.getProperty("loadtest.jdbc-password", "");
+    private static final String APP_ARGS = System.getProperty("loadtest.app-args", "");
+    private static final Path REPORT_DIR = Path.of("target", "loadtest");
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext application;
+    private HttpClient client;
+    private LoadGenerator generator;
+    private LoadReport report;
+
+    @BeforeAll
+    void startAndSeed() throws IOException, InterruptedException {
+        String target;
+        URI baseUri;
+        if (!URL.isBlank()) {
+            target = URL;
+            baseUri = URI.create(URL);
+        } else if (!JDBC_URL.isBlank()) {
+            target = JDBC_URL;
+            baseUri = start(JDBC_URL, JDBC_USERNAME, JDBC_PASSWORD);
+        } else {
+            postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+            postgres.start();
+            target = "postgres container " + postgres.getDockerImageName();
+            baseUri = start(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        }
+
+        LoadGenerator.Settings settings = new LoadGenerator.Settings(SEED, RATE, Duration.ofSeconds(SECONDS),
+                Duration.ofSeconds(WARMUP_SECONDS), MAX_IN_FLIGHT, DEVICES, BRANDS, HOT_DEVICES);
+        Map<String, Object> reported = new LinkedHashMap<>();
+        reported.put("target", target);
+        reported.put("appArgs", APP_ARGS);
+        reported.put("seed", SEED);
+        reported.put("ratePerSecond", RATE);
+        reported.put("seconds", SECONDS);
+        reported.put("warmupSeconds", WARMUP_SECONDS);
+        reported.put("maxInFlight", MAX_IN_FLIGHT);
+        reported.put("devices", DEVICES);
+        reported.put("brands", BRANDS);
+        reported.put("hotDevices", HOT_DEVICES);
+        reported.put("processors", Runtime.getRuntime().availableProcessors());
+        report = new LoadReport(reported);
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        generator = new LoadGenerator(client, baseUri, settings);
+        generator.seedDevices();
+    }
+
+    @AfterAll
+    void writeReportAndStop() throws IOException {
+        try {
+            if (report != null) {
+                report.write(REPORT_DIR);
+            }
+        } finally {
+            if (client != null) {
+                client.close();
+            }
+            if (application != null) {
+                application.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> mixesStayWithinTheErrorBudget() {
+        return Arrays.stream(MIXES.split(","))
+                .map(LoadMix::of)
+                .map(mix -> DynamicTest.dynamicTest(mix.id(), () -> {
+                    // Act
+                    LoadResult result = generator.run(mix);
+                    report.add(result);
+
+                    // Assert
+                    LoadResult.OperationStats total = result.total();
+                    System.out.printf(Locale.ROOT, "%s: %d requests, %.1f/s, %d errors (%d dropped), %d rejected, "
+                                    + "p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                            mix.id(), total.completed(), result.throughput(total), total.errors(), total.dropped(),
+                            total.rejected(), millis(total, 50), millis(total, 99), millis(total, 99.9),
+                            total.responseTime().getMaxValue() / 1000.0);
+                    assertThat(total.completed()).isPositive();
+                    assertThat(total.errorRate())
+                            .as("error rate of %s, statuses %s", mix.id(), total.statuses())
+                            .isLessThanOrEqualTo(MAX_ERROR_RATE);
+                }));
+    }
+
+    /**
+     * Starts the application on a random port against the database, and returns its base URI.
+     */
+    private URI start(String jdbcUrl, String username, String password) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // The default debug logging would take most of the time of a request
+                "--logging.level.root=INFO",
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password));
+        if (!APP_ARGS.isBlank()) {
+            args.addAll(Arrays.asList(APP_ARGS.trim().split("\\s+")));
+        }
+        application = new SpringApplicationBuilder(DevicesApiApplication.class).run(args.toArray(String[]::new));
+        int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+        return URI.create("http://localhost:" + port);
+    }
+
+    private static double millis(LoadResult.OperationStats stats, double percentile) {
+        return stats.responseTime().getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,233 @@
+package com.carlos.devices.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a {@link LoadMix} against the device endpoints at a fixed rate, one virtual thread per request.
+ * <p>
+ * The load is open: the requests are scheduled at a fixed interval whatever the response times, like traffic
+ * from many independent clients, and each response time is measured from the time its request was scheduled.
+ * A slow server then shows in the percentiles instead of slowing the load down, which a fixed number of
+ * callers each waiting for its last response would hide. At most {@link Settings#maxInFlight()} requests are
+ * in flight; the ones over are dropped and counted as errors.
+ * <p>
+ * The operations and their parameters are drawn from a random generator seeded with {@link Settings#seed()}
+ * and the mix, so that two runs with the same seed send the same sequence of requests, on the same seeded
+ * devices. Only the deletions depend on the timing, as they take the devices whose creation was answered.
+ */
+final class LoadGenerator {
+
+    static final String DEVICE_PATH = "/api/device";
+    static final String BATCH_PATH = "/api/device/batch";
+    static final int MISSING_IDS_FROM = Integer.MAX_VALUE - 1_000_000;
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * @param seed        the seed of the operations, their parameters and the seeded device names
+     * @param rate        the requests sent per second
+     * @param duration    how long the requests are sent and recorded for
+     * @param warmup      how long the requests are sent before, without being recorded
+     * @param maxInFlight the most requests waiting for their response
+     * @param devices     the devices created before the runs
+     * @param brands      the brands the devices are spread over
+     * @param hotDevices  the seeded devices leased and released by {@link LoadMix#LEASE_CONTENTION}
+     */
+    record Settings(long seed, int rate, Duration duration, Duration warmup, int maxInFlight, int devices,
+                    int brands, int hotDevices) {
+
+        Settings {
+            if (rate <= 0 || maxInFlight <= 0 || brands <= 0 || hotDevices <= 0 || devices <= hotDevices) {
+                throw new IllegalArgumentException("Invalid load settings: " + this);
+            }
+        }
+    }
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentLinkedQueue<Integer> created = new ConcurrentLinkedQueue<>();
+    private int[] ids = new int[0];
+
+    LoadGenerator(HttpClient client, URI baseUri, Settings settings) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the devices the mixes read and update, through the batch endpoint.
+     */
+    void seedDevices() throws IOException, InterruptedException {
+        List<Integer> seeded = new ArrayList<>(settings.devices());
+        for (int from = 0; from < settings.devices(); from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("{\"mode\":\"ATOMIC\",\"operations\":[");
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, settings.devices()); i++) {
+                body.append(i == from ? "" : ",").append("{\"type\":\"CREATE\",\"device\":")
+                        .append(device(deviceName(i), brand(i % settings.brands()))).append('}');
+            }
+            HttpResponse<byte[]> response = client.send(post(BATCH_PATH, body.append("]}").toString()),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Seeding devices failed with " + response.statusCode() + ": "
+                        + new String(response.body()));
+            }
+            for (JsonNode result : objectMapper.readTree(response.body()).get("results")) {
+                seeded.add(result.get("device").get("id").asInt());
+            }
+        }
+        ids = seeded.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Sends the requests of the mix for the warmup, then for the recorded duration.
+     */
+    LoadResult run(LoadMix mix) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(settings.seed() * 31 + mix.ordinal());
+        send(mix, random, settings.warmup(), LoadResult.statsOf(mix));
+        Map<LoadOperation, LoadResult.OperationStats> stats = LoadResult.statsOf(mix);
+        send(mix, random, settings.duration(), stats);
+        return new LoadResult(mix, settings.duration(), stats);
+    }
+
+    private void send(LoadMix mix, SplittableRandom random, Duration duration,
+                      Map<LoadOperation, LoadResult.OperationStats> stats) throws InterruptedException {
+        long interval = 1_000_000_000L / settings.rate();
+        long start = System.nanoTime();
+        long requests = duration.toNanos() / interval;
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LoadOperation operation = mix.next(random);
+                Call call = call(operation, random);
+                if (!inFlight.tryAcquire()) {
+                    stats.get(operation).recordDropped();
+                    continue;
+                }
+                callers.execute(() -> {
+                    try {
+                        send(call, scheduled, stats.get(operation));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(Call call, long scheduled, LoadResult.OperationStats stats) {
+        long sent = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(call.request(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            long now = System.nanoTime();
+            stats.recordFailure(now - scheduled, now - sent);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long now = System.nanoTime();
+        stats.record(response.statusCode(), now - scheduled, now - sent);
+        if (call.created() && response.statusCode() == 201) {
+            try {
+                created.add(objectMapper.readTree(response.body()).get("id").asInt());
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable created device", e);
+            }
+        }
+    }
+
+    /**
+     * A request, and whether the device it creates can be deleted afterwards.
+     */
+    private record Call(HttpRequest request, boolean created) {
+    }
+
+    private Call call(LoadOperation operation, SplittableRandom random) {
+        int hot = settings.hotDevices();
+        return switch (operation) {
+            case GET_BY_ID -> new Call(get(DEVICE_PATH + "/" + ids[random.nextInt(ids.length)]), false);
+            case GET_MISSING -> new Call(get(DEVICE_PATH + "/" + (MISSING_IDS_FROM + random.nextInt(1_000_000))), false);
+            case GET_HOT -> new Call(get(DEVICE_PATH + "/" + ids[random.nextInt(hot)]), false);
+            case GET_BY_BRAND -> new Call(get(DEVICE_PATH + "/brand/"
+                    + brand(random.nextInt(settings.brands())).replace(" ", "%20")), false);
+            case GET_BY_STATE -> new Call(get(DEVICE_PATH + "/state/"
+                    + (random.nextInt(4) == 0 ? "IN_USE" : "AVAILABLE")), false);
+            case GET_ALL -> new Call(get(DEVICE_PATH), false);
+            // The name is drawn even when the device is deleted instead, so that the draws do not depend on timing
+            case CREATE, DELETE -> {
+                String name = "Load test " + Long.toHexString(random.nextLong());
+                String brand = brand(random.nextInt(settings.brands()));
+                Integer id = operation == LoadOperation.DELETE ? created.poll() : null;
+                yield id != null
+                        ? new Call(request(DEVICE_PATH + "/" + id).DELETE().build(), false)
+                        : new Call(post(DEVICE_PATH, device(name, brand)), true);
+            }
+            // The hot devices are left out, as they are in use half of the time and cannot be renamed then
+            case UPDATE -> new Call(put(ids[hot + random.nextInt(ids.length - hot)],
+                    "{\"name\":\"Load test " + Long.toHexString(random.nextLong()) + "\"}"), false);
+            case LEASE -> new Call(put(ids[random.nextInt(hot)], "{\"state\":\"IN_USE\"}"), false);
+            case RELEASE -> new Call(put(ids[random.nextInt(hot)], "{\"state\":\"AVAILABLE\"}"), false);
+        };
+    }
+
+    private String deviceName(int index) {
+        return "Load test " + settings.seed() + "-" + index;
+    }
+
+    private static String brand(int index) {
+        return "Load Brand " + index;
+    }
+
+    private static String device(String name, String brand) {
+        return "{\"name\":\"" + name + "\",\"brand\":\"" + brand + "\"}";
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return request(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest put(int id, String body) {
+        return request(DEVICE_PATH + "/" + id).header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT);
+    }
+}
@@ -0,0 +1,93 @@
+package com.carlos.devices.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The proportions of the {@link LoadOperation}s replayed by the {@link LoadGenerator}, in requests out of 100.
+ */
+enum LoadMix {
+    /**
+     * Mostly lookups of single devices, with a few brand lists, lookups of missing devices and renames.
+     */
+    READ_HEAVY(Map.of(
+            LoadOperation.GET_BY_ID, 80,
+            LoadOperation.GET_BY_BRAND, 10,
+            LoadOperation.GET_MISSING, 5,
+            LoadOperation.UPDATE, 5)),
+    /**
+     * Creations, renames and deletions of the devices created during the run.
+     */
+    WRITE_HEAVY(Map.of(
+            LoadOperation.CREATE, 40,
+            LoadOperation.UPDATE, 35,
+            LoadOperation.DELETE, 25)),
+    /**
+     * Every caller leases and releases the same few devices, by setting their state to {@code IN_USE} and back,
+     * and reads them, so that the updates wait on each other's row locks.
+     */
+    LEASE_CONTENTION(Map.of(
+            LoadOperation.LEASE, 40,
+            LoadOperation.RELEASE, 40,
+            LoadOperation.GET_HOT, 20)),
+    /**
+     * Lists of devices by brand, by state and of the whole table, whose size grows with the table.
+     */
+    BIG_LISTS(Map.of(
+            LoadOperation.GET_BY_BRAND, 50,
+            LoadOperation.GET_BY_STATE, 40,
+            LoadOperation.GET_ALL, 10));
+
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadMix(Map<LoadOperation, Integer> weights) {
+        // Walking the operations in declaration order keeps the draws the same for a seed
+        Map<LoadOperation, Integer> ordered = new EnumMap<>(weights);
+        operations = ordered.keySet().toArray(LoadOperation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += ordered.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * The name of the mix in the {@code loadtest.mixes} property and in the report, such as {@code read-heavy}.
+     */
+    String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    static LoadMix of(String id) {
+        return Arrays.stream(values())
+                .filter(mix -> mix.id().equals(id.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load mix: " + id + ", expected one of "
+                        + Arrays.stream(values()).map(LoadMix::id).toList()));
+    }
+
+    /**
+     * Draws the next operation, in the proportions of the mix.
+     */
+    LoadOperation next(SplittableRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Draw out of the weights: " + draw);
+    }
+
+    /**
+     * The operations of the mix, in the order they are reported.
+     */
+    LoadOperation[] operations() {
+        return operations.clone();
+    }
+}
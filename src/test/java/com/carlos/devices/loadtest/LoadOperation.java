@@ -0,0 +1,51 @@
+package com.carlos.devices.loadtest;
+
+/**
+ * A call to one of the {@code DeviceRestController} endpoints, as replayed by the {@link LoadGenerator}.
+ */
+enum LoadOperation {
+    /**
+     * {@code GET /api/device/{id}} of a seeded device.
+     */
+    GET_BY_ID,
+    /**
+     * {@code GET /api/device/{id}} of a device that does not exist, answered with a 404.
+     */
+    GET_MISSING,
+    /**
+     * {@code GET /api/device/{id}} of one of the few devices leased and released by the other callers.
+     */
+    GET_HOT,
+    /**
+     * {@code GET /api/device/brand/{brand}} of a seeded brand.
+     */
+    GET_BY_BRAND,
+    /**
+     * {@code GET /api/device/state/{state}}, the list of every device in a state.
+     */
+    GET_BY_STATE,
+    /**
+     * {@code GET /api/device}, the list of every device.
+     */
+    GET_ALL,
+    /**
+     * {@code POST /api/device} of a new device.
+     */
+    CREATE,
+    /**
+     * {@code PUT /api/device/{id}} of the name of a seeded device.
+     */
+    UPDATE,
+    /**
+     * {@code DELETE /api/device/{id}} of a device created during the run.
+     */
+    DELETE,
+    /**
+     * {@code PUT /api/device/{id}} of the state of a hot device to {@code IN_USE}.
+     */
+    LEASE,
+    /**
+     * {@code PUT /api/device/{id}} of the state of a hot device back to {@code AVAILABLE}.
+     */
+    RELEASE
+}
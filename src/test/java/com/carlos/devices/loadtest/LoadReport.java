@@ -0,0 +1,202 @@
+package com.carlos.devices.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the results of the load mixes to a directory:
+ * <ul>
+ *     <li>{@code report.json}, the settings and, per mix and operation, the throughput, the error and
+ *     rejection counts, the status codes and the response and service time percentiles, to be diffed
+ *     between runs;</li>
+ *     <li>{@code report.html}, the same as tables with a percentile chart of the response times per mix;</li>
+ *     <li>{@code <mix>.hgrm}, the percentile distribution of the response times of all the operations of a
+ *     mix in milliseconds, which the HdrHistogram plotter reads.</li>
+ * </ul>
+ */
+final class LoadReport {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p90", "p99", "p999"};
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final int CHART_WIDTH = 640;
+    private static final int CHART_HEIGHT = 240;
+    /**
+     * The chart goes up to the 99.999th percentile, five nines.
+     */
+    private static final double CHART_NINES = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, Object> settings;
+    private final List<LoadResult> results = new ArrayList<>();
+
+    /**
+     * @param settings what the runs were made with, written as is at the top of the reports
+     */
+    LoadReport(Map<String, Object> settings) {
+        this.settings = settings;
+    }
+
+    void add(LoadResult result) {
+        results.add(result);
+    }
+
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ObjectNode root = objectMapper.createObjectNode();
+        root.set("settings", objectMapper.valueToTree(settings));
+        ObjectNode mixes = root.putObject("mixes");
+        for (LoadResult result : results) {
+            ObjectNode mix = mixes.putObject(result.mix().id());
+            mix.put("durationSeconds", result.duration().toMillis() / 1000.0);
+            mix.set("total", stats(result, result.total()));
+            ObjectNode operations = mix.putObject("operations");
+            result.operations().forEach((operation, stats) -> operations.set(operation.name(), stats(result, stats)));
+            try (PrintStream out = new PrintStream(directory.resolve(result.mix().id() + ".hgrm").toFile(),
+                    StandardCharsets.UTF_8)) {
+                result.total().responseTime().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        objectMapper.writeValue(directory.resolve("report.json").toFile(), root);
+        Files.writeString(directory.resolve("report.html"), html());
+    }
+
+    private ObjectNode stats(LoadResult result, LoadResult.OperationStats stats) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("requests", stats.completed());
+        node.put("throughputPerSecond", round(result.throughput(stats)));
+        node.put("errors", stats.errors());
+        node.put("dropped", stats.dropped());
+        node.put("rejected", stats.rejected());
+        node.put("errorRate", stats.errorRate());
+        ObjectNode statuses = node.putObject("statuses");
+        stats.statuses().forEach((status, count) -> statuses.put(String.valueOf(status), count));
+        node.set("responseTimeMs", latencies(stats.responseTime()));
+        node.set("serviceTimeMs", latencies(stats.serviceTime()));
+        return node;
+    }
+
+    private ObjectNode latencies(Histogram histogram) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("mean", histogram.getTotalCount() == 0 ? 0 : round(histogram.getMean() / MICROS_PER_MILLI));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            node.put(PERCENTILE_KEYS[i], millis(histogram, PERCENTILES[i]));
+        }
+        node.put("max", round(histogram.getMaxValue() / MICROS_PER_MILLI));
+        return node;
+    }
+
+    private String html() {
+        StringBuilder html = new StringBuilder("""
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                <meta charset="utf-8">
+                <title>Device API load test</title>
+                <style>
+                body { font-family: sans-serif; margin: 2em; }
+                table { border-collapse: collapse; margin-bottom: 1em; }
+                th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+                th:first-child, td:first-child { text-align: left; }
+                tr.total { font-weight: bold; }
+                svg { border: 1px solid #ccc; }
+                </style>
+                </head>
+                <body>
+                <h1>Device API load test</h1>
+                """);
+        html.append("<p>");
+        settings.forEach((name, value) -> html.append(escape(name)).append(": <code>")
+                .append(escape(String.valueOf(value))).append("</code> "));
+        html.append("</p>\n");
+        for (LoadResult result : results) {
+            html.append("<h2>").append(result.mix().id()).append("</h2>\n<table>\n<tr><th>Operation</th>")
+                    .append("<th>Requests</th><th>Req/s</th><th>Errors</th><th>Dropped</th><th>Rejected</th>");
+            for (double percentile : PERCENTILES) {
+                html.append("<th>p").append(format(percentile)).append(" ms</th>");
+            }
+            html.append("<th>Max ms</th><th>Statuses</th></tr>\n");
+            result.operations().forEach((operation, stats) -> row(html, "", operation.name(), result, stats));
+            row(html, " class=\"total\"", "Total", result, result.total());
+            html.append("</table>\n");
+            chart(html, result.total().responseTime());
+        }
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    private static void row(StringBuilder html, String attributes, String name, LoadResult result,
+                            LoadResult.OperationStats stats) {
+        html.append("<tr").append(attributes).append("><td>").append(name).append("</td><td>")
+                .append(stats.completed()).append("</td><td>").append(format(result.throughput(stats)))
+                .append("</td><td>").append(stats.errors()).append("</td><td>").append(stats.dropped())
+                .append("</td><td>").append(stats.rejected()).append("</td>");
+        for (double percentile : PERCENTILES) {
+            html.append("<td>").append(format(millis(stats.responseTime(), percentile))).append("</td>");
+        }
+        html.append("<td>").append(format(stats.responseTime().getMaxValue() / MICROS_PER_MILLI)).append("</td><td>")
+                .append(stats.statuses()).append("</td></tr>\n");
+    }
+
+    /**
+     * A line chart of the response time by percentile, with the percentiles spread by their number of nines
+     * like the HdrHistogram plotter does.
+     */
+    private static void chart(StringBuilder html, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        double maxMillis = Math.max(histogram.getMaxValue() / MICROS_PER_MILLI, 0.001);
+        html.append("<svg width=\"").append(CHART_WIDTH).append("\" height=\"").append(CHART_HEIGHT)
+                .append("\" viewBox=\"0 0 ").append(CHART_WIDTH).append(' ').append(CHART_HEIGHT).append("\">\n");
+        for (int nines = 0; nines <= CHART_NINES; nines++) {
+            double x = CHART_WIDTH * nines / CHART_NINES;
+            String label = format(100 - 100 / Math.pow(10, nines)) + "%";
+            html.append("<line x1=\"").append(format(x)).append("\" y1=\"0\" x2=\"").append(format(x))
+                    .append("\" y2=\"").append(CHART_HEIGHT).append("\" stroke=\"#eee\"/>")
+                    .append("<text x=\"").append(format(Math.min(x + 2, CHART_WIDTH - 48)))
+                    .append("\" y=\"").append(CHART_HEIGHT - 4).append("\" font-size=\"10\">").append(label)
+                    .append("</text>\n");
+        }
+        html.append("<text x=\"4\" y=\"12\" font-size=\"10\">").append(format(maxMillis)).append(" ms</text>\n")
+                .append("<polyline fill=\"none\" stroke=\"#1f77b4\" stroke-width=\"2\" points=\"");
+        for (HistogramIterationValue value : histogram.percentiles(5)) {
+            double fraction = value.getPercentileLevelIteratedTo() / 100;
+            double nines = fraction >= 1 ? CHART_NINES : Math.min(-Math.log10(1 - fraction), CHART_NINES);
+            double x = CHART_WIDTH * nines / CHART_NINES;
+            double y = CHART_HEIGHT - CHART_HEIGHT * (value.getValueIteratedTo() / MICROS_PER_MILLI) / maxMillis;
+            html.append(format(x)).append(',').append(format(y)).append(' ');
+        }
+        html.append("\"/>\n</svg>\n");
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? String.valueOf((long) value)
+                : String.format(Locale.ROOT, "%.3f", value).replaceAll("0+$", "");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
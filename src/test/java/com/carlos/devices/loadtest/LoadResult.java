@@ -0,0 +1,147 @@
+package com.carlos.devices.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a {@link LoadMix} measured over the recorded part of a run, per operation.
+ *
+ * @param mix        the mix replayed
+ * @param duration   how long the requests were sent for, without the warmup
+ * @param operations the measurements of every operation of the mix
+ */
+record LoadResult(LoadMix mix, Duration duration, Map<LoadOperation, OperationStats> operations) {
+
+    /**
+     * The latencies are recorded in microseconds, up to a minute, with three significant digits.
+     */
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    static final int SIGNIFICANT_DIGITS = 3;
+
+    static Map<LoadOperation, OperationStats> statsOf(LoadMix mix) {
+        Map<LoadOperation, OperationStats> stats = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : mix.operations()) {
+            stats.put(operation, new OperationStats());
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * The measurements of all operations together.
+     */
+    OperationStats total() {
+        OperationStats total = new OperationStats();
+        operations.values().forEach(total::add);
+        return total;
+    }
+
+    double throughput(OperationStats stats) {
+        return stats.completed() / (duration.toNanos() / 1e9);
+    }
+
+    /**
+     * The measurements of one operation.
+     * <p>
+     * The response time is measured from the time the request was scheduled to be sent, so that a request
+     * held back by the ones before it is measured with its wait, and the service time from the time it was
+     * sent. A response under 400 is a success; a 4xx is a rejection by the business rules, like a lookup of a
+     * missing device or an update of a device in use, except a 429 which is an error like a 5xx, a timeout or
+     * a failed connection. A request not sent because too many were in flight is dropped, and counts as an
+     * error.
+     */
+    static final class OperationStats {
+
+        private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        void record(int status, long responseNanos, long serviceNanos) {
+            record(responseNanos, serviceNanos);
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status >= 500 || status == 429) {
+                errors.increment();
+            } else if (status >= 400) {
+                rejected.increment();
+            }
+        }
+
+        void recordFailure(long responseNanos, long serviceNanos) {
+            record(responseNanos, serviceNanos);
+            errors.increment();
+        }
+
+        void recordDropped() {
+            dropped.increment();
+        }
+
+        private void record(long responseNanos, long serviceNanos) {
+            responseTime.recordValue(micros(responseNanos));
+            serviceTime.recordValue(micros(serviceNanos));
+        }
+
+        private static long micros(long nanos) {
+            return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_TRACKABLE_MICROS);
+        }
+
+        private void add(OperationStats other) {
+            responseTime.add(other.responseTime);
+            serviceTime.add(other.serviceTime);
+            other.statuses.forEach((status, count) ->
+                    statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+            errors.add(other.errors.sum());
+            rejected.add(other.rejected.sum());
+            dropped.add(other.dropped.sum());
+        }
+
+        Histogram responseTime() {
+            return responseTime;
+        }
+
+        Histogram serviceTime() {
+            return serviceTime;
+        }
+
+        /**
+         * The number of requests answered or failed, without the dropped ones.
+         */
+        long completed() {
+            return responseTime.getTotalCount();
+        }
+
+        long errors() {
+            return errors.sum() + dropped.sum();
+        }
+
+        long rejected() {
+            return rejected.sum();
+        }
+
+        long dropped() {
+            return dropped.sum();
+        }
+
+        double errorRate() {
+            long attempted = completed() + dropped();
+            return attempted == 0 ? 0 : (double) errors() / attempted;
+        }
+
+        SortedMap<Integer, Long> statuses() {
+            SortedMap<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link CopyDeviceExporter}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class CopyDeviceExporterTest {
+
+    @Autowired
+    private CopyDeviceExporter exporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+        LocalDateTime creationTime = LocalDateTime.of(2025, 1, 1, 10, 0);
+        jdbcTemplate.update("INSERT INTO device (id, name, brand, state, creation_time) VALUES (?, ?, ?, ?, ?)",
+                1, "Device 1", "Brand A", DeviceState.AVAILABLE.name(), creationTime);
+        jdbcTemplate.update("INSERT INTO device (id, name, brand, state, creation_time) VALUES (?, ?, ?, ?, ?)",
+                2, "Device, \"two\"", "O'Brand", DeviceState.IN_USE.name(), creationTime);
+        jdbcTemplate.update("INSERT INTO device (id, name, brand, state, creation_time) VALUES (?, ?, ?, ?, ?)",
+                3, "Device 3", "Brand A", DeviceState.DISABLED.name(), creationTime);
+    }
+
+    @Test
+    void exportCsv_ShouldWriteAllDevicesOrderedById() throws IOException {
+        // Act
+        String csv = export(null, null);
+
+        // Assert
+        assertThat(csv).isEqualTo("""
+                id,name,brand,state,creation_time
+                1,Device 1,Brand A,AVAILABLE,2025-01-01 10:00:00
+                2,"Device, ""two\""",O'Brand,IN_USE,2025-01-01 10:00:00
+                3,Device 3,Brand A,DISABLED,2025-01-01 10:00:00
+                """);
+    }
+
+    @Test
+    void exportCsv_WithBrand_ShouldOnlyWriteDevicesOfThatBrand() throws IOException {
+        // Act
+        String csv = export("O'Brand", null);
+
+        // Assert
+        assertThat(csv.lines()).hasSize(2);
+        assertThat(csv.lines().skip(1)).allMatch(line -> line.startsWith("2,"));
+    }
+
+    @Test
+    void exportCsv_WithBrandAndState_ShouldApplyBothFilters() throws IOException {
+        // Act
+        String csv = export("Brand A", DeviceState.DISABLED);
+
+        // Assert
+        assertThat(csv.lines()).containsExactly("id,name,brand,state,creation_time",
+                "3,Device 3,Brand A,DISABLED,2025-01-01 10:00:00");
+    }
+
+    @Test
+    void exportCsv_WithNoMatches_ShouldOnlyWriteHeader() throws IOException {
+        // Act
+        String csv = export("Unknown", null);
+
+        // Assert
+        assertThat(csv).isEqualTo("id,name,brand,state,creation_time\n");
+    }
+
+    private String export(String brand, DeviceState state) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exporter.exportCsv(brand, state, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
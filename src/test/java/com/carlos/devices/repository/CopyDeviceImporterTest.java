@@ -0,0 +1,110 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.model.ImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link CopyDeviceImporter}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class CopyDeviceImporterTest {
+
+    @Autowired
+    private CopyDeviceImporter importer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+    }
+
+    @Test
+    void importCsv_WithValidRows_ShouldCreateAvailableDevicesInFileOrder() throws IOException {
+        // Arrange
+        String csv = """
+                name,brand
+                Device 1,Brand A
+                "Device, ""two\""",O'Brand
+                """;
+
+        // Act
+        ImportResult result = importer.importCsv(input(csv), report);
+
+        // Assert
+        assertThat(result).isEqualTo(new ImportResult(2, 0));
+        assertThat(jdbcTemplate.queryForList("SELECT name || '|' || brand || '|' || state FROM device ORDER BY id", String.class))
+                .containsExactly("Device 1|Brand A|" + DeviceState.AVAILABLE, "Device, \"two\"|O'Brand|" + DeviceState.AVAILABLE);
+        assertThat(report.toString(StandardCharsets.UTF_8)).isEqualTo("record,name,brand,reason\n");
+    }
+
+    @Test
+    void importCsv_WithInvalidRows_ShouldOnlyCreateValidRowsAndReportTheOthers() throws IOException {
+        // Arrange
+        String csv = "name,brand\n"
+                + "Device 1,Brand A\n"
+                + ",Brand B\n"
+                + "Device 3,   \n"
+                + "Device 4,Brand D\n"
+                + "x".repeat(241) + ",Brand E\n";
+
+        // Act
+        ImportResult result = importer.importCsv(input(csv), report);
+
+        // Assert
+        assertThat(result).isEqualTo(new ImportResult(2, 3));
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM device ORDER BY id", String.class))
+                .containsExactly("Device 1", "Device 4");
+        List<String> lines = report.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).containsExactly(
+                "record,name,brand,reason",
+                "2,,Brand B,\"Invalid device details, must have a name and a brand\"",
+                "3,Device 3,   ,\"Invalid device details, must have a name and a brand\"",
+                "5," + "x".repeat(241) + ",Brand E,Name longer than 240 characters");
+    }
+
+    @Test
+    void importCsv_WithMalformedFile_ShouldThrowAndCreateNothing() {
+        // Arrange
+        String csv = """
+                name,brand
+                Device 1,Brand A
+                Device 2,Brand B,extra
+                """;
+
+        // Act & Assert
+        assertThatThrownBy(() -> importer.importCsv(input(csv), report))
+                .isInstanceOf(BusinessRulesException.class)
+                .hasMessageContaining("Invalid CSV file");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM device", Integer.class)).isZero();
+    }
+
+    private static ByteArrayInputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,132 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChange;
+import com.carlos.devices.domain.model.DeviceChanges;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration tests for {@link DatabaseDeviceChangeFeed}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class DatabaseDeviceChangeFeedTest {
+
+    @Autowired
+    private DatabaseDeviceChangeFeed feed;
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+        jdbcTemplate.update("DELETE FROM device_tombstone");
+    }
+
+    @Test
+    void changesSince_ShouldReturnUpsertsAndTombstonesAfterTheWatermark() {
+        // Arrange
+        Device first = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        Device second = repository.create(new CreateUpdateDevice("Device 2", "Brand B", null));
+        ChangeWatermark watermark = ChangeWatermark.parse(feed.changesSince(ChangeWatermark.START, 100).watermark());
+
+        // Act
+        repository.update(first.id(), new CreateUpdateDevice("Device 1", "Brand A", DeviceState.IN_USE));
+        repository.delete(second.id());
+        Device third = repository.create(new CreateUpdateDevice("Device 3", "Brand C", null));
+        DeviceChanges changes = feed.changesSince(watermark, 100);
+
+        // Assert
+        assertThat(changes.changes()).extracting(DeviceChange::type, DeviceChange::id).containsExactly(
+                tuple(DeviceChange.Type.UPSERT, first.id()),
+                tuple(DeviceChange.Type.DELETE, second.id()),
+                tuple(DeviceChange.Type.UPSERT, third.id()));
+        assertThat(changes.changes().getFirst().device().state()).isEqualTo(DeviceState.IN_USE);
+        assertThat(changes.hasMore()).isFalse();
+        assertThat(feed.changesSince(ChangeWatermark.parse(changes.watermark()), 100).changes()).isEmpty();
+    }
+
+    @Test
+    void changesSince_ShouldPageThroughChanges() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            repository.create(new CreateUpdateDevice("Device " + i, "Brand A", null));
+        }
+
+        // Act
+        DeviceChanges firstPage = feed.changesSince(ChangeWatermark.START, 3);
+        DeviceChanges secondPage = feed.changesSince(ChangeWatermark.parse(firstPage.watermark()), 3);
+
+        // Assert
+        assertThat(firstPage.changes()).hasSize(3);
+        assertThat(firstPage.hasMore()).isTrue();
+        assertThat(secondPage.changes()).hasSize(2);
+        assertThat(secondPage.hasMore()).isFalse();
+        assertThat(secondPage.changes()).extracting(DeviceChange::device).extracting(Device::name)
+                .containsExactly("Device 3", "Device 4");
+    }
+
+    @Test
+    void changesSince_ShouldHoldBackChangesBehindRunningTransactions() throws SQLException {
+        // Arrange
+        ChangeWatermark start = ChangeWatermark.parse(feed.changesSince(ChangeWatermark.START, 100).watermark());
+        try (Connection running = jdbcTemplate.getDataSource().getConnection()) {
+            running.setAutoCommit(false);
+            try (PreparedStatement insert = running.prepareStatement(
+                    "INSERT INTO device (name, brand, state, creation_time) VALUES ('Slow', 'Brand A', 'AVAILABLE', localtimestamp)")) {
+                insert.executeUpdate();
+            }
+            repository.create(new CreateUpdateDevice("Fast", "Brand B", null));
+
+            // Act
+            DeviceChanges whileRunning = feed.changesSince(start, 100);
+            running.commit();
+            DeviceChanges afterCommit = feed.changesSince(ChangeWatermark.parse(whileRunning.watermark()), 100);
+
+            // Assert
+            assertThat(whileRunning.changes()).isEmpty();
+            assertThat(afterCommit.changes()).extracting(DeviceChange::device).extracting(Device::name)
+                    .containsExactly("Slow", "Fast");
+        }
+    }
+
+    @Test
+    void changesSince_FromStart_ShouldReturnEveryDevice() {
+        // Arrange
+        List<Device> devices = List.of(
+                repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)),
+                repository.create(new CreateUpdateDevice("Device 2", "Brand A", null)));
+
+        // Act
+        DeviceChanges changes = feed.changesSince(ChangeWatermark.START, 100);
+
+        // Assert
+        assertThat(changes.changes()).extracting(DeviceChange::id)
+                .containsExactlyElementsOf(devices.stream().map(Device::id).toList());
+    }
+}
@@ -0,0 +1,94 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link DatabaseDeviceCursor}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class DatabaseDeviceCursorTest {
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatabaseDeviceCursor cursor;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+        cursor = new DatabaseDeviceCursor(dataSource, transactionManager, 2);
+    }
+
+    @Test
+    void forEach_ShouldReadTheMatchingDevicesAcrossFetches() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            repository.create(new CreateUpdateDevice("Device " + i, "Brand A", null));
+        }
+        Device inUse = repository.create(new CreateUpdateDevice("Device 5", "Brand A", null));
+        repository.update(inUse.id(), new CreateUpdateDevice("Device 5", "Brand A", DeviceState.IN_USE));
+        repository.create(new CreateUpdateDevice("Device 6", "Brand B", null));
+
+        // Act
+        List<Device> byBrand = new ArrayList<>();
+        cursor.forEach("Brand A", null, byBrand::add);
+        List<Device> byState = new ArrayList<>();
+        cursor.forEach(null, DeviceState.IN_USE, byState::add);
+        List<Device> all = new ArrayList<>();
+        cursor.forEach(null, null, all::add);
+
+        // Assert
+        assertThat(byBrand).hasSize(6).allSatisfy(device -> assertThat(device.brand()).isEqualTo("Brand A"));
+        assertThat(byState).extracting(Device::id).containsExactly(inUse.id());
+        assertThat(all).hasSize(7);
+    }
+
+    @Test
+    void forEach_ShouldStopAndRethrow_WhenTheConsumerFails() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            repository.create(new CreateUpdateDevice("Device " + i, "Brand A", null));
+        }
+        List<Device> read = new ArrayList<>();
+
+        // Act & Assert
+        assertThatThrownBy(() -> cursor.forEach("Brand A", null, device -> {
+            read.add(device);
+            if (read.size() == 3) {
+                throw new IllegalStateException("Client gone");
+            }
+        })).isInstanceOf(IllegalStateException.class).hasMessage("Client gone");
+        assertThat(read).hasSize(3);
+    }
+}
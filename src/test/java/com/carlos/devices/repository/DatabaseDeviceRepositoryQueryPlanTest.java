@@ -0,0 +1,240 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.repository.writebehind.WriteBehindDeviceStateBuffer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-plan regression suite for {@link DatabaseDeviceRepository}.
+ * <p>
+ * Seeds the device table with a realistic, multi-million-row data set and runs
+ * {@code EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON)} for every SQL statement used by the repository, the
+ * multi-row ones with the largest batch, and for the batch update of the write-behind state buffer.
+ * A statement fails when its plan contains a sequential scan that is not explicitly allowed, or when
+ * its buffer usage or execution time goes over the baseline in {@code query-plan/baseline.json}.
+ * <p>
+ * A machine-readable report is written to {@code target/query-plan/report.json} so that it can be
+ * diffed between releases. Run with {@code ./mvnw test -Pquery-plan}; the seed size can be changed
+ * with {@code -Dqueryplan.rows=N}, and {@code -Dqueryplan.record=true} writes the observed values
+ * (with 50% headroom) to {@code target/query-plan/baseline.json} to be reviewed and copied over the
+ * recorded baseline. Buffer counts are stable from one machine to the next, execution times are not: the
+ * recorded execution time limits never go below the current ones, which are loose enough for slow CI
+ * machines. The baselines are recorded on the PostgreSQL version of {@link RepositoryTestConfig}.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Tag("query-plan")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DatabaseDeviceRepositoryQueryPlanTest {
+
+    private static final int ROWS = Integer.getInteger("queryplan.rows", 2_000_000);
+    private static final boolean RECORD = Boolean.getBoolean("queryplan.record");
+    private static final int RUNS = 3;
+    // The largest batch, of the batch endpoint and of a write-behind flush
+    private static final int BATCH_ROWS = 1000;
+    private static final Path REPORT_DIR = Path.of("target", "query-plan");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, ObjectNode> report = new LinkedHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+    private JsonNode baseline;
+
+    private record PlannedStatement(String name, String sql, Object... params) {
+    }
+
+    @BeforeAll
+    void seed() throws IOException {
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        try (InputStream in = getClass().getResourceAsStream("/query-plan/baseline.json")) {
+            baseline = objectMapper.readTree(in);
+        }
+
+        jdbcTemplate.execute("TRUNCATE device RESTART IDENTITY");
+        // 500 brands spread evenly over the table, 10% of the fleet in use, and the oldest 1% of the
+        // devices disabled (decommissioned devices are the ones created first, so they are clustered).
+        jdbcTemplate.update("""
+                INSERT INTO device (name, brand, state, creation_time)
+                SELECT 'Device ' || g,
+                       'Brand ' || (g % 500),
+                       CASE WHEN g <= ? / 100 THEN 'DISABLED' WHEN g % 10 = 0 THEN 'IN_USE' ELSE 'AVAILABLE' END,
+                       now() - make_interval(secs => ? - g)
+                FROM generate_series(1, ?) g
+                """, ROWS, ROWS, ROWS);
+        jdbcTemplate.execute("VACUUM ANALYZE device");
+    }
+
+    @AfterAll
+    void writeReportAndCleanUp() throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("rows", ROWS);
+        root.put("postgresVersion", jdbcTemplate.queryForObject("SHOW server_version", String.class));
+        root.set("statements", objectMapper.valueToTree(report));
+        objectMapper.writeValue(REPORT_DIR.resolve("report.json").toFile(), root);
+
+        if (RECORD) {
+            ObjectNode recorded = objectMapper.createObjectNode();
+            report.forEach((name, entry) -> recorded.putObject(name)
+                    .put("allowSeqScan", entry.get("seqScan").asBoolean())
+                    .put("maxBufferBlocks", (long) Math.ceil(entry.get("bufferBlocks").asLong() * 1.5))
+                    .put("maxExecutionTimeMs", Math.max(baseline.path(name).path("maxExecutionTimeMs").asDouble(),
+                            Math.ceil(entry.get("executionTimeMs").asDouble() * 1.5))));
+            objectMapper.writeValue(REPORT_DIR.resolve("baseline.json").toFile(), recorded);
+        }
+
+        jdbcTemplate.execute("TRUNCATE device RESTART IDENTITY");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryStatementsStayWithinBaseline() {
+        int existingId = ROWS / 2;
+        // A sync client that is 100 changes behind
+        Map<String, Object> lastChange = jdbcTemplate.queryForMap(
+                "SELECT change_txid::text::bigint AS txid, change_seq FROM device ORDER BY change_txid DESC, change_seq DESC LIMIT 1");
+        long syncTxid = (Long) lastChange.get("txid");
+        long syncSeq = (Long) lastChange.get("change_seq") - 100;
+        return Stream.of(
+                new PlannedStatement("findById", DatabaseDeviceRepository.SELECT_DEVICE_QUERY, existingId),
+                new PlannedStatement("findByBrand", DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_BRAND_QUERY, "Brand 7"),
+                new PlannedStatement("findByState", DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_STATE_QUERY, "DISABLED"),
+                new PlannedStatement("findAll", DatabaseDeviceRepository.SELECT_ALL_DEVICES_QUERY),
+                new PlannedStatement("create", DatabaseDeviceRepository.INSERT_DEVICE_QUERY,
+                        "Plan Device", "Plan Brand", "AVAILABLE", LocalDateTime.now()),
+                new PlannedStatement("update", DatabaseDeviceRepository.UPDATE_DEVICE_QUERY,
+                        "Plan Device", "Plan Brand", "IN_USE", existingId),
+                new PlannedStatement("delete", DatabaseDeviceRepository.DELETE_DEVICE_QUERY, existingId),
+                new PlannedStatement("changesSince", DatabaseDeviceChangeFeed.CHANGES_QUERY,
+                        syncTxid, syncSeq, syncTxid, syncSeq, 1001),
+                new PlannedStatement("findAllByIdForUpdate", DatabaseDeviceRepository.SELECT_DEVICES_FOR_UPDATE_QUERY,
+                        (Object) Stream.iterate(existingId, id -> id + 1).limit(BATCH_ROWS).toArray(Integer[]::new)),
+                new PlannedStatement("createAll", DatabaseDeviceRepository.BATCH_INSERT_DEVICE_QUERY.formatted(
+                        String.join(", ", Collections.nCopies(BATCH_ROWS, "(?, ?, ?, ?)"))),
+                        batchRows(id -> Stream.of("Plan Device", "Plan Brand", "AVAILABLE", LocalDateTime.now()), existingId)),
+                new PlannedStatement("updateAll", DatabaseDeviceRepository.BATCH_UPDATE_DEVICE_QUERY,
+                        "Plan Device", "Plan Brand", "IN_USE", existingId),
+                new PlannedStatement("deleteAll", DatabaseDeviceRepository.BATCH_DELETE_DEVICE_QUERY, existingId),
+                new PlannedStatement("writeBehindFlush", WriteBehindDeviceStateBuffer.BATCH_UPDATE_QUERY.formatted(
+                        String.join(", ", Collections.nCopies(BATCH_ROWS, "(?::integer, ?)"))),
+                        batchRows(id -> Stream.of(id, "IN_USE"), existingId))
+        ).map(statement -> DynamicTest.dynamicTest(statement.name(), () -> verify(statement)));
+    }
+
+    /**
+     * The parameters of {@link #BATCH_ROWS} rows of a multi-row statement, one row per id from {@code firstId}.
+     */
+    private static Object[] batchRows(Function<Integer, Stream<Object>> row, int firstId) {
+        return Stream.iterate(firstId, id -> id + 1).limit(BATCH_ROWS).flatMap(row).toArray();
+    }
+
+    private void verify(PlannedStatement statement) throws IOException {
+        JsonNode expected = baseline.get(statement.name());
+        if (expected == null) {
+            // A new statement is recorded without limits, it fails until its baseline is copied over
+            assertThat(RECORD).as("baseline for %s", statement.name()).isTrue();
+            expected = objectMapper.createObjectNode()
+                    .put("allowSeqScan", true)
+                    .put("maxBufferBlocks", Long.MAX_VALUE)
+                    .put("maxExecutionTimeMs", Double.MAX_VALUE);
+        }
+
+        JsonNode explained = null;
+        double executionTime = Double.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            explained = explain(statement);
+            executionTime = Math.min(executionTime, explained.get("Execution Time").asDouble());
+        }
+        JsonNode plan = explained.get("Plan");
+        Set<String> nodeTypes = new LinkedHashSet<>();
+        collectNodeTypes(plan, nodeTypes);
+        boolean seqScan = nodeTypes.contains("Seq Scan");
+        long bufferBlocks = plan.path("Shared Hit Blocks").asLong() + plan.path("Shared Read Blocks").asLong();
+
+        List<String> violations = new ArrayList<>();
+        if (seqScan && !expected.get("allowSeqScan").asBoolean()) {
+            violations.add("sequential scan");
+        }
+        if (bufferBlocks > expected.get("maxBufferBlocks").asLong()) {
+            violations.add("buffer blocks " + bufferBlocks + " > " + expected.get("maxBufferBlocks").asLong());
+        }
+        if (executionTime > expected.get("maxExecutionTimeMs").asDouble()) {
+            violations.add("execution time " + executionTime + "ms > " + expected.get("maxExecutionTimeMs").asDouble() + "ms");
+        }
+
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("sql", statement.sql());
+        entry.set("nodeTypes", objectMapper.valueToTree(nodeTypes));
+        entry.put("seqScan", seqScan);
+        entry.put("sharedHitBlocks", plan.path("Shared Hit Blocks").asLong());
+        entry.put("sharedReadBlocks", plan.path("Shared Read Blocks").asLong());
+        entry.put("bufferBlocks", bufferBlocks);
+        entry.put("planningTimeMs", explained.get("Planning Time").asDouble());
+        entry.put("executionTimeMs", executionTime);
+        entry.set("baseline", expected);
+        ArrayNode violationNodes = entry.putArray("violations");
+        violations.forEach(violationNodes::add);
+        entry.set("plan", plan);
+        report.put(statement.name(), entry);
+
+        assertThat(violations).as("%s plan regressions, plan node types %s", statement.name(), nodeTypes).isEmpty();
+    }
+
+    /**
+     * Runs the statement under EXPLAIN ANALYZE inside a transaction that is always rolled back,
+     * so the write statements do not change the seeded data.
+     */
+    private JsonNode explain(PlannedStatement statement) throws IOException {
+        String json = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + statement.sql(),
+                    String.class, statement.params());
+        });
+        return objectMapper.readTree(json).get(0);
+    }
+
+    private void collectNodeTypes(JsonNode plan, Set<String> nodeTypes) {
+        nodeTypes.add(plan.get("Node Type").asText());
+        for (JsonNode child : plan.path("Plans")) {
+            collectNodeTypes(child, nodeTypes);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.carlos.devices.repository;
 import com.carlos.devices.domain.exception.BusinessRulesException;
 import com.carlos.devices.domain.model.CreateUpdateDevice;
 import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
 import com.carlos.devices.domain.model.DeviceState;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,13 +13,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * Integration tests for {@link DatabaseDeviceRepository}.
@@ -29,11 +37,15 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
 @Transactional
+@RecordApplicationEvents
 class DatabaseDeviceRepositoryTest {
 
     @Autowired
     private DatabaseDeviceRepository repository;
 
+    @Autowired
+    private ApplicationEvents events;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -144,6 +156,40 @@ class DatabaseDeviceRepositoryTest {
         assertThat(deletedDevice).isNull();
     }
 
+    @Test
+    void update_ShouldPublishDeviceBeforeAndAfterChange() {
+        // Act
+        repository.update(1, new CreateUpdateDevice("Updated Device", "Brand A", DeviceState.IN_USE));
+
+        // Assert
+        // The fixture creation times have nanoseconds, the database keeps microseconds
+        assertThat(events.stream(DeviceChangedEvent.class))
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("before.creationTime", "after.creationTime")
+                .containsExactly(new DeviceChangedEvent(testDevice1,
+                        new Device(1, "Updated Device", "Brand A", DeviceState.IN_USE, testDevice1.creationTime())));
+    }
+
+    @Test
+    void createAndDelete_ShouldPublishDeviceChanges() {
+        // Act
+        Device created = repository.create(new CreateUpdateDevice("New Device", "Brand C", null));
+        repository.delete(2);
+
+        // Assert
+        assertThat(events.stream(DeviceChangedEvent.class))
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("before.creationTime")
+                .containsExactly(new DeviceChangedEvent(null, created), new DeviceChangedEvent(testDevice2, null));
+    }
+
+    @Test
+    void update_ShouldNotPublish_WhenDeviceDoesNotExist() {
+        // Act
+        repository.update(999, new CreateUpdateDevice("Updated Device", "Brand A", DeviceState.IN_USE));
+
+        // Assert
+        assertThat(events.stream(DeviceChangedEvent.class)).isEmpty();
+    }
+
     @Test
     void delete_ShouldThrowException_WhenDeviceDoesNotExist() {
         // Act & Assert
@@ -214,4 +260,71 @@ class DatabaseDeviceRepositoryTest {
         // Assert
         assertThat(devices).isEmpty();
     }
+
+    @Test
+    void findAllByIdForUpdate_ShouldReturnExistingDevicesById() {
+        // Act
+        Map<Integer, Device> devices = repository.findAllByIdForUpdate(List.of(1, 3, 999));
+
+        // Assert
+        assertThat(devices).containsOnlyKeys(1, 3);
+        assertThat(devices.get(3).name()).isEqualTo("Test Device 3");
+    }
+
+    @Test
+    void findByIdForUpdate_ShouldReturnTheDevice_OrNullWhenItDoesNotExist() {
+        // Act & Assert
+        assertThat(repository.findByIdForUpdate(3)).extracting(Device::id, Device::name, Device::state)
+                .containsExactly(3, "Test Device 3", DeviceState.DISABLED);
+        assertThat(repository.findByIdForUpdate(999)).isNull();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findAllByIdForUpdate_ShouldThrowException_WhenNoTransactionIsOpen() {
+        // Act & Assert
+        assertThatThrownBy(() -> repository.findAllByIdForUpdate(List.of(1)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void createAll_ShouldCreateDevicesInOrderAndPublishChanges() {
+        // Act
+        List<Device> created = repository.createAll(List.of(
+                new CreateUpdateDevice("Batch Device 1", "Brand C", null),
+                new CreateUpdateDevice("Batch Device 2", "Brand D", DeviceState.IN_USE)));
+
+        // Assert
+        assertThat(created).extracting(Device::name, Device::state).containsExactly(
+                tuple("Batch Device 1", DeviceState.AVAILABLE),
+                tuple("Batch Device 2", DeviceState.AVAILABLE));
+        assertThat(repository.findById(created.get(1).id()).brand()).isEqualTo("Brand D");
+        assertThat(events.stream(DeviceChangedEvent.class)).containsExactly(
+                new DeviceChangedEvent(null, created.get(0)), new DeviceChangedEvent(null, created.get(1)));
+    }
+
+    @Test
+    void updateAllAndDeleteAll_ShouldWriteEveryChangeAndPublishIt() {
+        // Arrange
+        Device updated = new Device(1, "Updated Device", "Brand A", DeviceState.IN_USE, testDevice1.creationTime());
+
+        // Act
+        repository.updateAll(List.of(new DeviceChangedEvent(testDevice1, updated)));
+        repository.deleteAll(List.of(testDevice3));
+
+        // Assert
+        assertThat(repository.findById(1).state()).isEqualTo(DeviceState.IN_USE);
+        assertThat(repository.findById(3)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM device_tombstone WHERE id = 3", Integer.class)).isEqualTo(1);
+        assertThat(events.stream(DeviceChangedEvent.class)).containsExactly(
+                new DeviceChangedEvent(testDevice1, updated), new DeviceChangedEvent(testDevice3, null));
+    }
+
+    @Test
+    void deleteAll_ShouldThrowException_WhenDeviceDoesNotExist() {
+        // Act & Assert
+        assertThatThrownBy(() -> repository.deleteAll(List.of(testDevice1, new Device(999, "Missing", "Brand A", DeviceState.AVAILABLE))))
+                .isInstanceOf(BusinessRulesException.class)
+                .hasMessageContaining("Device not found for deletion: 999");
+    }
 }
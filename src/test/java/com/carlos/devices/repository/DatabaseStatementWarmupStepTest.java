@@ -0,0 +1,82 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.warmup.WarmupProgress;
+import com.carlos.devices.warmup.WarmupProperties;
+import com.carlos.devices.warmup.WarmupRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link DatabaseStatementWarmupStep}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class DatabaseStatementWarmupStepTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SingleConnectionDataSource connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        jdbcTemplate.update("DELETE FROM device");
+        connection = new SingleConnectionDataSource(dataSource.getConnection(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connection.destroy();
+    }
+
+    @Test
+    void run_ShouldPrepareEveryStatementOnTheServer_WithoutChangingAnything() {
+        // Arrange
+        repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        List<?> devices = jdbcTemplate.queryForList("SELECT * FROM device");
+        long lastId = jdbcTemplate.queryForObject("SELECT last_value FROM device_id_seq", Long.class);
+        WarmupProgress progress = new WarmupProgress();
+
+        // Act
+        new WarmupRunner(List.of(new DatabaseStatementWarmupStep(connection)), progress,
+                new WarmupProperties(true, Duration.ofMinutes(1), 0, 1)).run(new DefaultApplicationArguments());
+
+        // Assert
+        WarmupProgress.StageReport stage = progress.report().stages().getFirst();
+        assertThat(stage.status()).isEqualTo(WarmupProgress.Status.COMPLETED);
+        assertThat(stage.completed()).isEqualTo(DatabaseStatementWarmupStep.STATEMENTS.size() + 1);
+        List<String> prepared = new JdbcTemplate(connection).queryForList(
+                "SELECT statement FROM pg_prepared_statements WHERE statement LIKE '%device%' AND generic_plans + custom_plans >= ?",
+                String.class, DatabaseStatementWarmupStep.GENERIC_PLAN_EXECUTIONS);
+        assertThat(prepared).hasSize(DatabaseStatementWarmupStep.STATEMENTS.size());
+        assertThat(jdbcTemplate.queryForList("SELECT * FROM device")).isEqualTo(devices);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_value FROM device_id_seq", Long.class)).isEqualTo(lastId);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM device_tombstone WHERE id < 0", Integer.class)).isZero();
+    }
+}
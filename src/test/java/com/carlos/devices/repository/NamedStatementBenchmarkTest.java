@@ -0,0 +1,255 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency and database time of the repository statements run as before, with the driver default prepare
+ * threshold and the insert asking for generated keys, and as {@link NamedStatement}s prepared on the server
+ * from their first run with an {@code INSERT ... RETURNING id}.
+ * <p>
+ * {@code benchmark.statements.callers} callers run {@code benchmark.statements.ops} operations in each mode,
+ * reads by id, state updates, creations and lists by brand, on connections they replace every
+ * {@code benchmark.statements.ops-per-connection} operations, as the pool does when it recycles or evicts
+ * connections. The database runs {@code pg_stat_statements} with planning tracked, so that the plans made and
+ * the time the server spent planning and executing are read for each mode, as a measure of its CPU. The p50
+ * and p99 operation times and the database figures are printed; the named statements must be planned less
+ * often. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Testcontainers
+@Tag("benchmark")
+class NamedStatementBenchmarkTest {
+
+    private static final int CALLERS = Integer.getInteger("benchmark.statements.callers", 4);
+    private static final int OPS = Integer.getInteger("benchmark.statements.ops", 40_000);
+    private static final int OPS_PER_CONNECTION = Integer.getInteger("benchmark.statements.ops-per-connection", 200);
+    private static final int DEVICES = 1_000;
+    private static final int BRANDS = 20;
+    private static final String LEGACY_INSERT_QUERY = "INSERT INTO device (name, brand, state, creation_time) VALUES (?, ?, ?, ?)";
+    private static final String DATABASE_TIME_QUERY = "SELECT coalesce(sum(plans), 0) AS plans, "
+            + "coalesce(sum(total_plan_time), 0) AS plan_time, coalesce(sum(total_exec_time), 0) AS exec_time "
+            + "FROM pg_stat_statements WHERE query LIKE '%device%' AND query NOT LIKE '%pg_stat_statements%'";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"))
+            .withCommand("postgres", "-c", "shared_preload_libraries=pg_stat_statements",
+                    "-c", "pg_stat_statements.track_planning=on");
+
+    @DynamicPropertySource
+    static void statementProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private DatabaseDeviceRepository deviceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ThreadLocal<SingleConnectionDataSource> connection = new ThreadLocal<>();
+    private final ThreadLocal<Operations> operations = new ThreadLocal<>();
+
+    private record Result(double p50Micros, double p99Micros, long plans, double planMillis, double executeMillis) {
+    }
+
+    /**
+     * The operations of a mode, on the JDBC template of one connection.
+     */
+    private interface Operations {
+
+        void findById(int id);
+
+        void update(int id, String brand, DeviceState state);
+
+        void create(String name, String brand);
+
+        void findByBrand(String brand);
+    }
+
+    @Test
+    void namedStatements_ShouldBePlannedLessOften() throws Exception {
+        // Arrange
+        jdbcTemplate.update("DELETE FROM device");
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_stat_statements");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            ids.add(deviceRepository.create(new CreateUpdateDevice("Bench Device " + i, "Bench Brand " + i % BRANDS, null)).id());
+        }
+
+        // Act
+        run(NamedStatementBenchmarkTest::legacy, ids, OPS / 4);
+        Result before = run(NamedStatementBenchmarkTest::legacy, ids, OPS);
+        run(NamedStatementBenchmarkTest::named, ids, OPS / 4);
+        Result after = run(NamedStatementBenchmarkTest::named, ids, OPS);
+
+        // Assert
+        System.out.printf("%d operations by %d callers, %d per connection:%n", OPS, CALLERS, OPS_PER_CONNECTION);
+        System.out.printf("  before: p50 %.0f us, p99 %.0f us; %d plans, planning %.0f ms, executing %.0f ms%n",
+                before.p50Micros(), before.p99Micros(), before.plans(), before.planMillis(), before.executeMillis());
+        System.out.printf("  named statements: p50 %.0f us, p99 %.0f us; %d plans, planning %.0f ms, executing %.0f ms%n",
+                after.p50Micros(), after.p99Micros(), after.plans(), after.planMillis(), after.executeMillis());
+        assertThat(after.plans()).isLessThan(before.plans());
+    }
+
+    private static Operations legacy(JdbcTemplate template) {
+        return new Operations() {
+            @Override
+            public void findById(int id) {
+                template.query(DatabaseDeviceRepository.SELECT_DEVICE_QUERY, new DeviceResultSetExtractor(), id);
+            }
+
+            @Override
+            public void update(int id, String brand, DeviceState state) {
+                template.query(DatabaseDeviceRepository.UPDATE_DEVICE_QUERY, new DeviceResultSetExtractor(),
+                        "Bench Device", brand, state.name(), id);
+            }
+
+            @Override
+            public void create(String name, String brand) {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+                template.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(LEGACY_INSERT_QUERY, Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, name);
+                    ps.setString(2, brand);
+                    ps.setString(3, DeviceState.AVAILABLE.name());
+                    ps.setObject(4, LocalDateTime.now(), java.sql.Types.TIMESTAMP);
+                    return ps;
+                }, keyHolder);
+            }
+
+            @Override
+            public void findByBrand(String brand) {
+                template.query(DatabaseDeviceRepository.SELECT_ALL_DEVICES_BY_BRAND_QUERY, new DeviceResultSetExtractor(), brand);
+            }
+        };
+    }
+
+    private static Operations named(JdbcTemplate template) {
+        DatabaseDeviceRepository repository = new DatabaseDeviceRepository(template, event -> {
+        });
+        return new Operations() {
+            @Override
+            public void findById(int id) {
+                repository.findById(id);
+            }
+
+            @Override
+            public void update(int id, String brand, DeviceState state) {
+                repository.update(id, new CreateUpdateDevice("Bench Device", brand, state));
+            }
+
+            @Override
+            public void create(String name, String brand) {
+                repository.create(new CreateUpdateDevice(name, brand, null));
+            }
+
+            @Override
+            public void findByBrand(String brand) {
+                repository.findByBrand(brand);
+            }
+        };
+    }
+
+    /**
+     * Runs the operations of a mode, then returns the operation time percentiles and what the database spent on
+     * the device statements meanwhile.
+     */
+    private Result run(Function<JdbcTemplate, Operations> mode, List<Integer> ids, int ops) throws Exception {
+        jdbcTemplate.queryForObject("SELECT count(*) FROM (SELECT pg_stat_statements_reset()) reset", Long.class);
+        long[] nanos = new long[ops];
+        try (ExecutorService callers = Executors.newFixedThreadPool(CALLERS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int caller = 0; caller < CALLERS; caller++) {
+                int first = caller;
+                futures.add(callers.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(first);
+                    int done = 0;
+                    for (int op = first; op < ops; op += CALLERS) {
+                        if (done++ % OPS_PER_CONNECTION == 0) {
+                            closeConnection();
+                            openConnection(mode);
+                        }
+                        long start = System.nanoTime();
+                        call(random, ids);
+                        nanos[op] = System.nanoTime() - start;
+                    }
+                    closeConnection();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Arrays.sort(nanos);
+        Map<String, Object> database = jdbcTemplate.queryForMap(DATABASE_TIME_QUERY);
+        return new Result(nanos[ops / 2] / 1e3, nanos[(int) (ops * 0.99)] / 1e3,
+                ((Number) database.get("plans")).longValue(), ((Number) database.get("plan_time")).doubleValue(),
+                ((Number) database.get("exec_time")).doubleValue());
+    }
+
+    private void openConnection(Function<JdbcTemplate, Operations> mode) throws Exception {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()), true);
+        connection.set(dataSource);
+        operations.set(mode.apply(new JdbcTemplate(dataSource)));
+    }
+
+    private void closeConnection() {
+        SingleConnectionDataSource dataSource = connection.get();
+        if (dataSource != null) {
+            dataSource.destroy();
+            connection.remove();
+        }
+    }
+
+    private void call(SplittableRandom random, List<Integer> ids) {
+        Operations ops = operations.get();
+        int index = random.nextInt(ids.size());
+        int id = ids.get(index);
+        int pick = random.nextInt(100);
+        if (pick < 60) {
+            ops.findById(id);
+        } else if (pick < 80) {
+            ops.update(id, "Bench Brand " + index % BRANDS, random.nextBoolean() ? DeviceState.IN_USE : DeviceState.AVAILABLE);
+        } else if (pick < 90) {
+            // Not one of the listed brands, so that the lists stay the same size in both modes
+            ops.create("Bench Device", "Bench Created");
+        } else {
+            ops.findByBrand("Bench Brand " + random.nextInt(BRANDS));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.carlos.devices.repository;
+
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link NamedStatement}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class NamedStatementTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SingleConnectionDataSource connection;
+    private JdbcTemplate connectionTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        jdbcTemplate.update("DELETE FROM device");
+        connection = new SingleConnectionDataSource(dataSource.getConnection(), true);
+        connectionTemplate = new JdbcTemplate(connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connection.destroy();
+    }
+
+    @Test
+    void query_ShouldPrepareOnTheServerAtTheFirstRun_AndReuseItAfterwards() {
+        // Arrange
+        Device device = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        NamedStatement statement = new NamedStatement("findById", DatabaseDeviceRepository.SELECT_DEVICE_QUERY);
+
+        // Act
+        Collection<Device> first = statement.query(connectionTemplate, new DeviceResultSetExtractor(), device.id());
+        List<String> preparedAfterFirstRun = preparedStatements();
+        Collection<Device> second = statement.query(connectionTemplate, new DeviceResultSetExtractor(), device.id());
+
+        // Assert
+        assertThat(first).extracting(Device::id).containsExactly(device.id());
+        assertThat(second).extracting(Device::id).containsExactly(device.id());
+        assertThat(preparedAfterFirstRun).contains(DatabaseDeviceRepository.SELECT_DEVICE_QUERY.replace("?", "$1"));
+        assertThat(statement.count(NamedStatement.Phase.EXECUTE, false)).isEqualTo(1);
+        assertThat(statement.count(NamedStatement.Phase.EXECUTE, true)).isEqualTo(1);
+        assertThat(statement.count(NamedStatement.Phase.READ, true)).isEqualTo(1);
+    }
+
+    @Test
+    void bindTo_ShouldPublishTheTimeOfEveryPhase() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NamedStatement statement = new NamedStatement("create", DatabaseDeviceRepository.INSERT_DEVICE_QUERY);
+        statement.bindTo(registry);
+
+        // Act
+        Integer id = statement.query(connectionTemplate, rs -> rs.next() ? rs.getInt(1) : null,
+                "Device 1", "Brand A", "AVAILABLE", java.time.LocalDateTime.now());
+
+        // Assert
+        assertThat(id).isNotNull();
+        assertThat(registry.find(NamedStatement.TIMER).tags("statement", "create", "prepared", "false").functionTimers())
+                .hasSize(4)
+                .allSatisfy(timer -> assertThat(timer.count()).isEqualTo(1));
+        FunctionTimer execute = registry.find(NamedStatement.TIMER)
+                .tags("statement", "create", "phase", "execute", "prepared", "false").functionTimer();
+        assertThat(execute).isNotNull();
+        assertThat(execute.totalTime(java.util.concurrent.TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void repositoryCreate_ShouldReturnTheIdsFromTheInsert() {
+        // Act
+        Device created = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        List<Device> batch = repository.createAll(List.of(new CreateUpdateDevice("Device 2", "Brand A", null),
+                new CreateUpdateDevice("Device 3", "Brand B", null)));
+
+        // Assert
+        assertThat(repository.findById(created.id()).name()).isEqualTo("Device 1");
+        assertThat(batch).extracting(Device::id).doesNotContainNull().doesNotHaveDuplicates()
+                .allSatisfy(id -> assertThat(id).isGreaterThan(created.id()));
+        assertThat(batch).allSatisfy(device -> assertThat(repository.findById(device.id()).name()).isEqualTo(device.name()));
+    }
+
+    private List<String> preparedStatements() {
+        return connectionTemplate.queryForList(
+                "SELECT statement FROM pg_prepared_statements WHERE statement LIKE '%device%'", String.class);
+    }
+}
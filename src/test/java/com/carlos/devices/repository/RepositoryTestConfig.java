@@ -2,6 +2,7 @@ package com.carlos.devices.repository;
 
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -22,7 +23,8 @@ public class RepositoryTestConfig {
     @Bean
     @ServiceConnection
     PostgreSQLContainer<?> postgresContainer() {
-        PostgreSQLContainer<?> container = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        // Pinned to the version the query-plan baselines were recorded on
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
         container.start();
         return container;
     }
@@ -43,7 +45,7 @@ public class RepositoryTestConfig {
     }
 
     @Bean
-    public DatabaseDeviceRepository databaseDeviceRepository(JdbcTemplate jdbcTemplate) {
-        return new DatabaseDeviceRepository(jdbcTemplate);
+    public DatabaseDeviceRepository databaseDeviceRepository(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        return new DatabaseDeviceRepository(jdbcTemplate, eventPublisher);
     }
 }
@@ -0,0 +1,142 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link CatalogSnapshot}.
+ */
+class CatalogSnapshotTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+    private static final ChangeWatermark WATERMARK = new ChangeWatermark(1234, 56);
+
+    @TempDir
+    private Path directory;
+
+    private Path file;
+    private DeviceColumns columns;
+    private List<Device> devices;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("catalog").resolve("catalog.snapshot");
+        columns = new DeviceColumns(0);
+        devices = List.of(
+                new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, CREATED),
+                new Device(2, "Téléphone", "Brand B", DeviceState.IN_USE, CREATED),
+                new Device(4, "Device 4", "Brand A", DeviceState.DISABLED, CREATED));
+        devices.forEach(columns::upsert);
+        columns.upsert(new Device(3, "Deleted device", "Brand C", DeviceState.AVAILABLE, CREATED));
+        columns.delete(3);
+    }
+
+    @Test
+    void read_ShouldReturnTheLiveDevicesAndTheWatermarkWritten() throws IOException {
+        // Arrange
+        CatalogSnapshot.write(file, columns, WATERMARK);
+
+        // Act
+        CatalogSnapshot snapshot = CatalogSnapshot.read(file);
+
+        // Assert
+        assertThat(snapshot.watermark()).isEqualTo(WATERMARK);
+        assertThat(snapshot.columns().all()).containsExactlyElementsOf(devices);
+        assertThat(snapshot.columns().withBrand("Brand A")).containsExactly(devices.get(0), devices.get(2));
+        assertThat(snapshot.columns().withState(DeviceState.IN_USE)).containsExactly(devices.get(1));
+        assertThat(snapshot.writtenAt()).isPositive();
+        assertThat(directory.resolve("catalog").resolve("catalog.snapshot.tmp")).doesNotExist();
+    }
+
+    @Test
+    void read_ShouldLeaveTheFileUnchanged_WhenTheColumnsAreWritten() throws IOException {
+        // Arrange
+        CatalogSnapshot.write(file, columns, WATERMARK);
+        byte[] written = Files.readAllBytes(file);
+        CatalogSnapshot snapshot = CatalogSnapshot.read(file);
+        Device added = new Device(10, "A device with a longer name than the others", "Brand D", DeviceState.AVAILABLE, CREATED);
+
+        // Act
+        snapshot.columns().upsert(new Device(1, "Renamed", "Brand A", DeviceState.IN_USE, CREATED));
+        snapshot.columns().delete(2);
+        snapshot.columns().upsert(added);
+
+        // Assert
+        assertThat(snapshot.columns().all()).containsExactly(
+                new Device(1, "Renamed", "Brand A", DeviceState.IN_USE, CREATED), devices.get(2), added);
+        assertThat(Files.readAllBytes(file)).isEqualTo(written);
+        assertThat(CatalogSnapshot.read(file).columns().all()).containsExactlyElementsOf(devices);
+    }
+
+    @Test
+    void read_ShouldRejectAFileWithACorruptByte() throws IOException {
+        // Arrange
+        CatalogSnapshot.write(file, columns, WATERMARK);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(CatalogSnapshot.HEADER_BYTES + 2);
+            int value = raf.read();
+            raf.seek(CatalogSnapshot.HEADER_BYTES + 2);
+            raf.write(value ^ 0x10);
+        }
+
+        // Act & Assert
+        assertThatThrownBy(() -> CatalogSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum mismatch");
+    }
+
+    @Test
+    void read_ShouldRejectAnotherVersion() throws IOException {
+        // Arrange
+        CatalogSnapshot.write(file, columns, WATERMARK);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            raf.write(CatalogSnapshot.VERSION + 1);
+        }
+
+        // Act & Assert
+        assertThatThrownBy(() -> CatalogSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void read_ShouldRejectATruncatedFile() throws IOException {
+        // Arrange
+        CatalogSnapshot.write(file, columns, WATERMARK);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 8);
+        }
+
+        // Act & Assert
+        assertThatThrownBy(() -> CatalogSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("does not match its header");
+    }
+
+    @Test
+    void read_ShouldRejectAFileThatIsNotASnapshot() throws IOException {
+        // Arrange
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "id,name,brand,state,creation_time\n".repeat(10));
+
+        // Act & Assert
+        assertThatThrownBy(() -> CatalogSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a device catalog snapshot");
+    }
+}
@@ -0,0 +1,196 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap footprint and latency of the device list queries, served by the {@link DeviceRepository} over JDBC and
+ * by the {@link ColumnarDeviceCatalog}.
+ * <p>
+ * {@code benchmark.catalog.devices} devices of 500 brands are seeded, with 10% of them in use. The heap taken
+ * by the catalog is compared with the heap taken by the same devices held as {@link Device} objects, and the
+ * median time of {@code benchmark.catalog.runs} runs of each list query is printed for both paths. The catalog
+ * must answer the brand and state queries faster than JDBC.
+ * <p>
+ * The time to warm a new instance is measured from a scan of the table and from a {@link CatalogSnapshot} that
+ * is {@value #CHANGES_SINCE_SNAPSHOT} changes behind: the time until the snapshot serves queries and until it
+ * has caught up, which must be shorter than the scan. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Testcontainers
+@Tag("benchmark")
+class ColumnarCatalogBenchmarkTest {
+
+    private static final int DEVICES = Integer.getInteger("benchmark.catalog.devices", 200_000);
+    private static final int RUNS = Integer.getInteger("benchmark.catalog.runs", 50);
+    private static final int CHANGES_SINCE_SNAPSHOT = 1000;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DeviceChangeFeed changeFeed;
+
+    @TempDir
+    private Path directory;
+
+    private void seed() {
+        jdbcTemplate.execute("TRUNCATE device RESTART IDENTITY");
+        jdbcTemplate.update("""
+                INSERT INTO device (name, brand, state, creation_time)
+                SELECT 'Device ' || g, 'Brand ' || (g % 500), CASE WHEN g % 10 = 0 THEN 'IN_USE' ELSE 'AVAILABLE' END,
+                       now() - make_interval(secs => g)
+                FROM generate_series(1, ?) g
+                """, DEVICES);
+        jdbcTemplate.execute("VACUUM ANALYZE device");
+    }
+
+    private ColumnarDeviceCatalog catalog(Path snapshotFile) {
+        return new ColumnarDeviceCatalog(dataSource, transactionManager, changeFeed,
+                new ColumnarCatalogProperties(true, 65536, 10000, Duration.ofHours(1), snapshotFile, Duration.ofHours(1)));
+    }
+
+    @Test
+    void listQueries_FromTheCatalog_ShouldOutperformJdbc() throws Exception {
+        // Arrange
+        seed();
+        long heapBefore = usedHeap();
+        Collection<Device> heapCopy = deviceRepository.findAll();
+        long objectsHeap = usedHeap() - heapBefore;
+        assertThat(heapCopy).hasSize(DEVICES);
+        heapCopy = null;
+
+        heapBefore = usedHeap();
+        long loadStart = System.nanoTime();
+        try (ColumnarDeviceCatalog catalog = catalog(null)) {
+            catalog.refresh();
+            long loadMillis = Duration.ofNanos(System.nanoTime() - loadStart).toMillis();
+            long catalogHeap = usedHeap() - heapBefore;
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            catalog.bindTo(registry);
+            long offHeap = (long) registry.get("devices.catalog.off.heap").gauge().value();
+
+            // Act
+            double jdbcAll = median(deviceRepository::findAll);
+            double catalogAll = median(catalog::findAll);
+            double jdbcBrand = median(() -> deviceRepository.findByBrand("Brand 7"));
+            double catalogBrand = median(() -> catalog.findByBrand("Brand 7"));
+            double jdbcState = median(() -> deviceRepository.findByState(DeviceState.IN_USE));
+            double catalogState = median(() -> catalog.findByState(DeviceState.IN_USE));
+
+            // Assert
+            System.out.printf("%d devices: Device objects %d KB of heap, catalog %d KB of heap and %d KB off-heap, "
+                    + "loaded in %d ms%n", DEVICES, objectsHeap / 1024, catalogHeap / 1024, offHeap / 1024, loadMillis);
+            System.out.printf("Median ms (JDBC / catalog): findAll %.2f / %.2f, findByBrand %.2f / %.2f, "
+                    + "findByState %.2f / %.2f%n", jdbcAll, catalogAll, jdbcBrand, catalogBrand, jdbcState, catalogState);
+            assertThat(catalog.findAll()).hasSize(DEVICES);
+            assertThat(catalogBrand).isLessThan(jdbcBrand);
+            assertThat(catalogState).isLessThan(jdbcState);
+        }
+    }
+
+    @Test
+    void startup_FromASnapshot_ShouldWarmFasterThanAScan() throws Exception {
+        // Arrange
+        seed();
+        Path snapshotFile = directory.resolve("catalog.snapshot");
+        long scanMillis;
+        long scanStart = System.nanoTime();
+        try (ColumnarDeviceCatalog scanned = catalog(snapshotFile)) {
+            scanned.refresh();
+            scanMillis = Duration.ofNanos(System.nanoTime() - scanStart).toMillis();
+            scanned.writeSnapshot();
+        }
+        // The changes written while the new instance was being deployed
+        jdbcTemplate.update("UPDATE device SET state = 'IN_USE', change_seq = nextval('device_change_seq'), "
+                + "change_txid = pg_current_xact_id() WHERE id <= ?", CHANGES_SINCE_SNAPSHOT);
+
+        // Act
+        long start = System.nanoTime();
+        try (ColumnarDeviceCatalog warmed = catalog(snapshotFile)) {
+            while (!warmed.isLoaded()) {
+                Thread.onSpinWait();
+            }
+            long servingMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            warmed.refresh();
+            long currentMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            // Assert
+            System.out.printf("Time to warm %d devices: scan %d ms, snapshot serving after %d ms and caught up with "
+                    + "%d changes after %d ms%n", DEVICES, scanMillis, servingMillis, CHANGES_SINCE_SNAPSHOT, currentMillis);
+            assertThat(warmed.findByState(DeviceState.IN_USE)).hasSize(jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM device WHERE state = 'IN_USE'", Integer.class));
+            assertThat(currentMillis).isLessThan(scanMillis);
+        }
+    }
+
+    /**
+     * Warms the query up, then returns its median time in milliseconds.
+     */
+    private static double median(Supplier<Collection<Device>> query) {
+        for (int i = 0; i < Math.max(RUNS / 5, 1); i++) {
+            query.get();
+        }
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,252 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.model.ChangeWatermark;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.DatabaseDeviceRepository;
+import com.carlos.devices.repository.RepositoryTestConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration tests for {@link ColumnarDeviceCatalog}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ColumnarDeviceCatalogTest {
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DeviceChangeFeed changeFeed;
+
+    @TempDir
+    private Path directory;
+
+    private ColumnarDeviceCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+        jdbcTemplate.update("DELETE FROM device_tombstone");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        catalog.close();
+    }
+
+    private void createCatalog() {
+        createCatalog(null);
+    }
+
+    private void createCatalog(Path snapshotFile) {
+        // Intervals long enough for the catalog to be refreshed and saved only when the tests ask for it
+        catalog = new ColumnarDeviceCatalog(dataSource, transactionManager, changeFeed,
+                new ColumnarCatalogProperties(true, 16, 2, Duration.ofHours(1), snapshotFile, Duration.ofHours(1)));
+        catalog.refresh();
+    }
+
+    @Test
+    void refresh_ShouldLoadEveryDevice() {
+        // Arrange
+        Device first = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        Integer secondId = repository.create(new CreateUpdateDevice("Device 2", "Brand B", null)).id();
+        Integer thirdId = repository.create(new CreateUpdateDevice("Device 3", "Brand A", null)).id();
+        repository.update(secondId, new CreateUpdateDevice("Device 2", "Brand B", DeviceState.IN_USE));
+        repository.update(thirdId, new CreateUpdateDevice("Device 3", "Brand A", DeviceState.IN_USE));
+        Device second = repository.findById(secondId);
+        Device third = repository.findById(thirdId);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // Act
+        createCatalog();
+        catalog.bindTo(registry);
+
+        // Assert
+        assertThat(catalog.isLoaded()).isTrue();
+        assertThat(catalog.findAll()).containsExactly(first, second, third);
+        assertThat(catalog.findByBrand("Brand A")).containsExactly(first, third);
+        assertThat(catalog.findByState(DeviceState.IN_USE)).containsExactly(second, third);
+        assertThat(registry.get("devices.catalog.devices").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("devices.catalog.brands").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("devices.catalog.off.heap").gauge().value()).isPositive();
+    }
+
+    @Test
+    void refresh_ShouldApplyTheChangesWrittenAfterTheLoad() {
+        // Arrange
+        Device updated = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        Device deleted = repository.create(new CreateUpdateDevice("Device 2", "Brand A", null));
+        createCatalog();
+        repository.update(updated.id(), new CreateUpdateDevice("Device 1", "Brand B", DeviceState.IN_USE));
+        repository.delete(deleted.id());
+        // A bulk import, which publishes no device events
+        jdbcTemplate.update("INSERT INTO device (name, brand, state, creation_time) VALUES ('Imported', 'Brand C', 'AVAILABLE', now())");
+
+        // Act
+        catalog.refresh();
+
+        // Assert
+        assertThat(catalog.findAll()).extracting(Device::name, Device::brand, Device::state).containsExactly(
+                tuple("Device 1", "Brand B", DeviceState.IN_USE),
+                tuple("Imported", "Brand C", DeviceState.AVAILABLE));
+        assertThat(catalog.findByBrand("Brand A")).isEmpty();
+    }
+
+    @Test
+    void onDeviceChanged_ShouldApplyTheChangeBeforeTheNextRefresh() {
+        // Arrange
+        Device device = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        createCatalog();
+        Device updated = new Device(device.id(), device.name(), device.brand(), DeviceState.DISABLED, device.creationTime());
+
+        // Act
+        catalog.onDeviceChanged(new DeviceChangedEvent(device, updated));
+
+        // Assert
+        assertThat(catalog.findByState(DeviceState.DISABLED)).containsExactly(updated);
+
+        catalog.onDeviceChanged(new DeviceChangedEvent(updated, null));
+        assertThat(catalog.findAll()).isEmpty();
+    }
+
+    @Test
+    void refresh_WithSnapshot_ShouldStartFromTheSnapshotAndCatchUpFromItsWatermark() throws Exception {
+        // Arrange
+        Path snapshotFile = directory.resolve("catalog.snapshot");
+        Device kept = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        Device updated = repository.create(new CreateUpdateDevice("Device 2", "Brand A", null));
+        Device deleted = repository.create(new CreateUpdateDevice("Device 3", "Brand A", null));
+        createCatalog(snapshotFile);
+        catalog.writeSnapshot();
+        catalog.close();
+        repository.update(updated.id(), new CreateUpdateDevice("Device 2", "Brand B", DeviceState.IN_USE));
+        repository.delete(deleted.id());
+        Device created = repository.findById(repository.create(new CreateUpdateDevice("Device 4", "Brand C", null)).id());
+        // A change that bypasses the change feed is only seen by a scan of the table
+        jdbcTemplate.update("UPDATE device SET name = 'Not in the feed' WHERE id = ?", kept.id());
+
+        // Act
+        createCatalog(snapshotFile);
+
+        // Assert
+        assertThat(catalog.findAll()).containsExactly(kept, repository.findById(updated.id()), created);
+    }
+
+    @Test
+    void writeSnapshot_ShouldNotHoldQueriesOrWrites_WhileTheFileIsWritten() throws Exception {
+        // Arrange
+        Path snapshotFile = directory.resolve("catalog.snapshot");
+        Device device = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch saved = new CountDownLatch(1);
+        catalog = new ColumnarDeviceCatalog(dataSource, transactionManager, changeFeed,
+                new ColumnarCatalogProperties(true, 16, 2, Duration.ofHours(1), snapshotFile, Duration.ofHours(1))) {
+            @Override
+            void saveSnapshot(ByteBuffer encoded) throws IOException {
+                // A slow disk
+                saving.countDown();
+                try {
+                    saved.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.saveSnapshot(encoded);
+            }
+        };
+        catalog.refresh();
+        CompletableFuture<Void> snapshot = CompletableFuture.runAsync(() -> {
+            try {
+                catalog.writeSnapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        assertThat(saving.await(10, TimeUnit.SECONDS)).isTrue();
+        Device updated = new Device(device.id(), device.name(), device.brand(), DeviceState.DISABLED, device.creationTime());
+
+        // Act
+        CompletableFuture.runAsync(() -> catalog.onDeviceChanged(new DeviceChangedEvent(device, updated)))
+                .get(5, TimeUnit.SECONDS);
+        Collection<Device> found = CompletableFuture.supplyAsync(catalog::findAll).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(found).containsExactly(updated);
+
+        saved.countDown();
+        snapshot.get(10, TimeUnit.SECONDS);
+        assertThat(CatalogSnapshot.read(snapshotFile).columns().all()).containsExactly(device);
+    }
+
+    @Test
+    void refresh_WithSnapshotAheadOfTheDatabase_ShouldScanTheTable() throws Exception {
+        // Arrange
+        Path snapshotFile = directory.resolve("catalog.snapshot");
+        Device device = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        DeviceColumns otherDatabase = new DeviceColumns(0);
+        otherDatabase.upsert(new Device(device.id() + 1000, "Other device", "Brand A", DeviceState.AVAILABLE, device.creationTime()));
+        CatalogSnapshot.write(snapshotFile, otherDatabase, new ChangeWatermark(Long.MAX_VALUE / 2, 1));
+
+        // Act
+        createCatalog(snapshotFile);
+
+        // Assert
+        assertThat(catalog.findAll()).containsExactly(device);
+    }
+
+    @Test
+    void refresh_WithCorruptSnapshot_ShouldScanTheTable() throws Exception {
+        // Arrange
+        Path snapshotFile = directory.resolve("catalog.snapshot");
+        Device device = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        Files.write(snapshotFile, new byte[256]);
+
+        // Act
+        createCatalog(snapshotFile);
+
+        // Assert
+        assertThat(catalog.findAll()).containsExactly(device);
+    }
+}
@@ -0,0 +1,154 @@
+package com.carlos.devices.repository.columnar;
+
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link DeviceColumns}.
+ */
+class DeviceColumnsTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+    private final DeviceColumns columns = new DeviceColumns(0);
+
+    private static Device device(int id, String name, String brand, DeviceState state) {
+        return new Device(id, name, brand, state, CREATED);
+    }
+
+    @Test
+    void upsert_ShouldStoreEveryFieldOfTheDevice() {
+        // Arrange
+        Device device = new Device(7, "Téléphone 📱", "Brand A", DeviceState.IN_USE, CREATED);
+
+        // Act
+        columns.upsert(device);
+
+        // Assert
+        assertThat(columns.all()).containsExactly(device);
+        assertThat(columns.devices()).isEqualTo(1);
+    }
+
+    @Test
+    void upsert_ShouldKeepTheRowsInIdOrder_WhenDevicesArriveOutOfOrder() {
+        // Arrange
+        Device third = device(30, "Device 30", "Brand A", DeviceState.AVAILABLE);
+        Device first = device(10, "Device 10", "Brand B", DeviceState.IN_USE);
+        Device second = device(20, "Device 20", "Brand A", DeviceState.DISABLED);
+
+        // Act
+        columns.upsert(third);
+        columns.upsert(first);
+        columns.upsert(second);
+
+        // Assert
+        assertThat(columns.all()).containsExactly(first, second, third);
+    }
+
+    @Test
+    void upsert_ShouldReplaceTheDeviceWithTheSameId() {
+        // Arrange
+        columns.upsert(device(1, "Device 1", "Brand A", DeviceState.AVAILABLE));
+        Device updated = device(1, "Renamed device", "Brand B", DeviceState.IN_USE);
+
+        // Act
+        columns.upsert(updated);
+
+        // Assert
+        assertThat(columns.all()).containsExactly(updated);
+        assertThat(columns.withBrand("Brand A")).isEmpty();
+        assertThat(columns.withBrand("Brand B")).containsExactly(updated);
+        assertThat(columns.withState(DeviceState.AVAILABLE)).isEmpty();
+    }
+
+    @Test
+    void withBrandAndWithState_ShouldOnlyReturnTheMatchingDevices() {
+        // Arrange
+        Device first = device(1, "Device 1", "Brand A", DeviceState.AVAILABLE);
+        Device second = device(2, "Device 2", "Brand B", DeviceState.IN_USE);
+        Device third = device(3, "Device 3", "Brand A", DeviceState.IN_USE);
+        columns.upsert(first);
+        columns.upsert(second);
+        columns.upsert(third);
+
+        // Act & Assert
+        assertThat(columns.withBrand("Brand A")).containsExactly(first, third);
+        assertThat(columns.withBrand("Brand C")).isEmpty();
+        assertThat(columns.withState(DeviceState.IN_USE)).containsExactly(second, third);
+        assertThat(columns.withState(DeviceState.DISABLED)).isEmpty();
+        assertThat(columns.brands()).isEqualTo(2);
+    }
+
+    @Test
+    void delete_ShouldHideTheDevice_AndAllowItBack() {
+        // Arrange
+        Device device = device(1, "Device 1", "Brand A", DeviceState.AVAILABLE);
+        columns.upsert(device);
+
+        // Act
+        boolean deleted = columns.delete(1);
+        boolean deletedAgain = columns.delete(1);
+
+        // Assert
+        assertThat(deleted).isTrue();
+        assertThat(deletedAgain).isFalse();
+        assertThat(columns.all()).isEmpty();
+        assertThat(columns.withBrand("Brand A")).isEmpty();
+        assertThat(columns.withState(DeviceState.AVAILABLE)).isEmpty();
+        assertThat(columns.devices()).isZero();
+
+        columns.upsert(device);
+        assertThat(columns.all()).containsExactly(device);
+    }
+
+    @Test
+    void delete_ShouldCompactTheRows_WhenAQuarterAreDeleted() {
+        // Arrange
+        List<Device> kept = new ArrayList<>();
+        for (int id = 1; id <= 4096; id++) {
+            Device device = device(id, "Device " + id, "Brand " + id % 7, DeviceState.AVAILABLE);
+            columns.upsert(device);
+            if (id % 4 != 0) {
+                kept.add(device);
+            }
+        }
+
+        // Act
+        for (int id = 4; id <= 4096; id += 4) {
+            columns.delete(id);
+        }
+
+        // Assert
+        assertThat(columns.devices()).isEqualTo(kept.size());
+        assertThat(columns.all()).containsExactlyElementsOf(kept);
+        assertThat(columns.withBrand("Brand 3")).allMatch(device -> device.id() % 4 != 0);
+    }
+
+    @Test
+    void upsert_ShouldKeepTheNames_WhenTheArenaIsRewritten() {
+        // Arrange
+        for (int id = 1; id <= 100; id++) {
+            columns.upsert(device(id, "Device " + id, "Brand A", DeviceState.AVAILABLE));
+        }
+
+        // Act
+        for (int round = 0; round < 50; round++) {
+            for (int id = 1; id <= 100; id++) {
+                columns.upsert(device(id, "Device " + id + " renamed " + round, "Brand A", DeviceState.AVAILABLE));
+            }
+        }
+
+        // Assert
+        assertThat(columns.all()).extracting(Device::name)
+                .allMatch(name -> name.endsWith(" renamed 49"))
+                .hasSize(100);
+        assertThat(columns.all().getFirst().name()).isEqualTo("Device 1 renamed 49");
+    }
+}
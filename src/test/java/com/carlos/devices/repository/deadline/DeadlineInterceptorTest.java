@@ -0,0 +1,120 @@
+package com.carlos.devices.repository.deadline;
+
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link DeadlineInterceptor}.
+ */
+class DeadlineInterceptorTest {
+
+    private final DeadlineProperties properties = new DeadlineProperties(true, "X-Request-Timeout",
+            Duration.ofSeconds(30), Duration.ofSeconds(60), Map.of("/api/device", Duration.ofSeconds(10)));
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(properties, new DeadlineMetrics(new SimpleMeterRegistry()));
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void preHandle_WithTimeoutHeader_ShouldBindTheRequestedDeadline() {
+        // Arrange
+        MockHttpServletRequest request = request("/api/device/{id}");
+        request.addHeader("X-Request-Timeout", "500ms");
+
+        // Act
+        interceptor.preHandle(request, response, new Object());
+
+        // Assert
+        assertThat(RequestDeadline.current().remaining()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void preHandle_WithMillisecondsHeader_ShouldBindTheRequestedDeadline() {
+        // Arrange
+        MockHttpServletRequest request = request("/api/device/{id}");
+        request.addHeader("X-Request-Timeout", "1500");
+
+        // Act
+        interceptor.preHandle(request, response, new Object());
+
+        // Assert
+        assertThat(RequestDeadline.current().remaining()).isGreaterThan(Duration.ofSeconds(1)).isLessThanOrEqualTo(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void preHandle_WithTimeoutOverTheMaximum_ShouldCapIt() {
+        // Arrange
+        MockHttpServletRequest request = request("/api/device/{id}");
+        request.addHeader("X-Request-Timeout", "10m");
+
+        // Act
+        interceptor.preHandle(request, response, new Object());
+
+        // Assert
+        assertThat(RequestDeadline.current().remaining()).isGreaterThan(Duration.ofSeconds(59)).isLessThanOrEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void preHandle_WithoutHeader_ShouldUseTheEndpointDefault() {
+        // Act
+        interceptor.preHandle(request("/api/device"), response, new Object());
+
+        // Assert
+        assertThat(RequestDeadline.current().remaining()).isGreaterThan(Duration.ofSeconds(9)).isLessThanOrEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void preHandle_WithoutHeaderOrEndpointDefault_ShouldUseTheGlobalDefault() {
+        // Act
+        interceptor.preHandle(request("/api/device/brand/{brand}"), response, new Object());
+
+        // Assert
+        assertThat(RequestDeadline.current().remaining()).isGreaterThan(Duration.ofSeconds(29)).isLessThanOrEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void preHandle_WithInvalidHeader_ShouldRejectTheRequest() {
+        // Arrange
+        MockHttpServletRequest request = request("/api/device");
+        request.addHeader("X-Request-Timeout", "soon");
+
+        // Act & Assert
+        assertThatThrownBy(() -> interceptor.preHandle(request, response, new Object()))
+                .isInstanceOf(BusinessRulesException.class)
+                .hasMessageContaining("X-Request-Timeout");
+        assertThat(RequestDeadline.current()).isNull();
+    }
+
+    @Test
+    void afterCompletion_ShouldUnbindTheDeadline() {
+        // Arrange
+        MockHttpServletRequest request = request("/api/device");
+        interceptor.preHandle(request, response, new Object());
+
+        // Act
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        // Assert
+        assertThat(RequestDeadline.current()).isNull();
+    }
+
+    private MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
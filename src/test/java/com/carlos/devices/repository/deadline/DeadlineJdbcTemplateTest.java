@@ -0,0 +1,113 @@
+package com.carlos.devices.repository.deadline;
+
+import com.carlos.devices.domain.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link DeadlineJdbcTemplate}: statements running past the request deadline must be
+ * cancelled on the server, and release the connection, as soon as the deadline passes.
+ */
+@Testcontainers
+class DeadlineJdbcTemplateTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DeadlineMetrics metrics = new DeadlineMetrics(registry);
+    private DeadlineJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new DeadlineJdbcTemplate(
+                new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void query_RunningPastTheDeadline_ShouldBeCancelledAtTheDeadline() {
+        // Arrange
+        RequestDeadline.bind(new RequestDeadline(System.nanoTime(), Duration.ofMillis(300), Duration.ofSeconds(30), metrics));
+
+        // Act
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> jdbcTemplate.queryForObject("SELECT pg_sleep(10)", String.class))
+                .isInstanceOf(DeadlineExceededException.class);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Assert
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(2));
+        assertThat(registry.get("devices.queries.cancelled").tag("reason", "deadline").counter().count()).isEqualTo(1);
+        assertThat(registry.get("devices.queries.connection.time.saved").timer().totalTime(TimeUnit.SECONDS))
+                .isGreaterThan(29);
+    }
+
+    @Test
+    void query_AfterTheDeadline_ShouldNotStart() {
+        // Arrange
+        RequestDeadline.bind(new RequestDeadline(System.nanoTime() - Duration.ofSeconds(1).toNanos(), Duration.ofMillis(500),
+                Duration.ofSeconds(30), metrics));
+
+        // Act & Assert
+        assertThatThrownBy(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(registry.get("devices.queries.cancelled").tag("reason", "expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void query_WithinTheDeadline_ShouldComplete() {
+        // Arrange
+        RequestDeadline.bind(new RequestDeadline(System.nanoTime(), Duration.ofSeconds(5), Duration.ofSeconds(30), metrics));
+
+        // Act
+        Integer result = jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+
+        // Assert
+        assertThat(result).isEqualTo(1);
+        assertThat(registry.get("devices.queries.cancelled").tag("reason", "deadline").counter().count()).isZero();
+    }
+
+    @Test
+    void query_WithoutDeadline_ShouldNotBeBounded() {
+        // Act
+        String result = jdbcTemplate.queryForObject("SELECT pg_sleep(0.5)::text", String.class);
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void propagate_ShouldBoundStatementsRunOnOtherThreads() throws Exception {
+        // Arrange
+        RequestDeadline.bind(new RequestDeadline(System.nanoTime(), Duration.ofMillis(300), Duration.ofSeconds(30), metrics));
+        Callable<String> task = RequestDeadline.propagate(() -> jdbcTemplate.queryForObject("SELECT pg_sleep(10)::text", String.class));
+
+        // Act & Assert
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertThatThrownBy(() -> executor.invokeAll(List.of(task)).getFirst().get())
+                    .hasCauseInstanceOf(DeadlineExceededException.class);
+        }
+    }
+}
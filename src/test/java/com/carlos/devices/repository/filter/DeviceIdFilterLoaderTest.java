@@ -0,0 +1,104 @@
+package com.carlos.devices.repository.filter;
+
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.repository.DatabaseDeviceRepository;
+import com.carlos.devices.repository.RepositoryTestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link DeviceIdFilterLoader}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class DeviceIdFilterLoaderTest {
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final DeviceIdFilter filter = new DeviceIdFilter();
+    private DeviceIdFilterLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+        loader = new DeviceIdFilterLoader(filter, jdbcTemplate, transactionManager,
+                new IdFilterProperties(true, Duration.ofMinutes(10), 100_000_000, 1_000));
+    }
+
+    @Test
+    void rebuild_ShouldOnlyRejectTheIdsOfDeletedDevices() {
+        // Arrange
+        Device first = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        Device deleted = repository.create(new CreateUpdateDevice("Device 2", "Brand A", null));
+        Device last = repository.create(new CreateUpdateDevice("Device 3", "Brand A", null));
+        repository.delete(deleted.id());
+
+        // Act
+        loader.rebuild();
+
+        // Assert
+        assertThat(loader.isInitialized()).isTrue();
+        assertThat(filter.highWater()).isEqualTo(last.id());
+        assertThat(filter.mightExist(first.id())).isTrue();
+        assertThat(filter.mightExist(deleted.id())).isFalse();
+        assertThat(filter.mightExist(last.id())).isTrue();
+    }
+
+    @Test
+    void rebuild_WithAnInsertInFlight_ShouldNotHideItOnceCommitted() throws Exception {
+        // Arrange: another instance takes an id but commits after a later insert and after the rebuild
+        Device before = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            int inFlight;
+            try (PreparedStatement ps = other.prepareStatement(
+                    "INSERT INTO device (name, brand, state, creation_time) VALUES ('Device 2', 'Brand A', 'AVAILABLE', now()) RETURNING id");
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                inFlight = rs.getInt(1);
+            }
+            Device later = repository.create(new CreateUpdateDevice("Device 3", "Brand A", null));
+
+            // Act
+            loader.rebuild();
+            other.commit();
+
+            // Assert
+            assertThat(filter.highWater()).isLessThan(inFlight);
+            assertThat(filter.mightExist(before.id())).isTrue();
+            assertThat(filter.mightExist(inFlight)).isTrue();
+            assertThat(filter.mightExist(later.id())).isTrue();
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM device WHERE id = ?", Integer.class, inFlight))
+                    .isEqualTo(1);
+        }
+    }
+}
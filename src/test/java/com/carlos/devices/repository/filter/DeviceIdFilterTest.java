@@ -0,0 +1,125 @@
+package com.carlos.devices.repository.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link DeviceIdFilter}.
+ */
+class DeviceIdFilterTest {
+
+    private final DeviceIdFilter filter = new DeviceIdFilter();
+
+    @Test
+    void mightExist_BeforeFirstRebuild_ShouldLetEveryIdThrough() {
+        // Act & Assert
+        assertThat(filter.mightExist(1)).isTrue();
+        assertThat(filter.mightExist(1_000)).isTrue();
+        assertThat(filter.highWater()).isEqualTo(-1);
+    }
+
+    @Test
+    void mightExist_AfterRebuild_ShouldOnlyRejectMissingIdsUpToHighWater() {
+        // Arrange
+        filter.rebuild(() -> 200, ids -> List.of(1, 63, 64, 200).forEach(ids::accept));
+
+        // Act & Assert
+        assertThat(IntStream.rangeClosed(0, 200).filter(filter::mightExist)).containsExactly(1, 63, 64, 200);
+        assertThat(filter.mightExist(201)).isTrue();
+        assertThat(filter.mightExist(-5)).isTrue();
+        assertThat(filter.highWater()).isEqualTo(200);
+    }
+
+    @Test
+    void addedAndRemoved_ShouldUpdateTheFilter() {
+        // Arrange
+        filter.rebuild(() -> 10, ids -> ids.accept(3));
+
+        // Act
+        filter.added(5);
+        filter.removed(3);
+
+        // Assert
+        assertThat(filter.mightExist(5)).isTrue();
+        assertThat(filter.mightExist(3)).isFalse();
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesMadeWhileScanning() {
+        // Arrange
+        filter.rebuild(() -> 10, ids -> ids.accept(1));
+
+        // Act
+        filter.rebuild(() -> 10, ids -> {
+            ids.accept(1);
+            ids.accept(2);
+            filter.added(7);
+            filter.removed(2);
+        });
+
+        // Assert
+        assertThat(IntStream.rangeClosed(0, 10).filter(filter::mightExist)).containsExactly(1, 7);
+    }
+
+    @Test
+    void rebuild_ShouldReplayChangesMadeBeforeTheHighWaterMarkIsRead() {
+        // Arrange
+        filter.rebuild(() -> 10, ids -> ids.accept(1));
+
+        // Act: a local create commits after the rebuild started, but before its snapshot is taken
+        filter.rebuild(() -> {
+            filter.added(5);
+            return 10;
+        }, ids -> ids.accept(1));
+
+        // Assert
+        assertThat(IntStream.rangeClosed(0, 10).filter(filter::mightExist)).containsExactly(1, 5);
+    }
+
+    @Test
+    void rebuild_WithNegativeHighWater_ShouldTurnTheFilterOff() {
+        // Arrange
+        filter.rebuild(() -> 10, ids -> ids.accept(1));
+
+        // Act
+        boolean built = filter.rebuild(() -> -1, ids -> ids.accept(1));
+
+        // Assert
+        assertThat(built).isFalse();
+        assertThat(filter.highWater()).isEqualTo(-1);
+        assertThat(filter.mightExist(2)).isTrue();
+    }
+
+    @Test
+    void rebuild_WhenScanFails_ShouldKeepThePreviousFilter() {
+        // Arrange
+        filter.rebuild(() -> 10, ids -> ids.accept(4));
+
+        // Act
+        assertThatThrownBy(() -> filter.rebuild(() -> 20, ids -> {
+            throw new IllegalStateException("scan failed");
+        })).isInstanceOf(IllegalStateException.class);
+        filter.added(6);
+
+        // Assert
+        assertThat(filter.highWater()).isEqualTo(10);
+        assertThat(IntStream.rangeClosed(0, 10).filter(filter::mightExist)).containsExactly(4, 6);
+    }
+
+    @Test
+    void clear_ShouldLetEveryIdThrough() {
+        // Arrange
+        filter.rebuild(() -> 10, ids -> ids.accept(4));
+
+        // Act
+        filter.clear();
+
+        // Assert
+        assertThat(filter.mightExist(5)).isTrue();
+    }
+}
@@ -0,0 +1,120 @@
+package com.carlos.devices.repository.filter;
+
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link IdFilteringDeviceRepository}.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdFilteringDeviceRepositoryTest {
+
+    @Mock
+    private DeviceRepository delegate;
+
+    private final DeviceIdFilter filter = new DeviceIdFilter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IdFilteringDeviceRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        filter.rebuild(() -> 10, ids -> ids.accept(1));
+        repository = new IdFilteringDeviceRepository(delegate, filter, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void findById_WithMissingId_ShouldNotQueryTheDelegate() {
+        // Act
+        Device device = repository.findById(2);
+
+        // Assert
+        assertThat(device).isNull();
+        verifyNoInteractions(delegate);
+        assertThat(meterRegistry.counter("devices.id.filter.skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void findById_WithKnownOrNewerId_ShouldQueryTheDelegate() {
+        // Arrange
+        Device device = new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now());
+        when(delegate.findById(1)).thenReturn(device);
+
+        // Act & Assert
+        assertThat(repository.findById(1)).isEqualTo(device);
+        assertThat(repository.findById(11)).isNull();
+        verify(delegate).findById(11);
+    }
+
+    @Test
+    void create_ShouldAddTheIdToTheFilter() {
+        // Arrange
+        CreateUpdateDevice request = new CreateUpdateDevice("Device 5", "Brand A", null);
+        when(delegate.create(request)).thenReturn(new Device(5, "Device 5", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now()));
+
+        // Act
+        repository.create(request);
+
+        // Assert
+        assertThat(filter.mightExist(5)).isTrue();
+    }
+
+    @Test
+    void delete_InTransaction_ShouldRemoveTheIdOnlyAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        repository.delete(1);
+
+        // Assert
+        verify(delegate).delete(1);
+        assertThat(filter.mightExist(1)).isTrue();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(filter.mightExist(1)).isFalse();
+    }
+
+    @Test
+    void createAllAndDeleteAll_InTransaction_ShouldUpdateTheFilterAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        List<CreateUpdateDevice> requests = List.of(new CreateUpdateDevice("Device 5", "Brand A", null));
+        Device existing = new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now());
+        when(delegate.createAll(requests)).thenReturn(List.of(new Device(5, "Device 5", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now())));
+
+        // Act
+        repository.createAll(requests);
+        repository.deleteAll(List.of(existing));
+
+        // Assert
+        verify(delegate).deleteAll(List.of(existing));
+        assertThat(filter.mightExist(5)).isFalse();
+        assertThat(filter.mightExist(1)).isTrue();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(filter.mightExist(5)).isTrue();
+        assertThat(filter.mightExist(1)).isFalse();
+    }
+}
@@ -0,0 +1,58 @@
+package com.carlos.devices.repository.pool;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source of connections that do nothing, for a real Hikari pool without a database.
+ */
+class FakeDataSource extends AbstractDataSource {
+
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    return switch (method.getName()) {
+                        case "isValid", "getAutoCommit" -> true;
+                        case "close" -> {
+                            closed.incrementAndGet();
+                            yield null;
+                        }
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "toString" -> "FakeConnection";
+                        default -> defaultValue(method.getReturnType());
+                    };
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) {
+        return getConnection();
+    }
+
+    /**
+     * @return the number of connections closed so far
+     */
+    int closed() {
+        return closed.get();
+    }
+}
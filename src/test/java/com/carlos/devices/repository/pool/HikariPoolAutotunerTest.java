@@ -0,0 +1,134 @@
+package com.carlos.devices.repository.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link HikariPoolAutotuner}, with a real Hikari pool of fake connections.
+ */
+class HikariPoolAutotunerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(Instant.parse("2025-03-14T15:09:26Z"), ZoneOffset.UTC);
+    private final PoolAutotuneProperties properties = new PoolAutotuneProperties(true, Duration.ofSeconds(10), 2, 8, 2,
+            Duration.ofMillis(5), 0.5, 1, 1, 1.5, 1);
+    private final FakeDataSource connections = new FakeDataSource();
+    private HikariDataSource pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setPoolName("autotune-test");
+        pool.setDataSource(connections);
+        pool.setMaximumPoolSize(2);
+        pool.setMinimumIdle(1);
+        pool.setConnectionTimeout(5_000);
+        pool.setMetricRegistry(meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void tune_ShouldGrowThePool_WhenBorrowersWait() throws Exception {
+        // Arrange
+        HikariPoolAutotuner autotuner = new HikariPoolAutotuner(pool, meterRegistry, properties, clock, false);
+        ExecutorService borrowers = Executors.newFixedThreadPool(6);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(borrowers.submit(() -> {
+                for (int j = 0; j < 10; j++) {
+                    try (Connection ignored = pool.getConnection()) {
+                        Thread.sleep(10);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        borrowers.shutdown();
+
+        // Act
+        HikariPoolAutotuner.Change change = autotuner.tune();
+
+        // Assert
+        assertThat(change.fromMaximumPoolSize()).isEqualTo(2);
+        assertThat(change.toMaximumPoolSize()).isEqualTo(4);
+        assertThat(change.toMinimumIdle()).isEqualTo(2);
+        assertThat(change.at()).isEqualTo(clock.instant());
+        assertThat(pool.getHikariConfigMXBean().getMaximumPoolSize()).isEqualTo(4);
+        assertThat(pool.getHikariConfigMXBean().getMinimumIdle()).isEqualTo(2);
+        assertThat(autotuner.report().changes()).containsExactly(change);
+        assertThat(meterRegistry.get("devices.pool.autotune.changes").tag("direction", "grow").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tune_ShouldShrinkThePool_WithoutClosingItsConnections_WhenItIsUnderused() throws Exception {
+        // Arrange
+        pool.getHikariConfigMXBean().setMaximumPoolSize(6);
+        pool.getHikariConfigMXBean().setMinimumIdle(3);
+        HikariPoolAutotuner autotuner = new HikariPoolAutotuner(pool, meterRegistry, properties, clock, false);
+        try (Connection ignored = pool.getConnection()) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+
+        // Act
+        HikariPoolAutotuner.Change change = autotuner.tune();
+        try (Connection ignored = pool.getConnection()) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+
+        // Assert
+        assertThat(connections.closed()).isZero();
+        assertThat(change.toMaximumPoolSize()).isEqualTo(4);
+        assertThat(change.toMinimumIdle()).isEqualTo(2);
+        assertThat(autotuner.report()).extracting(HikariPoolAutotuner.Report::maximumPoolSize,
+                HikariPoolAutotuner.Report::minimumIdle).containsExactly(4, 2);
+    }
+
+    @Test
+    void tune_ShouldDoNothing_BeforeThePoolPublishesItsMetrics() {
+        // Arrange
+        HikariDataSource unstarted = new HikariDataSource();
+        unstarted.setPoolName("unstarted");
+        unstarted.setDataSource(new FakeDataSource());
+        HikariPoolAutotuner autotuner = new HikariPoolAutotuner(unstarted, meterRegistry, properties, clock, false);
+
+        // Act & Assert
+        assertThat(autotuner.tune()).isNull();
+        unstarted.close();
+    }
+
+    @Test
+    void constructor_ShouldRejectLimitsThatDoNotMakeSense() {
+        // Arrange
+        PoolAutotuneProperties inverted = new PoolAutotuneProperties(true, Duration.ofSeconds(10), 10, 5, 2,
+                Duration.ofMillis(5), 0.5, 1, 1, 1.5, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> new HikariPoolAutotuner(pool, meterRegistry, inverted, clock, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.carlos.devices.repository.pool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Convergence of the {@link HikariPoolAutotuner} under a load that goes up and down again.
+ * <p>
+ * A real Hikari pool of fake connections serves closed-loop clients that hold a connection for the time of a
+ * query. The simulated database runs {@code benchmark.pool.capacity} queries at a time in
+ * {@code benchmark.pool.query-millis}; beyond that, each query takes longer in proportion, so a larger pool
+ * brings no more throughput. The load goes from {@code benchmark.pool.low-clients} clients to
+ * {@code benchmark.pool.high-clients} and back, and the pool size, wait and hold time of every interval are
+ * printed. The open connections must grow under the high load, stop growing around the capacity of the
+ * database rather than at the limit, and go back down once the load does. Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PoolAutotuneBenchmarkTest {
+
+    private static final int CAPACITY = Integer.getInteger("benchmark.pool.capacity", 16);
+    private static final int QUERY_MILLIS = Integer.getInteger("benchmark.pool.query-millis", 5);
+    private static final int LOW_CLIENTS = Integer.getInteger("benchmark.pool.low-clients", 3);
+    private static final int HIGH_CLIENTS = Integer.getInteger("benchmark.pool.high-clients", 48);
+    private static final Duration INTERVAL = Duration.ofMillis(200);
+    private static final int MAX_POOL_SIZE = 48;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    @Test
+    void tune_ShouldConvergeAsTheLoadGoesUpAndDown() throws Exception {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PoolAutotuneProperties properties = new PoolAutotuneProperties(true, INTERVAL, 2, MAX_POOL_SIZE, 2,
+                Duration.ofMillis(2), 0.5, 2, 4, 1.5, 100);
+        List<Integer> sizes = new ArrayList<>();
+        int highPeak;
+        int highEnd;
+        int lowEnd;
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setPoolName("autotune-benchmark");
+            pool.setDataSource(new FakeDataSource());
+            pool.setMaximumPoolSize(4);
+            pool.setMinimumIdle(2);
+            pool.setMetricRegistry(meterRegistry);
+            pool.getConnection().close();
+            HikariPoolAutotuner autotuner = new HikariPoolAutotuner(pool, meterRegistry, properties, Clock.systemUTC(), false);
+
+            // Act
+            run(pool, autotuner, LOW_CLIENTS, 10, sizes);
+            run(pool, autotuner, HIGH_CLIENTS, 60, sizes);
+            highPeak = sizes.stream().mapToInt(Integer::intValue).max().orElseThrow();
+            highEnd = sizes.getLast();
+            run(pool, autotuner, LOW_CLIENTS, 80, sizes);
+            lowEnd = sizes.getLast();
+            autotuner.report().changes().reversed().forEach(change -> System.out.printf("%s %d -> %d: %s%n",
+                    change.at(), change.fromMaximumPoolSize(), change.toMaximumPoolSize(), change.reason()));
+        }
+
+        // Assert
+        System.out.printf("Database capacity %d: pool peaked at %d, %d at the end of the high load, %d at the end "
+                + "of the low load%n", CAPACITY, highPeak, highEnd, lowEnd);
+        assertThat(highEnd).isBetween(CAPACITY - 4, (int) (CAPACITY * properties.latencyTolerance()) + 2);
+        assertThat(highPeak).isLessThan(MAX_POOL_SIZE);
+        assertThat(lowEnd).isLessThanOrEqualTo(2 * LOW_CLIENTS);
+    }
+
+    /**
+     * Runs the clients for the given number of intervals, tuning the pool after each.
+     */
+    private void run(HikariDataSource pool, HikariPoolAutotuner autotuner, int clients, int intervals,
+                     List<Integer> sizes) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofPlatform().daemon().start(() -> {
+                while (!stop.get()) {
+                    try (Connection ignored = pool.getConnection()) {
+                        query();
+                    } catch (SQLException | InterruptedException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        for (int i = 0; i < intervals; i++) {
+            TimeUnit.NANOSECONDS.sleep(INTERVAL.toNanos());
+            autotuner.tune();
+            int size = pool.getHikariConfigMXBean().getMaximumPoolSize();
+            sizes.add(pool.getHikariPoolMXBean().getTotalConnections());
+            System.out.printf("%3d clients: pool %2d, %2d connections, %2d active, %2d waiting%n", clients, size,
+                    pool.getHikariPoolMXBean().getTotalConnections(), pool.getHikariPoolMXBean().getActiveConnections(),
+                    pool.getHikariPoolMXBean().getThreadsAwaitingConnection());
+        }
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * A query of the simulated database, slower when more queries than its capacity run at once.
+     */
+    private void query() throws InterruptedException {
+        int concurrent = running.incrementAndGet();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(QUERY_MILLIS) * Math.max(CAPACITY, concurrent) / CAPACITY;
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+}
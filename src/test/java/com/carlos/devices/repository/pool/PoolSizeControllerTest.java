@@ -0,0 +1,98 @@
+package com.carlos.devices.repository.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PoolSizeController}.
+ */
+class PoolSizeControllerTest {
+
+    private static final PoolSizeController.Observation WAITING = new PoolSizeController.Observation(20, 5, 10, 3);
+    private static final PoolSizeController.Observation BUSY = new PoolSizeController.Observation(0.1, 5, 8, 0);
+    private static final PoolSizeController.Observation IDLE = new PoolSizeController.Observation(0.1, 5, 1, 0);
+
+    private final PoolAutotuneProperties properties = new PoolAutotuneProperties(true, Duration.ofSeconds(10), 2, 20, 2,
+            Duration.ofMillis(5), 0.5, 2, 3, 1.5, 50);
+    private final PoolSizeController controller = new PoolSizeController(properties, 0.5);
+
+    @Test
+    void observe_ShouldGrowThePool_AfterBorrowersWaitedForGrowAfterIntervals() {
+        // Act & Assert
+        assertThat(controller.observe(10, WAITING)).isNull();
+        PoolSizeController.Decision decision = controller.observe(10, WAITING);
+        assertThat(decision.maximumPoolSize()).isEqualTo(12);
+        assertThat(decision.minimumIdle()).isEqualTo(6);
+        assertThat(decision.reason()).contains("waited 20.0 ms", "3 waiting");
+    }
+
+    @Test
+    void observe_ShouldKeepTheSize_WhenTheLoadAlternates() {
+        // Act & Assert
+        for (int i = 0; i < 10; i++) {
+            assertThat(controller.observe(10, i % 2 == 0 ? WAITING : IDLE)).isNull();
+            assertThat(controller.observe(10, BUSY)).isNull();
+        }
+    }
+
+    @Test
+    void observe_ShouldShrinkThePool_AfterItWasUnderusedForShrinkAfterIntervals() {
+        // Act & Assert
+        assertThat(controller.observe(10, IDLE)).isNull();
+        assertThat(controller.observe(10, IDLE)).isNull();
+        PoolSizeController.Decision decision = controller.observe(10, IDLE);
+        assertThat(decision.maximumPoolSize()).isEqualTo(8);
+        assertThat(decision.minimumIdle()).isEqualTo(4);
+    }
+
+    @Test
+    void observe_ShouldStayWithinTheLimits() {
+        // Act & Assert
+        controller.observe(20, WAITING);
+        assertThat(controller.observe(20, WAITING)).isNull();
+        for (int i = 0; i < 3; i++) {
+            assertThat(controller.observe(2, IDLE)).isNull();
+        }
+    }
+
+    @Test
+    void observe_ShouldUndoTheGrowthAndStopGrowing_WhenConnectionsAreHeldLongerWhileBorrowersStillWait() {
+        // Arrange
+        controller.observe(10, WAITING);
+        controller.observe(10, WAITING);
+        PoolSizeController.Observation saturated = new PoolSizeController.Observation(20, 8, 12, 3);
+
+        // Act
+        PoolSizeController.Decision undone = controller.observe(12, saturated);
+
+        // Assert
+        assertThat(undone.maximumPoolSize()).isEqualTo(10);
+        assertThat(undone.reason()).contains("saturated");
+        for (int i = 0; i < 5; i++) {
+            assertThat(controller.observe(10, WAITING)).isNull();
+        }
+    }
+
+    @Test
+    void observe_ShouldGrowAgainPastTheSaturatedSize_OnceThePoolShrunk() {
+        // Arrange
+        controller.observe(10, WAITING);
+        controller.observe(10, WAITING);
+        controller.observe(12, new PoolSizeController.Observation(20, 8, 12, 3));
+        for (int i = 0; i < 3; i++) {
+            controller.observe(10, IDLE);
+        }
+
+        // Act
+        controller.observe(8, WAITING);
+        controller.observe(8, WAITING);
+        controller.observe(10, WAITING);
+        PoolSizeController.Decision decision = controller.observe(10, WAITING);
+
+        // Assert
+        assertThat(decision.maximumPoolSize()).isEqualTo(12);
+    }
+}
@@ -0,0 +1,175 @@
+package com.carlos.devices.repository.routing;
+
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.DeviceState;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link ReplicaRoutingDataSource}.
+ * <p>
+ * Uses two independent PostgreSQL containers, one as the primary and one as the replica. Each one
+ * holds a device with the same id but a different name, so the name returned tells which database
+ * served the read.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Testcontainers
+class ReplicaRoutingDataSourceTest {
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>(DockerImageName.parse("postgres:17"));
+
+    @DynamicPropertySource
+    static void routingProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("devices.datasource.routing.enabled", () -> "true");
+        registry.add("devices.datasource.routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("devices.datasource.routing.replicas[0].username", replica::getUsername);
+        registry.add("devices.datasource.routing.replicas[0].password", replica::getPassword);
+        registry.add("devices.datasource.routing.sticky-window", () -> "1m");
+    }
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaHealthChecker healthChecker;
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+
+    @BeforeEach
+    void setUp() {
+        primaryJdbc = jdbcTemplate(primary);
+        replicaJdbc = jdbcTemplate(replica);
+        replicaJdbc.execute("""
+                CREATE TABLE IF NOT EXISTS device (id SERIAL PRIMARY KEY, name VARCHAR(240) NOT NULL,
+                brand VARCHAR(120) NOT NULL, state VARCHAR(20) NOT NULL, creation_time TIMESTAMP NOT NULL)
+                """);
+        for (JdbcTemplate jdbc : new JdbcTemplate[]{primaryJdbc, replicaJdbc}) {
+            jdbc.update("DELETE FROM device");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        primaryJdbc.update("INSERT INTO device (id, name, brand, state, creation_time) VALUES (1, 'Primary Device', 'Brand A', 'AVAILABLE', ?)", now);
+        replicaJdbc.update("INSERT INTO device (id, name, brand, state, creation_time) VALUES (1, 'Replica Device', 'Brand A', 'AVAILABLE', ?)", now);
+        routingDataSource.replicas().forEach(r -> r.update(true, Duration.ZERO));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldGoToReplica() {
+        assertThat(repository.findById(1).name()).isEqualTo("Replica Device");
+    }
+
+    @Test
+    void writes_ShouldGoToPrimary() {
+        repository.update(1, new CreateUpdateDevice("Updated Device", "Brand A", DeviceState.IN_USE));
+
+        assertThat(primaryJdbc.queryForObject("SELECT name FROM device WHERE id = 1", String.class)).isEqualTo("Updated Device");
+        assertThat(replicaJdbc.queryForObject("SELECT name FROM device WHERE id = 1", String.class)).isEqualTo("Replica Device");
+    }
+
+    @Test
+    void readsAfterWrite_ShouldStickToPrimary_ForTheWritingClientOnly() {
+        RoutingContext.bind("client-a");
+        repository.update(1, new CreateUpdateDevice("Updated Device", "Brand A", DeviceState.AVAILABLE));
+
+        // Next request of the same client
+        RoutingContext.bind("client-a");
+        assertThat(repository.findById(1).name()).isEqualTo("Updated Device");
+
+        // Another client still reads from the replica
+        RoutingContext.bind("client-b");
+        assertThat(repository.findById(1).name()).isEqualTo("Replica Device");
+    }
+
+    @Test
+    void updateDevice_ShouldMergeTheUpdateWithThePrimaryRow_WhenTheReplicaLags() {
+        deviceService.updateDevice(1, new CreateUpdateDevice(null, "Brand B", null));
+
+        assertThat(primaryJdbc.queryForObject("SELECT name || '/' || brand FROM device WHERE id = 1", String.class))
+                .isEqualTo("Primary Device/Brand B");
+    }
+
+    @Test
+    void deleteDevice_ShouldCheckThePrimaryRow_WhenTheReplicaLags() {
+        primaryJdbc.update("UPDATE device SET state = 'IN_USE' WHERE id = 1");
+
+        assertThatThrownBy(() -> deviceService.deleteDevice(1)).isInstanceOf(BusinessRulesException.class);
+        assertThat(primaryJdbc.queryForObject("SELECT count(*) FROM device WHERE id = 1", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void reads_ShouldFallBackToPrimary_WhenNoReplicaIsHealthy() {
+        routingDataSource.replicas().forEach(r -> r.update(false, Duration.ofMinutes(1)));
+
+        assertThat(repository.findById(1).name()).isEqualTo("Primary Device");
+    }
+
+    @Test
+    void healthCheck_ShouldKeepReachableReplicaInRotation() {
+        routingDataSource.replicas().forEach(r -> r.update(false, Duration.ofMinutes(1)));
+
+        healthChecker.checkReplicas();
+
+        assertThat(routingDataSource.replicas()).allMatch(ReplicaRoutingDataSource.Replica::healthy);
+        assertThat(repository.findById(1).name()).isEqualTo("Replica Device");
+    }
+
+    @Test
+    void healthCheck_ShouldTakeOutAnUnreachableReplica_WithinTheConnectionTimeout() {
+        HikariDataSource configured = (HikariDataSource) routingDataSource.replicas().get(0).dataSource();
+        assertThat(configured.getConnectionTimeout()).isEqualTo(Duration.ofSeconds(1).toMillis());
+        try (HikariDataSource unreachable = new HikariDataSource()) {
+            unreachable.setJdbcUrl("jdbc:postgresql://localhost:1/device");
+            unreachable.setConnectionTimeout(configured.getConnectionTimeout());
+            ReplicaRoutingDataSource.Replica replica = new ReplicaRoutingDataSource.Replica("unreachable", unreachable);
+            long start = System.nanoTime();
+
+            healthChecker.check(replica);
+
+            assertThat(replica.healthy()).isFalse();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        }
+    }
+
+    private static JdbcTemplate jdbcTemplate(PostgreSQLContainer<?> container) {
+        return new JdbcTemplate(new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword()));
+    }
+}
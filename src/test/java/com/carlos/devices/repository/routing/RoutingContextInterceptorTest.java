@@ -0,0 +1,148 @@
+package com.carlos.devices.repository.routing;
+
+import com.carlos.devices.domain.DeviceCursor;
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceBatchResult;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.grpc.DeviceGrpcService;
+import com.carlos.devices.grpc.GrpcProperties;
+import com.carlos.devices.grpc.v1.CreateDeviceRequest;
+import com.carlos.devices.grpc.v1.DeviceServiceGrpc;
+import com.carlos.devices.grpc.v1.GetDeviceRequest;
+import com.carlos.devices.grpc.v1.WriteRequest;
+import com.carlos.devices.grpc.v1.WriteResult;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RoutingContextInterceptor}, in front of the gRPC device service on an in-process server.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoutingContextInterceptorTest {
+
+    private static final Metadata.Key<String> CLIENT_ID = Metadata.Key.of("X-Client-Id", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Mock
+    private DeviceService deviceService;
+
+    @Mock
+    private DeviceCursor deviceCursor;
+
+    private DeviceGrpcService service;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        GrpcProperties properties = new GrpcProperties(true, 0, 500, 2, 1, Duration.ofSeconds(5), 100,
+                Duration.ofSeconds(1));
+        service = new DeviceGrpcService(deviceService, deviceCursor, properties);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, new RoutingContextInterceptor("X-Client-Id")))
+                .build().start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        service.close();
+    }
+
+    @Test
+    void unaryCall_ShouldRunWithTheClientOfTheMetadata() {
+        // Arrange
+        AtomicReference<String> clientId = new AtomicReference<>();
+        when(deviceService.findById(1)).thenAnswer(invocation -> {
+            clientId.set(RoutingContext.current().clientId());
+            return new Device(1, "Device 1", "Brand A", DeviceState.AVAILABLE, LocalDateTime.now());
+        });
+        Metadata headers = new Metadata();
+        headers.put(CLIENT_ID, "client-1");
+
+        // Act
+        DeviceServiceGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                .get(GetDeviceRequest.newBuilder().setId(1).build());
+
+        // Assert
+        assertThat(clientId.get()).isEqualTo("client-1");
+        assertThat(RoutingContext.current()).isNull();
+    }
+
+    @Test
+    void bulkWrite_ShouldShareOneContextAcrossItsBatches() throws Exception {
+        // Arrange
+        List<RoutingContext> contexts = new CopyOnWriteArrayList<>();
+        when(deviceService.executeBatch(any())).thenAnswer(invocation -> {
+            RoutingContext context = RoutingContext.current();
+            contexts.add(context);
+            context.markWritten();
+            return new DeviceBatchResult(true, List.of(new DeviceBatchResult.OperationResult(0,
+                    DeviceBatchResult.Status.SUCCEEDED, new Device(1, "Device", "Brand A", DeviceState.AVAILABLE,
+                    LocalDateTime.now()), null)));
+        });
+        CountDownLatch firstResult = new CountDownLatch(1);
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        // Act
+        StreamObserver<WriteRequest> requests = DeviceServiceGrpc.newStub(channel).bulkWrite(new StreamObserver<>() {
+            @Override
+            public void onNext(WriteResult result) {
+                firstResult.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                completed.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+        WriteRequest write = WriteRequest.newBuilder()
+                .setCreate(CreateDeviceRequest.newBuilder().setName("Device").setBrand("Brand A")).build();
+        requests.onNext(write);
+        // The second write is sent once the first was written, so that it is a batch of its own
+        assertThat(firstResult.await(5, TimeUnit.SECONDS)).isTrue();
+        requests.onNext(write);
+        requests.onCompleted();
+        completed.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(contexts).hasSize(2);
+        assertThat(contexts.get(0)).isNotNull().isSameAs(contexts.get(1));
+        assertThat(contexts.get(1).written()).isTrue();
+    }
+}
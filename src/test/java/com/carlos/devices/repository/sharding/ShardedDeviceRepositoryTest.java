@@ -0,0 +1,207 @@
+package com.carlos.devices.repository.sharding;
+
+import com.carlos.devices.DeviceCsvController;
+import com.carlos.devices.DeviceSyncController;
+import com.carlos.devices.domain.DeviceChangeFeed;
+import com.carlos.devices.domain.DeviceExporter;
+import com.carlos.devices.domain.DeviceImporter;
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.exception.BusinessRulesException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link ShardedDeviceRepository}, running three PostgreSQL containers as shards.
+ * The fetch size is kept small so the merge has to go back to the shards for more rows.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Testcontainers
+class ShardedDeviceRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> shard0 = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Container
+    static PostgreSQLContainer<?> shard1 = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Container
+    static PostgreSQLContainer<?> shard2 = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @DynamicPropertySource
+    static void shardingProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", shard0::getJdbcUrl);
+        registry.add("spring.datasource.username", shard0::getUsername);
+        registry.add("spring.datasource.password", shard0::getPassword);
+        registry.add("devices.sharding.enabled", () -> "true");
+        registry.add("devices.sharding.fetch-size", () -> "2");
+        List<PostgreSQLContainer<?>> shards = List.of(shard0, shard1, shard2);
+        for (int i = 0; i < shards.size(); i++) {
+            PostgreSQLContainer<?> shard = shards.get(i);
+            registry.add("devices.sharding.shards[" + i + "].url", shard::getJdbcUrl);
+            registry.add("devices.sharding.shards[" + i + "].username", shard::getUsername);
+            registry.add("devices.sharding.shards[" + i + "].password", shard::getPassword);
+        }
+    }
+
+    @Autowired
+    private DeviceRepository repository;
+
+    @Autowired
+    private ShardDataSources shardDataSources;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private List<JdbcTemplate> shards;
+
+    @BeforeEach
+    void setUp() {
+        shards = shardDataSources.pools().stream().map(JdbcTemplate::new).toList();
+        shards.forEach(shard -> {
+            shard.update("DELETE FROM device");
+            shard.execute("ALTER SEQUENCE device_id_seq RESTART");
+        });
+    }
+
+    @Test
+    void repository_ShouldBeSharded() {
+        assertThat(repository).isInstanceOf(ShardedDeviceRepository.class);
+    }
+
+    @Test
+    void primaryOnlyEndpoints_ShouldNotBeRegistered() {
+        // The change feed and the CSV transfers only know the primary database
+        for (Class<?> type : List.of(DeviceChangeFeed.class, DeviceExporter.class, DeviceImporter.class,
+                DeviceSyncController.class, DeviceCsvController.class)) {
+            assertThat(context.getBeanNamesForType(type)).as(type.getSimpleName()).isEmpty();
+        }
+    }
+
+    @Test
+    void create_ShouldSpreadDevicesOverShards_WithIdsOwnedByTheirShard() {
+        List<Device> created = createDevices(9);
+
+        assertThat(created).extracting(Device::id).doesNotHaveDuplicates();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            List<Integer> ids = shards.get(shard).queryForList("SELECT id FROM device", Integer.class);
+            assertThat(ids).hasSize(3);
+            int expectedShard = shard;
+            assertThat(ids).allMatch(id -> Math.floorMod(id, 3) == expectedShard);
+        }
+    }
+
+    @Test
+    void singleDeviceOperations_ShouldBeRoutedToTheOwningShard() {
+        List<Device> created = createDevices(3);
+        Device device = created.get(1);
+
+        assertThat(repository.findById(device.id())).isEqualTo(device);
+
+        repository.update(device.id(), new CreateUpdateDevice("Renamed", device.brand(), DeviceState.IN_USE));
+        assertThat(repository.findById(device.id()).name()).isEqualTo("Renamed");
+
+        repository.delete(device.id());
+        assertThat(repository.findById(device.id())).isNull();
+        assertThatThrownBy(() -> repository.delete(device.id()))
+                .isInstanceOf(BusinessRulesException.class)
+                .hasMessageContaining("Device not found for deletion: " + device.id());
+    }
+
+    @Test
+    void listQueries_ShouldGatherAllShardsOrderedById() {
+        List<Device> created = createDevices(10);
+        repository.update(created.get(0).id(), new CreateUpdateDevice(created.get(0).name(), created.get(0).brand(), DeviceState.DISABLED));
+
+        Collection<Device> all = repository.findAll();
+        assertThat(all).extracting(Device::id).isSorted().containsExactlyInAnyOrderElementsOf(created.stream().map(Device::id).toList());
+
+        assertThat(repository.findByBrand("Brand 1")).extracting(Device::id).isSorted()
+                .containsExactlyInAnyOrderElementsOf(created.stream().filter(d -> d.brand().equals("Brand 1")).map(Device::id).toList());
+        assertThat(repository.findByState(DeviceState.DISABLED)).extracting(Device::id).containsExactly(created.get(0).id());
+        assertThat(repository.findByState(DeviceState.AVAILABLE)).hasSize(9);
+    }
+
+    @Test
+    void keysetPagination_ShouldWalkAllShardsInIdOrder() {
+        createDevices(10);
+        ShardedDeviceRepository sharded = (ShardedDeviceRepository) repository;
+
+        // Pages larger than the fetch size make the shards read ahead
+        for (int limit : List.of(1, 3, 5)) {
+            List<Device> walked = new ArrayList<>();
+            int afterId = 0;
+            List<Device> page;
+            while (!(page = sharded.findPage(null, null, afterId, limit)).isEmpty()) {
+                assertThat(page.size()).isLessThanOrEqualTo(limit);
+                walked.addAll(page);
+                afterId = page.getLast().id();
+            }
+            assertThat(walked).as("limit %d", limit).containsExactlyElementsOf(repository.findAll());
+        }
+
+        assertThat(sharded.findPage("Brand 0", DeviceState.DISABLED, 0, 100)).hasSize(5)
+                .extracting(Device::brand).containsOnly("Brand 0");
+        assertThat(sharded.findPage(null, DeviceState.DISABLED, 0, 100)).isEmpty();
+    }
+
+    @Test
+    void forEach_ShouldStreamAllShardsInIdOrder() {
+        List<Device> created = createDevices(10);
+        ShardedDeviceRepository sharded = (ShardedDeviceRepository) repository;
+
+        List<Device> streamed = new ArrayList<>();
+        sharded.forEach(null, null, streamed::add);
+        assertThat(streamed).extracting(Device::id).isSorted()
+                .containsExactlyInAnyOrderElementsOf(created.stream().map(Device::id).toList());
+
+        List<Device> brand = new ArrayList<>();
+        sharded.forEach("Brand 1", null, brand::add);
+        assertThat(brand).hasSize(5).extracting(Device::brand).containsOnly("Brand 1");
+    }
+
+    @Test
+    void forEach_WhenTheConsumerFails_ShouldStopAndRethrow() {
+        createDevices(10);
+        ShardedDeviceRepository sharded = (ShardedDeviceRepository) repository;
+        List<Device> streamed = new ArrayList<>();
+
+        assertThatThrownBy(() -> sharded.forEach(null, null, device -> {
+            if (streamed.size() == 4) {
+                throw new IllegalStateException("Client went away");
+            }
+            streamed.add(device);
+        })).isInstanceOf(IllegalStateException.class).hasMessage("Client went away");
+
+        assertThat(streamed).hasSize(4);
+        // The batches read ahead were dropped, the shards still serve the next query
+        assertThat(repository.findAll()).hasSize(10);
+    }
+
+    private List<Device> createDevices(int count) {
+        List<Device> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            created.add(repository.create(new CreateUpdateDevice("Device " + i, "Brand " + (i % 2), null)));
+        }
+        return created;
+    }
+}
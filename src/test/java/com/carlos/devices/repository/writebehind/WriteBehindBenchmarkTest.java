@@ -0,0 +1,135 @@
+package com.carlos.devices.repository.writebehind;
+
+import com.carlos.devices.domain.DeviceRepository;
+import com.carlos.devices.domain.DeviceService;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.domain.useCases.DeviceServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionOperations;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark of device state flips, written one by one by the {@link DeviceServiceImpl} as before,
+ * and through the {@link WriteBehindDeviceStateBuffer} with and without waiting for the batch to commit.
+ * <p>
+ * {@code benchmark.callers} concurrent callers, as many as the default Tomcat request threads, flip the
+ * state of {@code benchmark.devices} devices for {@code benchmark.seconds} seconds in each mode. The updates
+ * per second of each mode are printed, and the waiting write-behind mode must beat the single updates.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Testcontainers
+@Tag("benchmark")
+class WriteBehindBenchmarkTest {
+
+    private static final int CALLERS = Integer.getInteger("benchmark.callers", 200);
+    private static final int DEVICES = Integer.getInteger("benchmark.devices", 500);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @DynamicPropertySource
+    static void writeBehindProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("devices.write-behind.enabled", () -> "true");
+        registry.add("devices.write-behind.window", () -> "10ms");
+    }
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private WriteBehindDeviceStateBuffer stateBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionOperations transactions;
+
+    private interface Flip {
+        void apply(DeviceService service, int id, CreateUpdateDevice update);
+    }
+
+    @Test
+    void stateFlips_WithWriteBehind_ShouldOutperformSingleUpdates() throws Exception {
+        // Arrange
+        jdbcTemplate.update("DELETE FROM device");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < DEVICES; i++) {
+            ids.add(deviceRepository.create(new CreateUpdateDevice("Bench Device " + i, "Bench Brand", null)).id());
+        }
+        DeviceService singleUpdates = new DeviceServiceImpl(deviceRepository, transactions, null, null, null);
+        DeviceService writeBehind = new DeviceServiceImpl(deviceRepository, transactions, stateBuffer, null, null);
+
+        // Act
+        double single = run(singleUpdates, ids, DeviceService::updateDevice);
+        double synchronous = run(writeBehind, ids, DeviceService::updateDevice);
+        double deferred = run(writeBehind, ids, DeviceService::updateDeviceDeferred);
+
+        // Assert
+        System.out.printf("State flips per second with %d callers on %d devices: single updates %.0f, "
+                + "write-behind waiting for commit %.0f (x%.1f), write-behind deferred %.0f (x%.1f)%n",
+                CALLERS, DEVICES, single, synchronous, synchronous / single, deferred, deferred / single);
+        assertThat(synchronous).isGreaterThan(single);
+        assertThat(deferred).isGreaterThan(single);
+    }
+
+    /**
+     * Warms the mode up, then returns the flips per second it sustains. The deferred flips are only counted
+     * once the buffer is written.
+     */
+    private double run(DeviceService service, List<Integer> ids, Flip flip) throws Exception {
+        measure(service, ids, flip, WARMUP);
+        return measure(service, ids, flip, DURATION);
+    }
+
+    private double measure(DeviceService service, List<Integer> ids, Flip flip, Duration duration) throws Exception {
+        LongAdder flips = new LongAdder();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService callers = Executors.newFixedThreadPool(CALLERS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(callers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        DeviceState state = random.nextBoolean() ? DeviceState.IN_USE : DeviceState.AVAILABLE;
+                        flip.apply(service, ids.get(random.nextInt(ids.size())), new CreateUpdateDevice(null, null, state));
+                        flips.increment();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        stateBuffer.flush();
+        return flips.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,198 @@
+package com.carlos.devices.repository.writebehind;
+
+import com.carlos.devices.domain.exception.DataException;
+import com.carlos.devices.domain.model.CreateUpdateDevice;
+import com.carlos.devices.domain.model.Device;
+import com.carlos.devices.domain.model.DeviceChangedEvent;
+import com.carlos.devices.domain.model.DeviceState;
+import com.carlos.devices.repository.DatabaseDeviceRepository;
+import com.carlos.devices.repository.RepositoryTestConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link WriteBehindDeviceStateBuffer}.
+ * These tests use a real PostgreSQL database running in a Docker container via Testcontainers.
+ */
+@SpringBootTest(classes = com.carlos.app.DevicesApiApplication.class)
+@Import(RepositoryTestConfig.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class WriteBehindDeviceStateBufferTest {
+
+    @Autowired
+    private DatabaseDeviceRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Object> events = new ArrayList<>();
+    private WriteBehindDeviceStateBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM device");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        buffer.close();
+    }
+
+    private void createBuffer(int maxBatch) {
+        // A window long enough for the buffer to be written only when the tests ask for it
+        buffer = new WriteBehindDeviceStateBuffer(jdbcTemplate, transactionManager, events::add,
+                new WriteBehindProperties(true, Duration.ofHours(1), maxBatch));
+    }
+
+    private DeviceState stateOf(int id) {
+        return repository.findById(id).state();
+    }
+
+    @Test
+    void flush_ShouldWriteTheLastStateSubmittedForEachDevice() throws Exception {
+        // Arrange
+        createBuffer(100);
+        Device first = repository.findById(repository.create(new CreateUpdateDevice("Device 1", "Brand A", null)).id());
+        Device second = repository.findById(repository.create(new CreateUpdateDevice("Device 2", "Brand B", null)).id());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        buffer.bindTo(registry);
+
+        // Act
+        CompletableFuture<Void> firstInUse = buffer.submit(first.id(), DeviceState.IN_USE);
+        CompletableFuture<Void> firstDisabled = buffer.submit(first.id(), DeviceState.DISABLED);
+        CompletableFuture<Void> secondInUse = buffer.submit(second.id(), DeviceState.IN_USE);
+        assertThat(registry.get("devices.write.behind.pending").gauge().value()).isEqualTo(2);
+        buffer.flush();
+
+        // Assert
+        assertThat(firstInUse).isCompleted();
+        assertThat(firstDisabled).isCompleted();
+        assertThat(secondInUse).isCompleted();
+        assertThat(stateOf(first.id())).isEqualTo(DeviceState.DISABLED);
+        assertThat(stateOf(second.id())).isEqualTo(DeviceState.IN_USE);
+        assertThat(events).containsExactlyInAnyOrder(
+                new DeviceChangedEvent(first, new Device(first.id(), "Device 1", "Brand A", DeviceState.DISABLED, first.creationTime())),
+                new DeviceChangedEvent(second, new Device(second.id(), "Device 2", "Brand B", DeviceState.IN_USE, second.creationTime())));
+        assertThat(registry.get("devices.write.behind.coalesced").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("devices.write.behind.written").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("devices.write.behind.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void flush_ShouldFailOnlyTheUpdatesOfMissingDevices() {
+        // Arrange
+        createBuffer(100);
+        Device existing = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+
+        // Act
+        CompletableFuture<Void> missing = buffer.submit(existing.id() + 1000, DeviceState.IN_USE);
+        CompletableFuture<Void> written = buffer.submit(existing.id(), DeviceState.IN_USE);
+        buffer.flush();
+
+        // Assert
+        assertThat(written).isCompleted();
+        assertThatThrownBy(missing::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataException.class);
+        assertThat(stateOf(existing.id())).isEqualTo(DeviceState.IN_USE);
+    }
+
+    @Test
+    void flushIds_ShouldOnlyWriteTheGivenDevices_WithoutThrowingTheirFailures() {
+        // Arrange
+        createBuffer(100);
+        Device flushed = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        Device other = repository.create(new CreateUpdateDevice("Device 2", "Brand B", null));
+        CompletableFuture<Void> flushedUpdate = buffer.submit(flushed.id(), DeviceState.IN_USE);
+        CompletableFuture<Void> otherUpdate = buffer.submit(other.id(), DeviceState.IN_USE);
+        CompletableFuture<Void> missing = buffer.submit(other.id() + 1000, DeviceState.IN_USE);
+
+        // Act
+        buffer.flush(List.of(flushed.id(), other.id() + 1000));
+
+        // Assert
+        assertThat(flushedUpdate).isCompleted();
+        assertThat(stateOf(flushed.id())).isEqualTo(DeviceState.IN_USE);
+        assertThatThrownBy(missing::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataException.class);
+        assertThat(otherUpdate).isNotDone();
+        assertThat(stateOf(other.id())).isEqualTo(DeviceState.AVAILABLE);
+        assertThat(buffer.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void flushIds_ShouldCommitTheBufferedStates_WhenTheCallerTransactionRollsBack() {
+        // Arrange
+        createBuffer(100);
+        Device device = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        CompletableFuture<Void> update = buffer.submit(device.id(), DeviceState.IN_USE);
+        TransactionTemplate batch = new TransactionTemplate(transactionManager);
+
+        // Act
+        assertThatThrownBy(() -> batch.executeWithoutResult(status -> {
+            buffer.flush(List.of(device.id()));
+            throw new IllegalStateException("Batch failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // Assert
+        assertThat(update).isCompleted();
+        assertThat(stateOf(device.id())).isEqualTo(DeviceState.IN_USE);
+    }
+
+    @Test
+    void submit_ShouldWriteBeforeTheWindowEnds_WhenMaxBatchIsReached() throws Exception {
+        // Arrange
+        createBuffer(2);
+        Device first = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        Device second = repository.create(new CreateUpdateDevice("Device 2", "Brand B", null));
+
+        // Act
+        CompletableFuture<Void> firstUpdate = buffer.submit(first.id(), DeviceState.IN_USE);
+        CompletableFuture<Void> secondUpdate = buffer.submit(second.id(), DeviceState.IN_USE);
+
+        // Assert
+        CompletableFuture.allOf(firstUpdate, secondUpdate).get(5, TimeUnit.SECONDS);
+        assertThat(stateOf(first.id())).isEqualTo(DeviceState.IN_USE);
+        assertThat(stateOf(second.id())).isEqualTo(DeviceState.IN_USE);
+    }
+
+    @Test
+    void close_ShouldWriteTheBufferedUpdates() throws Exception {
+        // Arrange
+        createBuffer(100);
+        Device device = repository.create(new CreateUpdateDevice("Device 1", "Brand A", null));
+        CompletableFuture<Void> update = buffer.submit(device.id(), DeviceState.IN_USE);
+
+        // Act
+        buffer.close();
+
+        // Assert
+        assertThat(update).isCompleted();
+        assertThat(stateOf(device.id())).isEqualTo(DeviceState.IN_USE);
+    }
+}
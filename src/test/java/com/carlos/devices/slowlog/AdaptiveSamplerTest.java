@@ -0,0 +1,65 @@
+package com.carlos.devices.slowlog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for {@link AdaptiveSampler}.
+ */
+class AdaptiveSamplerTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void sample_ShouldKeepEveryEvent_WhileTheyComeBelowTheTargetRate() {
+        // Arrange
+        AdaptiveSampler sampler = new AdaptiveSampler(10, nanoTime::get);
+
+        // Act & Assert
+        for (int second = 0; second < 3; second++) {
+            for (int i = 0; i < 10; i++) {
+                assertThat(sampler.sample()).isEqualTo(1);
+            }
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void sample_ShouldKeepAboutTheTargetRate_WhenEventsComeFaster() {
+        // Arrange
+        AdaptiveSampler sampler = new AdaptiveSampler(10, nanoTime::get);
+        for (int i = 0; i < 1000; i++) {
+            sampler.sample();
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Act
+        int kept = 0;
+        double rate = 0;
+        for (int i = 0; i < 1000; i++) {
+            double sampled = sampler.sample();
+            if (sampled > 0) {
+                kept++;
+                rate = sampled;
+            }
+        }
+
+        // Assert
+        assertThat(rate).isCloseTo(0.01, within(1e-9));
+        assertThat(kept).isBetween(1, 30);
+    }
+
+    @Test
+    void sample_ShouldKeepNothing_WhenTheTargetIsZero() {
+        // Arrange
+        AdaptiveSampler sampler = new AdaptiveSampler(0, nanoTime::get);
+
+        // Act & Assert
+        assertThat(sampler.sample()).isZero();
+    }
+}
@@ -0,0 +1,135 @@
+package com.carlos.devices.slowlog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SlowLogDataSource}.
+ */
+@ExtendWith(MockitoExtension.class)
+class SlowLogDataSourceTest {
+
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PreparedStatement statement;
+    @Mock
+    private ResultSet resultSet;
+    @Mock
+    private SlowLog slowLog;
+
+    private SlowLogDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new SlowLogDataSource(target, slowLog);
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void executeQuery_ShouldLogTheStatementWithItsParametersAndRowsRead_WhenClosed() throws SQLException {
+        // Arrange
+        String sql = "SELECT * FROM device WHERE brand = ? AND state = ?";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        // Act
+        try (Connection wrapped = dataSource.getConnection();
+             PreparedStatement ps = wrapped.prepareStatement(sql)) {
+            ps.setString(1, "Apple");
+            ps.setNull(2, Types.VARCHAR);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    verifyNoInteractions(slowLog);
+                }
+            }
+        }
+
+        // Assert
+        verify(slowLog).statement(eq(sql), eq(Arrays.asList("Apple", null)), eq(2L), isNull(), anyLong(), anyLong(), isNull());
+        verify(statement).setString(1, "Apple");
+        verify(statement).close();
+        verify(connection).close();
+    }
+
+    @Test
+    void executeBatch_ShouldLogEachBatchWithItsSizeAndFirstRow() throws SQLException {
+        // Arrange
+        String sql = "UPDATE device SET name = ? WHERE id = ?";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        // Act
+        try (Connection wrapped = dataSource.getConnection();
+             PreparedStatement ps = wrapped.prepareStatement(sql)) {
+            for (int id = 1; id <= 3; id++) {
+                ps.setString(1, "Device " + id);
+                ps.setInt(2, id);
+                ps.addBatch();
+                if (id == 2) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        // Assert
+        verify(slowLog).statement(eq(sql), eq(List.of("Device 1", 1)), eq(2L), eq(2), anyLong(), anyLong(), isNull());
+        verify(slowLog).statement(eq(sql), eq(List.of("Device 3", 3)), eq(1L), eq(1), anyLong(), anyLong(), isNull());
+    }
+
+    @Test
+    void executeUpdate_ShouldLogTheSqlStateOfAFailure() throws SQLException {
+        // Arrange
+        String sql = "DELETE FROM device WHERE id = ?";
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeUpdate()).thenThrow(new SQLException("canceled", "57014"));
+
+        // Act & Assert
+        try (Connection wrapped = dataSource.getConnection();
+             PreparedStatement ps = wrapped.prepareStatement(sql)) {
+            ps.setInt(1, 7);
+            assertThatThrownBy(ps::executeUpdate).isInstanceOf(SQLException.class);
+        }
+        verify(slowLog).statement(eq(sql), eq(List.of(7)), isNull(), isNull(), anyLong(), anyLong(), eq("57014"));
+        verify(slowLog, times(1)).statement(any(), any(), any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void unwrap_ShouldReachTheDriverConnection() throws SQLException {
+        // Arrange
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+
+        // Act
+        Connection wrapped = dataSource.getConnection();
+
+        // Assert
+        assertThat(wrapped.unwrap(PGConnection.class)).isSameAs(pgConnection);
+        assertThat(wrapped).isEqualTo(wrapped).isNotEqualTo(connection);
+    }
+}
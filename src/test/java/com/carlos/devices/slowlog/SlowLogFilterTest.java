@@ -0,0 +1,98 @@
+package com.carlos.devices.slowlog;
+
+import com.carlos.devices.warmup.RequestMixWarmupStep;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link SlowLogFilter}.
+ */
+@ExtendWith(MockitoExtension.class)
+class SlowLogFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Mock
+    private SlowLog slowLog;
+
+    @Test
+    void doFilter_ShouldLogTheRequestWithTheTraceIdOfItsTraceparent() throws Exception {
+        // Arrange
+        SlowLogFilter filter = new SlowLogFilter(slowLog);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/device/7");
+        request.addHeader("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SlowLogContext[] bound = new SlowLogContext[1];
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                bound[0] = SlowLogContext.current();
+                bound[0].statement(1_000);
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/device/{id}");
+                req.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "7"));
+                res.setStatus(404);
+            }
+        });
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        ArgumentCaptor<SlowLogContext> context = ArgumentCaptor.forClass(SlowLogContext.class);
+        verify(slowLog).request(context.capture(), anyLong(), eq("GET"), eq("/api/device/7"), eq("/api/device/{id}"),
+                eq(Map.of("id", "7")), isNull(), eq(404));
+        assertThat(context.getValue()).isSameAs(bound[0]);
+        assertThat(context.getValue().traceId()).isEqualTo(TRACE_ID);
+        assertThat(context.getValue().statements()).isEqualTo(1);
+        assertThat(response.getHeader(SlowLogFilter.TRACE_ID_HEADER)).isEqualTo(TRACE_ID);
+        assertThat(SlowLogContext.current()).isNull();
+    }
+
+    @Test
+    void doFilter_ShouldGenerateATraceId_WhenTheRequestHasNone() throws Exception {
+        // Arrange
+        SlowLogFilter filter = new SlowLogFilter(slowLog);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/device"), response, new MockFilterChain());
+
+        // Assert
+        assertThat(response.getHeader(SlowLogFilter.TRACE_ID_HEADER)).matches("[0-9a-f]{32}");
+    }
+
+    @Test
+    void doFilter_ShouldBindAWarmupContext_ForTheRequestsOfTheWarmup() throws Exception {
+        // Arrange
+        SlowLogFilter filter = new SlowLogFilter(slowLog);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/device/7");
+        request.addHeader(RequestMixWarmupStep.WARMUP_HEADER, "true");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        ArgumentCaptor<SlowLogContext> context = ArgumentCaptor.forClass(SlowLogContext.class);
+        verify(slowLog).request(context.capture(), anyLong(), eq("GET"), eq("/api/device/7"), isNull(), isNull(),
+                isNull(), eq(200));
+        assertThat(context.getValue().warmup()).isTrue();
+    }
+}
@@ -0,0 +1,151 @@
+package com.carlos.devices.slowlog;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SlowLog}.
+ */
+class SlowLogTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SlowLog.LOGGER);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Clock clock = Clock.fixed(Instant.parse("2025-03-14T15:09:26Z"), ZoneOffset.UTC);
+    private final SlowLogProperties properties = new SlowLogProperties(true, Duration.ofMillis(100),
+            Duration.ofMillis(500), 1, 10);
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        SlowLogContext.clear();
+    }
+
+    @Test
+    void statement_ShouldLogASlowStatementAsJson_WithTheTraceIdOfTheRequest() throws Exception {
+        // Arrange
+        SlowLog slowLog = new SlowLog(properties, new AdaptiveSampler(0), new AdaptiveSampler(0), clock);
+        SlowLogContext context = new SlowLogContext("trace-1");
+        SlowLogContext.bind(context);
+
+        // Act
+        slowLog.statement("SELECT * FROM device WHERE brand = ?", Arrays.asList("A very long brand", null), 3L, null,
+                150 * MILLIS, 2 * MILLIS, null);
+
+        // Assert
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.WARN);
+        JsonNode entry = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertThat(entry.get("type").asText()).isEqualTo("statement");
+        assertThat(entry.get("timestamp").asText()).isEqualTo("2025-03-14T15:09:26Z");
+        assertThat(entry.get("traceId").asText()).isEqualTo("trace-1");
+        assertThat(entry.get("slow").asBoolean()).isTrue();
+        assertThat(entry.has("sampleRate")).isFalse();
+        assertThat(entry.get("durationMs").asDouble()).isEqualTo(150);
+        assertThat(entry.get("connectionWaitMs").asDouble()).isEqualTo(2);
+        assertThat(entry.get("rows").asLong()).isEqualTo(3);
+        assertThat(entry.get("sql").asText()).isEqualTo("SELECT * FROM device WHERE brand = ?");
+        assertThat(entry.get("parameters").get(0).asText()).isEqualTo("A very lon...");
+        assertThat(entry.get("parameters").get(1).isNull()).isTrue();
+        assertThat(context.statements()).isEqualTo(1);
+        assertThat(context.databaseNanos()).isEqualTo(150 * MILLIS);
+    }
+
+    @Test
+    void statementAndRequest_ShouldNotBeLogged_ForAWarmupRequest() {
+        // Arrange
+        SlowLog slowLog = new SlowLog(properties, new AdaptiveSampler(1), new AdaptiveSampler(1), clock);
+        SlowLogContext context = new SlowLogContext("trace-1", true);
+        SlowLogContext.bind(context);
+
+        // Act
+        slowLog.statement("SELECT 1", List.of(), 1L, null, 150 * MILLIS, 0, null);
+        slowLog.request(context, 600 * MILLIS, "GET", "/api/device/7", "/api/device/{id}", null, null, 200);
+
+        // Assert
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void statement_ShouldNotLogAFastStatement_WhenItIsNotSampled() {
+        // Arrange
+        SlowLog slowLog = new SlowLog(properties, new AdaptiveSampler(0), new AdaptiveSampler(0), clock);
+
+        // Act
+        slowLog.statement("SELECT 1", List.of(), 1L, null, 5 * MILLIS, 0, null);
+
+        // Assert
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void statement_ShouldLogASampledFastStatementWithItsSampleRate() throws Exception {
+        // Arrange
+        SlowLog slowLog = new SlowLog(properties, new AdaptiveSampler(10), new AdaptiveSampler(0), clock);
+
+        // Act
+        slowLog.statement("UPDATE device SET name = ? WHERE id = ?", List.of("Phone", 1), 1L, 2,
+                5 * MILLIS, 0, null);
+
+        // Assert
+        assertThat(appender.list).hasSize(1);
+        assertThat(appender.list.get(0).getLevel()).isEqualTo(Level.INFO);
+        JsonNode entry = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertThat(entry.get("slow").asBoolean()).isFalse();
+        assertThat(entry.get("sampleRate").asDouble()).isEqualTo(1);
+        assertThat(entry.get("batchSize").asInt()).isEqualTo(2);
+        assertThat(entry.has("traceId")).isFalse();
+    }
+
+    @Test
+    void request_ShouldLogASlowRequestWithTheDatabaseTimeOfItsStatements() throws Exception {
+        // Arrange
+        SlowLog slowLog = new SlowLog(properties, new AdaptiveSampler(0), new AdaptiveSampler(0), clock);
+        SlowLogContext context = new SlowLogContext("trace-2");
+        context.connectionWaited(3 * MILLIS);
+        context.statement(200 * MILLIS);
+        context.statement(100 * MILLIS);
+
+        // Act
+        slowLog.request(context, 600 * MILLIS, "GET", "/api/device/brand/Apple", "/api/device/brand/{brand}",
+                Map.of("brand", "Apple"), null, 200);
+
+        // Assert
+        JsonNode entry = objectMapper.readTree(appender.list.get(0).getFormattedMessage());
+        assertThat(entry.get("type").asText()).isEqualTo("request");
+        assertThat(entry.get("traceId").asText()).isEqualTo("trace-2");
+        assertThat(entry.get("durationMs").asDouble()).isEqualTo(600);
+        assertThat(entry.get("pattern").asText()).isEqualTo("/api/device/brand/{brand}");
+        assertThat(entry.get("parameters").get("brand").asText()).isEqualTo("Apple");
+        assertThat(entry.get("status").asInt()).isEqualTo(200);
+        assertThat(entry.get("statements").asInt()).isEqualTo(2);
+        assertThat(entry.get("databaseMs").asDouble()).isEqualTo(300);
+        assertThat(entry.get("connectionWaitMs").asDouble()).isEqualTo(3);
+    }
+}
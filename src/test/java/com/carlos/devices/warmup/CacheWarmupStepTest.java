@@ -0,0 +1,82 @@
+package com.carlos.devices.warmup;
+
+import com.carlos.devices.domain.DeviceCatalog;
+import com.carlos.devices.repository.filter.DeviceIdFilterLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CacheWarmupStep}.
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheWarmupStepTest {
+
+    @Mock
+    private DeviceCatalog catalog;
+
+    @Mock
+    private DeviceIdFilterLoader idFilterLoader;
+
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+    private final WarmupProgress.Stage stage = new WarmupProgress().stage("caches");
+
+    private CacheWarmupStep step() {
+        return new CacheWarmupStep(beanFactory.getBeanProvider(DeviceCatalog.class),
+                beanFactory.getBeanProvider(DeviceIdFilterLoader.class));
+    }
+
+    @Test
+    void run_ShouldBeSkipped_WhenNoCacheIsEnabled() throws InterruptedException {
+        // Arrange
+        stage.start(System.nanoTime() + Duration.ofSeconds(5).toNanos());
+
+        // Act
+        step().run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.status()).isEqualTo(WarmupProgress.Status.SKIPPED);
+    }
+
+    @Test
+    void run_ShouldWaitUntilTheCachesAreLoaded() throws InterruptedException {
+        // Arrange
+        beanFactory.addBean("catalog", catalog);
+        beanFactory.addBean("idFilterLoader", idFilterLoader);
+        when(catalog.isLoaded()).thenReturn(false, false, true);
+        when(idFilterLoader.isInitialized()).thenReturn(false, true);
+        stage.start(System.nanoTime() + Duration.ofSeconds(5).toNanos());
+
+        // Act
+        step().run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.status()).isEqualTo(WarmupProgress.Status.COMPLETED);
+        assertThat(stage.completed()).isEqualTo(2);
+    }
+
+    @Test
+    void run_ShouldTimeOut_WhenACacheIsNotLoadedInTime() throws InterruptedException {
+        // Arrange
+        beanFactory.addBean("catalog", catalog);
+        when(catalog.isLoaded()).thenReturn(false);
+        stage.start(System.nanoTime() + Duration.ofMillis(100).toNanos());
+
+        // Act
+        step().run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.status()).isEqualTo(WarmupProgress.Status.TIMED_OUT);
+        assertThat(stage.completed()).isZero();
+    }
+}
@@ -0,0 +1,85 @@
+package com.carlos.devices.warmup;
+
+import com.carlos.devices.repository.routing.ReadYourWritesTracker;
+import com.carlos.devices.repository.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ConnectionPoolWarmupStep}, with real Hikari pools of mocked connections.
+ */
+class ConnectionPoolWarmupStepTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final WarmupProgress.Stage stage = new WarmupProgress().stage("connection-pool");
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(String name, int minimumIdle) throws SQLException {
+        DataSource connections = mock(DataSource.class);
+        when(connections.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setDataSource(connections);
+        pool.setMaximumPoolSize(minimumIdle * 2);
+        pool.setMinimumIdle(minimumIdle);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Test
+    void run_ShouldFillThePrimaryAndReplicaPools_BehindTheRoutingProxy() throws SQLException {
+        // Arrange
+        HikariDataSource primary = pool("primary", 3);
+        HikariDataSource replica = pool("replica", 2);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                List.of(new ReplicaRoutingDataSource.Replica("replica-0", replica)), new ReadYourWritesTracker(Duration.ofSeconds(5)));
+        ConnectionPoolWarmupStep step = new ConnectionPoolWarmupStep(new LazyConnectionDataSourceProxy(routing));
+        stage.start(System.nanoTime() + Duration.ofSeconds(5).toNanos());
+
+        // Act
+        step.run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.completed()).isEqualTo(5);
+        // Connections the step borrowed from the pools, not lazy handles that never reached them
+        assertThat(primary.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(3);
+        assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isZero();
+        assertThat(replica.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(2);
+        assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isZero();
+        assertThat(stage.report().detail()).isEqualTo("5 connections open in 2 pools");
+    }
+
+    @Test
+    void run_ShouldFillTheSinglePool_WithoutRouting() throws SQLException {
+        // Arrange
+        HikariDataSource pool = pool("single", 4);
+        stage.start(System.nanoTime() + Duration.ofSeconds(5).toNanos());
+
+        // Act
+        new ConnectionPoolWarmupStep(pool).run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.completed()).isEqualTo(4);
+        assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(4);
+        assertThat(pool.getHikariPoolMXBean().getActiveConnections()).isZero();
+    }
+}
@@ -0,0 +1,145 @@
+package com.carlos.devices.warmup;
+
+import com.carlos.devices.admission.AimdLimiter;
+import com.carlos.devices.hotkeys.HotKeyTracker;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for {@link RequestMixWarmupStep}, against a local HTTP server standing in for the application.
+ */
+@ExtendWith(MockitoExtension.class)
+class RequestMixWarmupStepTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    @Mock
+    private AimdLimiter readLimiter;
+
+    @Mock
+    private AimdLimiter writeLimiter;
+
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+    private final Queue<String> warmupHeaders = new ConcurrentLinkedQueue<>();
+    private final WarmupProgress.Stage stage = new WarmupProgress().stage("request-mix");
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/device", exchange -> {
+            received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawPath());
+            warmupHeaders.add(String.valueOf(exchange.getRequestHeaders().getFirst(RequestMixWarmupStep.WARMUP_HEADER)));
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(exchange.getRequestMethod().equals("POST") ? 400 : 404, -1);
+            exchange.close();
+        });
+        server.start();
+        stage.start(System.nanoTime() + Duration.ofSeconds(30).toNanos());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private RequestMixWarmupStep step(int requests) {
+        return new RequestMixWarmupStep(jdbcTemplate, environment, new WarmupProperties(true, Duration.ofSeconds(30), requests, 3),
+                beanFactory.getBeanProvider(HotKeyTracker.class), beanFactory.getBeanProvider(AimdLimiter.class));
+    }
+
+    @Test
+    void run_ShouldSendTheRequestsOfTheMix() throws Exception {
+        // Arrange
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+
+        // Act
+        step(100).run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.status()).isEqualTo(WarmupProgress.Status.COMPLETED);
+        assertThat(stage.completed()).isEqualTo(100);
+        assertThat(received).hasSize(100)
+                .allMatch(request -> request.equals("GET /api/device/" + RequestMixWarmupStep.MISSING_ID)
+                        || request.equals("POST /api/device"));
+    }
+
+    @Test
+    void run_ShouldMarkTheRequestsAsWarmup_AndResetTheHotKeysAndLimitsAfterThem() throws Exception {
+        // Arrange
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+        beanFactory.addBean("hotKeyTracker", hotKeyTracker);
+        beanFactory.addBean("readLimiter", readLimiter);
+        beanFactory.addBean("writeLimiter", writeLimiter);
+
+        // Act
+        step(20).run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(warmupHeaders).hasSize(20).containsOnly("true");
+        verify(hotKeyTracker).clear();
+        verify(readLimiter).reset();
+        verify(writeLimiter).reset();
+    }
+
+    @Test
+    void run_ShouldBeSkipped_WithoutAWebServer() throws Exception {
+        // Act
+        step(100).run(stage);
+        stage.finish();
+
+        // Assert
+        assertThat(stage.status()).isEqualTo(WarmupProgress.Status.SKIPPED);
+        assertThat(received).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void mix_ShouldLookUpTheSampledDevicesAndBrands() throws Exception {
+        // Act
+        List<HttpRequest> mix = RequestMixWarmupStep.mix(8080, List.of(3, 2, 1), List.of("Brand A", "Brand B"));
+
+        // Assert
+        Map<String, Long> counts = mix.stream()
+                .map(request -> request.method() + " " + request.uri().getRawPath())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertThat(mix).hasSize(100);
+        assertThat(counts).containsEntry("GET /api/device/3", 20L)
+                .containsEntry("GET /api/device/brand/Brand%20A", 10L)
+                .containsEntry("GET /api/device/brand/Brand%20B", 10L)
+                .containsEntry("GET /api/device/" + RequestMixWarmupStep.MISSING_ID, 15L)
+                .containsEntry("POST /api/device", 5L);
+    }
+}
@@ -0,0 +1,121 @@
+package com.carlos.devices.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Unit tests for {@link WarmupRunner} and the {@link WarmupProgress} it reports.
+ */
+class WarmupRunnerTest {
+
+    private final WarmupProgress progress = new WarmupProgress();
+
+    private record Step(String name, Action action) implements WarmupStep {
+
+        interface Action {
+            void run(WarmupProgress.Stage stage) throws Exception;
+        }
+
+        @Override
+        public void run(WarmupProgress.Stage stage) throws Exception {
+            action.run(stage);
+        }
+    }
+
+    private void run(Duration timeout, WarmupStep... steps) {
+        new WarmupRunner(List.of(steps), progress, new WarmupProperties(true, timeout, 10, 1))
+                .run(new DefaultApplicationArguments());
+    }
+
+    @Test
+    void report_ShouldListThePendingSteps_BeforeTheWarmupStarts() {
+        // Arrange
+        WarmupProgress.Stage first = progress.stage("first");
+
+        // Act
+        WarmupProgress.Report report = progress.report();
+
+        // Assert
+        assertThat(report.status()).isEqualTo(WarmupProgress.Status.PENDING);
+        assertThat(report.durationMs()).isNull();
+        assertThat(report.stages()).containsExactly(
+                new WarmupProgress.StageReport(first.name(), WarmupProgress.Status.PENDING, 0, 0, null, null));
+    }
+
+    @Test
+    void run_ShouldReportTheProgressOfEachStep() {
+        // Arrange
+        Step counting = new Step("counting", stage -> {
+            stage.total(3);
+            for (int i = 0; i < 3; i++) {
+                stage.advance();
+            }
+            stage.detail("3 things warmed up");
+        });
+        Step skipped = new Step("skipped", stage -> stage.skip("nothing to warm up"));
+
+        // Act
+        run(Duration.ofMinutes(1), counting, skipped);
+
+        // Assert
+        WarmupProgress.Report report = progress.report();
+        assertThat(report.status()).isEqualTo(WarmupProgress.Status.COMPLETED);
+        assertThat(report.startedAt()).isNotNull();
+        assertThat(report.durationMs()).isNotNull();
+        assertThat(report.stages()).extracting(WarmupProgress.StageReport::name, WarmupProgress.StageReport::status,
+                        WarmupProgress.StageReport::completed, WarmupProgress.StageReport::total,
+                        WarmupProgress.StageReport::detail)
+                .containsExactly(
+                        tuple("counting", WarmupProgress.Status.COMPLETED, 3L, 3L, "3 things warmed up"),
+                        tuple("skipped", WarmupProgress.Status.SKIPPED, 0L, 0L, "nothing to warm up"));
+        assertThat(report.stages().getFirst().durationMs()).isNotNull();
+    }
+
+    @Test
+    void run_ShouldGoOnWithTheNextStep_WhenAStepFails() {
+        // Arrange
+        Step failing = new Step("failing", stage -> {
+            throw new SQLException("Connection refused");
+        });
+        Step next = new Step("next", stage -> stage.total(0));
+
+        // Act
+        run(Duration.ofMinutes(1), failing, next);
+
+        // Assert
+        assertThat(progress.report().stages()).extracting(WarmupProgress.StageReport::status)
+                .containsExactly(WarmupProgress.Status.FAILED, WarmupProgress.Status.COMPLETED);
+        assertThat(progress.report().stages().getFirst().detail()).contains("Connection refused");
+    }
+
+    @Test
+    void run_ShouldCutTheStepsShort_WhenTheTimeoutIsReached() {
+        // Arrange
+        Step slow = new Step("slow", stage -> {
+            stage.total(1_000_000);
+            while (!stage.expired()) {
+                stage.advance();
+                Thread.sleep(1);
+            }
+        });
+        Step notStarted = new Step("not-started", stage -> stage.total(1));
+
+        // Act
+        run(Duration.ofMillis(50), slow, notStarted);
+
+        // Assert
+        WarmupProgress.Report report = progress.report();
+        assertThat(report.status()).isEqualTo(WarmupProgress.Status.COMPLETED);
+        assertThat(report.stages()).extracting(WarmupProgress.StageReport::status)
+                .containsExactly(WarmupProgress.Status.TIMED_OUT, WarmupProgress.Status.TIMED_OUT);
+        assertThat(report.stages().getFirst().completed()).isPositive().isLessThan(1_000_000);
+        assertThat(report.stages().get(1).durationMs()).isNull();
+    }
+}